@@ -479,7 +479,7 @@ export default function InspectionReportModal({
                     <div className="report-step-photo">
                       <span className="photo-label">Foto:</span>
                       <img
-                        src={`${BACKEND_URL}/api/files/${step.photoPath}`}
+                        src={`${BACKEND_URL}/api/files/${step.photoPath}?size=display`}
                         alt="Step foto"
                       />
                     </div>
@@ -0,0 +1,97 @@
+import { useEffect, useState } from "react";
+import {
+  getTypeaheadSuggestions,
+  type TypeaheadSuggestion,
+  type TypeaheadType,
+} from "../services/api/typeaheadService";
+import "./TypeaheadInput.css";
+
+interface TypeaheadInputProps {
+  id: string;
+  type: TypeaheadType;
+  value: string;
+  placeholder?: string;
+  required?: boolean;
+  // Freitext-Eingaben (z.B. neue Anlage) werden über onChange gemeldet
+  onChange: (text: string) => void;
+  onSelect: (suggestion: TypeaheadSuggestion) => void;
+}
+
+// Wartezeit nach dem letzten Tastendruck, bevor der Server gefragt wird
+const DEBOUNCE_MS = 200;
+
+export default function TypeaheadInput({
+  id,
+  type,
+  value,
+  placeholder,
+  required,
+  onChange,
+  onSelect,
+}: TypeaheadInputProps) {
+  const [suggestions, setSuggestions] = useState<TypeaheadSuggestion[]>([]);
+  const [open, setOpen] = useState(false);
+
+  useEffect(() => {
+    if (!open || value.trim() === "") {
+      setSuggestions([]);
+      return;
+    }
+    let cancelled = false;
+    const timer = setTimeout(async () => {
+      try {
+        const result = await getTypeaheadSuggestions(type, value);
+        if (!cancelled) setSuggestions(result);
+      } catch (err) {
+        console.error(err);
+      }
+    }, DEBOUNCE_MS);
+    return () => {
+      cancelled = true;
+      clearTimeout(timer);
+    };
+  }, [type, value, open]);
+
+  const handleSelect = (suggestion: TypeaheadSuggestion) => {
+    onSelect(suggestion);
+    setOpen(false);
+    setSuggestions([]);
+  };
+
+  return (
+    <div className="typeahead">
+      <input
+        id={id}
+        type="text"
+        value={value}
+        placeholder={placeholder}
+        required={required}
+        autoComplete="off"
+        onChange={(e) => {
+          onChange(e.target.value);
+          setOpen(true);
+        }}
+        onBlur={() => setOpen(false)}
+      />
+      {open && suggestions.length > 0 && (
+        <ul className="typeahead-list" role="listbox">
+          {suggestions.map((s) => (
+            <li
+              key={`${s.type}-${s.id ?? s.label}`}
+              role="option"
+              aria-selected={false}
+              // mousedown statt click, damit onBlur die Liste nicht vorher schließt
+              onMouseDown={(e) => {
+                e.preventDefault();
+                handleSelect(s);
+              }}
+            >
+              <span>{s.label}</span>
+              {s.detail && <span className="typeahead-detail">{s.detail}</span>}
+            </li>
+          ))}
+        </ul>
+      )}
+    </div>
+  );
+}
@@ -1,4 +1,5 @@
 import React, { createContext, useState, useEffect } from "react";
+import api, { clearSession, storeTokens } from "../services/api/httpClient";
 
 export interface User {
   id: number;
@@ -41,27 +42,26 @@ export function AuthProvider({ children }: { children: React.ReactNode }) {
       method: "POST",
       headers: { "Content-Type": "application/json" },
       body: JSON.stringify({ username, password }),
-      credentials: "include",
     });
 
     if (!response.ok) {
       throw new Error("Login fehlgeschlagen");
     }
 
-    const userData: User = await response.json();
+    const data = await response.json();
+    const userData: User = data.user;
 
-    // Speichere die Base64-codierten Credentials für nachfolgende Requests
-    const basicAuth = btoa(`${username}:${password}`);
-    localStorage.setItem("credentials", basicAuth);
+    // Speichere die Tokens für nachfolgende Requests (Passwort wird nicht gespeichert)
+    storeTokens(data);
 
     setUser(userData);
     localStorage.setItem("user", JSON.stringify(userData));
   };
 
   const logout = () => {
+    // Tokens serverseitig widerrufen; lokal wird in jedem Fall abgemeldet
+    api.post("/auth/logout").catch(() => undefined).finally(clearSession);
     setUser(null);
-    localStorage.removeItem("user");
-    localStorage.removeItem("credentials");
   };
 
   return (
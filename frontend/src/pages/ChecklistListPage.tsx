@@ -36,6 +36,7 @@ export default function ChecklistListPage() {
   }, []);
 
   const handleDelete = async (id: number, name: string) => {
+    // Checklisten, auf denen Inspections basieren, werden nur archiviert
     if (!window.confirm(`Checklist "${name}" wirklich löschen?`)) {
       return;
     }
@@ -44,22 +45,9 @@ export default function ChecklistListPage() {
     try {
       await api.delete(`/checklists/${id}`);
       setChecklists(checklists.filter((c) => c.id !== id));
-    } catch (err: any) {
+    } catch (err) {
       console.error(err);
-
-      if (err.response?.status === 409) {
-        const message = err.response.data.message || "";
-        const match = message.match(/\d+/);
-        const count = match ? parseInt(match[0], 10) : 0;
-
-        setError(
-          `Checklist kann nicht gelöscht werden: ${count} Inspection${
-            count !== 1 ? "en" : ""
-          } basiert${count !== 1 ? "en" : ""} auf dieser Checklist.`
-        );
-      } else {
-        setError("Fehler beim Löschen der Checklist");
-      }
+      setError("Fehler beim Löschen der Checklist");
     } finally {
       setDeleting(null);
     }
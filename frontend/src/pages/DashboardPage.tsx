@@ -1,5 +1,10 @@
 import { useEffect, useState } from "react";
 import api from "../services/api/httpClient";
+import {
+  getInspectionPage,
+  getInspectionStats,
+  type InspectionStatusCounts,
+} from "../services/api/inspectionService";
 import { useAuth } from "../context/useAuth";
 import "./DashboardPage.css";
 
@@ -8,31 +13,59 @@ interface Inspection {
   title: string;
   status: "PLANNED" | "IN_PROGRESS" | "COMPLETED";
   plantName: string;
-  assignedInspector: { id: number; displayName: string };
+  inspectorDisplayName: string | null;
+  stepCount: number;
+  passedCount: number;
+  failedCount: number;
 }
 
 type StatusFilter = "PLANNED" | "IN_PROGRESS" | "COMPLETED";
 
+const PAGE_SIZE = 50;
+
 export default function DashboardPage() {
   const { user } = useAuth();
+  const [counts, setCounts] = useState<InspectionStatusCounts | null>(null);
   const [inspections, setInspections] = useState<Inspection[]>([]);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
   const [loading, setLoading] = useState(true);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [error, setError] = useState<string | null>(null);
   const [selectedStatus, setSelectedStatus] = useState<StatusFilter>("PLANNED");
 
+  const isAdmin = user?.role === "ADMIN";
+
+  // Kennzahlen: serverseitig per GROUP BY gezählt
+  useEffect(() => {
+    getInspectionStats()
+      .then((stats) => setCounts(stats.counts))
+      .catch((err) => {
+        console.error(err);
+        setError("Fehler beim Laden der Kennzahlen");
+      });
+  }, [user?.id]);
+
+  // Tabelle: nur die Inspektionen des gewählten Status laden
   useEffect(() => {
     const fetchInspections = async () => {
       try {
         setError(null);
-        let response;
 
-        if (user?.role === "ADMIN") {
-          response = await api.get("/inspections");
+        if (isAdmin) {
+          const page = await getInspectionPage<Inspection>(
+            { status: selectedStatus },
+            null,
+            PAGE_SIZE
+          );
+          setInspections(page.items);
+          setNextCursor(page.nextCursor);
         } else {
-          response = await api.get(`/inspections/by-user/${user?.id}`);
+          const response = await api.get(`/inspections/by-user/${user?.id}`, {
+            params: { status: selectedStatus },
+          });
+          setInspections(response.data);
+          setNextCursor(null);
         }
-
-        setInspections(response.data);
       } catch (err) {
         console.error(err);
         setError("Fehler beim Laden der Inspektionen");
@@ -42,17 +75,30 @@ export default function DashboardPage() {
     };
 
     fetchInspections();
-  }, [user?.id, user?.role]);
+  }, [user?.id, isAdmin, selectedStatus]);
 
-  const planned = inspections.filter((i) => i.status === "PLANNED").length;
-  const inProgress = inspections.filter(
-    (i) => i.status === "IN_PROGRESS"
-  ).length;
-  const completed = inspections.filter((i) => i.status === "COMPLETED").length;
+  const loadMore = async () => {
+    if (!nextCursor) return;
+    try {
+      setLoadingMore(true);
+      const page = await getInspectionPage<Inspection>(
+        { status: selectedStatus },
+        nextCursor,
+        PAGE_SIZE
+      );
+      setInspections((prev) => [...prev, ...page.items]);
+      setNextCursor(page.nextCursor);
+    } catch (err) {
+      console.error(err);
+      setError("Fehler beim Laden der Inspektionen");
+    } finally {
+      setLoadingMore(false);
+    }
+  };
 
-  const filteredInspections = inspections.filter(
-    (i) => i.status === selectedStatus
-  );
+  const planned = counts?.PLANNED ?? 0;
+  const inProgress = counts?.IN_PROGRESS ?? 0;
+  const completed = counts?.COMPLETED ?? 0;
 
   const getStatusLabel = (status: StatusFilter) => {
     switch (status) {
@@ -132,7 +178,7 @@ export default function DashboardPage() {
       </section>
 
       <section className="dashboard-section">
-        {filteredInspections.length === 0 ? (
+        {inspections.length === 0 ? (
           <p className="text-muted">
             Keine Inspektionen im Status "{getStatusLabel(selectedStatus)}".
           </p>
@@ -148,11 +194,11 @@ export default function DashboardPage() {
                 </tr>
               </thead>
               <tbody>
-                {filteredInspections.map((inspection) => (
+                {inspections.map((inspection) => (
                   <tr key={inspection.id}>
                     <td className="cell-title">{inspection.title}</td>
                     <td>{inspection.plantName}</td>
-                    <td>{inspection.assignedInspector?.displayName}</td>
+                    <td>{inspection.inspectorDisplayName}</td>
                     <td>
                       <a
                         href={`/inspections/${inspection.id}`}
@@ -167,6 +213,18 @@ export default function DashboardPage() {
             </table>
           </div>
         )}
+
+        {nextCursor && (
+          <div className="load-more">
+            <button
+              className="btn-secondary"
+              onClick={loadMore}
+              disabled={loadingMore}
+            >
+              {loadingMore ? "Lädt..." : "Weitere laden"}
+            </button>
+          </div>
+        )}
       </section>
     </div>
   );
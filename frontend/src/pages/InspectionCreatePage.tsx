@@ -1,24 +1,11 @@
-import { useState, useEffect } from "react";
+import { useState } from "react";
 import { useNavigate } from "react-router-dom";
 import api from "../services/api/httpClient";
+import TypeaheadInput from "../components/TypeaheadInput";
 import "./InspectionCreatePage.css";
 
-interface Checklist {
-  id: number;
-  name: string;
-  plantName: string;
-}
-
-interface User {
-  id: number;
-  displayName: string;
-}
-
 export default function InspectionCreatePage() {
   const navigate = useNavigate();
-  const [checklists, setChecklists] = useState<Checklist[]>([]);
-  const [users, setUsers] = useState<User[]>([]);
-  const [loading, setLoading] = useState(true);
   const [error, setError] = useState<string | null>(null);
   const [isSubmitting, setIsSubmitting] = useState(false);
 
@@ -30,28 +17,12 @@ export default function InspectionCreatePage() {
     plannedDate: "",
   });
 
-  useEffect(() => {
-    const fetchData = async () => {
-      try {
-        const [checklistsRes, usersRes] = await Promise.all([
-          api.get("/checklists"),
-          api.get("/users"),
-        ]);
-        setChecklists(checklistsRes.data);
-        setUsers(usersRes.data);
-      } catch (err) {
-        console.error(err);
-        setError("Fehler beim Laden der Daten");
-      } finally {
-        setLoading(false);
-      }
-    };
-
-    fetchData();
-  }, []);
+  // Angezeigter Text der Typeahead-Felder; die IDs stehen in formData
+  const [checklistText, setChecklistText] = useState("");
+  const [inspectorText, setInspectorText] = useState("");
 
   const handleChange = (
-    e: React.ChangeEvent<HTMLInputElement | HTMLSelectElement>
+    e: React.ChangeEvent<HTMLInputElement>
   ) => {
     setFormData({
       ...formData,
@@ -83,8 +54,6 @@ export default function InspectionCreatePage() {
     }
   };
 
-  if (loading) return <p className="text-muted">Lädt Formulardaten...</p>;
-
   return (
     <div className="inspection-create">
       <div className="detail-header">
@@ -120,52 +89,59 @@ export default function InspectionCreatePage() {
             <div className="form-row">
               <div className="form-group">
                 <label htmlFor="checklistId">Checkliste *</label>
-                <select
+                <TypeaheadInput
                   id="checklistId"
-                  name="checklistId"
-                  value={formData.checklistId}
-                  onChange={handleChange}
+                  type="CHECKLIST"
+                  value={checklistText}
+                  placeholder="Name der Checkliste"
                   required
-                >
-                  <option value="">-- Checkliste wählen --</option>
-                  {checklists.map((c) => (
-                    <option key={c.id} value={c.id}>
-                      {c.name}
-                    </option>
-                  ))}
-                </select>
+                  onChange={(text) => {
+                    setChecklistText(text);
+                    setFormData({ ...formData, checklistId: "" });
+                  }}
+                  onSelect={(s) => {
+                    setChecklistText(s.label);
+                    setFormData({
+                      ...formData,
+                      checklistId: String(s.id),
+                      // Anlage der Checkliste übernehmen, falls noch leer
+                      plantName: formData.plantName || s.detail || "",
+                    });
+                  }}
+                />
               </div>
 
               <div className="form-group">
                 <label htmlFor="assignedInspectorId">
                   Verantwortlicher Inspector *
                 </label>
-                <select
+                <TypeaheadInput
                   id="assignedInspectorId"
-                  name="assignedInspectorId"
-                  value={formData.assignedInspectorId}
-                  onChange={handleChange}
+                  type="USER"
+                  value={inspectorText}
+                  placeholder="Name des Inspectors"
                   required
-                >
-                  <option value="">-- Inspector wählen --</option>
-                  {users.map((u) => (
-                    <option key={u.id} value={u.id}>
-                      {u.displayName}
-                    </option>
-                  ))}
-                </select>
+                  onChange={(text) => {
+                    setInspectorText(text);
+                    setFormData({ ...formData, assignedInspectorId: "" });
+                  }}
+                  onSelect={(s) => {
+                    setInspectorText(s.label);
+                    setFormData({ ...formData, assignedInspectorId: String(s.id) });
+                  }}
+                />
               </div>
             </div>
 
             <div className="form-group">
               <label htmlFor="plantName">Anlage</label>
-              <input
+              <TypeaheadInput
                 id="plantName"
-                type="text"
-                name="plantName"
+                type="PLANT"
                 value={formData.plantName}
-                onChange={handleChange}
                 placeholder="z.B. Lagerbereich A"
+                onChange={(text) => setFormData({ ...formData, plantName: text })}
+                onSelect={(s) => setFormData({ ...formData, plantName: s.label })}
               />
             </div>
 
@@ -185,7 +161,12 @@ export default function InspectionCreatePage() {
         <div className="form-actions">
           <button
             type="submit"
-            disabled={isSubmitting || !formData.title || !formData.checklistId}
+            disabled={
+              isSubmitting ||
+              !formData.title ||
+              !formData.checklistId ||
+              !formData.assignedInspectorId
+            }
             className="btn-primary btn-lg"
           >
             {isSubmitting ? "Wird erstellt..." : "Inspektion erstellen"}
@@ -1,6 +1,7 @@
-import { useEffect, useState } from "react";
+import { useEffect, useRef, useState } from "react";
 import { useParams, useNavigate } from "react-router-dom";
 import api from "../services/api/httpClient";
+import { subscribeInspectionEvents } from "../services/api/inspectionService";
 import InspectionReportModal from "../components/InspectionReportModal";
 import "./InspectionDetailPage.css";
 
@@ -12,6 +13,19 @@ interface InspectionStep {
   checklistStep: { id: number; description: string };
 }
 
+// Weiteres Foto eines Schritts (mehrere pro Schritt möglich)
+interface StepAttachment {
+  id: number;
+  inspectionStepId: number;
+  filename: string;
+}
+
+// Änderung an einem Schritt, die noch nicht an das Backend übertragen wurde
+type StepChange = Partial<Pick<InspectionStep, "status" | "comment" | "photoPath">>;
+
+// Wartezeit nach der letzten Änderung, bevor gesammelte Änderungen gesendet werden
+const FLUSH_DELAY_MS = 1500;
+
 interface Inspection {
   id: number;
   title: string;
@@ -36,10 +50,16 @@ export default function InspectionDetailPage() {
   const [uploadingPhotoStepId, setUploadingPhotoStepId] = useState<
     number | null
   >(null);
+  const [attachments, setAttachments] = useState<Map<number, StepAttachment[]>>(
+    new Map()
+  );
   const [editingComments, setEditingComments] = useState<Map<number, string>>(
     new Map()
   );
   const [showReport, setShowReport] = useState(false);
+  const [pendingCount, setPendingCount] = useState(0);
+  const pendingChanges = useRef<Map<number, StepChange>>(new Map());
+  const flushTimer = useRef<number | undefined>(undefined);
 
   useEffect(() => {
     const fetchData = async () => {
@@ -50,16 +70,16 @@ export default function InspectionDetailPage() {
       }
 
       try {
-        const inspectionRes = await api.get(`/inspections/${inspectionId}`);
-        setInspection(inspectionRes.data);
-
-        let stepsData: InspectionStep[] = [];
-        try {
-          const stepsRes = await api.get(`/inspections/${inspectionId}/steps`);
-          stepsData = stepsRes.data;
-        } catch (stepErr) {
-          console.warn("Failed to fetch steps:", stepErr);
-        }
+        // Inspection und Schritte kommen in einem einzigen Request, die
+        // Anhänge aller Schritte in einem zweiten
+        const [detailRes, attachmentsRes] = await Promise.all([
+          api.get<Inspection & { steps: InspectionStep[] }>(
+            `/inspections/${inspectionId}/detail`
+          ),
+          api.get<StepAttachment[]>(`/inspections/${inspectionId}/attachments`),
+        ]);
+        const { steps: stepsData, ...inspectionData } = detailRes.data;
+        setInspection(inspectionData);
 
         setSteps(stepsData);
         const commentsMap = new Map<number, string>();
@@ -67,6 +87,14 @@ export default function InspectionDetailPage() {
           commentsMap.set(step.id, step.comment || "");
         });
         setEditingComments(commentsMap);
+
+        const attachmentsMap = new Map<number, StepAttachment[]>();
+        attachmentsRes.data.forEach((attachment) => {
+          const list = attachmentsMap.get(attachment.inspectionStepId) || [];
+          list.push(attachment);
+          attachmentsMap.set(attachment.inspectionStepId, list);
+        });
+        setAttachments(attachmentsMap);
       } catch (err) {
         console.error("Error details:", err);
         setError("Fehler beim Laden der Inspection");
@@ -140,51 +168,112 @@ export default function InspectionDetailPage() {
 
   const isInProgress = inspection?.status === "IN_PROGRESS";
 
-  const updateStepStatus = async (stepId: number, newStatus: string) => {
-    setIsUpdating(true);
+  /**
+   * Sendet alle gesammelten Schritt-Änderungen in einem Request. Änderungen,
+   * die während des Requests entstehen, bleiben für den nächsten Durchlauf
+   * vorgemerkt.
+   */
+  const flushStepChanges = async (): Promise<boolean> => {
+    window.clearTimeout(flushTimer.current);
+    if (pendingChanges.current.size === 0) return true;
+
+    const sent = pendingChanges.current;
+    pendingChanges.current = new Map();
+    setPendingCount(0);
     try {
-      await api.patch(`/inspection-steps/${stepId}/status`, newStatus, {
-        headers: {
-          "Content-Type": "text/plain",
-        },
-      });
-
+      const response = await api.patch<InspectionStep[]>(
+        `/inspections/${inspectionId}/steps`,
+        {
+          changes: [...sent].map(([stepId, change]) => ({ stepId, ...change })),
+        }
+      );
+      // Server-Stand übernehmen, neuere lokale Änderungen haben Vorrang
       setSteps(
-        steps.map((s) =>
-          s.id === stepId ? { ...s, status: newStatus as any } : s
-        )
+        response.data.map((s) => ({
+          ...s,
+          ...pendingChanges.current.get(s.id),
+        }))
       );
+      return true;
     } catch (err: any) {
       console.error(
-        "Error updating step status:",
+        "Error saving step changes:",
         err.response?.data || err.message
       );
-      alert("Fehler beim Aktualisieren des Status");
-    } finally {
-      setIsUpdating(false);
+      sent.forEach((change, stepId) =>
+        pendingChanges.current.set(stepId, {
+          ...change,
+          ...pendingChanges.current.get(stepId),
+        })
+      );
+      setPendingCount(pendingChanges.current.size);
+      alert("Fehler beim Speichern der Änderungen");
+      return false;
     }
   };
 
+  const queueStepChange = (stepId: number, change: StepChange) => {
+    pendingChanges.current.set(stepId, {
+      ...pendingChanges.current.get(stepId),
+      ...change,
+    });
+    setPendingCount(pendingChanges.current.size);
+    setSteps((prev) =>
+      prev.map((s) => (s.id === stepId ? { ...s, ...change } : s))
+    );
+    window.clearTimeout(flushTimer.current);
+    flushTimer.current = window.setTimeout(flushStepChanges, FLUSH_DELAY_MS);
+  };
+
+  // Änderungen anderer Clients live übernehmen, eigene ungesendete haben Vorrang
+  useEffect(() => {
+    if (!inspectionId) {
+      return;
+    }
+    return subscribeInspectionEvents(
+      { inspectionId: Number(inspectionId) },
+      (event) => {
+        if (event.type === "stepStatus" && event.stepId != null) {
+          if (pendingChanges.current.has(event.stepId)) {
+            return;
+          }
+          setSteps((prev) =>
+            prev.map((s) =>
+              s.id === event.stepId
+                ? { ...s, status: event.status as InspectionStep["status"] }
+                : s
+            )
+          );
+        } else if (event.type === "inspectionStatus") {
+          setInspection((prev) =>
+            prev
+              ? { ...prev, status: event.status as Inspection["status"] }
+              : prev
+          );
+        }
+      }
+    );
+  }, [inspectionId]);
+
+  // Beim Verlassen der Seite noch offene Änderungen senden
+  useEffect(() => {
+    return () => {
+      flushStepChanges();
+    };
+    // eslint-disable-next-line react-hooks/exhaustive-deps
+  }, []);
+
+  const updateStepStatus = (stepId: number, newStatus: string) => {
+    queueStepChange(stepId, { status: newStatus as InspectionStep["status"] });
+  };
+
   const updateStepComment = async (stepId: number) => {
     setSavingCommentStepId(stepId);
     try {
-      const comment = editingComments.get(stepId) || "";
-      await api.patch(`/inspection-steps/${stepId}/comment`, comment, {
-        headers: {
-          "Content-Type": "text/plain",
-        },
-      });
-
-      setSteps(
-        steps.map((s) => (s.id === stepId ? { ...s, comment: comment } : s))
-      );
-      alert("Kommentar erfolgreich gespeichert!");
-    } catch (err: any) {
-      console.error(
-        "Error updating step comment:",
-        err.response?.data || err.message
-      );
-      alert("Fehler beim Aktualisieren des Kommentars");
+      queueStepChange(stepId, { comment: editingComments.get(stepId) || "" });
+      if (await flushStepChanges()) {
+        alert("Kommentar erfolgreich gespeichert!");
+      }
     } finally {
       setSavingCommentStepId(null);
     }
@@ -215,9 +304,36 @@ export default function InspectionDetailPage() {
     }
   };
 
+  // Alle ausgewählten Fotos gehen in einem Request an das Backend
+  const uploadAttachments = async (stepId: number, files: FileList) => {
+    setUploadingPhotoStepId(stepId);
+    try {
+      const formData = new FormData();
+      Array.from(files).forEach((file) => formData.append("files", file));
+
+      const response = await api.post<StepAttachment[]>(
+        `/inspection-steps/${stepId}/attachments`,
+        formData
+      );
+
+      setAttachments((current) => {
+        const next = new Map(current);
+        next.set(stepId, [...(current.get(stepId) || []), ...response.data]);
+        return next;
+      });
+    } catch (err: any) {
+      console.error("Error uploading photos:", err);
+      alert(err.response?.data?.message || "Fehler beim Foto-Upload");
+    } finally {
+      setUploadingPhotoStepId(null);
+    }
+  };
+
   const updateInspectionStatus = async (newStatus: string) => {
     setIsUpdating(true);
     try {
+      // Offene Schritt-Änderungen vor dem Statuswechsel übernehmen
+      if (!(await flushStepChanges())) return;
       await api.patch(`/inspections/${inspectionId}/status`, newStatus, {
         headers: {
           "Content-Type": "text/plain",
@@ -299,6 +415,17 @@ export default function InspectionDetailPage() {
 
         <section className="detail-section">
           <h2>Prüfschritte ({steps.length})</h2>
+          {pendingCount > 0 && (
+            <p className="text-muted">
+              {pendingCount} ungespeicherte Änderung(en) …{" "}
+              <button
+                onClick={() => flushStepChanges()}
+                className="btn-primary btn-sm"
+              >
+                Jetzt speichern
+              </button>
+            </p>
+          )}
           {steps.length === 0 ? (
             <p className="text-muted">Keine Steps vorhanden</p>
           ) : (
@@ -397,6 +524,21 @@ export default function InspectionDetailPage() {
                             }}
                             disabled={uploadingPhotoStepId === step.id}
                           />
+                          <label>Weitere Fotos hochladen:</label>
+                          <input
+                            id={`attachments-${step.id}`}
+                            type="file"
+                            accept="image/*"
+                            multiple
+                            onChange={(e) => {
+                              const files = e.target.files;
+                              if (files && files.length > 0) {
+                                uploadAttachments(step.id, files);
+                              }
+                              e.target.value = "";
+                            }}
+                            disabled={uploadingPhotoStepId === step.id}
+                          />
                           {uploadingPhotoStepId === step.id && (
                             <p className="uploading">
                               Foto wird hochgeladen...
@@ -409,13 +551,29 @@ export default function InspectionDetailPage() {
                       {step.photoPath && (
                         <div className="photo-display">
                           <img
-                            src={`${BACKEND_URL}/api/files/${step.photoPath}`}
+                            src={`${BACKEND_URL}/api/files/${step.photoPath}?size=thumb`}
                             alt="Step photo"
+                            loading="lazy"
                           />
                         </div>
                       )}
 
-                      {!step.photoPath && !isInProgress && (
+                      {(attachments.get(step.id) || []).length > 0 && (
+                        <div className="photo-display attachment-gallery">
+                          {attachments.get(step.id)!.map((attachment) => (
+                            <img
+                              key={attachment.id}
+                              src={`${BACKEND_URL}/api/files/${attachment.filename}?size=thumb`}
+                              alt="Weiteres Foto"
+                              loading="lazy"
+                            />
+                          ))}
+                        </div>
+                      )}
+
+                      {!step.photoPath &&
+                        !(attachments.get(step.id) || []).length &&
+                        !isInProgress && (
                         <p className="text-muted">Kein Foto vorhanden</p>
                       )}
                     </div>
@@ -1,6 +1,6 @@
 import { useEffect, useState } from "react";
 import { Link, useNavigate } from "react-router-dom";
-import api from "../services/api/httpClient";
+import { getInspectionPage } from "../services/api/inspectionService";
 import { useAuth } from "../context/useAuth";
 import "./InspectionListPage.css";
 
@@ -9,7 +9,10 @@ interface Inspection {
   title: string;
   status: "PLANNED" | "IN_PROGRESS" | "COMPLETED";
   plantName: string;
-  assignedInspector: { id: number; displayName: string };
+  inspectorDisplayName: string | null;
+  stepCount: number;
+  passedCount: number;
+  failedCount: number;
 }
 
 export default function InspectionListPage() {
@@ -18,6 +21,8 @@ export default function InspectionListPage() {
   const [inspections, setInspections] = useState<Inspection[]>([]);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState<string | null>(null);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+  const [loadingMore, setLoadingMore] = useState(false);
 
   useEffect(() => {
     if (user?.role !== "ADMIN") {
@@ -30,8 +35,9 @@ export default function InspectionListPage() {
     const fetchInspections = async () => {
       try {
         setError(null);
-        const response = await api.get("/inspections");
-        setInspections(response.data);
+        const page = await getInspectionPage<Inspection>();
+        setInspections(page.items);
+        setNextCursor(page.nextCursor);
       } catch (err) {
         console.error(err);
         setError("Fehler beim Laden der Inspektionen");
@@ -45,6 +51,21 @@ export default function InspectionListPage() {
     }
   }, [user?.role]);
 
+  const loadMore = async () => {
+    if (!nextCursor) return;
+    try {
+      setLoadingMore(true);
+      const page = await getInspectionPage<Inspection>({}, nextCursor);
+      setInspections((prev) => [...prev, ...page.items]);
+      setNextCursor(page.nextCursor);
+    } catch (err) {
+      console.error(err);
+      setError("Fehler beim Laden der Inspektionen");
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   if (!user || user.role !== "ADMIN") {
     return <p className="text-muted">Zugriff verweigert</p>;
   }
@@ -89,7 +110,14 @@ export default function InspectionListPage() {
                 <div className="info-group">
                   <span className="info-label">Inspektor:</span>
                   <span className="info-value">
-                    {inspection.assignedInspector?.displayName}
+                    {inspection.inspectorDisplayName}
+                  </span>
+                </div>
+                <div className="info-group">
+                  <span className="info-label">Schritte:</span>
+                  <span className="info-value">
+                    {inspection.stepCount} ({inspection.passedCount} OK,{" "}
+                    {inspection.failedCount} Mängel)
                   </span>
                 </div>
               </div>
@@ -105,6 +133,18 @@ export default function InspectionListPage() {
           ))}
         </div>
       )}
+
+      {nextCursor && (
+        <div className="load-more">
+          <button
+            className="btn-secondary"
+            onClick={loadMore}
+            disabled={loadingMore}
+          >
+            {loadingMore ? "Lädt..." : "Weitere laden"}
+          </button>
+        </div>
+      )}
     </div>
   );
 }
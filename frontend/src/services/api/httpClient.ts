@@ -1,17 +1,45 @@
-import axios from "axios";
+import axios, { type InternalAxiosRequestConfig } from "axios";
+
+export const BASE_URL = "http://localhost:8080/api";
 
 const api = axios.create({
-  baseURL: "http://localhost:8080/api",
-  withCredentials: true, // Wichtig: Sendet Cookies mit
+  baseURL: BASE_URL,
 });
 
-// Request-Interceptor: Basic Auth Header hinzufügen und Content-Type setzen
+/** Speichert die Tokens aus einer Login- oder Refresh-Antwort. */
+export function storeTokens(tokens: { accessToken: string; refreshToken: string }) {
+  localStorage.setItem("accessToken", tokens.accessToken);
+  localStorage.setItem("refreshToken", tokens.refreshToken);
+}
+
+export function clearSession() {
+  localStorage.removeItem("user");
+  localStorage.removeItem("accessToken");
+  localStorage.removeItem("refreshToken");
+}
+
+// Laufende Token-Erneuerung, damit parallele 401-Antworten nur einen Refresh auslösen
+let refreshing: Promise<string> | null = null;
+
+async function refreshAccessToken(): Promise<string> {
+  const refreshToken = localStorage.getItem("refreshToken");
+  if (!refreshToken) {
+    throw new Error("Kein Refresh-Token vorhanden");
+  }
+  // Direkt über axios, damit der Response-Interceptor nicht erneut greift
+  const response = await axios.post(`${BASE_URL}/auth/refresh`, { refreshToken });
+  storeTokens(response.data);
+  localStorage.setItem("user", JSON.stringify(response.data.user));
+  return response.data.accessToken;
+}
+
+// Request-Interceptor: Bearer-Token hinzufügen und Content-Type setzen
 api.interceptors.request.use((config) => {
-  const credentials = localStorage.getItem("credentials");
+  const accessToken = localStorage.getItem("accessToken");
 
-  // Falls wir Credentials gespeichert haben, schicke sie als Basic Auth
-  if (credentials) {
-    config.headers.Authorization = `Basic ${credentials}`;
+  // Falls wir ein Access-Token haben, schicke es als Bearer-Token
+  if (accessToken) {
+    config.headers.Authorization = `Bearer ${accessToken}`;
   }
 
   // Content-Type setzen, ABER nicht für FormData (Browser muss das auto-generieren)
@@ -29,17 +57,33 @@ api.interceptors.request.use((config) => {
 // Response-Interceptor für Fehlerbehandlung
 api.interceptors.response.use(
   (response) => response,
-  (error) => {
+  async (error) => {
     console.error(
       "API Error:",
       error.response?.status,
       error.response?.data || error.message
     );
 
+    // 401: Access-Token abgelaufen -> einmal erneuern und Request wiederholen
+    const original = error.config as
+      | (InternalAxiosRequestConfig & { _retried?: boolean })
+      | undefined;
+    if (error.response?.status === 401 && original && !original._retried) {
+      original._retried = true;
+      try {
+        refreshing ??= refreshAccessToken().finally(() => {
+          refreshing = null;
+        });
+        await refreshing;
+        return api(original);
+      } catch {
+        // Refresh fehlgeschlagen -> Logout (siehe unten)
+      }
+    }
+
     // 401: Unauthorized -> Logout
     if (error.response?.status === 401) {
-      localStorage.removeItem("user");
-      localStorage.removeItem("credentials");
+      clearSession();
       window.location.href = "/login";
     }
 
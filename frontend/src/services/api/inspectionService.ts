@@ -1,4 +1,4 @@
-import api from "./httpClient";
+import api, { BASE_URL } from "./httpClient";
 import type { Checklist, ChecklistStep } from "./checklistService";
 
 // Status-Beispiele: laut Tests u. a. "NOT_APPLICABLE"
@@ -46,3 +46,159 @@ export async function getInspectionSteps(
   );
   return response.data;
 }
+
+/**
+ * Ein Event aus GET /api/inspections/events.
+ */
+export interface InspectionProgressEvent {
+  type: "stepStatus" | "inspectionStatus";
+  inspectionId: number;
+  plantName?: string | null;
+  inspectorId?: number | null;
+  stepId?: number | null;
+  status: string;
+  occurredAt: string;
+}
+
+export interface InspectionEventFilter {
+  inspectionId?: number;
+  plantName?: string;
+  inspectorId?: number;
+}
+
+const EVENT_RECONNECT_DELAY_MS = 5000;
+
+/**
+ * GET /api/inspections/events als Server-Sent Events.
+ * EventSource kann keinen Authorization-Header setzen, daher geht das
+ * Access-Token als Query-Parameter mit. Der Server beendet den Stream mit
+ * Ablauf des Tokens; danach wird mit dem aktuellen Token neu verbunden.
+ * Gibt eine Funktion zum Beenden zurück.
+ */
+export function subscribeInspectionEvents(
+  filter: InspectionEventFilter,
+  onEvent: (event: InspectionProgressEvent) => void
+): () => void {
+  let source: EventSource | null = null;
+  let reconnectTimer: number | undefined;
+  let closed = false;
+
+  const handle = (message: MessageEvent<string>) => {
+    onEvent(JSON.parse(message.data) as InspectionProgressEvent);
+  };
+
+  const connect = () => {
+    const params = new URLSearchParams();
+    Object.entries(filter).forEach(([key, value]) => {
+      if (value !== undefined && value !== null) {
+        params.set(key, String(value));
+      }
+    });
+    const accessToken = localStorage.getItem("accessToken");
+    if (accessToken) {
+      params.set("access_token", accessToken);
+    }
+
+    source = new EventSource(`${BASE_URL}/inspections/events?${params}`);
+    source.addEventListener("stepStatus", handle);
+    source.addEventListener("inspectionStatus", handle);
+    // Selbst neu verbinden, damit ein erneuertes Token verwendet wird
+    source.onerror = () => {
+      source?.close();
+      if (!closed) {
+        reconnectTimer = window.setTimeout(connect, EVENT_RECONNECT_DELAY_MS);
+      }
+    };
+  };
+
+  connect();
+  return () => {
+    closed = true;
+    window.clearTimeout(reconnectTimer);
+    source?.close();
+  };
+}
+
+/**
+ * Eine Seite der Keyset-paginierten Inspektionsliste.
+ * nextCursor ist null, wenn es keine weiteren Einträge gibt.
+ */
+export interface CursorPage<T> {
+  items: T[];
+  nextCursor: string | null;
+}
+
+export interface InspectionListFilter {
+  status?: string;
+  plantName?: string;
+  inspectorId?: number;
+  plannedFrom?: string;
+  plannedTo?: string;
+}
+
+/**
+ * GET /api/inspections?status=...&cursor=...&limit=...
+ */
+export async function getInspectionPage<T = Inspection>(
+  filter: InspectionListFilter = {},
+  cursor?: string | null,
+  limit = 50
+): Promise<CursorPage<T>> {
+  const response = await api.get<CursorPage<T>>("/inspections", {
+    params: { ...filter, cursor: cursor ?? undefined, limit },
+  });
+  return response.data;
+}
+
+/**
+ * Schlanke Listenzeile einer Inspection (GET /api/inspections,
+ * GET /api/inspections/by-user/{userId}).
+ */
+export interface InspectionSummary {
+  id: number;
+  title: string;
+  plantName: string;
+  status: "PLANNED" | "IN_PROGRESS" | "COMPLETED";
+  plannedDate?: string | null;
+  inspectorId?: number | null;
+  inspectorDisplayName?: string | null;
+  stepCount: number;
+  passedCount: number;
+  failedCount: number;
+  notApplicableCount: number;
+}
+
+export type InspectionStatusCounts = Record<
+  "PLANNED" | "IN_PROGRESS" | "COMPLETED",
+  number
+>;
+
+export interface InspectionStatsGroup {
+  inspectorId?: number;
+  label: string | null;
+  counts: InspectionStatusCounts;
+  total: number;
+}
+
+/**
+ * Dashboard-Kennzahlen: Anzahl der Inspektionen je Status,
+ * optional nach Anlage bzw. Inspektor aufgeschlüsselt.
+ */
+export interface InspectionStats {
+  counts: InspectionStatusCounts;
+  total: number;
+  byPlant?: InspectionStatsGroup[];
+  byInspector?: InspectionStatsGroup[];
+}
+
+/**
+ * GET /api/inspections/stats?groupBy=plant,inspector
+ */
+export async function getInspectionStats(
+  groupBy: ("plant" | "inspector")[] = []
+): Promise<InspectionStats> {
+  const response = await api.get<InspectionStats>("/inspections/stats", {
+    params: groupBy.length > 0 ? { groupBy: groupBy.join(",") } : undefined,
+  });
+  return response.data;
+}
@@ -0,0 +1,30 @@
+import api from "./httpClient";
+
+export type TypeaheadType = "CHECKLIST" | "PLANT" | "USER";
+
+/**
+ * Entspricht TypeaheadSuggestion im Backend.
+ * - id ist bei Anlagen (PLANT) null
+ * - detail: Anlage der Checklist bzw. Benutzername
+ */
+export interface TypeaheadSuggestion {
+  type: TypeaheadType;
+  id: number | null;
+  label: string;
+  detail: string | null;
+}
+
+/**
+ * Holt Vorschläge für eine Eingabe:
+ * GET /api/typeahead?type=...&q=...&limit=...
+ */
+export async function getTypeaheadSuggestions(
+  type: TypeaheadType,
+  query: string,
+  limit = 10
+): Promise<TypeaheadSuggestion[]> {
+  const response = await api.get<TypeaheadSuggestion[]>("/typeahead", {
+    params: { type, q: query, limit },
+  });
+  return response.data;
+}
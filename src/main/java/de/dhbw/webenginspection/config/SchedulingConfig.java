@@ -0,0 +1,13 @@
+package de.dhbw.webenginspection.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Aktiviert {@link org.springframework.scheduling.annotation.Scheduled}-Jobs
+ * (z.&nbsp;B. die Reparatur der Schrittzähler).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -2,17 +2,23 @@ package de.dhbw.webenginspection.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
-import org.springframework.security.config.Customizer;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.oauth2.server.resource.web.BearerTokenResolver;
+import org.springframework.security.oauth2.server.resource.web.DefaultBearerTokenResolver;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 
 import de.dhbw.webenginspection.repository.UserRepository;
 import de.dhbw.webenginspection.service.CustomUserDetailsService;
+import de.dhbw.webenginspection.service.TokenService;
 
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -20,9 +26,11 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 /**
  * Zentrale Security-Konfiguration für Authentication und Authorization.
  * 
- * Security-Regeln: - Login (/api/auth/login): öffentlich - Alle anderen
- * Endpoints: authentifiziert - Spezifische Rollen-Authorisierungen
- * per @PreAuthorize auf Controller-Methoden
+ * Security-Regeln: - Login und Token-Erneuerung (/api/auth/login,
+ * /api/auth/refresh): öffentlich - Alle anderen Endpoints: authentifiziert per
+ * Bearer-Token (siehe {@link TokenService}), ohne Session; der Event-Stream
+ * akzeptiert das Token auch als Query-Parameter - Spezifische
+ * Rollen-Authorisierungen per @PreAuthorize auf Controller-Methoden
  */
 @Configuration
 @EnableWebSecurity
@@ -31,8 +39,11 @@ public class SecurityConfig {
 
     private final UserRepository userRepository;
 
-    public SecurityConfig(UserRepository userRepository) {
+    private final TokenService tokenService;
+
+    public SecurityConfig(UserRepository userRepository, TokenService tokenService) {
         this.userRepository = userRepository;
+        this.tokenService = tokenService;
     }
 
     @Bean
@@ -44,18 +55,36 @@ public class SecurityConfig {
             corsConfig.setAllowedHeaders(java.util.List.of("*"));
             corsConfig.setAllowCredentials(true);
             return corsConfig;
-        })).authorizeHttpRequests(auth -> auth.requestMatchers("/api/auth/login").permitAll()
+        })).authorizeHttpRequests(auth -> auth.requestMatchers("/api/auth/login", "/api/auth/refresh").permitAll()
                 .requestMatchers("/api/files/**").permitAll().requestMatchers("/api/auth/**").authenticated()
                 .requestMatchers("/api/inspections/**").authenticated().requestMatchers("/api/checklists/**")
                 .authenticated().requestMatchers("/api/checklist-steps/**").authenticated()
                 .requestMatchers("/api/inspection-steps/**").authenticated().requestMatchers("/api/**").authenticated()
                 .anyRequest().permitAll())
-                .sessionManagement(session -> session.sessionConcurrency(concurrency -> concurrency.maximumSessions(1)))
-                .httpBasic(Customizer.withDefaults());
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .oauth2ResourceServer(oauth2 -> oauth2.bearerTokenResolver(bearerTokenResolver())
+                        .jwt(jwt -> jwt.decoder(tokenService.accessTokenDecoder())
+                                .jwtAuthenticationConverter(tokenService.authenticationConverter())));
 
         return http.build();
     }
 
+    /**
+     * Liest das Access-Token aus dem {@code Authorization}-Header. Nur für den
+     * Event-Stream ist zusätzlich {@code ?access_token=} erlaubt, weil ein
+     * {@code EventSource} im Browser keine Header senden kann. Überall sonst
+     * bleibt der Query-Parameter ausgeschlossen, damit Tokens nicht in
+     * Links oder Logs landen.
+     */
+    private static BearerTokenResolver bearerTokenResolver() {
+        DefaultBearerTokenResolver headerOnly = new DefaultBearerTokenResolver();
+        DefaultBearerTokenResolver withQueryParameter = new DefaultBearerTokenResolver();
+        withQueryParameter.setAllowUriQueryParameter(true);
+        RequestMatcher eventStream = PathPatternRequestMatcher.withDefaults().matcher(HttpMethod.GET,
+                "/api/inspections/events");
+        return request -> (eventStream.matches(request) ? withQueryParameter : headerOnly).resolve(request);
+    }
+
     @Bean
     public AuthenticationManager authenticationManager(HttpSecurity http, UserDetailsService userDetailsService)
             throws Exception {
@@ -4,7 +4,6 @@ import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactor
 import org.springframework.boot.web.server.WebServerFactoryCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import jakarta.servlet.MultipartConfigElement;
 
 @Configuration
 public class WebConfig {
@@ -18,12 +17,4 @@ public class WebConfig {
             });
         };
     }
-
-    @Bean
-    public MultipartConfigElement multipartConfigElement() {
-        return new MultipartConfigElement("", 104857600, // maxFileSize (100MB)
-                104857600, // maxRequestSize (100MB)
-                104857600 // fileSizeThreshold (100MB)
-        );
-    }
 }
\ No newline at end of file
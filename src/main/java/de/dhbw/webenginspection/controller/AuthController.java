@@ -2,22 +2,28 @@ package de.dhbw.webenginspection.controller;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jwt.JwtException;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import de.dhbw.webenginspection.dto.LoginRequest;
+import de.dhbw.webenginspection.dto.LoginResponse;
+import de.dhbw.webenginspection.dto.RefreshRequest;
 import de.dhbw.webenginspection.dto.UserResponse;
 import de.dhbw.webenginspection.entity.User;
+import de.dhbw.webenginspection.service.TokenService;
 import de.dhbw.webenginspection.service.UserService;
 
 /**
  * REST-Controller für Authentifizierung und User-bezogene Endpunkte.
  *
- * Hinweis: Aktuell wird hier noch kein echtes Session-/Token-Handling gemacht.
- * Der Login-Endpunkt prüft Benutzername/Passwort und liefert bei Erfolg die
- * User-Daten zurück. Das Frontend kann darauf aufbauen.
+ * Der Login-Endpunkt prüft Benutzername/Passwort einmalig und liefert ein
+ * kurzlebiges Access-Token sowie ein Refresh-Token. Alle weiteren Requests
+ * werden nur noch über die Signatur des Access-Tokens authentifiziert.
  */
 @RestController
 @RequestMapping("/api/auth")
@@ -28,28 +34,69 @@ public class AuthController {
 
     private final UserService userService;
 
-    public AuthController(UserService userService) {
+    private final TokenService tokenService;
+
+    public AuthController(UserService userService, TokenService tokenService) {
         this.userService = userService;
+        this.tokenService = tokenService;
     }
 
     /**
-     * Prüft Benutzername und Passwort. Bei Erfolg werden die User-Daten (ohne
-     * Passwort) zurückgegeben. Bei Fehlern wird eine 400 / 401-artige Antwort
-     * durch den GlobalExceptionHandler erzeugt.
+     * Prüft Benutzername und Passwort. Bei Erfolg werden Access- und
+     * Refresh-Token samt User-Daten (ohne Passwort) zurückgegeben. Bei Fehlern
+     * wird eine 400 / 401-artige Antwort durch den GlobalExceptionHandler
+     * erzeugt.
      *
      * @param request die Login-Anfrage mit Username und Passwort
-     * @return die User-Informationen (ohne Passwort-Hash)
+     * @return die Tokens und User-Informationen (ohne Passwort-Hash)
      * @throws IllegalArgumentException wenn Username oder Passwort ungültig
      * sind
      */
     @PostMapping("/login")
-    public UserResponse login(@Validated
+    public LoginResponse login(@Validated
     @RequestBody
     LoginRequest request) {
         log.info("Login attempt for user '{}'", request.getUsername());
         User user = userService.validateLogin(request.getUsername(), request.getPassword());
         log.info("Login successful for user '{}'", user.getUsername());
-        return UserResponse.fromEntity(user);
+        return tokenService.issueTokens(user);
+    }
+
+    /**
+     * Stellt gegen ein gültiges Refresh-Token ein neues Token-Paar aus. Rolle
+     * und Token-Version werden dabei frisch aus der Datenbank gelesen.
+     *
+     * @param request die Anfrage mit dem Refresh-Token
+     * @return {@code 200 OK} mit neuen Tokens oder {@code 401 Unauthorized},
+     * wenn das Token ungültig, abgelaufen oder widerrufen ist
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<LoginResponse> refresh(@Validated
+    @RequestBody
+    RefreshRequest request) {
+        try {
+            long userId = tokenService.verifyRefreshToken(request.getRefreshToken());
+            return userService.getUserById(userId).map(user -> ResponseEntity.ok(tokenService.issueTokens(user)))
+                    .orElse(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+        } catch (JwtException ex) {
+            log.info("Rejected refresh token: {}", ex.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+    }
+
+    /**
+     * Meldet den aktuellen User ab, indem alle seine bisher ausgestellten
+     * Tokens widerrufen werden.
+     *
+     * @param authentication der aktuell authentifizierte User
+     * @return {@code 204 No Content}
+     */
+    @PostMapping("/logout")
+    @PreAuthorize("authenticated")
+    public ResponseEntity<Void> logout(Authentication authentication) {
+        log.info("Logout for user '{}'", authentication.getName());
+        userService.revokeTokens(authentication.getName());
+        return ResponseEntity.noContent().build();
     }
 
     /**
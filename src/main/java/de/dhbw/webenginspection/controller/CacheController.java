@@ -0,0 +1,43 @@
+package de.dhbw.webenginspection.controller;
+
+import de.dhbw.webenginspection.dto.CacheRegionStats;
+import de.dhbw.webenginspection.service.CacheStatisticsService;
+
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * REST-Controller für die Auswertung des Second-Level-Caches (nur für
+ * Admins).
+ */
+@RestController
+@RequestMapping("/api/cache")
+@CrossOrigin(origins = "http://localhost:5173") // für React-Frontend
+public class CacheController {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheController.class);
+
+    private final CacheStatisticsService cacheStatisticsService;
+
+    public CacheController(CacheStatisticsService cacheStatisticsService) {
+        this.cacheStatisticsService = cacheStatisticsService;
+    }
+
+    /**
+     * Liefert Treffer, Fehlzugriffe und Größe je Cache-Region.
+     *
+     * Beispiel: GET /api/cache/stats
+     *
+     * @return die Statistik aller Regionen
+     */
+    @GetMapping("/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public List<CacheRegionStats> getStats() {
+        log.info("Fetching second-level cache statistics");
+        return cacheStatisticsService.getRegionStats();
+    }
+}
@@ -2,14 +2,17 @@ package de.dhbw.webenginspection.controller;
 
 import de.dhbw.webenginspection.entity.Checklist;
 import de.dhbw.webenginspection.service.ChecklistService;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
 import java.util.List;
 
 /**
@@ -30,19 +33,27 @@ public class ChecklistController {
     }
 
     /**
-     * Gibt alle vorhandenen Checklisten zurück (authentifiziert).
+     * Gibt alle vorhandenen Checklisten zurück (authentifiziert). Der ETag
+     * fasst die Versionen aller aktuellen Checklisten zusammen; ist die Liste
+     * unverändert, wird {@code 304 Not Modified} geliefert, ohne sie zu laden.
      *
+     * @param webRequest der aktuelle Request (für {@code If-None-Match})
      * @return eine Liste aller {@link Checklist}-Entitäten
      */
     @GetMapping
     @PreAuthorize("authenticated")
-    public List<Checklist> getAll() {
+    public ResponseEntity<List<Checklist>> getAll(WebRequest webRequest) {
         log.info("Fetching all checklists");
-        return checklistService.getAllChecklists();
+        return ETags.conditional(webRequest, "checklists-" + checklistService.getListVersion(),
+                checklistService::getAllChecklists);
     }
 
     /**
      * Gibt eine einzelne Checklist anhand ihrer ID zurück (authentifiziert).
+     * Der ETag enthält die Version der Checklist; bei passendem
+     * {@code If-None-Match} antwortet Spring mit {@code 304 Not Modified}. Von
+     * Inspections verwendete Versionen ändern sich nie mehr und dürfen ohne
+     * Rückfrage aus dem Cache verwendet werden.
      *
      * @param id die ID der gewünschten Checklist
      * @return {@code 200 OK} mit der Checklist oder {@code 404 Not Found}
@@ -52,7 +63,13 @@ public class ChecklistController {
     public ResponseEntity<Checklist> getById(@PathVariable
     Long id) {
         log.info("Fetching checklist with id {}", id);
-        return checklistService.getChecklistById(id).map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+        return checklistService.getChecklistById(id).map(checklist -> {
+            CacheControl cacheControl = checklist.isFrozen()
+                    ? CacheControl.maxAge(Duration.ofDays(365)).cachePrivate().immutable()
+                    : ETags.REVALIDATE;
+            return ResponseEntity.ok().eTag(ETags.of("checklist", checklist.getId(), checklist.getVersion()))
+                    .cacheControl(cacheControl).body(checklist);
+        }).orElse(ResponseEntity.notFound().build());
     }
 
     /**
@@ -75,19 +92,29 @@ public class ChecklistController {
      *
      * @param id die ID der zu aktualisierenden Checklist
      * @param checklist die neuen Daten für die Checklist
-     * @return {@code 200 OK} mit der aktualisierten Checklist
+     * @param ifMatch optional der zuletzt gelesene ETag; passt er nicht mehr,
+     * wird {@code 412 Precondition Failed} geliefert
+     * @return {@code 200 OK} mit der aktualisierten Checklist bzw. der neuen
+     * Version, falls die bisherige bereits von Inspections verwendet wird
      */
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Checklist> update(@PathVariable
     Long id, @RequestBody
-    Checklist checklist) {
+    Checklist checklist, @RequestHeader(value = "If-Match", required = false)
+    String ifMatch) {
         log.info("Updating checklist with id {}", id);
         try {
-            Checklist updated = checklistService.updateChecklist(id, checklist);
-            return ResponseEntity.ok(updated);
+            Checklist updated = checklistService.updateChecklist(id, checklist,
+                    ETags.expectedVersion(ifMatch, "checklist", id));
+            return ResponseEntity.ok().eTag(ETags.of("checklist", updated.getId(), updated.getVersion()))
+                    .body(updated);
         } catch (IllegalArgumentException e) {
             log.error("Error updating checklist: {}", e.getMessage());
+            if (!e.getMessage().contains("not found")) {
+                // z. B. Step-ID einer anderen Checklist
+                return ResponseEntity.badRequest().build();
+            }
             return ResponseEntity.notFound().build();
         }
     }
@@ -1,11 +1,13 @@
 package de.dhbw.webenginspection.controller;
 
 import de.dhbw.webenginspection.entity.ChecklistStep;
+import de.dhbw.webenginspection.service.ChecklistService;
 import de.dhbw.webenginspection.service.ChecklistStepService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -25,22 +27,32 @@ public class ChecklistStepController {
 
     private final ChecklistStepService checklistStepService;
 
-    public ChecklistStepController(ChecklistStepService checklistStepService) {
+    private final ChecklistService checklistService;
+
+    public ChecklistStepController(ChecklistStepService checklistStepService, ChecklistService checklistService) {
         this.checklistStepService = checklistStepService;
+        this.checklistService = checklistService;
     }
 
     /**
-     * Gibt alle Schritte einer bestimmten Checkliste zurück.
+     * Gibt alle Schritte einer bestimmten Checkliste zurück. Die Schritte
+     * tragen den ETag ihrer Checkliste, deren Version jede Änderung an einem
+     * Schritt mitzählt.
      *
      * @param checklistId die ID der Checkliste
+     * @param webRequest der aktuelle Request (für {@code If-None-Match})
      * @return eine Liste aller zugehörigen {@link ChecklistStep}-Entitäten
      */
     @GetMapping("/checklists/{checklistId}/steps")
     @PreAuthorize("authenticated")
-    public List<ChecklistStep> getStepsForChecklist(@PathVariable
-    Long checklistId) {
+    public ResponseEntity<List<ChecklistStep>> getStepsForChecklist(@PathVariable
+    Long checklistId, WebRequest webRequest) {
         log.info("Fetching steps for checklist with id {}", checklistId);
-        return checklistStepService.getStepsForChecklist(checklistId);
+        return checklistService.getChecklistById(checklistId)
+                .map(checklist -> ETags.conditional(webRequest,
+                        ETags.of("checklist", checklistId, checklist.getVersion()),
+                        () -> checklistStepService.getStepsForChecklist(checklistId)))
+                .orElseGet(() -> ResponseEntity.ok(checklistStepService.getStepsForChecklist(checklistId)));
     }
 
     /**
@@ -0,0 +1,99 @@
+package de.dhbw.webenginspection.controller;
+
+import java.util.function.Supplier;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import de.dhbw.webenginspection.error.PreconditionFailedException;
+
+/**
+ * Hilfsmethoden für bedingte Requests auf Basis der Entity-Versionen.
+ *
+ * Ein ETag hat die Form {@code "<typ>-<id>-<version>"}. Lesende Endpunkte
+ * antworten bei passendem {@code If-None-Match} mit {@code 304 Not Modified},
+ * ohne die Daten zu laden oder zu serialisieren. Schreibende Endpunkte lesen
+ * aus {@code If-Match} die erwartete Version, die der Service in derselben
+ * Transaktion prüft.
+ */
+final class ETags {
+
+    /**
+     * Der Browser darf Antworten speichern, muss sie aber vor jeder
+     * Verwendung per {@code If-None-Match} bestätigen lassen. Ersetzt dabei
+     * die Standard-Header von Spring Security ({@code no-store}).
+     */
+    static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private ETags() {
+    }
+
+    static String of(String type, Long id, long version) {
+        return type + "-" + id + "-" + version;
+    }
+
+    /**
+     * Beantwortet einen GET-Request bedingt: Passt {@code If-None-Match} zum
+     * ETag, wird {@code 304 Not Modified} geliefert und {@code body} nicht
+     * aufgerufen.
+     *
+     * @param request der aktuelle Request
+     * @param etag der aktuelle ETag der Ressource (ohne Anführungszeichen)
+     * @param body liefert die Daten, falls sie gesendet werden müssen
+     * @return die Response mit ETag und Cache-Control
+     */
+    static <T> ResponseEntity<T> conditional(WebRequest request, String etag, Supplier<T> body) {
+        if (matchesNoneMatch(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(body.get());
+    }
+
+    // Schwacher Vergleich wie in RFC 9110 für If-None-Match vorgesehen
+    private static boolean matchesNoneMatch(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String quoted = "\"" + etag + "\"";
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(quoted)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Liest die erwartete Version aus einem {@code If-Match}-Header.
+     *
+     * @param ifMatch der Header-Wert oder {@code null}
+     * @param type der Typ der Ressource, z.&nbsp;B. {@code "inspection"}
+     * @param id die ID der Ressource
+     * @return die erwartete Version oder {@code null}, wenn der Header fehlt
+     * oder {@code *} ist
+     * @throws PreconditionFailedException wenn der ETag nicht zu dieser
+     * Ressource gehört oder schwach ist
+     */
+    static Long expectedVersion(String ifMatch, String type, Long id) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        String prefix = "\"" + type + "-" + id + "-";
+        if (value.startsWith(prefix) && value.endsWith("\"") && value.length() > prefix.length() + 1) {
+            try {
+                return Long.parseLong(value.substring(prefix.length(), value.length() - 1));
+            } catch (NumberFormatException ex) {
+                // fällt durch auf 412
+            }
+        }
+        throw new PreconditionFailedException(type + " " + id);
+    }
+}
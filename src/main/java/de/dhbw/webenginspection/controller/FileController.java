@@ -1,45 +1,154 @@
 package de.dhbw.webenginspection.controller;
 
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.FileSystemResource;
-import org.springframework.core.io.Resource;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
-import java.io.File;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import de.dhbw.webenginspection.service.PhotoDerivativeService;
+import de.dhbw.webenginspection.service.PhotoFileService;
+import de.dhbw.webenginspection.service.PhotoFileService.PhotoFile;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Liefert hochgeladene Fotos aus.
+ *
+ * Gespeicherte Fotos ändern sich nie (der Dateiname ist der Inhalts-Hash) und
+ * werden daher mit {@code Cache-Control: immutable} für ein Jahr
+ * ausgeliefert. Bedingte Requests ({@code If-None-Match},
+ * {@code If-Modified-Since}) werden mit {@code 304 Not Modified} beantwortet,
+ * einzelne Byte-Bereiche ({@code Range}) mit {@code 206 Partial Content}.
+ * Die Datei wird ohne Kopie durch den Heap übertragen: über Tomcats Sendfile,
+ * sonst über {@link FileChannel#transferTo}.
+ */
 @RestController
 @RequestMapping("/api/files")
 @CrossOrigin(origins = "http://localhost:5173")
 public class FileController {
 
-    @Value("${app.upload.dir:uploads/photos}")
-    private String uploadDir;
+    private static final String IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable()
+            .getHeaderValue();
+
+    // Request-Attribute von Tomcat für Sendfile (siehe DefaultServlet)
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final PhotoFileService photoFileService;
 
+    public FileController(PhotoFileService photoFileService) {
+        this.photoFileService = photoFileService;
+    }
+
+    /**
+     * Liefert ein hochgeladenes Foto aus.
+     *
+     * @param filename der Dateiname im Upload-Verzeichnis
+     * @param size optional {@code thumb} oder {@code display} für eine
+     * verkleinerte Variante; solange diese noch nicht erzeugt wurde, wird das
+     * Original ohne Langzeit-Caching ausgeliefert
+     */
     @GetMapping("/{filename}")
-    public ResponseEntity<Resource> getFile(@PathVariable
-    String filename) {
-        try {
-            Path filePath = Paths.get(uploadDir).resolve(filename).normalize();
-            File file = filePath.toFile();
+    public void getFile(@PathVariable
+    String filename, @RequestParam(required = false)
+    String size, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        // Ungültige Größe -> IllegalArgumentException -> 400
+        PhotoDerivativeService.Size requestedSize = size != null ? PhotoDerivativeService.Size.fromName(size) : null;
+        PhotoFile file = photoFileService.find(filename, requestedSize)
+                .orElseThrow(() -> new IllegalArgumentException("File not found: " + filename));
 
-            if (!file.exists() || !file.isFile()) {
-                return ResponseEntity.notFound().build();
+        response.setHeader(HttpHeaders.CACHE_CONTROL,
+                file.isImmutable() ? IMMUTABLE : CacheControl.noCache().cachePublic().getHeaderValue());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        // Setzt ETag und Last-Modified, beantwortet passende Bedingungen mit 304/412
+        if (new ServletWebRequest(request, response).checkNotModified(file.getEtag(), file.getLastModified())) {
+            return;
+        }
+
+        long length = file.getLength();
+        long start = 0;
+        long end = length - 1;
+        boolean partial = false;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && ifRangeMatches(request, file)) {
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(range);
+                // Mehrere Bereiche sind für Bilder unüblich, dann wird die ganze Datei geliefert
+                if (ranges.size() == 1) {
+                    start = ranges.get(0).getRangeStart(length);
+                    end = ranges.get(0).getRangeEnd(length);
+                    partial = true;
+                }
+            } catch (IllegalArgumentException e) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                return;
             }
+        }
 
-            Resource resource = new FileSystemResource(file);
-            String contentType = Files.probeContentType(filePath);
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT)) || "HEAD".equals(request.getMethod())) {
+            // Tomcat öffnet die Datei erst nach dem Request, eine gelöschte Datei muss vorher zur 404 werden
+            photoFileService.requireExists(file);
+            writeHeaders(response, file, start, end, partial);
+            if (!"HEAD".equals(request.getMethod()) && end >= start) {
+                // Tomcat schreibt die Datei nach dem Request per sendfile() direkt in den Socket
+                request.setAttribute(SENDFILE_FILENAME, file.getPath().toString());
+                request.setAttribute(SENDFILE_START, start);
+                request.setAttribute(SENDFILE_END, end + 1);
+            }
+            return;
+        }
+        // Erst öffnen, dann Header setzen: Fehlt die Datei, bleibt die Response für die 404 unverändert
+        try (FileChannel channel = photoFileService.open(file)) {
+            writeHeaders(response, file, start, end, partial);
+            WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position <= end) {
+                position += channel.transferTo(position, end + 1 - position, target);
+            }
+        }
+    }
 
-            return ResponseEntity.ok()
-                    .contentType(
-                            MediaType.parseMediaType(contentType != null ? contentType : "application/octet-stream"))
-                    .body(resource);
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError().build();
+    private static void writeHeaders(HttpServletResponse response, PhotoFile file, long start, long end,
+            boolean partial) {
+        if (partial) {
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + file.getLength());
+        }
+        response.setContentType(file.getContentType());
+        response.setContentLengthLong(end - start + 1);
+    }
+
+    /**
+     * {@code If-Range}: Der Bereich gilt nur, wenn die Datei noch die
+     * angegebene Version (ETag oder Datum) hat, sonst wird sie ganz geliefert.
+     */
+    private static boolean ifRangeMatches(HttpServletRequest request, PhotoFile file) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"")) {
+            return ifRange.equals("\"" + file.getEtag() + "\"");
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == file.getLastModified() / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
         }
     }
-}
\ No newline at end of file
+}
@@ -1,11 +1,14 @@
 package de.dhbw.webenginspection.controller;
 
 import de.dhbw.webenginspection.error.ChecklistInUseException;
+import de.dhbw.webenginspection.error.ChecklistStepInUseException;
 import de.dhbw.webenginspection.error.ErrorResponse;
 import de.dhbw.webenginspection.error.ErrorResponse.FieldValidationError;
+import de.dhbw.webenginspection.error.PreconditionFailedException;
 
 import jakarta.servlet.http.HttpServletRequest;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -13,6 +16,7 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 
 import com.fasterxml.jackson.databind.exc.InvalidFormatException;
 
@@ -120,20 +124,20 @@ public class GlobalExceptionHandler {
         }
 
         /**
-         * Behandelt {@link ChecklistInUseException}, wenn eine Checklist
-         * gelöscht werden soll, die noch von aktiven Inspections verwendet
-         * wird.
+         * Behandelt {@link ChecklistInUseException}, wenn einzelne Schritte
+         * einer Checklist-Version geändert werden sollen, die bereits von
+         * Inspections verwendet wird.
          *
          * @param ex die ausgelöste {@link ChecklistInUseException}
          * @param request das aktuelle {@link HttpServletRequest}
          * @return eine Response mit HTTP-Status {@code 409 Conflict} und einer
-         * {@link ErrorResponse}, die die Anzahl abhängiger Inspections enthält
+         * {@link ErrorResponse}
          */
         @ExceptionHandler(ChecklistInUseException.class)
         public ResponseEntity<ErrorResponse> handleChecklistInUse(ChecklistInUseException ex,
                         HttpServletRequest request) {
 
-                log.warn("Attempt to delete checklist with {} dependent inspections at {}", ex.getInspectionCount(),
+                log.warn("Attempt to change steps of checklist {} used by inspections at {}", ex.getChecklistId(),
                                 request.getRequestURI());
 
                 HttpStatus status = HttpStatus.CONFLICT;
@@ -144,6 +148,102 @@ public class GlobalExceptionHandler {
                 return ResponseEntity.status(status).body(error);
         }
 
+        /**
+         * Behandelt {@link ChecklistStepInUseException}, wenn Schritte einer
+         * Checklist entfernt werden sollen, auf die noch Inspection-Schritte
+         * verweisen.
+         *
+         * @param ex die ausgelöste {@link ChecklistStepInUseException}
+         * @param request das aktuelle {@link HttpServletRequest}
+         * @return eine Response mit HTTP-Status {@code 409 Conflict} und einer
+         * {@link ErrorResponse}
+         */
+        @ExceptionHandler(ChecklistStepInUseException.class)
+        public ResponseEntity<ErrorResponse> handleChecklistStepInUse(ChecklistStepInUseException ex,
+                        HttpServletRequest request) {
+
+                log.warn("Attempt to remove checklist steps with {} dependent inspection steps at {}",
+                                ex.getInspectionStepCount(), request.getRequestURI());
+
+                HttpStatus status = HttpStatus.CONFLICT;
+
+                ErrorResponse error = new ErrorResponse(status.value(), status.getReasonPhrase(), ex.getMessage(),
+                                request.getRequestURI());
+
+                return ResponseEntity.status(status).body(error);
+        }
+
+        /**
+         * Behandelt {@link PreconditionFailedException}, wenn ein
+         * {@code If-Match}-Header nicht zur aktuellen Version der Ressource
+         * passt.
+         *
+         * @param ex die ausgelöste {@link PreconditionFailedException}
+         * @param request das aktuelle {@link HttpServletRequest}
+         * @return eine Response mit HTTP-Status {@code 412 Precondition Failed}
+         * und einer {@link ErrorResponse}
+         */
+        @ExceptionHandler(PreconditionFailedException.class)
+        public ResponseEntity<ErrorResponse> handlePreconditionFailed(PreconditionFailedException ex,
+                        HttpServletRequest request) {
+
+                log.warn("Precondition failed at {}: {}", request.getRequestURI(), ex.getMessage());
+
+                HttpStatus status = HttpStatus.PRECONDITION_FAILED;
+
+                ErrorResponse error = new ErrorResponse(status.value(), status.getReasonPhrase(), ex.getMessage(),
+                                request.getRequestURI());
+
+                return ResponseEntity.status(status).body(error);
+        }
+
+        /**
+         * Behandelt Konflikte beim optimistischen Locking, wenn dieselbe
+         * Entität parallel von einem anderen Request geändert wurde.
+         *
+         * @param ex die ausgelöste {@link OptimisticLockingFailureException}
+         * @param request das aktuelle {@link HttpServletRequest}
+         * @return eine Response mit HTTP-Status {@code 409 Conflict} und einer
+         * {@link ErrorResponse}
+         */
+        @ExceptionHandler(OptimisticLockingFailureException.class)
+        public ResponseEntity<ErrorResponse> handleOptimisticLockingFailure(OptimisticLockingFailureException ex,
+                        HttpServletRequest request) {
+
+                log.warn("Concurrent modification at {}: {}", request.getRequestURI(), ex.getMessage());
+
+                HttpStatus status = HttpStatus.CONFLICT;
+
+                ErrorResponse error = new ErrorResponse(status.value(), status.getReasonPhrase(),
+                                "The resource was modified concurrently, please reload and try again",
+                                request.getRequestURI());
+
+                return ResponseEntity.status(status).body(error);
+        }
+
+        /**
+         * Behandelt Multipart-Uploads, die das Limit des Servlet-Containers
+         * überschreiten, bevor ein Controller sie prüfen kann.
+         *
+         * @param ex die ausgelöste {@link MaxUploadSizeExceededException}
+         * @param request das aktuelle {@link HttpServletRequest}
+         * @return eine Response mit HTTP-Status {@code 413 Content Too Large}
+         * und einer {@link ErrorResponse}
+         */
+        @ExceptionHandler(MaxUploadSizeExceededException.class)
+        public ResponseEntity<ErrorResponse> handleMaxUploadSizeExceeded(MaxUploadSizeExceededException ex,
+                        HttpServletRequest request) {
+
+                log.warn("Upload too large at {}: {}", request.getRequestURI(), ex.getMessage());
+
+                HttpStatus status = HttpStatus.PAYLOAD_TOO_LARGE;
+
+                ErrorResponse error = new ErrorResponse(status.value(), status.getReasonPhrase(),
+                                "Datei ist zu groß", request.getRequestURI());
+
+                return ResponseEntity.status(status).body(error);
+        }
+
         /**
          * Behandelt Fehler beim Einlesen oder Parsen des HTTP-Request-Bodys,
          * z.&nbsp;B. ungültiges JSON oder ein falsches Datumsformat. Nutzt,
@@ -1,15 +1,31 @@
 package de.dhbw.webenginspection.controller;
 
+import de.dhbw.webenginspection.dto.CursorPage;
+import de.dhbw.webenginspection.dto.InspectionBulkCreateRequest;
+import de.dhbw.webenginspection.dto.InspectionBulkCreateResponse;
 import de.dhbw.webenginspection.dto.InspectionCreateRequest;
+import de.dhbw.webenginspection.dto.InspectionDetailResponse;
+import de.dhbw.webenginspection.dto.InspectionFilter;
+import de.dhbw.webenginspection.dto.InspectionStats;
+import de.dhbw.webenginspection.dto.InspectionSummary;
 import de.dhbw.webenginspection.entity.Inspection;
+import de.dhbw.webenginspection.entity.InspectionStatus;
+import de.dhbw.webenginspection.entity.User;
+import de.dhbw.webenginspection.service.InspectionEventBroadcaster;
 import de.dhbw.webenginspection.service.InspectionService;
+import de.dhbw.webenginspection.service.TokenService;
 import de.dhbw.webenginspection.service.UserService;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -32,36 +48,87 @@ public class InspectionController {
 
     private final UserService userService;
 
-    public InspectionController(InspectionService inspectionService, UserService userService) {
+    private final InspectionEventBroadcaster eventBroadcaster;
+
+    private final TokenService tokenService;
+
+    public InspectionController(InspectionService inspectionService, UserService userService,
+            InspectionEventBroadcaster eventBroadcaster, TokenService tokenService) {
         this.inspectionService = inspectionService;
         this.userService = userService;
+        this.eventBroadcaster = eventBroadcaster;
+        this.tokenService = tokenService;
     }
 
     /**
-     * Gibt alle vorhandenen Inspektionen zurück.
+     * Gibt eine Seite der Inspektionen zurück, serverseitig gefiltert und
+     * sortiert (nach geplantem Datum, dann ID). Die nächste Seite wird über
+     * den zurückgelieferten {@code nextCursor} abgefragt.
      *
-     * @return eine Liste aller {@link Inspection}-Entitäten
+     * Beispiel: GET
+     * /api/inspections?status=PLANNED&plantName=Werk%20Mannheim&limit=50
+     *
+     * @param filter optionale Filter (status, plantName, inspectorId,
+     * plannedFrom, plannedTo)
+     * @param cursor Fortsetzungs-Token der vorherigen Seite (optional)
+     * @param limit maximale Anzahl an Einträgen pro Seite
+     * @return die Seite mit {@link InspectionSummary}-Zeilen und dem Token für
+     * die nächste Seite
      */
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public List<Inspection> getAll() {
-        log.info("Fetching all inspections");
-        return inspectionService.getAllInspections();
+    public CursorPage<InspectionSummary> getAll(InspectionFilter filter, @RequestParam(value = "cursor", required = false)
+    String cursor, @RequestParam(value = "limit", defaultValue = "50")
+    int limit) {
+        log.info("Fetching inspections (cursor {}, limit {})", cursor, limit);
+        return inspectionService.getInspectionPage(filter, cursor, limit);
     }
 
     /**
-     * Gibt eine einzelne Inspection anhand ihrer ID zurück.
+     * Gibt eine einzelne Inspection anhand ihrer ID zurück. Ist die Version
+     * seit dem letzten Abruf unverändert, wird {@code 304 Not Modified}
+     * geliefert, ohne die Inspection zu laden.
      *
      * @param id die ID der gewünschten Inspection
+     * @param webRequest der aktuelle Request (für {@code If-None-Match})
      * @return {@code 200 OK} mit der Inspection oder {@code 404 Not Found},
      * falls keine Inspection mit der angegebenen ID existiert
      */
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSPECTOR')")
     public ResponseEntity<Inspection> getById(@PathVariable
-    Long id) {
+    Long id, WebRequest webRequest) {
         log.info("Fetching inspection with id {}", id);
-        return inspectionService.getInspectionById(id).map(ResponseEntity::ok)
+        Long version = inspectionService.getVersion(id).orElse(null);
+        if (version == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ETags.conditional(webRequest, ETags.of("inspection", id, version),
+                () -> inspectionService.getInspectionById(id).orElse(null));
+    }
+
+    /**
+     * Liefert die Detailansicht einer Inspection in einem einzigen Request:
+     * Inspection, Inspektor, Checklist-Metadaten und alle Schritte (sortiert
+     * nach Checklisten-Reihenfolge) inklusive Vorlagentext und Foto-Infos.
+     *
+     * Der ETag entspricht dem von {@code GET /api/inspections/{id}}; er wird
+     * aus der geladenen Detailansicht gebildet, damit es bei einer Abfrage
+     * bleibt.
+     *
+     * @param id die ID der gewünschten Inspection
+     * @return {@code 200 OK} mit der Detailansicht, {@code 304 Not Modified}
+     * bei passendem {@code If-None-Match} oder {@code 404 Not Found}, falls
+     * keine Inspection mit der angegebenen ID existiert
+     */
+    @GetMapping("/{id}/detail")
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSPECTOR')")
+    public ResponseEntity<InspectionDetailResponse> getDetail(@PathVariable
+    Long id) {
+        log.info("Fetching inspection detail with id {}", id);
+        return inspectionService.getInspectionDetail(id)
+                .map(detail -> ResponseEntity.ok().eTag(ETags.of("inspection", id, detail.getVersion()))
+                        .cacheControl(ETags.REVALIDATE).body(detail))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -72,14 +139,16 @@ public class InspectionController {
      * Beispiel: GET /api/inspections/by-user/1
      *
      * @param userId ID des Benutzers
+     * @param status optionaler Statusfilter
      * @param authentication die aktuelle Authentication
-     * @return Liste der Inspektionen des Users (ggf. leer, aber niemals
-     * {@code null})
+     * @return Liste der Inspektionen des Users als {@link InspectionSummary}
+     * (ggf. leer, aber niemals {@code null})
      */
     @GetMapping("/by-user/{userId}")
     @PreAuthorize("authenticated")
-    public ResponseEntity<List<Inspection>> getByUser(@PathVariable
-    Long userId, Authentication authentication) {
+    public ResponseEntity<List<InspectionSummary>> getByUser(@PathVariable
+    Long userId, @RequestParam(value = "status", required = false)
+    InspectionStatus status, Authentication authentication) {
         log.info("Fetching inspections for user with id {}", userId);
 
         String username = authentication.getName();
@@ -97,10 +166,112 @@ public class InspectionController {
             return ResponseEntity.status(403).build(); // Forbidden
         }
 
-        List<Inspection> inspections = inspectionService.getInspectionsForUser(userId);
+        List<InspectionSummary> inspections = inspectionService.getInspectionsForUser(userId, status);
         return ResponseEntity.ok(inspections);
     }
 
+    /**
+     * Liefert die Dashboard-Kennzahlen (Anzahl der Inspektionen je Status),
+     * optional aufgeschlüsselt nach Anlage und/oder Inspektor. Admins sehen
+     * alle Inspektionen und können mit {@code inspectorId} auf einen
+     * Inspektor einschränken, alle anderen User sehen nur ihre eigenen.
+     *
+     * Beispiel: GET /api/inspections/stats?groupBy=plant,inspector
+     *
+     * @param groupBy optionale Aufschlüsselung ({@code plant},
+     * {@code inspector})
+     * @param inspectorId optionaler Inspektor-Filter (nur für Admins)
+     * @param authentication die aktuelle Authentication
+     * @return {@code 200 OK} mit den Kennzahlen oder {@code 400 Bad Request}
+     * bei unbekanntem {@code groupBy}-Wert
+     */
+    @GetMapping("/stats")
+    @PreAuthorize("authenticated")
+    public ResponseEntity<InspectionStats> getStats(@RequestParam(value = "groupBy", required = false)
+    List<String> groupBy, @RequestParam(value = "inspectorId", required = false)
+    Long inspectorId, Authentication authentication) {
+        log.info("Fetching inspection stats (groupBy {}, inspector {})", groupBy, inspectorId);
+
+        boolean byPlant = false;
+        boolean byInspector = false;
+        for (String group : groupBy != null ? groupBy : List.<String> of()) {
+            switch (group.trim().toLowerCase()) {
+                case "plant" -> byPlant = true;
+                case "inspector" -> byInspector = true;
+                default -> throw new IllegalArgumentException(
+                        "Invalid groupBy: " + group + ". Allowed values: plant, inspector");
+            }
+        }
+
+        boolean isAdmin = authentication.getAuthorities().stream()
+                .anyMatch(auth -> auth.getAuthority().equals("ROLE_ADMIN"));
+
+        // Inspector sieht nur seine eigenen Kennzahlen
+        if (!isAdmin) {
+            Long ownId = userService.getUserByUsername(authentication.getName()).map(User::getId).orElse(null);
+            if (ownId == null) {
+                return ResponseEntity.status(403).build(); // Forbidden
+            }
+            inspectorId = ownId;
+        }
+
+        return ResponseEntity.ok(inspectionService.getStats(inspectorId, byPlant, byInspector));
+    }
+
+    /**
+     * Öffnet einen Server-Sent-Events-Stream mit den Statusänderungen von
+     * Inspektionen ({@code inspectionStatus}) und ihren Schritten
+     * ({@code stepStatus}), jeweils nach dem Commit. Ersetzt das wiederholte
+     * Abfragen aller Inspektionen durch Dashboard und Detailansicht. Admins
+     * können nach Inspektor filtern, alle anderen User erhalten nur Events
+     * ihrer eigenen Inspektionen. Nach Ablauf oder Abbruch verbindet sich der
+     * Client neu und holt Verpasstes per {@code GET /api/sync} nach.
+     *
+     * Da {@code EventSource} im Browser keine Header senden kann, wird das
+     * Access-Token hier auch als {@code ?access_token=} angenommen (siehe
+     * {@code SecurityConfig}). Der Stream endet spätestens mit Ablauf des
+     * Tokens und wird geschlossen, sobald es widerrufen ist.
+     *
+     * Beispiel: GET /api/inspections/events?plantName=Werk%20Mannheim
+     *
+     * @param inspectionId nur Events dieser Inspection (optional)
+     * @param plantName nur Events dieser Anlage (optional)
+     * @param inspectorId nur Events dieses Inspektors (optional, nur für
+     * Admins)
+     * @param authentication die aktuelle Authentication
+     * @return der Event-Stream oder {@code 403 Forbidden}, wenn der User
+     * nicht existiert
+     */
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("authenticated")
+    public ResponseEntity<SseEmitter> events(@RequestParam(value = "inspectionId", required = false)
+    Long inspectionId, @RequestParam(value = "plantName", required = false)
+    String plantName, @RequestParam(value = "inspectorId", required = false)
+    Long inspectorId, Authentication authentication) {
+        log.info("Opening inspection event stream for user {} (inspection {}, plant {}, inspector {})",
+                authentication.getName(), inspectionId, plantName, inspectorId);
+
+        boolean isAdmin = authentication.getAuthorities().stream()
+                .anyMatch(auth -> auth.getAuthority().equals("ROLE_ADMIN"));
+
+        // Inspector erhält nur Events seiner eigenen Inspektionen
+        if (!isAdmin) {
+            Long ownId = userService.getUserByUsername(authentication.getName()).map(User::getId).orElse(null);
+            if (ownId == null) {
+                return ResponseEntity.status(403).build(); // Forbidden
+            }
+            inspectorId = ownId;
+        }
+
+        // Der Stream endet mit dem Token; ein Widerruf schließt ihn vorzeitig
+        if (authentication instanceof JwtAuthenticationToken token) {
+            Jwt jwt = token.getToken();
+            return ResponseEntity.ok(eventBroadcaster.subscribe(inspectionId, plantName, inspectorId,
+                    jwt.getExpiresAt(), () -> tokenService.isStillValid(jwt)));
+        }
+        return ResponseEntity.ok(eventBroadcaster.subscribe(inspectionId, plantName, inspectorId, null, () -> true));
+    }
+
     /**
      * Erstellt eine neue Inspection auf Basis einer bestehenden Checklist. Die
      * Details werden aus dem Request gelesen, die verknüpfte Checklist wird
@@ -126,11 +297,42 @@ public class InspectionController {
         }
     }
 
+    /**
+     * Plant viele Inspektionen auf Basis einer Checklist in einem Request ein
+     * (nur für Admins). Alle Inspektionen und ihre Schritte werden in einer
+     * Transaktion angelegt.
+     *
+     * Beispiel: POST /api/inspections/bulk mit
+     * {@code {"checklistId": 1, "items": [{"plantName": "Werk Mannheim", "assignedInspectorId": 2, "plannedDate": "2025-03-01T08:00:00"}]}}
+     *
+     * @param request Checklist-ID und Liste der einzuplanenden Inspektionen
+     * @return {@code 201 Created} mit einer Zusammenfassung der angelegten
+     * Inspektionen oder {@code 400 Bad Request}, wenn die Checklist oder ein
+     * Inspektor nicht existiert
+     */
+    @PostMapping("/bulk")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<InspectionBulkCreateResponse> createBulk(@Valid
+    @RequestBody
+    InspectionBulkCreateRequest request) {
+        log.info("Bulk creating {} inspections for checklist {}", request.getItems().size(),
+                request.getChecklistId());
+        try {
+            InspectionBulkCreateResponse created = inspectionService.createInspectionsFromChecklist(request);
+            return ResponseEntity.status(HttpStatus.CREATED).body(created);
+        } catch (IllegalArgumentException e) {
+            log.error("Error bulk creating inspections: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * Aktualisiert den Status einer bestehenden Inspection.
      *
      * @param id die ID der zu aktualisierenden Inspection
      * @param newStatus der neue Statuswert als String
+     * @param ifMatch optional der zuletzt gelesene ETag; passt er nicht mehr,
+     * wird {@code 412 Precondition Failed} geliefert
      * @return {@code 200 OK} mit der aktualisierten {@link Inspection} oder
      * {@code 400 Bad Request}, wenn der Status ungültig ist, oder
      * {@code 404 Not Found}, wenn keine Inspection mit der ID existiert
@@ -139,11 +341,13 @@ public class InspectionController {
     @PreAuthorize("hasAnyRole('ADMIN', 'INSPECTOR')")
     public ResponseEntity<Inspection> updateStatus(@PathVariable
     Long id, @RequestBody
-    String newStatus) {
+    String newStatus, @RequestHeader(value = "If-Match", required = false)
+    String ifMatch) {
         log.info("Updating status of inspection with id {} to {}", id, newStatus);
         try {
-            Inspection updated = inspectionService.updateStatus(id, newStatus);
-            return ResponseEntity.ok(updated);
+            Inspection updated = inspectionService.updateStatus(id, newStatus,
+                    ETags.expectedVersion(ifMatch, "inspection", id));
+            return ResponseEntity.ok().eTag(ETags.of("inspection", id, updated.getVersion())).body(updated);
         } catch (IllegalArgumentException e) {
             log.error("Error updating inspection status: {}", e.getMessage());
             return ResponseEntity.badRequest().build();
@@ -1,15 +1,24 @@
 package de.dhbw.webenginspection.controller;
 
+import de.dhbw.webenginspection.dto.InspectionStepBatchRequest;
+import de.dhbw.webenginspection.dto.StoredPhoto;
 import de.dhbw.webenginspection.entity.InspectionStep;
+import de.dhbw.webenginspection.entity.StepAttachment;
 import de.dhbw.webenginspection.entity.StepStatus;
 import de.dhbw.webenginspection.service.InspectionStepService;
+import de.dhbw.webenginspection.service.StepAttachmentService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import jakarta.validation.Valid;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.InputStream;
 import java.util.List;
 
 /**
@@ -26,22 +35,60 @@ public class InspectionStepController {
 
     private final InspectionStepService inspectionStepService;
 
-    public InspectionStepController(InspectionStepService inspectionStepService) {
+    private final StepAttachmentService stepAttachmentService;
+
+    public InspectionStepController(InspectionStepService inspectionStepService,
+            StepAttachmentService stepAttachmentService) {
         this.inspectionStepService = inspectionStepService;
+        this.stepAttachmentService = stepAttachmentService;
     }
 
     /**
-     * Gibt alle Schritte einer bestimmten Inspection zurück.
+     * Gibt alle Schritte einer bestimmten Inspection zurück. Die Liste trägt den
+     * ETag der Inspection, deren Version jede Änderung an einem Schritt
+     * mitzählt.
      *
      * @param inspectionId die ID der Inspection
+     * @param webRequest der aktuelle Request (für {@code If-None-Match})
      * @return eine Liste aller zugehörigen {@link InspectionStep}-Entitäten
      */
     @GetMapping("/inspections/{inspectionId}/steps")
     @PreAuthorize("authenticated")
-    public List<InspectionStep> getStepsForInspection(@PathVariable
-    Long inspectionId) {
+    public ResponseEntity<List<InspectionStep>> getStepsForInspection(@PathVariable
+    Long inspectionId, WebRequest webRequest) {
         log.info("Fetching all steps for inspection with id {}", inspectionId);
-        return inspectionStepService.getStepsForInspection(inspectionId);
+        return inspectionStepService.getInspectionVersion(inspectionId)
+                .map(version -> ETags.conditional(webRequest, ETags.of("inspection", inspectionId, version),
+                        () -> inspectionStepService.getStepsForInspection(inspectionId)))
+                .orElseGet(() -> ResponseEntity.ok(inspectionStepService.getStepsForInspection(inspectionId)));
+    }
+
+    /**
+     * Übernimmt viele Schritt-Ergebnisse (Status, Kommentar, Foto-Referenz)
+     * einer Inspection in einem Request und einer Transaktion.
+     *
+     * @param inspectionId die ID der Inspection
+     * @param request die Änderungen an den Schritten
+     * @param ifMatch optional der zuletzt gelesene ETag der Inspection; passt
+     * er nicht mehr, wird {@code 412 Precondition Failed} geliefert
+     * @return {@code 200 OK} mit allen Schritten im neuen Zustand und neuem
+     * ETag, {@code 400 Bad Request} bei ungültigen Daten oder
+     * {@code 404 Not Found}, wenn die Inspection oder ein Schritt nicht
+     * existiert
+     */
+    @PatchMapping("/inspections/{inspectionId}/steps")
+    @PreAuthorize("authenticated")
+    public ResponseEntity<List<InspectionStep>> applyStepChanges(@PathVariable
+    Long inspectionId, @Valid
+    @RequestBody
+    InspectionStepBatchRequest request, @RequestHeader(value = "If-Match", required = false)
+    String ifMatch) {
+        log.info("Applying {} step changes to inspection {}", request.getChanges().size(), inspectionId);
+        List<InspectionStep> steps = inspectionStepService.applyStepChanges(inspectionId, request.getChanges(),
+                ETags.expectedVersion(ifMatch, "inspection", inspectionId));
+        return inspectionStepService.getInspectionVersion(inspectionId)
+                .map(version -> ResponseEntity.ok().eTag(ETags.of("inspection", inspectionId, version)))
+                .orElseGet(ResponseEntity::ok).body(steps);
     }
 
     /**
@@ -86,6 +133,15 @@ public class InspectionStepController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Lädt ein Foto für einen InspectionStep als Multipart-Formular hoch
+     * (Feld {@code file}).
+     *
+     * @param stepId die ID des Steps
+     * @param file die Bilddatei (JPEG, PNG, GIF, WebP oder HEIC, max. 5 MB)
+     * @return {@code 200 OK} mit dem aktualisierten Step oder
+     * {@code 400 Bad Request}, wenn die Datei ungültig ist
+     */
     @PostMapping("/inspection-steps/{stepId}/photo")
     @PreAuthorize("authenticated")
     public ResponseEntity<InspectionStep> uploadPhoto(@PathVariable
@@ -97,6 +153,109 @@ public class InspectionStepController {
         return ResponseEntity.ok(updated);
     }
 
+    /**
+     * Lädt ein Foto für einen InspectionStep als rohen Request-Body hoch. Der
+     * Body wird direkt aus dem Request auf die Platte gestreamt, ohne
+     * Multipart-Zwischenspeicherung.
+     *
+     * Gibt der Client den SHA-256-Hash im Header {@code X-Content-SHA256} an
+     * und ist dieser Inhalt schon gespeichert (z.&nbsp;B. dasselbe Foto an
+     * einem anderen Schritt oder ein wiederholter Upload), wird das Foto
+     * sofort verknüpft, ohne den Body zu lesen. Mit
+     * {@code Expect: 100-continue} wird er dann gar nicht erst gesendet.
+     *
+     * Beispiel: PUT /api/inspection-steps/42/photo mit
+     * {@code Content-Type: image/jpeg}
+     *
+     * @param stepId die ID des Steps
+     * @param sha256 der SHA-256-Hash des Inhalts (optional)
+     * @param body der Inhalt der Bilddatei (max. 5 MB)
+     * @return {@code 200 OK} mit dem aktualisierten Step oder
+     * {@code 400 Bad Request}, wenn die Datei ungültig ist oder nicht zum
+     * Hash passt
+     */
+    @PutMapping(path = "/inspection-steps/{stepId}/photo", consumes = { "image/*",
+            MediaType.APPLICATION_OCTET_STREAM_VALUE })
+    @PreAuthorize("authenticated")
+    public ResponseEntity<InspectionStep> putPhoto(@PathVariable
+    Long stepId, @RequestHeader(value = "X-Content-SHA256", required = false)
+    String sha256, InputStream body) {
+        String photoPath = inspectionStepService.savePhoto(stepId, body, sha256);
+        InspectionStep updated = inspectionStepService.updatePhotoPath(stepId, photoPath);
+        return ResponseEntity.ok(updated);
+    }
+
+    /**
+     * Gibt die Foto-Anhänge aller Schritte einer Inspection zurück; jeder
+     * Anhang nennt seinen Schritt in {@code inspectionStepId}.
+     *
+     * @param inspectionId die ID der Inspection
+     * @return {@code 200 OK} mit den Anhängen (ggf. leer)
+     */
+    @GetMapping("/inspections/{inspectionId}/attachments")
+    @PreAuthorize("authenticated")
+    public ResponseEntity<List<StepAttachment>> getAttachmentsForInspection(@PathVariable
+    Long inspectionId) {
+        log.info("Fetching attachments for inspection with id {}", inspectionId);
+        return ResponseEntity.ok(stepAttachmentService.getAttachmentsForInspection(inspectionId));
+    }
+
+    /**
+     * Gibt die Foto-Anhänge eines InspectionStep zurück.
+     *
+     * @param stepId die ID des Steps
+     * @return {@code 200 OK} mit den Anhängen oder {@code 404 Not Found}, wenn
+     * der Step nicht existiert
+     */
+    @GetMapping("/inspection-steps/{stepId}/attachments")
+    @PreAuthorize("authenticated")
+    public ResponseEntity<List<StepAttachment>> getAttachments(@PathVariable
+    Long stepId) {
+        log.info("Fetching attachments of inspection step with id {}", stepId);
+        return ResponseEntity.ok(stepAttachmentService.getAttachments(stepId));
+    }
+
+    /**
+     * Hängt mehrere Fotos in einem Request an einen InspectionStep an
+     * (Multipart-Formular, Feld {@code files} mehrfach). Die Dateien werden
+     * parallel gespeichert und in einer Transaktion verknüpft; ist eine Datei
+     * ungültig, wird keine angehängt.
+     *
+     * @param stepId die ID des Steps
+     * @param files die Bilddateien (je max. 5 MB, Anzahl siehe
+     * {@code app.upload.max-files})
+     * @return {@code 201 Created} mit den neuen Anhängen,
+     * {@code 400 Bad Request}, wenn eine Datei ungültig ist, oder
+     * {@code 404 Not Found}, wenn der Step nicht existiert
+     */
+    @PostMapping(path = "/inspection-steps/{stepId}/attachments", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("authenticated")
+    public ResponseEntity<List<StepAttachment>> uploadAttachments(@PathVariable
+    Long stepId, @RequestParam("files")
+    List<MultipartFile> files) {
+        log.info("Uploading {} attachments for inspection step with id {}", files.size(), stepId);
+        List<StoredPhoto> stored = stepAttachmentService.storeFiles(files);
+        List<StepAttachment> created = stepAttachmentService.addAttachments(stepId, stored);
+        return ResponseEntity.status(HttpStatus.CREATED).body(created);
+    }
+
+    /**
+     * Entfernt einen Foto-Anhang von einem InspectionStep.
+     *
+     * @param stepId die ID des Steps
+     * @param attachmentId die ID des Anhangs
+     * @return {@code 204 No Content} oder {@code 404 Not Found}, wenn der
+     * Anhang an diesem Step nicht existiert
+     */
+    @DeleteMapping("/inspection-steps/{stepId}/attachments/{attachmentId}")
+    @PreAuthorize("authenticated")
+    public ResponseEntity<Void> deleteAttachment(@PathVariable
+    Long stepId, @PathVariable
+    Long attachmentId) {
+        stepAttachmentService.deleteAttachment(stepId, attachmentId);
+        return ResponseEntity.noContent().build();
+    }
+
     /**
      * Aktualisiert den Status eines InspectionStep.
      *
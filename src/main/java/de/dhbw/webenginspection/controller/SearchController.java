@@ -0,0 +1,54 @@
+package de.dhbw.webenginspection.controller;
+
+import de.dhbw.webenginspection.dto.CursorPage;
+import de.dhbw.webenginspection.dto.SearchHit;
+import de.dhbw.webenginspection.service.SearchIndexService;
+
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * REST-Controller für die Volltextsuche über Befunde (Kommentare von
+ * Inspektionen und Schritten) und Checklisten-Texte.
+ */
+@RestController
+@RequestMapping("/api/search")
+@CrossOrigin(origins = "http://localhost:5173") // für React-Frontend
+public class SearchController {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchController.class);
+
+    private final SearchIndexService searchIndexService;
+
+    public SearchController(SearchIndexService searchIndexService) {
+        this.searchIndexService = searchIndexService;
+    }
+
+    /**
+     * Sucht Inspektionen und Checklisten, deren Texte alle Begriffe enthalten,
+     * sortiert nach Relevanz. Die nächste Seite wird über den
+     * zurückgelieferten {@code nextCursor} abgefragt.
+     *
+     * Beispiel: GET /api/search?q=Korrosion&type=INSPECTION&limit=20
+     *
+     * @param query der Suchtext
+     * @param type optionale Einschränkung auf {@code INSPECTION} oder
+     * {@code CHECKLIST}
+     * @param cursor Fortsetzungs-Token der vorherigen Seite (optional)
+     * @param limit maximale Anzahl an Treffern pro Seite
+     * @return die Seite mit {@link SearchHit}s oder {@code 400 Bad Request},
+     * wenn der Suchtext keine Begriffe enthält
+     */
+    @GetMapping
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSPECTOR')")
+    public CursorPage<SearchHit> search(@RequestParam("q")
+    String query, @RequestParam(value = "type", required = false)
+    SearchHit.Type type, @RequestParam(value = "cursor", required = false)
+    String cursor, @RequestParam(value = "limit", defaultValue = "20")
+    int limit) {
+        log.info("Searching for '{}' (type {}, cursor {}, limit {})", query, type, cursor, limit);
+        return searchIndexService.search(query, type, cursor, limit);
+    }
+}
@@ -0,0 +1,113 @@
+package de.dhbw.webenginspection.controller;
+
+import de.dhbw.webenginspection.dto.OperationLogRequest;
+import de.dhbw.webenginspection.dto.OperationResult;
+import de.dhbw.webenginspection.dto.SyncResponse;
+import de.dhbw.webenginspection.entity.User;
+import de.dhbw.webenginspection.service.OperationLogService;
+import de.dhbw.webenginspection.service.SyncService;
+import de.dhbw.webenginspection.service.UserService;
+import jakarta.validation.Valid;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * REST-Controller für die Delta-Synchronisation der Clients und das Hochladen
+ * offline erfasster Änderungen.
+ */
+@RestController
+@RequestMapping("/api/sync")
+@CrossOrigin(origins = "http://localhost:5173")
+public class SyncController {
+
+    private static final Logger log = LoggerFactory.getLogger(SyncController.class);
+
+    private final SyncService syncService;
+
+    private final OperationLogService operationLogService;
+
+    private final UserService userService;
+
+    public SyncController(SyncService syncService, OperationLogService operationLogService,
+            UserService userService) {
+        this.syncService = syncService;
+        this.operationLogService = operationLogService;
+        this.userService = userService;
+    }
+
+    /**
+     * Liefert alle seit {@code since} angelegten, geänderten und gelöschten
+     * Inspektionen, Schritte und Checklisten. Inspektoren erhalten nur ihre
+     * eigenen Inspektionen samt Schritten und zugehörigen Checklisten, Admins
+     * alle. Ohne {@code since} wird vollständig synchronisiert.
+     *
+     * Beispiel: GET /api/sync?since=1842
+     *
+     * @param since das Token aus der letzten Antwort (optional)
+     * @param authentication die aktuelle Authentication
+     * @return {@code 200 OK} mit den Änderungen und dem nächsten Token oder
+     * {@code 400 Bad Request} bei ungültigem Token
+     */
+    @GetMapping
+    @PreAuthorize("authenticated")
+    public ResponseEntity<SyncResponse> sync(@RequestParam(value = "since", required = false)
+    String since, Authentication authentication) {
+        log.info("Synchronizing changes since {} for user {}", since, authentication.getName());
+
+        Long inspectorId = null;
+        if (!isAdmin(authentication)) {
+            inspectorId = userService.getUserByUsername(authentication.getName()).map(User::getId).orElse(null);
+            if (inspectorId == null) {
+                return ResponseEntity.status(403).build(); // Forbidden
+            }
+        }
+        return ResponseEntity.ok(syncService.getChanges(since, inspectorId));
+    }
+
+    /**
+     * Wendet ein offline gesammeltes Operations-Log an. Große Logs sendet der
+     * Client in Abschnitten von höchstens
+     * {@value OperationLogRequest#MAX_OPERATIONS} Operationen. Bereits
+     * verarbeitete Schlüssel werden nicht erneut angewendet; ihr damaliger
+     * Ausgang wird mit {@code duplicate = true} gemeldet. Inspektoren können
+     * nur ihre eigenen Inspektionen ändern.
+     *
+     * Beispiel: POST /api/sync/operations
+     *
+     * @param request das Operations-Log
+     * @param authentication die aktuelle Authentication
+     * @return {@code 200 OK} mit dem Ergebnis je Operation oder
+     * {@code 409 Conflict}, wenn dasselbe Log gerade parallel verarbeitet wird
+     */
+    @PostMapping("/operations")
+    @PreAuthorize("authenticated")
+    public ResponseEntity<List<OperationResult>> applyOperations(@Valid @RequestBody
+    OperationLogRequest request, Authentication authentication) {
+        log.info("Applying {} offline operations for user {}", request.getOperations().size(),
+                authentication.getName());
+
+        User user = userService.getUserByUsername(authentication.getName()).orElse(null);
+        if (user == null) {
+            return ResponseEntity.status(403).build(); // Forbidden
+        }
+        Long inspectorId = isAdmin(authentication) ? null : user.getId();
+        try {
+            return ResponseEntity.ok(operationLogService.apply(request.getOperations(), user.getId(), inspectorId));
+        } catch (DuplicateKeyException e) {
+            log.warn("Operation log of user {} is being processed concurrently", authentication.getName());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    private static boolean isAdmin(Authentication authentication) {
+        return authentication.getAuthorities().stream().anyMatch(auth -> auth.getAuthority().equals("ROLE_ADMIN"));
+    }
+}
@@ -0,0 +1,51 @@
+package de.dhbw.webenginspection.controller;
+
+import de.dhbw.webenginspection.dto.TypeaheadSuggestion;
+import de.dhbw.webenginspection.service.TypeaheadIndex;
+
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * REST-Controller für Typeahead-Vorschläge in Formularen (Checklisten,
+ * Anlagennamen, Inspektoren). Die Vorschläge kommen aus dem
+ * {@link TypeaheadIndex} im Speicher, nicht aus der Datenbank.
+ */
+@RestController
+@RequestMapping("/api/typeahead")
+@CrossOrigin(origins = "http://localhost:5173") // für React-Frontend
+public class TypeaheadController {
+
+    private static final Logger log = LoggerFactory.getLogger(TypeaheadController.class);
+
+    private final TypeaheadIndex typeaheadIndex;
+
+    public TypeaheadController(TypeaheadIndex typeaheadIndex) {
+        this.typeaheadIndex = typeaheadIndex;
+    }
+
+    /**
+     * Liefert die besten Vorschläge einer Art für die bisherige Eingabe.
+     *
+     * Beispiel: GET /api/typeahead?type=CHECKLIST&q=brand&limit=10
+     *
+     * @param type {@code CHECKLIST}, {@code PLANT} oder {@code USER}
+     * @param query die bisherige Eingabe
+     * @param limit maximale Anzahl an Vorschlägen (höchstens
+     * {@value TypeaheadIndex#MAX_LIMIT})
+     * @return die Vorschläge, beste zuerst
+     */
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public List<TypeaheadSuggestion> suggest(@RequestParam("type")
+    TypeaheadSuggestion.Type type, @RequestParam("q")
+    String query, @RequestParam(value = "limit", defaultValue = "10")
+    int limit) {
+        log.info("Typeahead {} for '{}' (limit {})", type, query, limit);
+        return typeaheadIndex.suggest(type, query, limit);
+    }
+}
@@ -1,6 +1,7 @@
 package de.dhbw.webenginspection.controller;
 
 import de.dhbw.webenginspection.dto.UserResponse;
+import de.dhbw.webenginspection.entity.UserRole;
 import de.dhbw.webenginspection.service.UserService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -53,4 +54,22 @@ public class UserController {
         return userService.getUserById(id).map(user -> ResponseEntity.ok(UserResponse.fromEntity(user)))
                 .orElse(ResponseEntity.notFound().build());
     }
-}
\ No newline at end of file
+
+    /**
+     * Ändert die Rolle eines Benutzers (nur für Admins). Bestehende Tokens des
+     * Benutzers werden dabei widerrufen.
+     *
+     * @param id die ID des Benutzers
+     * @param role die neue Rolle
+     * @return {@code 200 OK} mit dem aktualisierten Benutzer oder
+     * {@code 404 Not Found}
+     */
+    @PutMapping("/{id}/role")
+    @PreAuthorize("hasRole('ADMIN')")
+    public UserResponse changeRole(@PathVariable
+    Long id, @RequestBody
+    UserRole role) {
+        log.info("Changing role of user {} to {}", id, role);
+        return UserResponse.fromEntity(userService.changeRole(id, role));
+    }
+}
@@ -0,0 +1,59 @@
+package de.dhbw.webenginspection.dto;
+
+/**
+ * Trefferstatistik einer Region des Second-Level-Caches seit dem Start der
+ * Anwendung.
+ */
+public class CacheRegionStats {
+
+    private String region;
+
+    private long hitCount;
+
+    private long missCount;
+
+    private long putCount;
+
+    // Anzahl der aktuell gehaltenen Einträge (-1, wenn der Provider sie nicht liefert)
+    private long size;
+
+    public CacheRegionStats() {
+        // für Jackson
+    }
+
+    public CacheRegionStats(String region, long hitCount, long missCount, long putCount, long size) {
+        this.region = region;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.putCount = putCount;
+        this.size = size;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getPutCount() {
+        return putCount;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Anteil der Treffer an allen Zugriffen (0, solange es keine Zugriffe gab).
+     */
+    public double getHitRatio() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 0 : (double) hitCount / requests;
+    }
+}
@@ -0,0 +1,42 @@
+package de.dhbw.webenginspection.dto;
+
+import java.util.List;
+
+/**
+ * Eine Seite einer Keyset-paginierten Liste. Enthält die Einträge der Seite
+ * sowie einen Fortsetzungs-Token, mit dem die nächste Seite abgefragt werden
+ * kann. Ist {@code nextCursor} {@code null}, gibt es keine weiteren Einträge.
+ *
+ * @param <T> Typ der Einträge
+ */
+public class CursorPage<T> {
+
+    private List<T> items;
+
+    private String nextCursor;
+
+    public CursorPage() {
+        // für Jackson
+    }
+
+    public CursorPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
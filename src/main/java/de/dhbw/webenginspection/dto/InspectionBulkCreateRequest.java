@@ -0,0 +1,132 @@
+package de.dhbw.webenginspection.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+
+/**
+ * Data Transfer Object zum Einplanen vieler Inspektionen auf Basis derselben
+ * Checklist in einem Request (z.&nbsp;B. eine Kampagne über mehrere Anlagen
+ * und Inspektoren). Für jeden Eintrag in {@code items} wird eine Inspection
+ * erzeugt.
+ */
+public class InspectionBulkCreateRequest {
+
+    /**
+     * Maximale Anzahl an Inspektionen pro Request.
+     */
+    public static final int MAX_ITEMS = 5000;
+
+    /**
+     * Die ID der Checklist, auf deren Basis alle Inspektionen erzeugt werden.
+     */
+    @NotNull(message = "checklistId is required")
+    private Long checklistId;
+
+    /**
+     * Optionaler Titel für alle Inspektionen. Fehlt er, wird der Name der
+     * Checklist verwendet.
+     */
+    @Size(max = 255, message = "title must not exceed 255 characters")
+    private String title;
+
+    /**
+     * Optionaler allgemeiner Kommentar für alle Inspektionen.
+     */
+    @Size(max = 2000, message = "generalComment must not exceed 2000 characters")
+    private String generalComment;
+
+    /**
+     * Die einzuplanenden Inspektionen (Anlage, Inspektor, Termin).
+     */
+    @NotEmpty(message = "items must not be empty")
+    @Size(max = MAX_ITEMS, message = "items must not contain more than " + MAX_ITEMS + " entries")
+    @Valid
+    private List<Item> items;
+
+    public InspectionBulkCreateRequest() {
+    }
+
+    public Long getChecklistId() {
+        return checklistId;
+    }
+
+    public void setChecklistId(Long checklistId) {
+        this.checklistId = checklistId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getGeneralComment() {
+        return generalComment;
+    }
+
+    public void setGeneralComment(String generalComment) {
+        this.generalComment = generalComment;
+    }
+
+    public List<Item> getItems() {
+        return items;
+    }
+
+    public void setItems(List<Item> items) {
+        this.items = items;
+    }
+
+    /**
+     * Eine einzelne einzuplanende Inspection innerhalb des Bulk-Requests.
+     */
+    public static class Item {
+
+        @NotBlank(message = "plantName is required")
+        @Size(max = 255, message = "plantName must not exceed 255 characters")
+        private String plantName;
+
+        @NotNull(message = "assignedInspectorId is required")
+        private Long assignedInspectorId;
+
+        @NotNull(message = "plannedDate is required")
+        private LocalDateTime plannedDate;
+
+        public Item() {
+        }
+
+        public Item(String plantName, Long assignedInspectorId, LocalDateTime plannedDate) {
+            this.plantName = plantName;
+            this.assignedInspectorId = assignedInspectorId;
+            this.plannedDate = plannedDate;
+        }
+
+        public String getPlantName() {
+            return plantName;
+        }
+
+        public void setPlantName(String plantName) {
+            this.plantName = plantName;
+        }
+
+        public Long getAssignedInspectorId() {
+            return assignedInspectorId;
+        }
+
+        public void setAssignedInspectorId(Long assignedInspectorId) {
+            this.assignedInspectorId = assignedInspectorId;
+        }
+
+        public LocalDateTime getPlannedDate() {
+            return plannedDate;
+        }
+
+        public void setPlannedDate(LocalDateTime plannedDate) {
+            this.plannedDate = plannedDate;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package de.dhbw.webenginspection.dto;
+
+import java.util.List;
+
+/**
+ * Kompakte Zusammenfassung einer Bulk-Einplanung: welche Inspektionen angelegt
+ * wurden und wie viele Schritte dabei insgesamt entstanden sind.
+ */
+public class InspectionBulkCreateResponse {
+
+    private Long checklistId;
+
+    private int inspectionCount;
+
+    private int stepCount;
+
+    private List<Long> inspectionIds;
+
+    public InspectionBulkCreateResponse() {
+        // für Jackson
+    }
+
+    public InspectionBulkCreateResponse(Long checklistId, int stepCount, List<Long> inspectionIds) {
+        this.checklistId = checklistId;
+        this.inspectionCount = inspectionIds.size();
+        this.stepCount = stepCount;
+        this.inspectionIds = inspectionIds;
+    }
+
+    public Long getChecklistId() {
+        return checklistId;
+    }
+
+    public int getInspectionCount() {
+        return inspectionCount;
+    }
+
+    public int getStepCount() {
+        return stepCount;
+    }
+
+    public List<Long> getInspectionIds() {
+        return inspectionIds;
+    }
+}
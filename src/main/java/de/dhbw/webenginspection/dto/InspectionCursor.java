@@ -0,0 +1,69 @@
+package de.dhbw.webenginspection.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position innerhalb der nach {@code (plannedDate, id)} sortierten
+ * Inspektionsliste. Wird als opaker, URL-sicherer Token an den Client gegeben
+ * und bei der nächsten Anfrage wieder eingelesen. Da der Token nur aus den
+ * Sortierschlüsseln des letzten Eintrags besteht, bleibt er auch dann gültig,
+ * wenn zwischenzeitlich Inspektionen angelegt oder gelöscht werden.
+ */
+public final class InspectionCursor {
+
+    private static final String NO_DATE = "-";
+
+    private final LocalDateTime plannedDate;
+
+    private final Long id;
+
+    public InspectionCursor(LocalDateTime plannedDate, Long id) {
+        this.plannedDate = plannedDate;
+        this.id = id;
+    }
+
+    /**
+     * Liest einen zuvor mit {@link #encode()} erzeugten Token ein.
+     *
+     * @param token der Fortsetzungs-Token
+     * @return die dekodierte Position
+     * @throws IllegalArgumentException wenn der Token ungültig ist
+     */
+    public static InspectionCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + token);
+            }
+            String datePart = raw.substring(0, separator);
+            LocalDateTime plannedDate = NO_DATE.equals(datePart) ? null : LocalDateTime.parse(datePart);
+            Long id = Long.valueOf(raw.substring(separator + 1));
+            return new InspectionCursor(plannedDate, id);
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            // NumberFormatException ist eine IllegalArgumentException
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+    }
+
+    /**
+     * Kodiert die Position als URL-sicheren Token.
+     *
+     * @return der Fortsetzungs-Token
+     */
+    public String encode() {
+        String raw = (plannedDate != null ? plannedDate.toString() : NO_DATE) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime getPlannedDate() {
+        return plannedDate;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,255 @@
+package de.dhbw.webenginspection.dto;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import de.dhbw.webenginspection.entity.ChecklistStep;
+import de.dhbw.webenginspection.entity.Inspection;
+import de.dhbw.webenginspection.entity.InspectionStatus;
+import de.dhbw.webenginspection.entity.InspectionStep;
+import de.dhbw.webenginspection.entity.StepStatus;
+
+/**
+ * Response-DTO für die Detailansicht einer Inspection. Enthält die Inspection
+ * selbst, den zugewiesenen Inspektor, die Checklist-Metadaten sowie alle
+ * Schritte inklusive Vorlagentext und Foto-Informationen, sortiert nach der
+ * Reihenfolge in der Checkliste. Damit genügt dem Frontend ein einziger
+ * Request statt separater Aufrufe für Inspection und Schritte.
+ */
+public class InspectionDetailResponse {
+
+    // Reihenfolge wie in der Checkliste, Schritte ohne orderIndex am Ende
+    private static final Comparator<StepDetail> STEP_ORDER = Comparator
+            .comparing(StepDetail::sortIndex, Comparator.nullsLast(Comparator.<Integer>naturalOrder()))
+            .thenComparing(StepDetail::getId);
+
+    private Long id;
+
+    private String title;
+
+    private String plantName;
+
+    private InspectionStatus status;
+
+    private LocalDateTime plannedDate;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    private String generalComment;
+
+    private Long checklistId;
+
+    private String checklistName;
+
+    private String recommendations;
+
+    private UserResponse assignedInspector;
+
+    private List<StepDetail> steps;
+
+    // Version der Inspection (nur für den ETag, nicht im JSON)
+    @JsonIgnore
+    private long version;
+
+    public InspectionDetailResponse() {
+        // für Jackson
+    }
+
+    /**
+     * Erzeugt das DTO aus einer Inspection, deren Inspektor, Checklist und
+     * Schritte (inkl. ChecklistStep) bereits geladen sind. Greift auf keine
+     * weiteren Lazy-Beziehungen zu.
+     *
+     * @param inspection die vollständig geladene {@link Inspection}
+     * @return das befüllte DTO
+     */
+    public static InspectionDetailResponse fromEntity(Inspection inspection) {
+        InspectionDetailResponse response = new InspectionDetailResponse();
+        response.id = inspection.getId();
+        response.title = inspection.getTitle();
+        response.plantName = inspection.getPlantName();
+        response.status = inspection.getStatus();
+        response.plannedDate = inspection.getPlannedDate();
+        response.startedAt = inspection.getStartedAt();
+        response.finishedAt = inspection.getFinishedAt();
+        response.generalComment = inspection.getGeneralComment();
+
+        if (inspection.getChecklist() != null) {
+            response.checklistId = inspection.getChecklist().getId();
+            response.checklistName = inspection.getChecklist().getName();
+            response.recommendations = inspection.getChecklist().getRecommendations();
+        }
+        if (inspection.getAssignedInspector() != null) {
+            response.assignedInspector = UserResponse.fromEntity(inspection.getAssignedInspector());
+        }
+
+        response.steps = inspection.getSteps().stream().map(StepDetail::fromEntity).sorted(STEP_ORDER).toList();
+        response.version = inspection.getVersion();
+        return response;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getPlantName() {
+        return plantName;
+    }
+
+    public InspectionStatus getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getPlannedDate() {
+        return plannedDate;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getGeneralComment() {
+        return generalComment;
+    }
+
+    public Long getChecklistId() {
+        return checklistId;
+    }
+
+    public String getChecklistName() {
+        return checklistName;
+    }
+
+    public String getRecommendations() {
+        return recommendations;
+    }
+
+    public UserResponse getAssignedInspector() {
+        return assignedInspector;
+    }
+
+    public List<StepDetail> getSteps() {
+        return steps;
+    }
+
+    /**
+     * Ein Schritt der Inspection inklusive Vorlagentext und Foto-Informationen.
+     */
+    public static class StepDetail {
+
+        private Long id;
+
+        private StepStatus status;
+
+        private String comment;
+
+        private String photoPath;
+
+        private String photoUrl;
+
+        private ChecklistStepInfo checklistStep;
+
+        public StepDetail() {
+        }
+
+        static StepDetail fromEntity(InspectionStep step) {
+            StepDetail detail = new StepDetail();
+            detail.id = step.getId();
+            detail.status = step.getStatus();
+            detail.comment = step.getComment();
+            detail.photoPath = step.getPhotoPath();
+            detail.photoUrl = step.getPhotoPath() != null ? "/api/files/" + step.getPhotoPath() : null;
+            if (step.getChecklistStep() != null) {
+                detail.checklistStep = ChecklistStepInfo.fromEntity(step.getChecklistStep());
+            }
+            return detail;
+        }
+
+        Integer sortIndex() {
+            return checklistStep != null ? checklistStep.getOrderIndex() : null;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public StepStatus getStatus() {
+            return status;
+        }
+
+        public String getComment() {
+            return comment;
+        }
+
+        public String getPhotoPath() {
+            return photoPath;
+        }
+
+        public String getPhotoUrl() {
+            return photoUrl;
+        }
+
+        public ChecklistStepInfo getChecklistStep() {
+            return checklistStep;
+        }
+    }
+
+    /**
+     * Vorlagentext des zugrunde liegenden {@link ChecklistStep}.
+     */
+    public static class ChecklistStepInfo {
+
+        private Long id;
+
+        private String description;
+
+        private String requirement;
+
+        private Integer orderIndex;
+
+        public ChecklistStepInfo() {
+        }
+
+        static ChecklistStepInfo fromEntity(ChecklistStep step) {
+            ChecklistStepInfo info = new ChecklistStepInfo();
+            info.id = step.getId();
+            info.description = step.getDescription();
+            info.requirement = step.getRequirement();
+            info.orderIndex = step.getOrderIndex();
+            return info;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public String getRequirement() {
+            return requirement;
+        }
+
+        public Integer getOrderIndex() {
+            return orderIndex;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package de.dhbw.webenginspection.dto;
+
+import java.time.LocalDateTime;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import de.dhbw.webenginspection.entity.InspectionStatus;
+
+/**
+ * Filterkriterien für die serverseitig gefilterte Inspektionsliste. Alle Felder
+ * sind optional; nicht gesetzte Felder schränken das Ergebnis nicht ein. Die
+ * Werte werden direkt aus den Query-Parametern gebunden, z.&nbsp;B.
+ * {@code ?status=PLANNED&plantName=Werk%20Mannheim&plannedFrom=2025-01-01T00:00:00}.
+ */
+public class InspectionFilter {
+
+    private InspectionStatus status;
+
+    private String plantName;
+
+    private Long inspectorId;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime plannedFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime plannedTo;
+
+    public InspectionFilter() {
+    }
+
+    public InspectionStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(InspectionStatus status) {
+        this.status = status;
+    }
+
+    public String getPlantName() {
+        return plantName;
+    }
+
+    public void setPlantName(String plantName) {
+        this.plantName = plantName;
+    }
+
+    public Long getInspectorId() {
+        return inspectorId;
+    }
+
+    public void setInspectorId(Long inspectorId) {
+        this.inspectorId = inspectorId;
+    }
+
+    public LocalDateTime getPlannedFrom() {
+        return plannedFrom;
+    }
+
+    public void setPlannedFrom(LocalDateTime plannedFrom) {
+        this.plannedFrom = plannedFrom;
+    }
+
+    public LocalDateTime getPlannedTo() {
+        return plannedTo;
+    }
+
+    public void setPlannedTo(LocalDateTime plannedTo) {
+        this.plannedTo = plannedTo;
+    }
+}
@@ -0,0 +1,95 @@
+package de.dhbw.webenginspection.dto;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import de.dhbw.webenginspection.entity.Inspection;
+import de.dhbw.webenginspection.entity.InspectionStep;
+
+/**
+ * Statusänderung an einer Inspection oder einem ihrer Schritte. Wird von den
+ * Services in der ändernden Transaktion veröffentlicht und nach dem Commit an
+ * die Abonnenten von {@code GET /api/inspections/events} gesendet.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class InspectionProgressEvent {
+
+    public static final String STEP_STATUS = "stepStatus";
+
+    public static final String INSPECTION_STATUS = "inspectionStatus";
+
+    private String type;
+
+    private Long inspectionId;
+
+    private String plantName;
+
+    private Long inspectorId;
+
+    private Long stepId;
+
+    private String status;
+
+    private LocalDateTime occurredAt;
+
+    public InspectionProgressEvent() {
+        // für Jackson
+    }
+
+    public InspectionProgressEvent(String type, Long inspectionId, String plantName, Long inspectorId, Long stepId,
+            String status, LocalDateTime occurredAt) {
+        this.type = type;
+        this.inspectionId = inspectionId;
+        this.plantName = plantName;
+        this.inspectorId = inspectorId;
+        this.stepId = stepId;
+        this.status = status;
+        this.occurredAt = occurredAt;
+    }
+
+    public static InspectionProgressEvent stepStatus(InspectionStep step) {
+        Inspection inspection = step.getInspection();
+        return new InspectionProgressEvent(STEP_STATUS, inspection.getId(), inspection.getPlantName(),
+                inspectorIdOf(inspection), step.getId(), step.getStatus() != null ? step.getStatus().name() : null,
+                LocalDateTime.now());
+    }
+
+    public static InspectionProgressEvent inspectionStatus(Inspection inspection) {
+        return new InspectionProgressEvent(INSPECTION_STATUS, inspection.getId(), inspection.getPlantName(),
+                inspectorIdOf(inspection), null,
+                inspection.getStatus() != null ? inspection.getStatus().name() : null, LocalDateTime.now());
+    }
+
+    private static Long inspectorIdOf(Inspection inspection) {
+        return inspection.getAssignedInspector() != null ? inspection.getAssignedInspector().getId() : null;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public Long getInspectionId() {
+        return inspectionId;
+    }
+
+    public String getPlantName() {
+        return plantName;
+    }
+
+    public Long getInspectorId() {
+        return inspectorId;
+    }
+
+    public Long getStepId() {
+        return stepId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+}
@@ -0,0 +1,127 @@
+package de.dhbw.webenginspection.dto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import de.dhbw.webenginspection.entity.InspectionStatus;
+
+/**
+ * Kennzahlen für das Dashboard: Anzahl der Inspektionen je
+ * {@link InspectionStatus}, optional aufgeschlüsselt nach Anlage und nach
+ * Inspektor. Jede Statuszählung enthält alle Statuswerte (fehlende mit 0), so
+ * dass das Frontend nicht selbst auffüllen muss.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class InspectionStats {
+
+    private final Map<InspectionStatus, Long> counts;
+
+    private final long total;
+
+    private final List<Group> byPlant;
+
+    private final List<Group> byInspector;
+
+    public InspectionStats(Map<InspectionStatus, Long> counts, List<Group> byPlant, List<Group> byInspector) {
+        this.counts = counts;
+        this.total = sum(counts);
+        this.byPlant = byPlant;
+        this.byInspector = byInspector;
+    }
+
+    /**
+     * Baut die Gesamtzählung aus den Zeilen der Status-Abfrage auf.
+     */
+    public static Map<InspectionStatus, Long> toCounts(List<InspectionStatusCount> rows) {
+        Map<InspectionStatus, Long> counts = emptyCounts();
+        for (InspectionStatusCount row : rows) {
+            counts.merge(row.getStatus(), row.getCount(), Long::sum);
+        }
+        return counts;
+    }
+
+    /**
+     * Fasst die Zeilen einer gruppierten Abfrage (sortiert nach Gruppe) zu je
+     * einer {@link Group} pro Anlage bzw. Inspektor zusammen.
+     */
+    public static List<Group> toGroups(List<InspectionStatusCount> rows) {
+        Map<List<Object>, Group> groups = new LinkedHashMap<>();
+        for (InspectionStatusCount row : rows) {
+            // Arrays.asList erlaubt null (Inspektionen ohne Inspektor)
+            Group group = groups.computeIfAbsent(Arrays.asList(row.getInspectorId(), row.getLabel()),
+                    key -> new Group(row.getInspectorId(), row.getLabel()));
+            group.counts.merge(row.getStatus(), row.getCount(), Long::sum);
+        }
+        return new ArrayList<>(groups.values());
+    }
+
+    private static Map<InspectionStatus, Long> emptyCounts() {
+        Map<InspectionStatus, Long> counts = new EnumMap<>(InspectionStatus.class);
+        for (InspectionStatus status : InspectionStatus.values()) {
+            counts.put(status, 0L);
+        }
+        return counts;
+    }
+
+    private static long sum(Map<InspectionStatus, Long> counts) {
+        return counts.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    public Map<InspectionStatus, Long> getCounts() {
+        return counts;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public List<Group> getByPlant() {
+        return byPlant;
+    }
+
+    public List<Group> getByInspector() {
+        return byInspector;
+    }
+
+    /**
+     * Statuszählung einer einzelnen Anlage bzw. eines einzelnen Inspektors.
+     * {@code inspectorId} ist nur bei der Aufschlüsselung nach Inspektor
+     * gesetzt.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Group {
+
+        private final Long inspectorId;
+
+        private final String label;
+
+        private final Map<InspectionStatus, Long> counts = emptyCounts();
+
+        Group(Long inspectorId, String label) {
+            this.inspectorId = inspectorId;
+            this.label = label;
+        }
+
+        public Long getInspectorId() {
+            return inspectorId;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public Map<InspectionStatus, Long> getCounts() {
+            return counts;
+        }
+
+        public long getTotal() {
+            return sum(counts);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package de.dhbw.webenginspection.dto;
+
+import de.dhbw.webenginspection.entity.InspectionStatus;
+
+/**
+ * Ergebniszeile der GROUP-BY-Abfragen für die Dashboard-Kennzahlen: Anzahl der
+ * Inspektionen je {@link InspectionStatus}, optional zusätzlich gruppiert nach
+ * Anlage oder Inspektor. Wird per Konstruktor-Ausdruck in der JPQL-Abfrage
+ * erzeugt und nur intern zum Aufbau von {@link InspectionStats} verwendet.
+ */
+public class InspectionStatusCount {
+
+    private final Long inspectorId;
+
+    private final String label;
+
+    private final InspectionStatus status;
+
+    private final long count;
+
+    public InspectionStatusCount(InspectionStatus status, Long count) {
+        this(null, null, status, count);
+    }
+
+    public InspectionStatusCount(String plantName, InspectionStatus status, Long count) {
+        this(null, plantName, status, count);
+    }
+
+    public InspectionStatusCount(Long inspectorId, String inspectorDisplayName, InspectionStatus status, Long count) {
+        this.inspectorId = inspectorId;
+        this.label = inspectorDisplayName;
+        this.status = status;
+        this.count = count != null ? count : 0;
+    }
+
+    public Long getInspectorId() {
+        return inspectorId;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public InspectionStatus getStatus() {
+        return status;
+    }
+
+    public long getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,97 @@
+package de.dhbw.webenginspection.dto;
+
+import java.util.List;
+
+import de.dhbw.webenginspection.entity.StepStatus;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+
+/**
+ * Data Transfer Object zum Übermitteln vieler Schritt-Ergebnisse einer
+ * Inspection in einem Request (z.&nbsp;B. gesammelte Änderungen aus der
+ * mobilen Durchführung). Alle Änderungen werden in einer Transaktion
+ * angewendet.
+ */
+public class InspectionStepBatchRequest {
+
+    /**
+     * Maximale Anzahl an Änderungen pro Request.
+     */
+    public static final int MAX_CHANGES = 1000;
+
+    @NotEmpty(message = "changes must not be empty")
+    @Size(max = MAX_CHANGES, message = "changes must not contain more than " + MAX_CHANGES + " entries")
+    @Valid
+    private List<Change> changes;
+
+    public InspectionStepBatchRequest() {
+    }
+
+    public List<Change> getChanges() {
+        return changes;
+    }
+
+    public void setChanges(List<Change> changes) {
+        this.changes = changes;
+    }
+
+    /**
+     * Änderung an einem einzelnen Schritt. Nicht gesetzte Felder
+     * ({@code null}) bleiben unverändert.
+     */
+    public static class Change {
+
+        @NotNull(message = "stepId is required")
+        private Long stepId;
+
+        private StepStatus status;
+
+        @Size(max = 2000, message = "comment must not exceed 2000 characters")
+        private String comment;
+
+        @Size(max = 255, message = "photoPath must not exceed 255 characters")
+        private String photoPath;
+
+        public Change() {
+        }
+
+        public Change(Long stepId, StepStatus status, String comment, String photoPath) {
+            this.stepId = stepId;
+            this.status = status;
+            this.comment = comment;
+            this.photoPath = photoPath;
+        }
+
+        public Long getStepId() {
+            return stepId;
+        }
+
+        public void setStepId(Long stepId) {
+            this.stepId = stepId;
+        }
+
+        public StepStatus getStatus() {
+            return status;
+        }
+
+        public void setStatus(StepStatus status) {
+            this.status = status;
+        }
+
+        public String getComment() {
+            return comment;
+        }
+
+        public void setComment(String comment) {
+            this.comment = comment;
+        }
+
+        public String getPhotoPath() {
+            return photoPath;
+        }
+
+        public void setPhotoPath(String photoPath) {
+            this.photoPath = photoPath;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package de.dhbw.webenginspection.dto;
+
+import java.time.LocalDateTime;
+
+import de.dhbw.webenginspection.entity.InspectionStatus;
+
+/**
+ * Schlankes Lese-Modell einer Inspection für Listenansichten. Enthält nur die
+ * Felder, die in Tabellen und Karten angezeigt werden, sowie die Anzahl der
+ * Schritte je Ergebnis. Wird per Konstruktor-Ausdruck direkt in der
+ * JPQL-Abfrage erzeugt, sodass weder die Schritte noch der zugewiesene
+ * {@link de.dhbw.webenginspection.entity.User} als Entitäten geladen werden.
+ */
+public class InspectionSummary {
+
+    private Long id;
+
+    private String title;
+
+    private String plantName;
+
+    private InspectionStatus status;
+
+    private LocalDateTime plannedDate;
+
+    private Long inspectorId;
+
+    private String inspectorDisplayName;
+
+    private long stepCount;
+
+    private long passedCount;
+
+    private long failedCount;
+
+    private long notApplicableCount;
+
+    public InspectionSummary() {
+        // für Jackson
+    }
+
+    public InspectionSummary(Long id, String title, String plantName, InspectionStatus status,
+            LocalDateTime plannedDate, Long inspectorId, String inspectorDisplayName, Long stepCount,
+            Long passedCount, Long failedCount, Long notApplicableCount) {
+        this.id = id;
+        this.title = title;
+        this.plantName = plantName;
+        this.status = status;
+        this.plannedDate = plannedDate;
+        this.inspectorId = inspectorId;
+        this.inspectorDisplayName = inspectorDisplayName;
+        this.stepCount = stepCount != null ? stepCount : 0;
+        this.passedCount = passedCount != null ? passedCount : 0;
+        this.failedCount = failedCount != null ? failedCount : 0;
+        this.notApplicableCount = notApplicableCount != null ? notApplicableCount : 0;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getPlantName() {
+        return plantName;
+    }
+
+    public InspectionStatus getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getPlannedDate() {
+        return plannedDate;
+    }
+
+    public Long getInspectorId() {
+        return inspectorId;
+    }
+
+    public String getInspectorDisplayName() {
+        return inspectorDisplayName;
+    }
+
+    public long getStepCount() {
+        return stepCount;
+    }
+
+    public long getPassedCount() {
+        return passedCount;
+    }
+
+    public long getFailedCount() {
+        return failedCount;
+    }
+
+    public long getNotApplicableCount() {
+        return notApplicableCount;
+    }
+}
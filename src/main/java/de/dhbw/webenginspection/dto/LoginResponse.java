@@ -0,0 +1,51 @@
+package de.dhbw.webenginspection.dto;
+
+/**
+ * Antwort auf Login und Token-Erneuerung: ein kurzlebiges Access-Token für
+ * den {@code Authorization: Bearer}-Header, ein Refresh-Token zum Erneuern und
+ * die User-Daten.
+ */
+public class LoginResponse {
+
+    private String accessToken;
+
+    private String refreshToken;
+
+    private String tokenType = "Bearer";
+
+    // Gültigkeit des Access-Tokens in Sekunden
+    private long expiresIn;
+
+    private UserResponse user;
+
+    public LoginResponse() {
+        // für Jackson
+    }
+
+    public LoginResponse(String accessToken, String refreshToken, long expiresIn, UserResponse user) {
+        this.accessToken = accessToken;
+        this.refreshToken = refreshToken;
+        this.expiresIn = expiresIn;
+        this.user = user;
+    }
+
+    public String getAccessToken() {
+        return accessToken;
+    }
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public String getTokenType() {
+        return tokenType;
+    }
+
+    public long getExpiresIn() {
+        return expiresIn;
+    }
+
+    public UserResponse getUser() {
+        return user;
+    }
+}
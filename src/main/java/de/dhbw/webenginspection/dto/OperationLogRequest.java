@@ -0,0 +1,151 @@
+package de.dhbw.webenginspection.dto;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+
+/**
+ * Data Transfer Object für das Hochladen eines offline gesammelten
+ * Operations-Logs. Die Operationen werden in der angegebenen Reihenfolge und in
+ * einer Transaktion angewendet; jede trägt einen Idempotenz-Schlüssel, sodass
+ * ein wiederholter Upload (z.&nbsp;B. nach einem Verbindungsabbruch) nichts
+ * doppelt anwendet.
+ */
+public class OperationLogRequest {
+
+    /**
+     * Maximale Anzahl an Operationen pro Request. Größere Logs lädt der Client
+     * in mehreren Teilen hoch.
+     */
+    public static final int MAX_OPERATIONS = 5000;
+
+    @NotEmpty(message = "operations must not be empty")
+    @Size(max = MAX_OPERATIONS, message = "operations must not contain more than " + MAX_OPERATIONS + " entries")
+    @Valid
+    private List<Operation> operations;
+
+    public OperationLogRequest() {
+    }
+
+    public List<Operation> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(List<Operation> operations) {
+        this.operations = operations;
+    }
+
+    /**
+     * Art einer Operation und damit das geänderte Feld.
+     */
+    public enum Type {
+        STEP_STATUS, STEP_COMMENT, STEP_PHOTO, INSPECTION_STATUS
+    }
+
+    /**
+     * Eine einzelne Operation des Clients.
+     *
+     * Ist {@code expected} gesetzt, wird die Operation nur angewendet, wenn der
+     * aktuelle Wert auf dem Server noch dem Wert entspricht, den der Client vor
+     * seiner Änderung gesehen hat (leerer Text = kein Wert). Andernfalls hat
+     * inzwischen jemand anderes das Feld geändert und die Operation wird als
+     * Konflikt gemeldet. Ohne {@code expected} gewinnt die Operation.
+     */
+    public static class Operation {
+
+        @NotBlank(message = "key is required")
+        @Size(max = 100, message = "key must not exceed 100 characters")
+        private String key;
+
+        @NotNull(message = "type is required")
+        private Type type;
+
+        // Ziel bei STEP_STATUS, STEP_COMMENT und STEP_PHOTO
+        private Long stepId;
+
+        // Ziel bei INSPECTION_STATUS
+        private Long inspectionId;
+
+        @Size(max = 2000, message = "value must not exceed 2000 characters")
+        private String value;
+
+        @Size(max = 2000, message = "expected must not exceed 2000 characters")
+        private String expected;
+
+        public Operation() {
+        }
+
+        public Operation(String key, Type type, Long stepId, Long inspectionId, String value, String expected) {
+            this.key = key;
+            this.type = type;
+            this.stepId = stepId;
+            this.inspectionId = inspectionId;
+            this.value = value;
+            this.expected = expected;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public void setKey(String key) {
+            this.key = key;
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        public void setType(Type type) {
+            this.type = type;
+        }
+
+        public Long getStepId() {
+            return stepId;
+        }
+
+        public void setStepId(Long stepId) {
+            this.stepId = stepId;
+        }
+
+        public Long getInspectionId() {
+            return inspectionId;
+        }
+
+        public void setInspectionId(Long inspectionId) {
+            this.inspectionId = inspectionId;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public void setValue(String value) {
+            this.value = value;
+        }
+
+        public String getExpected() {
+            return expected;
+        }
+
+        public void setExpected(String expected) {
+            this.expected = expected;
+        }
+
+        /**
+         * Prüft, ob die Operation mit dem aktuellen Wert auf dem Server in
+         * Konflikt steht: {@code expected} ist gesetzt und der aktuelle Wert
+         * entspricht weder ihm noch bereits dem neuen Wert.
+         *
+         * @param current der aktuelle Wert ({@code null} = kein Wert)
+         */
+        public boolean conflictsWith(String current) {
+            if (expected == null) {
+                return false;
+            }
+            String actual = current != null ? current : "";
+            return !actual.equals(expected) && !actual.equals(value != null ? value : "");
+        }
+    }
+}
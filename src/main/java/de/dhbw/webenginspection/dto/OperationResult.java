@@ -0,0 +1,82 @@
+package de.dhbw.webenginspection.dto;
+
+/**
+ * Ergebnis einer Operation aus einem {@link OperationLogRequest}.
+ */
+public class OperationResult {
+
+    /**
+     * Ausgang einer Operation.
+     */
+    public enum Outcome {
+        // Angewendet (oder der Wert war bereits gesetzt)
+        APPLIED,
+        // Das Feld wurde inzwischen auf dem Server geändert, nichts angewendet
+        CONFLICT,
+        // Ungültig, z. B. unbekanntes Ziel oder ungültiger Wert
+        REJECTED
+    }
+
+    private String key;
+
+    private Outcome outcome;
+
+    private boolean duplicate;
+
+    private String message;
+
+    private String currentValue;
+
+    public OperationResult() {
+        // für Jackson
+    }
+
+    private OperationResult(String key, Outcome outcome, boolean duplicate, String message, String currentValue) {
+        this.key = key;
+        this.outcome = outcome;
+        this.duplicate = duplicate;
+        this.message = message;
+        this.currentValue = currentValue;
+    }
+
+    public static OperationResult applied(String key) {
+        return new OperationResult(key, Outcome.APPLIED, false, null, null);
+    }
+
+    public static OperationResult conflict(String key, String currentValue) {
+        return new OperationResult(key, Outcome.CONFLICT, false, "Changed on the server in the meantime",
+                currentValue);
+    }
+
+    public static OperationResult rejected(String key, String message) {
+        return new OperationResult(key, Outcome.REJECTED, false, message, null);
+    }
+
+    /**
+     * Ergebnis für einen bereits früher verarbeiteten Schlüssel; meldet den
+     * damaligen Ausgang.
+     */
+    public static OperationResult duplicate(String key, Outcome outcome) {
+        return new OperationResult(key, outcome, true, "Already processed", null);
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public boolean isDuplicate() {
+        return duplicate;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public String getCurrentValue() {
+        return currentValue;
+    }
+}
@@ -0,0 +1,24 @@
+package de.dhbw.webenginspection.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+/**
+ * Request-DTO für die Erneuerung der Tokens.
+ */
+public class RefreshRequest {
+
+    @NotBlank
+    private String refreshToken;
+
+    public RefreshRequest() {
+        // für Jackson
+    }
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+}
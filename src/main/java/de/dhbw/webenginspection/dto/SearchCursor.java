@@ -0,0 +1,69 @@
+package de.dhbw.webenginspection.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position innerhalb der nach {@code (score, type, id)} sortierten
+ * Suchergebnisse. Wie {@link InspectionCursor} ein opaker, URL-sicherer Token
+ * aus den Sortierschlüsseln des letzten Treffers; die Art gehört dazu, weil
+ * Inspektionen und Checklisten dieselbe ID haben können.
+ */
+public final class SearchCursor {
+
+    private final long score;
+
+    private final SearchHit.Type type;
+
+    private final long id;
+
+    public SearchCursor(long score, SearchHit.Type type, long id) {
+        this.score = score;
+        this.type = type;
+        this.id = id;
+    }
+
+    /**
+     * Liest einen zuvor mit {@link #encode()} erzeugten Token ein.
+     *
+     * @param token der Fortsetzungs-Token
+     * @return die dekodierte Position
+     * @throws IllegalArgumentException wenn der Token ungültig ist
+     */
+    public static SearchCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid cursor: " + token);
+            }
+            return new SearchCursor(Long.parseLong(parts[0]), SearchHit.Type.valueOf(parts[1]),
+                    Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException ist eine IllegalArgumentException
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+    }
+
+    /**
+     * Kodiert die Position als URL-sicheren Token.
+     *
+     * @return der Fortsetzungs-Token
+     */
+    public String encode() {
+        String raw = score + "|" + type.name() + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public long getScore() {
+        return score;
+    }
+
+    public SearchHit.Type getType() {
+        return type;
+    }
+
+    public long getId() {
+        return id;
+    }
+}
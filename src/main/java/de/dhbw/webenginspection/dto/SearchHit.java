@@ -0,0 +1,58 @@
+package de.dhbw.webenginspection.dto;
+
+/**
+ * Ein Treffer der Volltextsuche: eine Inspection oder eine Checklist, deren
+ * Texte alle Suchbegriffe enthalten. {@code score} ist die Summe der
+ * Vorkommen der Suchbegriffe und bestimmt die Reihenfolge.
+ */
+public class SearchHit {
+
+    /**
+     * Art des Treffers.
+     */
+    public enum Type {
+        INSPECTION, CHECKLIST
+    }
+
+    private Type type;
+
+    private Long id;
+
+    private String title;
+
+    private String plantName;
+
+    private long score;
+
+    public SearchHit() {
+        // für Jackson
+    }
+
+    public SearchHit(Type type, Long id, String title, String plantName, long score) {
+        this.type = type;
+        this.id = id;
+        this.title = title;
+        this.plantName = plantName;
+        this.score = score;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getPlantName() {
+        return plantName;
+    }
+
+    public long getScore() {
+        return score;
+    }
+}
@@ -0,0 +1,58 @@
+package de.dhbw.webenginspection.dto;
+
+/**
+ * Ein im Fotospeicher abgelegtes Foto. Der Dateiname ergibt sich aus dem
+ * SHA-256-Hash des Inhalts, gleiche Fotos liegen nur einmal auf der Platte.
+ */
+public class StoredPhoto {
+
+    private String filename;
+
+    private String contentType;
+
+    private long size;
+
+    private String sha256;
+
+    private boolean duplicate;
+
+    public StoredPhoto() {
+        // für Jackson
+    }
+
+    public StoredPhoto(String filename, String contentType, long size, String sha256, boolean duplicate) {
+        this.filename = filename;
+        this.contentType = contentType;
+        this.size = size;
+        this.sha256 = sha256;
+        this.duplicate = duplicate;
+    }
+
+    /**
+     * Der Dateiname im Upload-Verzeichnis ({@code <sha256>.<endung>}), wie er
+     * in {@code InspectionStep.photoPath} steht.
+     */
+    public String getFilename() {
+        return filename;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    /**
+     * {@code true}, wenn der Inhalt bereits gespeichert war und nichts neu
+     * geschrieben wurde.
+     */
+    public boolean isDuplicate() {
+        return duplicate;
+    }
+}
@@ -0,0 +1,121 @@
+package de.dhbw.webenginspection.dto;
+
+import java.time.LocalDateTime;
+
+import de.dhbw.webenginspection.entity.InspectionStatus;
+
+/**
+ * Geänderte Inspection in einer {@link SyncResponse}, ohne ihre Schritte (die
+ * werden nur übertragen, wenn sie selbst geändert wurden). Wird per
+ * Konstruktor-Ausdruck direkt in der JPQL-Abfrage erzeugt.
+ */
+public class SyncInspection {
+
+    private Long id;
+
+    private String title;
+
+    private String plantName;
+
+    private InspectionStatus status;
+
+    private LocalDateTime plannedDate;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    private String generalComment;
+
+    private Long checklistId;
+
+    private Long inspectorId;
+
+    private long stepCount;
+
+    private long passedCount;
+
+    private long failedCount;
+
+    private long notApplicableCount;
+
+    public SyncInspection() {
+        // für Jackson
+    }
+
+    public SyncInspection(Long id, String title, String plantName, InspectionStatus status,
+            LocalDateTime plannedDate, LocalDateTime startedAt, LocalDateTime finishedAt, String generalComment,
+            Long checklistId, Long inspectorId, Long stepCount, Long passedCount, Long failedCount,
+            Long notApplicableCount) {
+        this.id = id;
+        this.title = title;
+        this.plantName = plantName;
+        this.status = status;
+        this.plannedDate = plannedDate;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+        this.generalComment = generalComment;
+        this.checklistId = checklistId;
+        this.inspectorId = inspectorId;
+        this.stepCount = stepCount != null ? stepCount : 0;
+        this.passedCount = passedCount != null ? passedCount : 0;
+        this.failedCount = failedCount != null ? failedCount : 0;
+        this.notApplicableCount = notApplicableCount != null ? notApplicableCount : 0;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getPlantName() {
+        return plantName;
+    }
+
+    public InspectionStatus getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getPlannedDate() {
+        return plannedDate;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getGeneralComment() {
+        return generalComment;
+    }
+
+    public Long getChecklistId() {
+        return checklistId;
+    }
+
+    public Long getInspectorId() {
+        return inspectorId;
+    }
+
+    public long getStepCount() {
+        return stepCount;
+    }
+
+    public long getPassedCount() {
+        return passedCount;
+    }
+
+    public long getFailedCount() {
+        return failedCount;
+    }
+
+    public long getNotApplicableCount() {
+        return notApplicableCount;
+    }
+}
@@ -0,0 +1,56 @@
+package de.dhbw.webenginspection.dto;
+
+import java.util.List;
+
+import de.dhbw.webenginspection.entity.Checklist;
+
+/**
+ * Antwort von {@code GET /api/sync}: alle seit dem übergebenen Token
+ * angelegten, geänderten oder gelöschten Zeilen und das Token für den nächsten
+ * Abruf.
+ */
+public class SyncResponse {
+
+    private String token;
+
+    private List<SyncInspection> inspections;
+
+    private List<SyncStep> steps;
+
+    private List<Checklist> checklists;
+
+    private List<SyncTombstone> deleted;
+
+    public SyncResponse() {
+        // für Jackson
+    }
+
+    public SyncResponse(String token, List<SyncInspection> inspections, List<SyncStep> steps,
+            List<Checklist> checklists, List<SyncTombstone> deleted) {
+        this.token = token;
+        this.inspections = inspections;
+        this.steps = steps;
+        this.checklists = checklists;
+        this.deleted = deleted;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public List<SyncInspection> getInspections() {
+        return inspections;
+    }
+
+    public List<SyncStep> getSteps() {
+        return steps;
+    }
+
+    public List<Checklist> getChecklists() {
+        return checklists;
+    }
+
+    public List<SyncTombstone> getDeleted() {
+        return deleted;
+    }
+}
@@ -0,0 +1,60 @@
+package de.dhbw.webenginspection.dto;
+
+import de.dhbw.webenginspection.entity.StepStatus;
+
+/**
+ * Geänderter Inspektionsschritt in einer {@link SyncResponse}. Der Vorlagentext
+ * kommt über {@code checklistStepId} aus der synchronisierten Checkliste.
+ */
+public class SyncStep {
+
+    private Long id;
+
+    private Long inspectionId;
+
+    private Long checklistStepId;
+
+    private StepStatus status;
+
+    private String comment;
+
+    private String photoPath;
+
+    public SyncStep() {
+        // für Jackson
+    }
+
+    public SyncStep(Long id, Long inspectionId, Long checklistStepId, StepStatus status, String comment,
+            String photoPath) {
+        this.id = id;
+        this.inspectionId = inspectionId;
+        this.checklistStepId = checklistStepId;
+        this.status = status;
+        this.comment = comment;
+        this.photoPath = photoPath;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getInspectionId() {
+        return inspectionId;
+    }
+
+    public Long getChecklistStepId() {
+        return checklistStepId;
+    }
+
+    public StepStatus getStatus() {
+        return status;
+    }
+
+    public String getComment() {
+        return comment;
+    }
+
+    public String getPhotoPath() {
+        return photoPath;
+    }
+}
@@ -0,0 +1,35 @@
+package de.dhbw.webenginspection.dto;
+
+/**
+ * Gelöschte Zeile in einer {@link SyncResponse}, die der Client entfernen
+ * soll.
+ */
+public class SyncTombstone {
+
+    public static final String INSPECTION = "inspection";
+
+    public static final String INSPECTION_STEP = "inspectionStep";
+
+    public static final String CHECKLIST = "checklist";
+
+    private String type;
+
+    private Long id;
+
+    public SyncTombstone() {
+        // für Jackson
+    }
+
+    public SyncTombstone(String type, Long id) {
+        this.type = type;
+        this.id = id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,52 @@
+package de.dhbw.webenginspection.dto;
+
+/**
+ * Ein Vorschlag der Typeahead-Suche für Formulare: eine Checklist, ein
+ * Anlagenname oder ein Benutzer. {@code id} ist bei Anlagen {@code null}, da
+ * Anlagen nur als Name existieren; {@code detail} enthält eine optionale
+ * Zusatzinfo (Anlage der Checklist bzw. Benutzername).
+ */
+public class TypeaheadSuggestion {
+
+    /**
+     * Art des Vorschlags.
+     */
+    public enum Type {
+        CHECKLIST, PLANT, USER
+    }
+
+    private Type type;
+
+    private Long id;
+
+    private String label;
+
+    private String detail;
+
+    public TypeaheadSuggestion() {
+        // für Jackson
+    }
+
+    public TypeaheadSuggestion(Type type, Long id, String label, String detail) {
+        this.type = type;
+        this.id = id;
+        this.label = label;
+        this.detail = detail;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+}
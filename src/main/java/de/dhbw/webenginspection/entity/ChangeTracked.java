@@ -0,0 +1,12 @@
+package de.dhbw.webenginspection.entity;
+
+/**
+ * Entität, die an der Delta-Synchronisation teilnimmt. Beim Anlegen und bei
+ * jeder Änderung setzt
+ * {@link de.dhbw.webenginspection.service.ChangeSequenceListener} eine neue
+ * Änderungsnummer.
+ */
+public interface ChangeTracked {
+
+    void setChangeSeq(long changeSeq);
+}
@@ -1,7 +1,16 @@
 package de.dhbw.webenginspection.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+
+import de.dhbw.webenginspection.service.ChangeSequenceListener;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -10,15 +19,53 @@ import java.util.List;
  * Metadaten (Name, Anlage, Empfehlungen) sowie eine Liste zugehöriger
  * {@link ChecklistStep}-Entitäten. Stellt außerdem Hilfsmethoden zur Verwaltung
  * der bidirektionalen Beziehung bereit.
+ *
+ * Checklisten sind versioniert: Sobald eine Inspection auf einer Version
+ * angelegt wurde, ist diese {@code frozen} und wird nicht mehr verändert.
+ * Änderungen erzeugen dann eine neue Version derselben Serie, die alte Version
+ * bleibt für ihre Inspections unverändert erhalten.
+ *
+ * Checklisten und ihre Schritte liegen im Second-Level-Cache (Regionen in
+ * {@code application.conf}); Änderungen über Hibernate aktualisieren ihn
+ * automatisch.
+ *
+ * Die {@code version} (optimistisches Locking, ETag) deckt auch die Schritte
+ * ab: Wer Schritte ändert, ruft {@link #touch()} auf.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "checklist")
+@EntityListeners(ChangeSequenceListener.class)
 @JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
-public class Checklist {
+public class Checklist implements ChangeTracked {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "checklist_seq")
+    @SequenceGenerator(name = "checklist_seq", sequenceName = "checklist_seq", allocationSize = 50)
     private Long id;
 
+    /**
+     * Version für optimistisches Locking und ETags, nicht zu verwechseln mit
+     * der fachlichen {@link #versionNumber}.
+     */
+    @Version
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
+
+    // Änderungsnummer für die Delta-Synchronisation (siehe ChangeTracked)
+    @JsonIgnore
+    @ColumnDefault("1")
+    @Column(nullable = false)
+    private long changeSeq;
+
+    /**
+     * Zeitpunkt der letzten Änderung an der Checklist oder ihren Schritten.
+     */
+    @JsonIgnore
+    private LocalDateTime lastModified;
+
     private String name;
 
     // Name der Anlage
@@ -38,8 +85,43 @@ public class Checklist {
      * persistiert (CascadeType.ALL).
      */
     @OneToMany(mappedBy = "checklist", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "checklist-steps")
     private List<ChecklistStep> steps = new ArrayList<>();
 
+    /**
+     * ID der ersten Version; alle Versionen einer Checkliste teilen sie.
+     */
+    private Long seriesId;
+
+    // Fortlaufende Versionsnummer innerhalb der Serie (beginnend bei 1)
+    @ColumnDefault("1")
+    @Column(nullable = false)
+    private int versionNumber = 1;
+
+    /**
+     * {@code true}, sobald eine Inspection auf dieser Version basiert. Danach
+     * ist die Version unveränderlich.
+     */
+    @ColumnDefault("false")
+    @Column(nullable = false)
+    private boolean frozen;
+
+    // Nur die neueste Version einer Serie wird in Listen und Suchen angezeigt.
+    // Nicht im JSON, damit sich die Darstellung einer frozen Version nie ändert.
+    @JsonIgnore
+    @ColumnDefault("true")
+    @Column(nullable = false)
+    private boolean latest = true;
+
+    /**
+     * Gelöschte Checklisten, auf die noch Inspections verweisen, werden nur
+     * archiviert.
+     */
+    @JsonIgnore
+    @ColumnDefault("false")
+    @Column(nullable = false)
+    private boolean archived;
+
     // --- Konstruktoren ---
 
     public Checklist() {
@@ -76,12 +158,39 @@ public class Checklist {
         step.setChecklist(null);
     }
 
+    /**
+     * Markiert die Checklist als geändert, auch wenn sich nur ihre Schritte
+     * geändert haben. Dadurch wird sie beim Flush regulär aktualisiert und ihre
+     * {@code version} steigt; anders als ein erzwungenes Versions-Update hält
+     * das auch den Second-Level-Cache aktuell.
+     */
+    public void touch() {
+        lastModified = LocalDateTime.now();
+    }
+
     // --- Getter & Setter ---
 
     public Long getId() {
         return id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public long getChangeSeq() {
+        return changeSeq;
+    }
+
+    @Override
+    public void setChangeSeq(long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
+
+    public LocalDateTime getLastModified() {
+        return lastModified;
+    }
+
     public String getName() {
         return name;
     }
@@ -117,4 +226,44 @@ public class Checklist {
     public void setSteps(List<ChecklistStep> steps) {
         this.steps = steps;
     }
+
+    public Long getSeriesId() {
+        return seriesId;
+    }
+
+    public void setSeriesId(Long seriesId) {
+        this.seriesId = seriesId;
+    }
+
+    public int getVersionNumber() {
+        return versionNumber;
+    }
+
+    public void setVersionNumber(int versionNumber) {
+        this.versionNumber = versionNumber;
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    public void setFrozen(boolean frozen) {
+        this.frozen = frozen;
+    }
+
+    public boolean isLatest() {
+        return latest;
+    }
+
+    public void setLatest(boolean latest) {
+        this.latest = latest;
+    }
+
+    public boolean isArchived() {
+        return archived;
+    }
+
+    public void setArchived(boolean archived) {
+        this.archived = archived;
+    }
 }
@@ -4,6 +4,10 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+
 /**
  * JPA-Entität, die einen einzelnen Prüfschritt innerhalb einer
  * {@link Checklist} repräsentiert. Jeder Schritt enthält eine Beschreibung,
@@ -11,13 +15,23 @@ import jakarta.persistence.*;
  * Checkliste.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "checklist-step")
 @JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 public class ChecklistStep {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "checklist_step_seq")
+    @SequenceGenerator(name = "checklist_step_seq", sequenceName = "checklist_step_seq", allocationSize = 50)
     private Long id;
 
+    // Version für optimistisches Locking
+    @Version
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
+
     /**
      * Beschreibung des Prüfschritts, wie er in der UI dargestellt wird.
      * Beispiel: "Überprüfung des Ölstands".
@@ -66,6 +80,10 @@ public class ChecklistStep {
         return id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     public String getDescription() {
         return description;
     }
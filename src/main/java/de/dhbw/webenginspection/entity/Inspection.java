@@ -1,8 +1,13 @@
 package de.dhbw.webenginspection.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 
+import de.dhbw.webenginspection.service.ChangeSequenceListener;
+
+import org.hibernate.annotations.ColumnDefault;
+
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -14,13 +19,32 @@ import java.util.List;
  * einzelnen Schritte festgehalten werden.
  */
 @Entity
+@EntityListeners(ChangeSequenceListener.class)
 @JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
-public class Inspection {
+public class Inspection implements ChangeTracked {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inspection_seq")
+    @SequenceGenerator(name = "inspection_seq", sequenceName = "inspection_seq", allocationSize = 50)
     private Long id;
 
+    /**
+     * Version für optimistisches Locking und ETags. Änderungen an den
+     * Schritten erhöhen sie atomar über
+     * {@link de.dhbw.webenginspection.repository.InspectionRepository#incrementVersion(Long)}.
+     */
+    @Version
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
+
+    // Änderungsnummer für die Delta-Synchronisation (siehe ChangeTracked)
+    @JsonIgnore
+    @ColumnDefault("1")
+    @Column(nullable = false)
+    private long changeSeq;
+
     // Titel der Inspektion
     private String title;
 
@@ -80,6 +104,29 @@ public class Inspection {
     @JoinColumn(name = "assigned_inspector_id")
     private User assignedInspector;
 
+    /**
+     * Denormalisierte Zähler der Schritte je Ergebnis. Sie werden beim Anlegen
+     * gesetzt und danach ausschließlich über atomare Updates in
+     * {@link de.dhbw.webenginspection.repository.InspectionRepository}
+     * gepflegt ({@code updatable = false}), damit ein veraltetes
+     * Inspection-Objekt sie beim Speichern nicht überschreibt.
+     */
+    @ColumnDefault("0")
+    @Column(nullable = false, updatable = false)
+    private long stepCount;
+
+    @ColumnDefault("0")
+    @Column(nullable = false, updatable = false)
+    private long passedCount;
+
+    @ColumnDefault("0")
+    @Column(nullable = false, updatable = false)
+    private long failedCount;
+
+    @ColumnDefault("0")
+    @Column(nullable = false, updatable = false)
+    private long notApplicableCount;
+
     // --- Konstruktoren ---
 
     public Inspection() {
@@ -126,6 +173,19 @@ public class Inspection {
         return id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public long getChangeSeq() {
+        return changeSeq;
+    }
+
+    @Override
+    public void setChangeSeq(long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
+
     public void setId(Long id) {
         this.id = id;
     }
@@ -209,4 +269,32 @@ public class Inspection {
     public void setAssignedInspector(User assignedInspector) {
         this.assignedInspector = assignedInspector;
     }
+
+    public long getStepCount() {
+        return stepCount;
+    }
+
+    public long getPassedCount() {
+        return passedCount;
+    }
+
+    public long getFailedCount() {
+        return failedCount;
+    }
+
+    public long getNotApplicableCount() {
+        return notApplicableCount;
+    }
+
+    /**
+     * Setzt die Zähler anhand der aktuell zugeordneten Schritte. Wirkt nur vor
+     * dem ersten Speichern, danach sind die Spalten nicht mehr über die Entität
+     * änderbar.
+     */
+    public void initStepCounters() {
+        stepCount = steps.size();
+        passedCount = steps.stream().filter(s -> s.getStatus() == StepStatus.PASSED).count();
+        failedCount = steps.stream().filter(s -> s.getStatus() == StepStatus.FAILED).count();
+        notApplicableCount = steps.stream().filter(s -> s.getStatus() == StepStatus.NOT_APPLICABLE).count();
+    }
 }
@@ -4,6 +4,10 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 
+import de.dhbw.webenginspection.service.ChangeSequenceListener;
+
+import org.hibernate.annotations.ColumnDefault;
+
 /**
  * JPA-Entität, die einen einzelnen konkreten Schritt innerhalb einer
  * {@link Inspection} repräsentiert. Jeder InspectionStep ist einem
@@ -11,13 +15,33 @@ import jakarta.persistence.*;
  * Kommentare sowie optionale Foto-Informationen zur durchgeführten Prüfung.
  */
 @Entity
+@EntityListeners(ChangeSequenceListener.class)
 @JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
-public class InspectionStep {
+public class InspectionStep implements ChangeTracked {
 
+    /**
+     * Primärschlüssel aus einer gepoolten Sequence (50 IDs pro Abruf). Anders
+     * als bei IDENTITY kann Hibernate dadurch die vielen INSERTs beim Anlegen
+     * einer Inspection per JDBC-Batching bündeln.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inspection_step_seq")
+    @SequenceGenerator(name = "inspection_step_seq", sequenceName = "inspection_step_seq", allocationSize = 50)
     private Long id;
 
+    // Version für optimistisches Locking
+    @Version
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
+
+    // Änderungsnummer für die Delta-Synchronisation (siehe ChangeTracked)
+    @JsonIgnore
+    @ColumnDefault("1")
+    @Column(nullable = false)
+    private long changeSeq;
+
     /**
      * Ergebnis bzw. Status des Prüfschritts, z.&nbsp;B. PASSED, FAILED oder
      * NOT_APPLICABLE. Wird als String gespeichert, da {@link StepStatus} als
@@ -77,6 +101,19 @@ public class InspectionStep {
         return id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public long getChangeSeq() {
+        return changeSeq;
+    }
+
+    @Override
+    public void setChangeSeq(long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
+
     public StepStatus getStatus() {
         return status;
     }
@@ -0,0 +1,100 @@
+package de.dhbw.webenginspection.entity;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+/**
+ * JPA-Entität für ein Foto, das an einen {@link InspectionStep} angehängt ist.
+ * Anders als {@link InspectionStep#getPhotoPath()} kann ein Schritt beliebig
+ * viele Anhänge haben, z.&nbsp;B. einen Mangel aus mehreren Blickwinkeln.
+ */
+@Entity
+public class StepAttachment {
+
+    /**
+     * Primärschlüssel aus einer gepoolten Sequence, damit Hibernate die
+     * INSERTs mehrerer gleichzeitig hochgeladener Fotos per JDBC-Batching
+     * bündeln kann.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "step_attachment_seq")
+    @SequenceGenerator(name = "step_attachment_seq", sequenceName = "step_attachment_seq", allocationSize = 50)
+    private Long id;
+
+    /**
+     * Der Schritt, zu dem das Foto gehört. Wird er gelöscht, entfernt die
+     * Datenbank auch seine Anhänge.
+     */
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "inspection_step_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @JsonIgnore
+    private InspectionStep inspectionStep;
+
+    /**
+     * Der Dateiname im Fotospeicher ({@code <sha256>.<endung>}), abrufbar
+     * über {@code GET /api/files/{filename}}.
+     */
+    @Column(nullable = false, length = 80)
+    private String filename;
+
+    @Column(nullable = false, length = 32)
+    private String contentType;
+
+    @Column(nullable = false)
+    private long size;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    // --- Konstruktoren ---
+
+    public StepAttachment() {
+
+    }
+
+    public StepAttachment(InspectionStep inspectionStep, String filename, String contentType, long size,
+            LocalDateTime createdAt) {
+        this.inspectionStep = inspectionStep;
+        this.filename = filename;
+        this.contentType = contentType;
+        this.size = size;
+        this.createdAt = createdAt;
+    }
+
+    // --- Getter ---
+
+    public Long getId() {
+        return id;
+    }
+
+    public InspectionStep getInspectionStep() {
+        return inspectionStep;
+    }
+
+    // ID des Schritts für das JSON; der Lazy-Proxy liefert sie, ohne den Schritt zu laden
+    public Long getInspectionStepId() {
+        return inspectionStep != null ? inspectionStep.getId() : null;
+    }
+
+    public String getFilename() {
+        return filename;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -1,6 +1,9 @@
 package de.dhbw.webenginspection.entity;
 
 import jakarta.persistence.*;
+
+import org.hibernate.annotations.ColumnDefault;
+
 import java.util.ArrayList;
 import java.util.List;
 
@@ -12,7 +15,7 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
  */
 @Entity
 @Table(name = "users")
-@JsonIgnoreProperties({ "hibernateLazyInitializer", "handler", "inspections", "passwordHash" })
+@JsonIgnoreProperties({ "hibernateLazyInitializer", "handler", "inspections", "passwordHash", "tokenVersion" })
 public class User {
 
     @Id
@@ -50,6 +53,14 @@ public class User {
     @OneToMany(mappedBy = "assignedInspector")
     private List<Inspection> inspections = new ArrayList<>();
 
+    /**
+     * Wird bei Rollenwechsel oder Logout erhöht; Tokens mit älterer Version
+     * werden danach abgelehnt.
+     */
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private int tokenVersion;
+
     // ---------------------------------------------------------------------------------
     // Konstruktoren
     // ---------------------------------------------------------------------------------
@@ -105,6 +116,14 @@ public class User {
         this.role = role;
     }
 
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
+    public void setTokenVersion(int tokenVersion) {
+        this.tokenVersion = tokenVersion;
+    }
+
     public List<Inspection> getInspections() {
         return inspections;
     }
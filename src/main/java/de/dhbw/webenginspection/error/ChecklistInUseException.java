@@ -1,32 +1,32 @@
-// d:\Software-Projekte\dhbw\webeng-inspection\src\main\java\de\dhbw\webenginspection\error\ChecklistInUseException.java
-
 package de.dhbw.webenginspection.error;
 
 /**
- * Exception, die ausgelöst wird, wenn eine Checklist gelöscht werden soll, die
- * noch von aktiven Inspections verwendet wird.
+ * Exception, die ausgelöst wird, wenn einzelne Schritte einer Checklist
+ * geändert werden sollen, deren Version bereits von Inspections verwendet wird
+ * und daher unveränderlich ist. Solche Checklisten können nur als Ganzes
+ * aktualisiert werden, wodurch eine neue Version entsteht.
  */
 public class ChecklistInUseException extends RuntimeException {
 
-    private final int inspectionCount;
+    private final Long checklistId;
 
     /**
      * Erstellt eine neue ChecklistInUseException.
      *
-     * @param inspectionCount die Anzahl abhängiger Inspections
+     * @param checklistId die ID der unveränderlichen Checklist-Version
      */
-    public ChecklistInUseException(int inspectionCount) {
-        super("Checklist can not be deleted. There are " + inspectionCount + " active inspection"
-                + (inspectionCount != 1 ? "s" : "") + " based on it.");
-        this.inspectionCount = inspectionCount;
+    public ChecklistInUseException(Long checklistId) {
+        super("Checklist " + checklistId + " is used by inspections and can not be changed step by step. "
+                + "Update the checklist as a whole to create a new version.");
+        this.checklistId = checklistId;
     }
 
     /**
-     * Gibt die Anzahl der abhängigen Inspections zurück.
+     * Gibt die ID der unveränderlichen Checklist-Version zurück.
      *
-     * @return die Anzahl abhängiger Inspections
+     * @return die ID der Checklist
      */
-    public int getInspectionCount() {
-        return inspectionCount;
+    public Long getChecklistId() {
+        return checklistId;
     }
-}
\ No newline at end of file
+}
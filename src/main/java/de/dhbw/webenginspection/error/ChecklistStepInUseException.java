@@ -0,0 +1,31 @@
+package de.dhbw.webenginspection.error;
+
+/**
+ * Exception, die ausgelöst wird, wenn Checklisten-Schritte entfernt werden
+ * sollen, auf die noch Schritte bestehender Inspections verweisen.
+ */
+public class ChecklistStepInUseException extends RuntimeException {
+
+    private final long inspectionStepCount;
+
+    /**
+     * Erstellt eine neue ChecklistStepInUseException.
+     *
+     * @param inspectionStepCount die Anzahl abhängiger Inspection-Schritte
+     */
+    public ChecklistStepInUseException(long inspectionStepCount) {
+        super("Checklist step can not be removed. There " + (inspectionStepCount != 1 ? "are " : "is ")
+                + inspectionStepCount + " inspection step" + (inspectionStepCount != 1 ? "s" : "")
+                + " based on it.");
+        this.inspectionStepCount = inspectionStepCount;
+    }
+
+    /**
+     * Gibt die Anzahl der abhängigen Inspection-Schritte zurück.
+     *
+     * @return die Anzahl abhängiger Inspection-Schritte
+     */
+    public long getInspectionStepCount() {
+        return inspectionStepCount;
+    }
+}
@@ -0,0 +1,18 @@
+package de.dhbw.webenginspection.error;
+
+/**
+ * Exception, die ausgelöst wird, wenn ein schreibender Request mit
+ * {@code If-Match} eine Version erwartet, die nicht (mehr) dem aktuellen
+ * Stand der Ressource entspricht, weil sie zwischenzeitlich geändert wurde.
+ */
+public class PreconditionFailedException extends RuntimeException {
+
+    /**
+     * Erstellt eine neue PreconditionFailedException.
+     *
+     * @param resource die betroffene Ressource, z.&nbsp;B. "Inspection 5"
+     */
+    public PreconditionFailedException(String resource) {
+        super(resource + " has been modified since it was read (If-Match does not match the current version)");
+    }
+}
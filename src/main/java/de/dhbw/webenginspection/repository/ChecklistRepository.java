@@ -1,15 +1,73 @@
 package de.dhbw.webenginspection.repository;
 
 import de.dhbw.webenginspection.entity.Checklist;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface ChecklistRepository extends JpaRepository<Checklist, Long> {
 
     // Alle Checklisten für eine bestimmte Anlage
     List<Checklist> findByPlantName(String plantName);
 
-    // Volltextsuche im Namen (z.B. für Filter im UI)
-    List<Checklist> findByNameContainingIgnoreCase(String namePart);
+    // Aktuelle Versionen aller nicht archivierten Checklisten (Query-Cache)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Checklist> findByLatestTrueAndArchivedFalseOrderById();
+
+    /**
+     * Kennung für den Stand der Checklisten-Liste (Anzahl, Summe der
+     * Versionen, höchste ID) als Grundlage des ETags. Jede Änderung,
+     * Neuanlage oder Archivierung ändert mindestens einen der Werte.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("""
+            select concat(str(count(c)), '-', str(coalesce(sum(c.version), 0)), '-', str(coalesce(max(c.id), 0)))
+            from Checklist c
+            where c.latest = true and c.archived = false
+            """)
+    String findListVersion();
+
+    // Alle Versionen einer Checkliste
+    List<Checklist> findBySeriesIdOrderByVersionNumber(Long seriesId);
+
+    /**
+     * Lädt eine Checklist mit Schreibsperre auf der Zeile, damit parallele
+     * Änderungen derselben Version nacheinander ausgeführt werden.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from Checklist c where c.id = :id")
+    Optional<Checklist> findByIdForUpdate(@Param("id")
+    Long id);
+
+    /**
+     * Checklisten, deren Änderungsnummer im Bereich {@code (since, until]}
+     * liegt, sowie die Checklisten aller in diesem Bereich geänderten
+     * Inspektionen. Letzteres liefert z.&nbsp;B. nach dem Zuweisen einer
+     * Inspektion auch eine ältere, dem Client noch unbekannte Checklist mit.
+     * Mit {@code inspectorId} nur die, auf denen Inspektionen dieses Users
+     * basieren ({@code null} = alle).
+     */
+    @Query("""
+            select c from Checklist c
+            where (c.changeSeq > :since and c.changeSeq <= :until
+                  and (:inspectorId is null or exists (
+                      select 1 from Inspection i where i.checklist = c and i.assignedInspector.id = :inspectorId)))
+              or exists (
+                  select 1 from Inspection i
+                  where i.checklist = c and i.changeSeq > :since and i.changeSeq <= :until
+                    and (:inspectorId is null or i.assignedInspector.id = :inspectorId))
+            order by c.changeSeq, c.id
+            """)
+    List<Checklist> findChangedSince(@Param("since")
+    long since, @Param("until")
+    long until, @Param("inspectorId")
+    Long inspectorId);
 }
@@ -1,12 +1,17 @@
 package de.dhbw.webenginspection.repository;
 
 import de.dhbw.webenginspection.entity.ChecklistStep;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.List;
 
 public interface ChecklistStepRepository extends JpaRepository<ChecklistStep, Long> {
     
-    // Schritte zu einer Checkliste, sortiert nach orderIndex
+    // Schritte zu einer Checkliste, sortiert nach orderIndex (Query-Cache;
+    // wird bei jeder Änderung an checklist_step über Hibernate ungültig)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<ChecklistStep> findByChecklistIdOrderByOrderIndex(Long checklistId);
 }
@@ -1,20 +1,34 @@
 package de.dhbw.webenginspection.repository;
 
+import de.dhbw.webenginspection.dto.InspectionStatusCount;
+import de.dhbw.webenginspection.dto.InspectionSummary;
+import de.dhbw.webenginspection.dto.SyncInspection;
 import de.dhbw.webenginspection.entity.Inspection;
+import de.dhbw.webenginspection.entity.InspectionStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface InspectionRepository extends JpaRepository<Inspection, Long> {
 
     // Alle Inspektionen mit einem bestimmten Status (z. B. PLANNED,
     // IN_PROGRESS, COMPLETED)
-    List<Inspection> findByStatus(String status);
+    List<Inspection> findByStatus(InspectionStatus status);
 
     // Inspektionen für eine bestimmte Anlage
     List<Inspection> findByPlantName(String plantName);
 
+    // Alle verwendeten Anlagennamen (für den Typeahead-Index)
+    @Query("select distinct i.plantName from Inspection i where i.plantName is not null")
+    List<String> findDistinctPlantNames();
+
     // Geplante / durchgeführte Inspektionen in einem Zeitraum
     List<Inspection> findByPlannedDateBetween(LocalDateTime from, LocalDateTime to);
 
@@ -24,4 +38,247 @@ public interface InspectionRepository extends JpaRepository<Inspection, Long> {
 
     // Anzahl der Inspektionen, die eine bestimmte Checkliste verwenden
     long countByChecklistId(Long checklistId);
+
+    /**
+     * Gemeinsamer Teil der Abfragen für {@link InspectionSummary}: lädt die
+     * Listenfelder, den Anzeigenamen des Inspektors und die denormalisierten
+     * Schrittzähler in einem einzigen SQL-Statement, ohne die Schritte zu
+     * joinen.
+     */
+    String SUMMARY_SELECT = """
+            select new de.dhbw.webenginspection.dto.InspectionSummary(
+                i.id, i.title, i.plantName, i.status, i.plannedDate, u.id, u.displayName,
+                i.stepCount, i.passedCount, i.failedCount, i.notApplicableCount)
+            from Inspection i
+            left join i.assignedInspector u
+            """;
+
+    /**
+     * Keyset-Abfrage für die paginierte Inspektionsliste. Kombiniert die
+     * Filter aus {@link #findByStatus}, {@link #findByPlantName},
+     * {@link #findByAssignedInspectorId} und {@link #findByPlannedDateBetween}
+     * (jeder Filter ist optional, {@code null} bedeutet "nicht filtern") und
+     * setzt nach der Position {@code (afterDate, afterId)} fort.
+     *
+     * Sortiert wird stabil nach {@code plannedDate} (Einträge ohne Datum am
+     * Ende) und anschließend nach {@code id}. Ist {@code afterId} gesetzt und
+     * {@code afterDate} leer, befindet sich der Cursor bereits im Bereich ohne
+     * geplantes Datum.
+     *
+     * @param pageable bestimmt nur die maximale Anzahl an Treffern (ohne
+     * Count-Query, da eine {@link List} zurückgegeben wird)
+     */
+    @Query(SUMMARY_SELECT + """
+            where (:status is null or i.status = :status)
+              and (:plantName is null or i.plantName = :plantName)
+              and (:inspectorId is null or u.id = :inspectorId)
+              and (:from is null or i.plannedDate >= :from)
+              and (:to is null or i.plannedDate <= :to)
+              and (:afterId is null
+                   or (:afterDate is null and i.plannedDate is null and i.id > :afterId)
+                   or (:afterDate is not null and (i.plannedDate is null
+                        or i.plannedDate > :afterDate
+                        or (i.plannedDate = :afterDate and i.id > :afterId))))
+            order by i.plannedDate asc nulls last, i.id asc
+            """)
+    List<InspectionSummary> findSummaryPage(@Param("status")
+    InspectionStatus status, @Param("plantName")
+    String plantName, @Param("inspectorId")
+    Long inspectorId, @Param("from")
+    LocalDateTime from, @Param("to")
+    LocalDateTime to, @Param("afterDate")
+    LocalDateTime afterDate, @Param("afterId")
+    Long afterId, Pageable pageable);
+
+    // Listenansicht der Inspektionen eines Users (Dashboard des Inspektors),
+    // optional eingeschränkt auf einen Status (null = alle)
+    @Query(SUMMARY_SELECT + """
+            where u.id = :userId
+              and (:status is null or i.status = :status)
+            order by i.plannedDate asc nulls last, i.id asc
+            """)
+    List<InspectionSummary> findSummariesByAssignedInspectorId(@Param("userId")
+    Long userId, @Param("status")
+    InspectionStatus status);
+
+    /**
+     * Verändert die Schrittzähler einer Inspection atomar um die angegebenen
+     * Differenzen (relativ zum aktuellen Wert in der Datenbank, daher ohne
+     * Lost Updates bei parallelen Änderungen), erhöht ihre Version und setzt
+     * die Änderungsnummer für die Synchronisation.
+     *
+     * @return die Anzahl der aktualisierten Inspektionen (0 oder 1)
+     */
+    @Modifying
+    @Query("""
+            update Inspection i set
+                i.version = i.version + 1,
+                i.changeSeq = :changeSeq,
+                i.stepCount = i.stepCount + :total,
+                i.passedCount = i.passedCount + :passed,
+                i.failedCount = i.failedCount + :failed,
+                i.notApplicableCount = i.notApplicableCount + :notApplicable
+            where i.id = :id
+            """)
+    int adjustStepCounters(@Param("id")
+    Long id, @Param("total")
+    long total, @Param("passed")
+    long passed, @Param("failed")
+    long failed, @Param("notApplicable")
+    long notApplicable, @Param("changeSeq")
+    long changeSeq);
+
+    // Aktuelle Version einer Inspection (für ETags, ohne die Entität zu laden)
+    @Query("select i.version from Inspection i where i.id = :id")
+    Optional<Long> findVersionById(@Param("id")
+    Long id);
+
+    /**
+     * Erhöht die Version einer Inspection atomar, z.&nbsp;B. nach Änderungen an
+     * ihren Schritten, die in ihrer Darstellung enthalten sind, und setzt die
+     * Änderungsnummer für die Synchronisation.
+     *
+     * @return die Anzahl der aktualisierten Inspektionen (0 oder 1)
+     */
+    @Modifying
+    @Query("update Inspection i set i.version = i.version + 1, i.changeSeq = :changeSeq where i.id = :id")
+    int incrementVersion(@Param("id")
+    Long id, @Param("changeSeq")
+    long changeSeq);
+
+    /**
+     * Erhöht die Version einer Inspection nur, wenn sie noch der erwarteten
+     * entspricht ({@code If-Match}). Prüfung und Erhöhung erfolgen in einem
+     * Statement, parallele Schreiber werden dabei über die Zeilensperre
+     * serialisiert.
+     *
+     * @return 1, wenn die Version passte, sonst 0
+     */
+    @Modifying
+    @Query("""
+            update Inspection i set i.version = i.version + 1, i.changeSeq = :changeSeq
+            where i.id = :id and i.version = :version
+            """)
+    int incrementVersionIfMatches(@Param("id")
+    Long id, @Param("version")
+    long version, @Param("changeSeq")
+    long changeSeq);
+
+    // Setzt alle Schrittzähler auf die tatsächlich vorhandenen Schritte
+    String COUNTER_ASSIGNMENTS = """
+                i.stepCount = (select count(s) from InspectionStep s where s.inspection = i),
+                i.passedCount = (select count(s) from InspectionStep s where s.inspection = i
+                    and s.status = de.dhbw.webenginspection.entity.StepStatus.PASSED),
+                i.failedCount = (select count(s) from InspectionStep s where s.inspection = i
+                    and s.status = de.dhbw.webenginspection.entity.StepStatus.FAILED),
+                i.notApplicableCount = (select count(s) from InspectionStep s where s.inspection = i
+                    and s.status = de.dhbw.webenginspection.entity.StepStatus.NOT_APPLICABLE)
+            """;
+
+    /**
+     * Berechnet die Schrittzähler der angegebenen Inspektionen neu aus den
+     * tatsächlich vorhandenen Schritten (z.&nbsp;B. nach einem INSERT ...
+     * SELECT, das die Entitäten umgeht).
+     */
+    @Modifying
+    @Query("update Inspection i set " + COUNTER_ASSIGNMENTS + """
+            where i.id in :ids
+            """)
+    int recalculateStepCounters(@Param("ids")
+    Collection<Long> ids);
+
+    /**
+     * Korrigiert die Schrittzähler aller Inspektionen, deren Werte nicht mit
+     * den vorhandenen Schritten übereinstimmen. Ihre Version und
+     * Änderungsnummer werden dabei gesetzt, da sich ihre Darstellung ändert.
+     *
+     * @return die Anzahl der korrigierten Inspektionen
+     */
+    @Modifying
+    @Query("update Inspection i set i.version = i.version + 1, i.changeSeq = :changeSeq, " + COUNTER_ASSIGNMENTS
+            + """
+            where i.stepCount <> (select count(s) from InspectionStep s where s.inspection = i)
+               or i.passedCount <> (select count(s) from InspectionStep s where s.inspection = i
+                    and s.status = de.dhbw.webenginspection.entity.StepStatus.PASSED)
+               or i.failedCount <> (select count(s) from InspectionStep s where s.inspection = i
+                    and s.status = de.dhbw.webenginspection.entity.StepStatus.FAILED)
+               or i.notApplicableCount <> (select count(s) from InspectionStep s where s.inspection = i
+                    and s.status = de.dhbw.webenginspection.entity.StepStatus.NOT_APPLICABLE)
+            """)
+    int repairStepCounters(@Param("changeSeq")
+    long changeSeq);
+
+    /**
+     * Anzahl der Inspektionen je Status, berechnet per GROUP BY in der
+     * Datenbank. Mit {@code inspectorId} werden nur die Inspektionen dieses
+     * Users gezählt ({@code null} = alle).
+     */
+    @Query("""
+            select new de.dhbw.webenginspection.dto.InspectionStatusCount(i.status, count(i))
+            from Inspection i
+            where (:inspectorId is null or i.assignedInspector.id = :inspectorId)
+            group by i.status
+            """)
+    List<InspectionStatusCount> countByStatus(@Param("inspectorId")
+    Long inspectorId);
+
+    // Anzahl der Inspektionen je Anlage und Status
+    @Query("""
+            select new de.dhbw.webenginspection.dto.InspectionStatusCount(i.plantName, i.status, count(i))
+            from Inspection i
+            where (:inspectorId is null or i.assignedInspector.id = :inspectorId)
+            group by i.plantName, i.status
+            order by i.plantName
+            """)
+    List<InspectionStatusCount> countByPlantAndStatus(@Param("inspectorId")
+    Long inspectorId);
+
+    // Anzahl der Inspektionen je Inspektor und Status (ohne Inspektor: id null)
+    @Query("""
+            select new de.dhbw.webenginspection.dto.InspectionStatusCount(u.id, u.displayName, i.status, count(i))
+            from Inspection i
+            left join i.assignedInspector u
+            where (:inspectorId is null or u.id = :inspectorId)
+            group by u.id, u.displayName, i.status
+            order by u.displayName, u.id
+            """)
+    List<InspectionStatusCount> countByInspectorAndStatus(@Param("inspectorId")
+    Long inspectorId);
+
+    /**
+     * Lädt eine Inspection für die Detailansicht mit allen benötigten
+     * Beziehungen (Inspektor, Checklist, Schritte und deren ChecklistSteps) in
+     * einer einzigen Abfrage per Fetch-Join. Die Anzahl der SQL-Statements ist
+     * damit unabhängig von der Anzahl der Schritte.
+     */
+    @Query("""
+            select i from Inspection i
+            left join fetch i.assignedInspector
+            left join fetch i.checklist
+            left join fetch i.steps s
+            left join fetch s.checklistStep
+            where i.id = :id
+            """)
+    Optional<Inspection> findDetailById(@Param("id")
+    Long id);
+
+    /**
+     * Inspektionen, deren Änderungsnummer im Bereich {@code (since, until]}
+     * liegt, optional nur die eines Inspektors ({@code null} = alle).
+     */
+    @Query("""
+            select new de.dhbw.webenginspection.dto.SyncInspection(
+                i.id, i.title, i.plantName, i.status, i.plannedDate, i.startedAt, i.finishedAt,
+                i.generalComment, c.id, u.id, i.stepCount, i.passedCount, i.failedCount, i.notApplicableCount)
+            from Inspection i
+            left join i.checklist c
+            left join i.assignedInspector u
+            where i.changeSeq > :since and i.changeSeq <= :until
+              and (:inspectorId is null or u.id = :inspectorId)
+            order by i.changeSeq, i.id
+            """)
+    List<SyncInspection> findChangedSince(@Param("since")
+    long since, @Param("until")
+    long until, @Param("inspectorId")
+    Long inspectorId);
 }
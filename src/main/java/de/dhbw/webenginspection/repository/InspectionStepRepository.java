@@ -1,16 +1,128 @@
 package de.dhbw.webenginspection.repository;
 
+import de.dhbw.webenginspection.dto.SyncStep;
 import de.dhbw.webenginspection.entity.InspectionStep;
 import de.dhbw.webenginspection.entity.StepStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface InspectionStepRepository extends JpaRepository<InspectionStep, Long> {
     
-    // Alle Schritte einer Inspektion (z. B. für Detailansicht)
+    // Alle Schritte einer Inspektion (z. B. für Detailansicht). Der
+    // ChecklistStep wird per Entity-Graph mitgeladen statt einzeln pro Schritt.
+    @EntityGraph(attributePaths = "checklistStep")
     List<InspectionStep> findByInspectionId(Long inspectionId);
 
     // Alle Schritte einer Inspektion mit bestimmtem Status (z. B. alle FAILED)
+    @EntityGraph(attributePaths = "checklistStep")
     List<InspectionStep> findByInspectionIdAndStatus(Long inspectionId, StepStatus status);
+
+    // Schritte samt Inspection und Inspektor (Zuständigkeit bei Offline-Operationen)
+    @EntityGraph(attributePaths = { "inspection", "inspection.assignedInspector" })
+    List<InspectionStep> findByIdIn(Collection<Long> ids);
+
+    // Fotos der Schritte einer Inspektion (Verweiszähler beim Löschen)
+    @Query("select s.photoPath from InspectionStep s where s.inspection.id = :inspectionId and s.photoPath is not null")
+    List<String> findPhotoPathsByInspectionId(@Param("inspectionId")
+    Long inspectionId);
+
+    // Anzahl der Inspection-Schritte, die auf einen der Checklisten-Schritte verweisen
+    long countByChecklistStepIdIn(Collection<Long> checklistStepIds);
+
+    // Muss zur allocationSize von InspectionStep passen
+    int ID_BLOCK_SIZE = 50;
+
+    /**
+     * Reserviert IDs für {@link #insertStepsFromChecklist} aus derselben
+     * Sequence wie bei {@link InspectionStep}. Jeder Wert {@code v} steht wie
+     * beim gepoolten Optimizer von Hibernate für den Block
+     * {@code (v - ID_BLOCK_SIZE, v]}.
+     *
+     * @param blocks die Anzahl der benötigten Blöcke
+     * @return das Ende jedes reservierten Blocks
+     */
+    @Query(value = "select next value for inspection_step_seq from system_range(1, :blocks)", nativeQuery = true)
+    List<Long> reserveIdBlocks(@Param("blocks")
+    int blocks);
+
+    // Anzahl der Schritte, die insertStepsFromChecklist für die Inspektionen anlegt
+    @Query(value = """
+            select count(*)
+            from inspection i
+            join checklist_step cs on cs.checklist_id = i.checklist_id
+            where i.id in (:inspectionIds)
+            """, nativeQuery = true)
+    long countStepsFromChecklist(@Param("inspectionIds")
+    Collection<Long> inspectionIds);
+
+    /**
+     * Legt für die angegebenen Inspektionen Schritte ihrer Checkliste (Status
+     * NOT_APPLICABLE) mit einem einzigen INSERT ... SELECT an, ohne die
+     * Schritte als Entitäten in den Persistenzkontext zu laden.
+     *
+     * Die Zeilen sind nach Inspection und Checklisten-Schritt durchnummeriert;
+     * angelegt werden die Zeilen {@code (offset, offset + count]} mit den
+     * fortlaufenden IDs ab {@code firstId}. Der Aufrufer reserviert die IDs
+     * vorher über {@link #reserveIdBlocks(int)}. Alle angelegten Schritte
+     * erhalten dieselbe Änderungsnummer.
+     *
+     * Der Hint auf {@code inspection_step} verhindert, dass Hibernate für
+     * das native Statement den gesamten Second-Level-Cache (u. a. die
+     * Checklisten) verwirft.
+     *
+     * @param inspectionIds die IDs der bereits gespeicherten Inspektionen
+     * @param firstId die ID der ersten angelegten Zeile
+     * @param offset die Anzahl der zu überspringenden Zeilen
+     * @param count die Anzahl der höchstens anzulegenden Zeilen
+     * @param changeSeq die Änderungsnummer für die Synchronisation
+     * @return die Anzahl der angelegten Schritte
+     */
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "inspection_step"))
+    @Query(value = """
+            insert into inspection_step (id, inspection_id, checklist_step_id, status, change_seq)
+            select :firstId + r.rn - :offset - 1, r.inspection_id, r.checklist_step_id, 'NOT_APPLICABLE', :changeSeq
+            from (
+                select i.id as inspection_id, cs.id as checklist_step_id,
+                    row_number() over (order by i.id, cs.id) as rn
+                from inspection i
+                join checklist_step cs on cs.checklist_id = i.checklist_id
+                where i.id in (:inspectionIds)
+            ) r
+            where r.rn > :offset and r.rn <= :offset + :count
+            """, nativeQuery = true)
+    int insertStepsFromChecklist(@Param("inspectionIds")
+    Collection<Long> inspectionIds, @Param("firstId")
+    long firstId, @Param("offset")
+    long offset, @Param("count")
+    long count, @Param("changeSeq")
+    long changeSeq);
+
+    /**
+     * Schritte, deren Änderungsnummer im Bereich {@code (since, until]} liegt,
+     * optional nur aus Inspektionen eines Inspektors ({@code null} = alle).
+     * Der ChecklistStep wird nicht geladen, nur seine ID übernommen.
+     */
+    @Query("""
+            select new de.dhbw.webenginspection.dto.SyncStep(
+                s.id, i.id, s.checklistStep.id, s.status, s.comment, s.photoPath)
+            from InspectionStep s
+            join s.inspection i
+            where s.changeSeq > :since and s.changeSeq <= :until
+              and (:inspectorId is null or i.assignedInspector.id = :inspectorId)
+            order by s.changeSeq, s.id
+            """)
+    List<SyncStep> findChangedSince(@Param("since")
+    long since, @Param("until")
+    long until, @Param("inspectorId")
+    Long inspectorId);
 }
@@ -0,0 +1,124 @@
+package de.dhbw.webenginspection.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import de.dhbw.webenginspection.dto.StoredPhoto;
+
+/**
+ * Zugriff auf die Tabelle {@code photo_blob} des inhaltsadressierten
+ * Fotospeichers.
+ *
+ * Läuft über JDBC (statt JPA), weil die Zeilen beim Upload außerhalb einer
+ * Transaktion angelegt und die Verweiszähler relativ zum aktuellen Wert in
+ * der Datenbank angepasst werden.
+ */
+@Repository
+public class PhotoBlobRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public PhotoBlobRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Optional<StoredPhoto> findBySha256(String sha256) {
+        return jdbcTemplate.query("""
+                select filename, content_type, size, sha256 from photo_blob where sha256 = :sha256
+                """, new MapSqlParameterSource("sha256", sha256),
+                (rs, rowNum) -> new StoredPhoto(rs.getString("filename"), rs.getString("content_type"),
+                        rs.getLong("size"), rs.getString("sha256"), true))
+                .stream().findFirst();
+    }
+
+    /**
+     * Legt eine Zeile ohne Verweise an.
+     *
+     * @return {@code false}, wenn der Hash bereits gespeichert ist
+     */
+    public boolean insert(StoredPhoto photo, LocalDateTime now) {
+        try {
+            jdbcTemplate.update("""
+                    insert into photo_blob (sha256, filename, content_type, size, ref_count, created_at, updated_at)
+                    values (:sha256, :filename, :contentType, :size, 0, :now, :now)
+                    """, new MapSqlParameterSource().addValue("sha256", photo.getSha256())
+                    .addValue("filename", photo.getFilename()).addValue("contentType", photo.getContentType())
+                    .addValue("size", photo.getSize()).addValue("now", now));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Markiert einen Hash als gerade verwendet, damit der Aufräum-Job ihn
+     * innerhalb der Karenzzeit nicht entfernt.
+     */
+    public void touch(String sha256, LocalDateTime now) {
+        jdbcTemplate.update("update photo_blob set updated_at = :now where sha256 = :sha256",
+                new MapSqlParameterSource().addValue("sha256", sha256).addValue("now", now));
+    }
+
+    /**
+     * Passt die Verweiszähler an. Dateinamen, die nicht im Speicher liegen
+     * (z.&nbsp;B. Altbestand), werden ignoriert.
+     *
+     * @param deltas Dateiname -> Änderung des Zählers
+     */
+    public void adjustReferences(Map<String, Integer> deltas, LocalDateTime now) {
+        MapSqlParameterSource[] batch = deltas.entrySet().stream().filter(entry -> entry.getValue() != 0)
+                .map(entry -> new MapSqlParameterSource().addValue("filename", entry.getKey())
+                        .addValue("delta", entry.getValue()).addValue("now", now))
+                .toArray(MapSqlParameterSource[]::new);
+        if (batch.length > 0) {
+            jdbcTemplate.batchUpdate("""
+                    update photo_blob set ref_count = ref_count + :delta, updated_at = :now
+                    where filename = :filename
+                    """, batch);
+        }
+    }
+
+    /**
+     * Setzt alle Verweiszähler, die nicht zu {@code inspection_step.photo_path}
+     * und {@code step_attachment.filename} passen, auf den tatsächlichen Wert.
+     *
+     * @return die Anzahl der korrigierten Zeilen
+     */
+    public int repairReferenceCounts() {
+        return jdbcTemplate.getJdbcTemplate().update("""
+                update photo_blob b
+                set ref_count = (select count(*) from inspection_step s where s.photo_path = b.filename)
+                        + (select count(*) from step_attachment a where a.filename = b.filename)
+                where ref_count <> (select count(*) from inspection_step s where s.photo_path = b.filename)
+                        + (select count(*) from step_attachment a where a.filename = b.filename)
+                """);
+    }
+
+    /**
+     * Dateinamen ohne Verweis, die seit {@code cutoff} nicht verwendet wurden.
+     */
+    public List<String> findUnreferencedBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.queryForList("""
+                select filename from photo_blob where ref_count <= 0 and updated_at < :cutoff
+                """, new MapSqlParameterSource("cutoff", cutoff), String.class);
+    }
+
+    /**
+     * Entfernt die Zeile, sofern sie weiterhin ohne Verweis und unbenutzt ist.
+     *
+     * @return {@code true}, wenn die Zeile entfernt wurde und die Datei
+     * gelöscht werden darf
+     */
+    public boolean deleteIfUnreferenced(String filename, LocalDateTime cutoff) {
+        return jdbcTemplate.update("""
+                delete from photo_blob where filename = :filename and ref_count <= 0 and updated_at < :cutoff
+                """, new MapSqlParameterSource().addValue("filename", filename).addValue("cutoff", cutoff)) > 0;
+    }
+}
@@ -0,0 +1,164 @@
+package de.dhbw.webenginspection.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Zugriff auf den invertierten Suchindex (Tabelle {@code search_term}). Jede
+ * Zeile speichert, wie oft ein Begriff in einem Dokument vorkommt. Da der
+ * Primärschlüssel mit {@code term} beginnt, ist die Suche nach einem Begriff
+ * bzw. Präfix ein Index-Bereich statt eines LIKE-Scans über die Texte.
+ *
+ * Läuft über JDBC (statt JPA), weil pro Dokument viele kleine Zeilen
+ * geschrieben werden, die als Batch deutlich günstiger sind als Entitäten.
+ */
+@Repository
+public class SearchIndexRepository {
+
+    private static final String INSERT_TERM = """
+            insert into search_term (term, doc_type, doc_id, owner_type, owner_id, frequency)
+            values (:term, :docType, :docId, :ownerType, :ownerId, :frequency)
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public SearchIndexRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Ersetzt die Begriffe eines Dokuments durch die übergebenen.
+     *
+     * @param terms Begriff -> Anzahl der Vorkommen (leer = Dokument entfernen)
+     */
+    public void replaceDocument(String docType, long docId, String ownerType, long ownerId,
+            Map<String, Integer> terms) {
+        deleteDocument(docType, docId);
+        if (terms.isEmpty()) {
+            return;
+        }
+        List<SqlParameterSource> batch = new ArrayList<>(terms.size());
+        terms.forEach((term, frequency) -> batch.add(termParams(term, docType, docId, ownerType, ownerId, frequency)));
+        jdbcTemplate.batchUpdate(INSERT_TERM, batch.toArray(SqlParameterSource[]::new));
+    }
+
+    /**
+     * Fügt Begriffe ohne vorheriges Löschen ein (für den vollständigen
+     * Neuaufbau).
+     */
+    public void insertTerms(List<SqlParameterSource> batch) {
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_TERM, batch.toArray(SqlParameterSource[]::new));
+        }
+    }
+
+    public static SqlParameterSource termParams(String term, String docType, long docId, String ownerType,
+            long ownerId, int frequency) {
+        return new MapSqlParameterSource().addValue("term", term).addValue("docType", docType)
+                .addValue("docId", docId).addValue("ownerType", ownerType).addValue("ownerId", ownerId)
+                .addValue("frequency", frequency);
+    }
+
+    public void deleteDocument(String docType, long docId) {
+        jdbcTemplate.update("delete from search_term where doc_type = :docType and doc_id = :docId",
+                new MapSqlParameterSource().addValue("docType", docType).addValue("docId", docId));
+    }
+
+    public void deleteOwner(String ownerType, long ownerId) {
+        jdbcTemplate.update("delete from search_term where owner_type = :ownerType and owner_id = :ownerId",
+                new MapSqlParameterSource().addValue("ownerType", ownerType).addValue("ownerId", ownerId));
+    }
+
+    public void deleteAll() {
+        jdbcTemplate.update("delete from search_term", Map.of());
+    }
+
+    public boolean isEmpty() {
+        Boolean exists = jdbcTemplate.queryForObject("select exists (select 1 from search_term)", Map.of(),
+                Boolean.class);
+        return !Boolean.TRUE.equals(exists);
+    }
+
+    /**
+     * Sucht Treffer, deren Dokumente zusammen zu jedem Suchbegriff einen
+     * Begriff mit diesem Präfix enthalten ("korrosion" findet auch
+     * "korrosionsschaden"), und sortiert sie nach der Summe der Vorkommen
+     * (absteigend, bei Gleichstand nach Art und neuere IDs zuerst).
+     *
+     * Die Präfixe werden als Bereich {@code [präfix, präfix + U+FFFF)}
+     * abgefragt, damit H2 den Primärschlüssel (beginnt mit {@code term})
+     * nutzt. Weitere Seiten setzen hinter dem letzten Treffer der vorherigen
+     * Seite fort (Keyset statt OFFSET).
+     *
+     * @param terms die (bereits normalisierten) Suchbegriffe
+     * @param ownerType optionale Einschränkung auf eine Trefferart
+     * ({@code null} = alle)
+     * @param afterScore Score des letzten Treffers der vorherigen Seite oder
+     * {@code null} für die erste Seite
+     * @param afterType Art des letzten Treffers
+     * @param afterId ID des letzten Treffers
+     * @return die Treffer in Rangfolge
+     */
+    public List<Match> search(Collection<String> terms, String ownerType, Long afterScore, String afterType,
+            Long afterId, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource().addValue("termCount", terms.size())
+                .addValue("ownerType", ownerType).addValue("afterScore", afterScore)
+                .addValue("afterType", afterType).addValue("afterId", afterId).addValue("limit", limit);
+        List<String> ranges = new ArrayList<>(terms.size());
+        List<String> matched = new ArrayList<>(terms.size());
+        int i = 0;
+        for (String term : terms) {
+            String range = "(term >= :from" + i + " and term < :to" + i + ")";
+            params.addValue("from" + i, term).addValue("to" + i, term + Character.MAX_VALUE);
+            ranges.add(range);
+            matched.add("max(case when " + range + " then 1 else 0 end)");
+            i++;
+        }
+        return jdbcTemplate.query("""
+                select owner_type, owner_id, sum(frequency) as score
+                from search_term
+                where (%s)
+                  and (cast(:ownerType as varchar) is null or owner_type = :ownerType)
+                group by owner_type, owner_id
+                having %s = :termCount
+                  and (cast(:afterScore as bigint) is null
+                    or sum(frequency) < :afterScore
+                    or (sum(frequency) = :afterScore and (owner_type > :afterType
+                      or (owner_type = :afterType and owner_id < :afterId))))
+                order by score desc, owner_type, owner_id desc
+                limit :limit
+                """.formatted(String.join(" or ", ranges), String.join(" + ", matched)), params,
+                (rs, rowNum) -> new Match(rs.getString("owner_type"), rs.getLong("owner_id"), rs.getLong("score")));
+    }
+
+    /**
+     * Ein Treffer im Index: das Objekt (Art und ID) und sein Score.
+     */
+    public record Match(String ownerType, long ownerId, long score) {
+    }
+
+    /**
+     * Liest Texte für den vollständigen Neuaufbau zeilenweise (gestreamt, ohne
+     * alle Zeilen im Speicher zu halten). Die Abfrage muss die Spalten
+     * {@code doc_id}, {@code owner_id} und {@code text} liefern.
+     */
+    public void forEachText(String sql, TextHandler handler) {
+        jdbcTemplate.query(sql, Map.of(),
+                rs -> handler.accept(rs.getLong("doc_id"), rs.getLong("owner_id"), rs.getString("text")));
+    }
+
+    /**
+     * Callback für {@link #forEachText}.
+     */
+    @FunctionalInterface
+    public interface TextHandler {
+        void accept(long docId, long ownerId, String text);
+    }
+}
@@ -0,0 +1,30 @@
+package de.dhbw.webenginspection.repository;
+
+import de.dhbw.webenginspection.entity.StepAttachment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface StepAttachmentRepository extends JpaRepository<StepAttachment, Long> {
+
+    // Anhänge eines Schritts in der Reihenfolge des Hochladens
+    List<StepAttachment> findByInspectionStepIdOrderById(Long inspectionStepId);
+
+    // Anhänge aller Schritte einer Inspektion (Detailansicht, ein Request statt einem je Schritt)
+    List<StepAttachment> findByInspectionStepInspectionIdOrderById(Long inspectionId);
+
+    Optional<StepAttachment> findByIdAndInspectionStepId(Long id, Long inspectionStepId);
+
+    // Fotos der Anhänge eines Schritts (Verweiszähler beim Löschen)
+    @Query("select a.filename from StepAttachment a where a.inspectionStep.id = :stepId")
+    List<String> findFilenamesByStepId(@Param("stepId")
+    Long stepId);
+
+    // Fotos der Anhänge aller Schritte einer Inspektion (Verweiszähler beim Löschen)
+    @Query("select a.filename from StepAttachment a where a.inspectionStep.inspection.id = :inspectionId")
+    List<String> findFilenamesByInspectionId(@Param("inspectionId")
+    Long inspectionId);
+}
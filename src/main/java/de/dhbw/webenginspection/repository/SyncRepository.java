@@ -0,0 +1,111 @@
+package de.dhbw.webenginspection.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import de.dhbw.webenginspection.dto.OperationResult;
+import de.dhbw.webenginspection.dto.SyncTombstone;
+
+/**
+ * Zugriff auf die Sequence {@code change_seq} und die Tabellen
+ * {@code sync_tombstone} und {@code client_operation} für die
+ * Synchronisation mit Offline-Clients.
+ *
+ * Läuft über JDBC (statt JPA), weil die Änderungsnummer auch während eines
+ * Hibernate-Flushs gezogen wird, in dem keine weiteren Abfragen über den
+ * Persistenzkontext laufen dürfen.
+ */
+@Repository
+public class SyncRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public SyncRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public long nextChangeSeq() {
+        return jdbcTemplate.getJdbcTemplate().queryForObject("select next value for change_seq", Long.class);
+    }
+
+    public void insertTombstone(String entityType, long entityId, Long inspectorId, long changeSeq) {
+        jdbcTemplate.update("""
+                insert into sync_tombstone (entity_type, entity_id, inspector_id, change_seq)
+                values (:entityType, :entityId, :inspectorId, :changeSeq)
+                """, new MapSqlParameterSource().addValue("entityType", entityType).addValue("entityId", entityId)
+                .addValue("inspectorId", inspectorId).addValue("changeSeq", changeSeq));
+    }
+
+    /**
+     * Gelöschte Zeilen im Bereich {@code (since, until]}. Mit
+     * {@code inspectorId} nur die aus Inspektionen dieses Users sowie
+     * gelöschte Checklisten ({@code null} = alle).
+     */
+    public List<SyncTombstone> findTombstones(long since, long until, Long inspectorId) {
+        return jdbcTemplate.query("""
+                select entity_type, entity_id from sync_tombstone
+                where change_seq > :since and change_seq <= :until
+                  and (cast(:inspectorId as bigint) is null or inspector_id is null or inspector_id = :inspectorId)
+                order by change_seq, id
+                """, new MapSqlParameterSource().addValue("since", since).addValue("until", until)
+                .addValue("inspectorId", inspectorId),
+                (rs, rowNum) -> new SyncTombstone(rs.getString("entity_type"), rs.getLong("entity_id")));
+    }
+
+    /**
+     * Liefert den gespeicherten Ausgang der bereits verarbeiteten Schlüssel
+     * eines Users.
+     *
+     * @return Schlüssel -> Ausgang, nur für bekannte Schlüssel
+     */
+    public Map<String, OperationResult.Outcome> findOperationOutcomes(long userId, Collection<String> keys) {
+        Map<String, OperationResult.Outcome> outcomes = new HashMap<>();
+        if (keys.isEmpty()) {
+            return outcomes;
+        }
+        jdbcTemplate.query("""
+                select idempotency_key, outcome from client_operation
+                where user_id = :userId and idempotency_key in (:keys)
+                """, new MapSqlParameterSource().addValue("userId", userId).addValue("keys", keys),
+                rs -> {
+                    outcomes.put(rs.getString("idempotency_key"),
+                            OperationResult.Outcome.valueOf(rs.getString("outcome")));
+                });
+        return outcomes;
+    }
+
+    /**
+     * Speichert den Ausgang neu verarbeiteter Operationen. Verarbeitet ein
+     * paralleler Upload denselben Schlüssel, schlägt das Einfügen mit einer
+     * {@link org.springframework.dao.DuplicateKeyException} fehl.
+     */
+    public void insertOperationOutcomes(long userId, Map<String, OperationResult.Outcome> outcomes,
+            LocalDateTime processedAt) {
+        MapSqlParameterSource[] batch = outcomes.entrySet().stream()
+                .map(entry -> new MapSqlParameterSource().addValue("userId", userId)
+                        .addValue("key", entry.getKey()).addValue("outcome", entry.getValue().name())
+                        .addValue("processedAt", processedAt))
+                .toArray(MapSqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate("""
+                insert into client_operation (user_id, idempotency_key, outcome, processed_at)
+                values (:userId, :key, :outcome, :processedAt)
+                """, batch);
+    }
+
+    /**
+     * Entfernt Schlüssel, die vor dem angegebenen Zeitpunkt verarbeitet wurden.
+     *
+     * @return die Anzahl der entfernten Schlüssel
+     */
+    public int deleteOperationsBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.update("delete from client_operation where processed_at < :cutoff",
+                new MapSqlParameterSource("cutoff", cutoff));
+    }
+}
@@ -3,6 +3,8 @@ package de.dhbw.webenginspection.repository;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import de.dhbw.webenginspection.entity.User;
 
@@ -15,4 +17,11 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * Findet einen User anhand seines eindeutigen Usernamens.
      */
     Optional<User> findByUsername(String username);
+
+    /**
+     * Liefert nur die Token-Version eines Users (für die Prüfung von Tokens).
+     */
+    @Query("select u.tokenVersion from User u where u.id = :id")
+    Optional<Integer> findTokenVersionById(@Param("id")
+    Long id);
 }
@@ -0,0 +1,54 @@
+package de.dhbw.webenginspection.service;
+
+import de.dhbw.webenginspection.dto.CacheRegionStats;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Liest die Hit/Miss-Statistiken des Hibernate-Second-Level-Caches (Entity-,
+ * Collection- und Query-Regionen) aus. Setzt
+ * {@code hibernate.generate_statistics=true} voraus, sonst sind alle Zähler
+ * 0.
+ */
+@Service
+public class CacheStatisticsService {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public CacheStatisticsService(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Liefert die Statistik aller Cache-Regionen, sortiert nach Namen.
+     *
+     * @return eine Liste von {@link CacheRegionStats} (leer, wenn der Cache
+     * deaktiviert ist)
+     */
+    public List<CacheRegionStats> getRegionStats() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        String[] regions = statistics.getSecondLevelCacheRegionNames();
+        Arrays.sort(regions);
+
+        List<CacheRegionStats> result = new ArrayList<>(regions.length);
+        for (String region : regions) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+            if (regionStatistics != null) {
+                result.add(new CacheRegionStats(region, regionStatistics.getHitCount(),
+                        regionStatistics.getMissCount(), regionStatistics.getPutCount(),
+                        regionStatistics.getElementCountInMemory()));
+            }
+        }
+        return result;
+    }
+}
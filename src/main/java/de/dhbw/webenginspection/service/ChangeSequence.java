@@ -0,0 +1,111 @@
+package de.dhbw.webenginspection.service;
+
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import de.dhbw.webenginspection.repository.SyncRepository;
+
+/**
+ * Vergibt die Änderungsnummern für die Delta-Synchronisation aus der Sequence
+ * {@code change_seq}. Wie bei den Entity-IDs wird ein Block von
+ * {@link #BLOCK_SIZE} Nummern auf einmal reserviert, sodass nicht jedes
+ * Schreiben eine eigene Abfrage kostet.
+ *
+ * Da Transaktionen nicht in der Reihenfolge ihrer Nummern committen, merkt
+ * sich der Service die erste Nummer jeder offenen Transaktion.
+ * {@link #stableValue()} liefert die höchste Nummer, bis zu der alle anderen
+ * Transaktionen abgeschlossen sind; nur bis dorthin darf ein Client
+ * synchronisieren, ohne später committete Zeilen zu verpassen. Der Stand gilt
+ * pro Instanz, die Anwendung läuft als einzelner Server.
+ */
+@Service
+public class ChangeSequence {
+
+    // Muss zum "increment by" der Sequence passen
+    private static final int BLOCK_SIZE = 50;
+
+    private final SyncRepository syncRepository;
+
+    // Erste Nummer jeder noch nicht abgeschlossenen Transaktion
+    private final ConcurrentSkipListSet<Long> inFlight = new ConcurrentSkipListSet<>();
+
+    // Nächste freie Nummer im reservierten Block und dessen Ende (exklusiv)
+    private long nextValue;
+
+    private long blockEnd;
+
+    // Zuletzt vergebene Nummer (0 = seit dem Start noch keine)
+    private long lastAllocated;
+
+    public ChangeSequence(SyncRepository syncRepository) {
+        this.syncRepository = syncRepository;
+    }
+
+    /**
+     * Vergibt die nächste Änderungsnummer. Nummern werden streng aufsteigend
+     * vergeben, auch innerhalb einer Transaktion.
+     *
+     * @return die Änderungsnummer
+     */
+    public long next() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return allocate(false);
+        }
+        if (TransactionSynchronizationManager.hasResource(this)) {
+            return allocate(false);
+        }
+        long first = allocate(true);
+        TransactionSynchronizationManager.bindResource(this, first);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(ChangeSequence.this);
+                inFlight.remove(first);
+            }
+        });
+        return first;
+    }
+
+    private synchronized long allocate(boolean firstInTransaction) {
+        if (nextValue >= blockEnd) {
+            reserveBlock();
+        }
+        long value = nextValue++;
+        if (firstInTransaction) {
+            inFlight.add(value);
+        }
+        lastAllocated = value;
+        return value;
+    }
+
+    private void reserveBlock() {
+        nextValue = syncRepository.nextChangeSeq();
+        blockEnd = nextValue + BLOCK_SIZE;
+    }
+
+    /**
+     * Höchste Änderungsnummer, bis zu der alle anderen Transaktionen
+     * abgeschlossen sind. Zeilen mit einer größeren Nummer können noch
+     * hinzukommen. Eigene Änderungen der laufenden Transaktion zählen als
+     * abgeschlossen, da sie für sie bereits sichtbar sind.
+     *
+     * @return die stabile Obergrenze für eine Synchronisation
+     */
+    public synchronized long stableValue() {
+        Object own = TransactionSynchronizationManager.getResource(this);
+        for (Long first : inFlight) {
+            if (!first.equals(own)) {
+                return first - 1;
+            }
+        }
+        if (lastAllocated == 0) {
+            // Seit dem Start nichts vergeben: alles vor dem nächsten Block ist abgeschlossen
+            reserveBlock();
+            lastAllocated = nextValue - 1;
+        }
+        return lastAllocated;
+    }
+}
@@ -0,0 +1,31 @@
+package de.dhbw.webenginspection.service;
+
+import org.springframework.stereotype.Component;
+
+import de.dhbw.webenginspection.entity.ChangeTracked;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+
+/**
+ * JPA-Listener, der jede angelegte oder geänderte {@link ChangeTracked}-Entität
+ * mit einer neuen Änderungsnummer aus {@link ChangeSequence} stempelt. Wird von
+ * Hibernate über den Spring-Kontext erzeugt. Bulk-Updates und native
+ * Statements umgehen den Listener und setzen die Nummer selbst.
+ */
+@Component
+public class ChangeSequenceListener {
+
+    private final ChangeSequence changeSequence;
+
+    public ChangeSequenceListener(ChangeSequence changeSequence) {
+        this.changeSequence = changeSequence;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void stamp(Object entity) {
+        if (entity instanceof ChangeTracked tracked) {
+            tracked.setChangeSeq(changeSequence.next());
+        }
+    }
+}
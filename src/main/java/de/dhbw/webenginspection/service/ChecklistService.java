@@ -1,18 +1,28 @@
 package de.dhbw.webenginspection.service;
 
+import de.dhbw.webenginspection.dto.SyncTombstone;
 import de.dhbw.webenginspection.entity.Checklist;
 import de.dhbw.webenginspection.entity.ChecklistStep;
-import de.dhbw.webenginspection.error.ChecklistInUseException;
+import de.dhbw.webenginspection.error.ChecklistStepInUseException;
+import de.dhbw.webenginspection.error.PreconditionFailedException;
 import de.dhbw.webenginspection.repository.ChecklistRepository;
-import de.dhbw.webenginspection.repository.InspectionRepository;
+import de.dhbw.webenginspection.repository.ChecklistStepRepository;
+import de.dhbw.webenginspection.repository.InspectionStepRepository;
 
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Service zur Verwaltung von Checklisten. Bietet Funktionen zum Erstellen,
@@ -28,22 +38,48 @@ public class ChecklistService {
 
     private final ChecklistRepository checklistRepository;
 
-    private final InspectionRepository inspectionRepository;
+    private final ChecklistStepRepository checklistStepRepository;
 
-    public ChecklistService(ChecklistRepository checklistRepository, InspectionRepository inspectionRepository) {
+    private final InspectionStepRepository inspectionStepRepository;
+
+    private final SearchIndexService searchIndexService;
+
+    private final TypeaheadIndex typeaheadIndex;
+
+    private final SyncService syncService;
+
+    public ChecklistService(ChecklistRepository checklistRepository, ChecklistStepRepository checklistStepRepository,
+            InspectionStepRepository inspectionStepRepository, SearchIndexService searchIndexService,
+            TypeaheadIndex typeaheadIndex, SyncService syncService) {
         this.checklistRepository = checklistRepository;
-        this.inspectionRepository = inspectionRepository;
+        this.checklistStepRepository = checklistStepRepository;
+        this.inspectionStepRepository = inspectionStepRepository;
+        this.searchIndexService = searchIndexService;
+        this.typeaheadIndex = typeaheadIndex;
+        this.syncService = syncService;
     }
 
     /**
-     * Gibt alle vorhandenen Checklisten zurück.
+     * Gibt die aktuelle Version aller nicht archivierten Checklisten zurück.
      *
-     * @return eine Liste aller {@link Checklist}-Entitäten (niemals
+     * @return eine Liste von {@link Checklist}-Entitäten (niemals
      * {@code null})
      */
     public List<Checklist> getAllChecklists() {
         log.info("Fetching all checklists");
-        return checklistRepository.findAll();
+        return checklistRepository.findByLatestTrueAndArchivedFalseOrderById();
+    }
+
+    /**
+     * Liefert eine Kennung für den aktuellen Stand der Liste aus
+     * {@link #getAllChecklists()}, ohne die Checklisten zu laden (ETag).
+     *
+     * @return die Kennung; ändert sich bei jeder Änderung an einer Checklist
+     * der Liste oder ihren Schritten
+     */
+    @Transactional(readOnly = true)
+    public String getListVersion() {
+        return checklistRepository.findListVersion();
     }
 
     /**
@@ -71,6 +107,13 @@ public class ChecklistService {
     public Checklist createChecklist(Checklist checklist) {
         log.info("Creating new checklist '{}'", checklist.getName());
 
+        // Neue Checklisten beginnen immer als erste, veränderbare Version
+        checklist.setVersionNumber(1);
+        checklist.setFrozen(false);
+        checklist.setLatest(true);
+        checklist.setArchived(false);
+        checklist.touch();
+
         // Bidirektionale Beziehung richtig setzen:
         if (checklist.getSteps() != null) {
             for (ChecklistStep step : checklist.getSteps()) {
@@ -79,73 +122,202 @@ public class ChecklistService {
         }
 
         Checklist saved = checklistRepository.save(checklist);
+        saved.setSeriesId(saved.getId());
+        searchIndexService.indexChecklist(saved);
+        typeaheadIndex.putChecklist(saved);
         log.info("Created checklist with id {}", saved.getId());
 
         return saved;
     }
 
     /**
-     * Aktualisiert die vorhandene Checklist mit der angegebenen ID. Dabei
-     * werden die Eigenschaften name, plantName und recommendations
-     * überschrieben und die gesamte Liste der zugehörigen Steps ersetzt. Jedem
-     * übergebenen Step wird die bestehende Checklist zugewiesen.
+     * Aktualisiert die vorhandene Checklist mit der angegebenen ID.
+     *
+     * Wird die Version bereits von Inspections verwendet ({@code frozen}),
+     * bleibt sie unverändert und es wird eine neue Version mit den übergebenen
+     * Daten angelegt; die Antwort enthält dann die neue ID.
+     *
+     * Andernfalls werden name, plantName und recommendations überschrieben
+     * und die Steps anhand ihrer ID abgeglichen: Steps mit ID
+     * werden aktualisiert, Steps ohne ID neu angelegt und nicht mehr
+     * übergebene Steps gelöscht. Unveränderte Steps verursachen kein
+     * SQL-Statement, sodass bestehende Inspection-Schritte ihre Referenz
+     * behalten.
      *
      * @param id die ID der zu aktualisierenden Checklist
      * @param updated die neuen Daten für die Checklist
-     * @return die aktualisierte und gespeicherte {@link Checklist}
+     * @param expectedVersion die erwartete Version aus {@code If-Match} oder
+     * {@code null}, wenn ohne Prüfung überschrieben werden soll
+     * @return die aktualisierte {@link Checklist} bzw. die neue Version
      * @throws IllegalArgumentException wenn keine Checklist mit der ID
-     * existiert
+     * existiert, sie nicht die aktuelle Version ist oder ein Step mit ID nicht
+     * zu dieser Checklist gehört
+     * @throws ChecklistStepInUseException wenn zu löschende Steps noch von
+     * Inspection-Schritten verwendet werden
+     * @throws PreconditionFailedException wenn die Checklist inzwischen eine
+     * andere Version hat
      */
-    public Checklist updateChecklist(Long id, Checklist updated) {
+    public Checklist updateChecklist(Long id, Checklist updated, Long expectedVersion) {
         log.info("Updating checklist with id {}", id);
 
-        Checklist existing = getChecklistById(id)
+        Checklist existing = checklistRepository.findByIdForUpdate(id)
                 .orElseThrow(() -> new IllegalArgumentException("Checklist with id " + id + " not found"));
 
+        if (expectedVersion != null && existing.getVersion() != expectedVersion) {
+            throw new PreconditionFailedException("Checklist " + id);
+        }
+        if (existing.isArchived() || !existing.isLatest()) {
+            throw new IllegalArgumentException("Checklist with id " + id + " is not the current version");
+        }
+        if (existing.isFrozen()) {
+            return createNextVersion(existing, updated);
+        }
+
+        boolean recommendationsChanged = !Objects.equals(existing.getRecommendations(),
+                updated.getRecommendations());
         existing.setName(updated.getName());
         existing.setPlantName(updated.getPlantName());
         existing.setRecommendations(updated.getRecommendations());
+        existing.touch();
+
+        // Steps abgleichen statt ersetzen
+        Map<Long, ChecklistStep> existingSteps = existing.getSteps().stream()
+                .collect(Collectors.toMap(ChecklistStep::getId, Function.identity()));
+        List<ChecklistStep> incoming = updated.getSteps() != null ? updated.getSteps() : List.of();
+        Set<Long> keptIds = new HashSet<>();
+        List<ChecklistStep> added = new ArrayList<>();
+        List<ChecklistStep> changed = new ArrayList<>();
+
+        for (ChecklistStep step : incoming) {
+            if (step.getId() == null) {
+                added.add(new ChecklistStep(step.getDescription(), step.getRequirement(), step.getOrderIndex()));
+                continue;
+            }
+            ChecklistStep target = existingSteps.get(step.getId());
+            if (target == null) {
+                throw new IllegalArgumentException(
+                        "ChecklistStep with id " + step.getId() + " does not belong to checklist " + id);
+            }
+            if (!keptIds.add(step.getId())) {
+                throw new IllegalArgumentException("ChecklistStep with id " + step.getId() + " is listed twice");
+            }
+            if (applyStepChanges(target, step)) {
+                changed.add(target);
+            }
+        }
+
+        List<ChecklistStep> removed = existing.getSteps().stream().filter(s -> !keptIds.contains(s.getId()))
+                .toList();
+        if (!removed.isEmpty()) {
+            long inspectionStepCount = inspectionStepRepository
+                    .countByChecklistStepIdIn(removed.stream().map(ChecklistStep::getId).toList());
+            if (inspectionStepCount > 0) {
+                log.warn("Cannot remove {} steps of checklist {} - {} inspection steps depend on them",
+                        removed.size(), id, inspectionStepCount);
+                throw new ChecklistStepInUseException(inspectionStepCount);
+            }
+            removed.forEach(existing::removeStep);
+        }
+
+        // Neue Steps explizit persistieren, damit sie für den Suchindex sofort
+        // eine ID haben
+        added.forEach(existing::addStep);
+        checklistStepRepository.saveAll(added);
+
+        if (recommendationsChanged) {
+            searchIndexService.indexChecklistRecommendations(existing);
+        }
+        removed.forEach(step -> searchIndexService.removeChecklistStep(step.getId()));
+        changed.forEach(searchIndexService::indexChecklistStep);
+        added.forEach(searchIndexService::indexChecklistStep);
+        typeaheadIndex.putChecklist(existing);
+        log.info("Updated checklist with id {} ({} steps added, {} changed, {} removed)", id, added.size(),
+                changed.size(), removed.size());
+
+        return existing;
+    }
 
-        // Steps ersetzen
-        existing.getSteps().clear();
+    /**
+     * Legt eine neue Version einer von Inspections verwendeten Checklist an.
+     * Die Steps werden als neue Zeilen übernommen, die bisherige Version wird
+     * nur als abgelöst markiert und sonst nicht verändert.
+     */
+    private Checklist createNextVersion(Checklist current, Checklist updated) {
+        current.setLatest(false);
+
+        Checklist next = new Checklist(updated.getName(), updated.getPlantName(), updated.getRecommendations());
+        next.setSeriesId(current.getSeriesId());
+        next.setVersionNumber(current.getVersionNumber() + 1);
+        next.touch();
         if (updated.getSteps() != null) {
             for (ChecklistStep step : updated.getSteps()) {
-                step.setChecklist(existing);
-                existing.getSteps().add(step);
+                next.addStep(new ChecklistStep(step.getDescription(), step.getRequirement(), step.getOrderIndex()));
             }
         }
 
-        Checklist saved = checklistRepository.save(existing);
-        log.info("Updated checklist with id {}", saved.getId());
+        Checklist saved = checklistRepository.save(next);
+        searchIndexService.removeChecklist(current.getId());
+        searchIndexService.indexChecklist(saved);
+        typeaheadIndex.removeChecklist(current.getId());
+        typeaheadIndex.putChecklist(saved);
+        log.info("Created version {} of checklist {} with id {} (replaces id {})", saved.getVersionNumber(),
+                saved.getSeriesId(), saved.getId(), current.getId());
 
         return saved;
     }
 
     /**
-     * Löscht die Checklist mit der angegebenen ID.
+     * Löscht die Checklist mit der angegebenen ID inklusive aller ihrer
+     * Versionen. Wird eine der Versionen noch von Inspections verwendet,
+     * werden die Versionen stattdessen archiviert: Sie erscheinen nicht mehr in
+     * Listen und Suchen, bleiben für die bestehenden Inspections aber
+     * erhalten.
      *
-     * @param id die ID der zu löschenden Checklist
+     * @param id die ID (einer beliebigen Version) der zu löschenden Checklist
      * @throws IllegalArgumentException wenn keine Checklist mit der ID
-     * existiert
-     * @throws ChecklistInUseException wenn die Checklist von Inspections
-     * verwendet wird
+     * existiert oder sie bereits archiviert ist
      */
     public void deleteChecklist(Long id) {
         log.info("Deleting checklist with id {}", id);
 
-        if (!checklistRepository.existsById(id)) {
+        Checklist checklist = checklistRepository.findById(id).filter(c -> !c.isArchived()).orElse(null);
+        if (checklist == null) {
             log.warn("Checklist with id {} not found for deletion", id);
             throw new IllegalArgumentException("Checklist with id " + id + " not found");
         }
 
-        // Prüfe ob abhängige Inspections existieren
-        long inspectionCount = inspectionRepository.countByChecklistId(id);
-        if (inspectionCount > 0) {
-            log.warn("Cannot delete checklist {} - {} inspections depend on it", id, inspectionCount);
-            throw new ChecklistInUseException((int) inspectionCount);
+        List<Checklist> versions = checklistRepository.findBySeriesIdOrderByVersionNumber(checklist.getSeriesId());
+        if (versions.stream().anyMatch(Checklist::isFrozen)) {
+            versions.forEach(version -> version.setArchived(true));
+            log.info("Archived checklist {} ({} versions) - still used by inspections", checklist.getSeriesId(),
+                    versions.size());
+        } else {
+            checklistRepository.deleteAll(versions);
+            versions.forEach(version -> syncService.recordDeletion(SyncTombstone.CHECKLIST, version.getId(), null));
+            log.info("Deleted checklist {} ({} versions)", checklist.getSeriesId(), versions.size());
+        }
+
+        for (Checklist version : versions) {
+            searchIndexService.removeChecklist(version.getId());
+            typeaheadIndex.removeChecklist(version.getId());
         }
+    }
 
-        checklistRepository.deleteById(id);
-        log.info("Deleted checklist with id {}", id);
+    /**
+     * Übernimmt Beschreibung, Anforderung und Reihenfolge, falls sie sich
+     * unterscheiden.
+     *
+     * @return {@code true}, wenn sich der Step geändert hat
+     */
+    private static boolean applyStepChanges(ChecklistStep target, ChecklistStep source) {
+        if (Objects.equals(target.getDescription(), source.getDescription())
+                && Objects.equals(target.getRequirement(), source.getRequirement())
+                && Objects.equals(target.getOrderIndex(), source.getOrderIndex())) {
+            return false;
+        }
+        target.setDescription(source.getDescription());
+        target.setRequirement(source.getRequirement());
+        target.setOrderIndex(source.getOrderIndex());
+        return true;
     }
-}
\ No newline at end of file
+}
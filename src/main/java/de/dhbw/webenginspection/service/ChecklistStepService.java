@@ -2,8 +2,11 @@ package de.dhbw.webenginspection.service;
 
 import de.dhbw.webenginspection.entity.Checklist;
 import de.dhbw.webenginspection.entity.ChecklistStep;
+import de.dhbw.webenginspection.error.ChecklistInUseException;
+import de.dhbw.webenginspection.error.ChecklistStepInUseException;
 import de.dhbw.webenginspection.repository.ChecklistRepository;
 import de.dhbw.webenginspection.repository.ChecklistStepRepository;
+import de.dhbw.webenginspection.repository.InspectionStepRepository;
 
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -29,10 +32,17 @@ public class ChecklistStepService {
 
     private final ChecklistRepository checklistRepository;
 
+    private final InspectionStepRepository inspectionStepRepository;
+
+    private final SearchIndexService searchIndexService;
+
     public ChecklistStepService(ChecklistStepRepository checklistStepRepository,
-            ChecklistRepository checklistRepository) {
+            ChecklistRepository checklistRepository, InspectionStepRepository inspectionStepRepository,
+            SearchIndexService searchIndexService) {
         this.checklistStepRepository = checklistStepRepository;
         this.checklistRepository = checklistRepository;
+        this.inspectionStepRepository = inspectionStepRepository;
+        this.searchIndexService = searchIndexService;
     }
 
     /**
@@ -64,24 +74,30 @@ public class ChecklistStepService {
 
     /**
      * Erstellt einen neuen Schritt für eine bestehende Checkliste. Setzt die
-     * bidirektionale Beziehung korrekt, indem dem Step die passende Checklist
-     * zugewiesen wird.
+     * bidirektionale Beziehung korrekt, indem der Step über
+     * {@link Checklist#addStep(ChecklistStep)} angehängt wird.
      *
      * @param checklistId die ID der Checkliste, zu der der neue Schritt gehört
      * @param step die zu erstellende {@link ChecklistStep}-Entität
      * @return der gespeicherte Schritt mit generierter ID
      * @throws IllegalArgumentException wenn keine Checkliste mit der
      * angegebenen ID existiert
+     * @throws ChecklistInUseException wenn die Checklist-Version bereits von
+     * Inspections verwendet wird
      */
     public ChecklistStep createStep(Long checklistId, ChecklistStep step) {
         log.info("Creating new step for checklist with id {}", checklistId);
         Checklist checklist = checklistRepository.findById(checklistId)
                 .orElseThrow(() -> new IllegalArgumentException("Checklist with id " + checklistId + " not found"));
+        requireEditable(checklist);
+        checklist.touch();
 
         step.setId(null); // Sicherheit: neue Entität
-        step.setChecklist(checklist);
+        // Über die Collection, damit Hibernate deren Cache-Eintrag verwirft
+        checklist.addStep(step);
 
         ChecklistStep saved = checklistStepRepository.save(step);
+        searchIndexService.indexChecklistStep(saved);
         log.info("Created checklist step with id {} for checklist id {}", saved.getId(), checklistId);
 
         return saved;
@@ -96,18 +112,23 @@ public class ChecklistStepService {
      * @return der aktualisierte und gespeicherte {@link ChecklistStep}
      * @throws IllegalArgumentException wenn kein Schritt mit der angegebenen ID
      * existiert
+     * @throws ChecklistInUseException wenn die Checklist-Version bereits von
+     * Inspections verwendet wird
      */
     public ChecklistStep updateStep(Long id, ChecklistStep updated) {
         log.info("Updating checklist step with id {}", id);
         
         ChecklistStep existing = getStepById(id)
                 .orElseThrow(() -> new IllegalArgumentException("ChecklistStep with id " + id + " not found"));
+        requireEditable(existing.getChecklist());
+        existing.getChecklist().touch();
 
         existing.setDescription(updated.getDescription());
         existing.setRequirement(updated.getRequirement());
         existing.setOrderIndex(updated.getOrderIndex());
 
         ChecklistStep saved = checklistStepRepository.save(existing);
+        searchIndexService.indexChecklistStep(saved);
         log.info("Updated checklist step with id {}", saved.getId());
 
         return saved;
@@ -119,16 +140,44 @@ public class ChecklistStepService {
      * @param id die ID des zu löschenden Schritts
      * @throws IllegalArgumentException wenn kein Schritt mit der angegebenen ID
      * existiert
+     * @throws ChecklistInUseException wenn die Checklist-Version bereits von
+     * Inspections verwendet wird
+     * @throws ChecklistStepInUseException wenn Inspection-Schritte auf den
+     * Schritt verweisen
      */
     public void deleteStep(Long id) {
         log.info("Deleting checklist step with id {}", id);
 
-        if (!checklistStepRepository.existsById(id)) {
+        ChecklistStep step = checklistStepRepository.findById(id).orElse(null);
+        if (step == null) {
             log.warn("ChecklistStep with id {} not found for deletion", id);
             throw new IllegalArgumentException("ChecklistStep with id " + id + " not found");
         }
+        requireEditable(step.getChecklist());
 
-        checklistStepRepository.deleteById(id);
+        long inspectionStepCount = inspectionStepRepository.countByChecklistStepIdIn(List.of(id));
+        if (inspectionStepCount > 0) {
+            log.warn("Cannot delete checklist step {} - {} inspection steps depend on it", id, inspectionStepCount);
+            throw new ChecklistStepInUseException(inspectionStepCount);
+        }
+
+        // orphanRemoval löscht den Schritt und verwirft den Cache-Eintrag der Collection
+        Checklist checklist = step.getChecklist();
+        checklist.touch();
+        checklist.removeStep(step);
+        searchIndexService.removeChecklistStep(id);
         log.info("Deleted checklist step with id {}", id);
     }
-}
\ No newline at end of file
+
+    /**
+     * Einzelne Schritte dürfen nur in Checklist-Versionen geändert werden, auf
+     * denen noch keine Inspection basiert. Die Aufrufer markieren die
+     * Checklist anschließend per {@link Checklist#touch()} als geändert, da
+     * ihre Version (ETag) auch die Schritte abdeckt.
+     */
+    private static void requireEditable(Checklist checklist) {
+        if (checklist.isFrozen() || !checklist.isLatest()) {
+            throw new ChecklistInUseException(checklist.getId());
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package de.dhbw.webenginspection.service;
+
+import de.dhbw.webenginspection.entity.Inspection;
+import de.dhbw.webenginspection.repository.InspectionRepository;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Konsistenz-Job für die denormalisierten Schrittzähler der
+ * {@link Inspection}. Die Zähler werden im Normalfall bei jeder Änderung eines
+ * Schritts atomar mitgepflegt; dieser Job berechnet sie regelmäßig (Standard:
+ * nachts um 3:30 Uhr) aus den tatsächlichen Schritten neu und korrigiert
+ * Abweichungen, z.&nbsp;B. nach manuellen Änderungen an der Datenbank.
+ * Bestandsdaten von vor der Einführung der Zähler initialisiert die Migration
+ * V1.1.
+ */
+@Component
+@Transactional
+public class InspectionCounterRepairJob {
+
+    private static final Logger log = LoggerFactory.getLogger(InspectionCounterRepairJob.class);
+
+    private final InspectionRepository inspectionRepository;
+
+    private final ChangeSequence changeSequence;
+
+    public InspectionCounterRepairJob(InspectionRepository inspectionRepository, ChangeSequence changeSequence) {
+        this.inspectionRepository = inspectionRepository;
+        this.changeSequence = changeSequence;
+    }
+
+    @Scheduled(cron = "${app.inspection.counter-repair-cron:0 30 3 * * *}")
+    public void scheduledRepair() {
+        repairCounters();
+    }
+
+    /**
+     * Korrigiert alle Inspektionen, deren Zähler nicht zu ihren Schritten
+     * passen.
+     *
+     * @return die Anzahl der korrigierten Inspektionen
+     */
+    public int repairCounters() {
+        int repaired = inspectionRepository.repairStepCounters(changeSequence.next());
+        if (repaired > 0) {
+            log.warn("Repaired step counters of {} inspections", repaired);
+        } else {
+            log.info("Step counters of all inspections are consistent");
+        }
+        return repaired;
+    }
+}
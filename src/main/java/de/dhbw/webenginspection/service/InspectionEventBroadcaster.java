@@ -0,0 +1,211 @@
+package de.dhbw.webenginspection.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import de.dhbw.webenginspection.dto.InspectionProgressEvent;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Verteilt {@link InspectionProgressEvent}s per Server-Sent Events an die
+ * offenen Verbindungen von {@code GET /api/inspections/events}.
+ *
+ * Ein wartender Abonnent belegt keinen Thread, nur seine asynchrone
+ * Servlet-Anfrage. Events werden erst nach dem Commit der ändernden
+ * Transaktion verteilt; der committende Thread reiht sie nur in die
+ * Warteschlangen der passenden Abonnenten ein. Das Senden übernimmt je
+ * Abonnent ein virtueller Thread, sodass ein langsamer Client die anderen
+ * nicht aufhält. Läuft seine Warteschlange über, wird die Verbindung
+ * geschlossen; der Client verbindet sich neu und holt Verpasstes per
+ * {@code GET /api/sync} nach.
+ */
+@Component
+public class InspectionEventBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(InspectionEventBroadcaster.class);
+
+    // Maximal wartende Events je Abonnent, bevor die Verbindung geschlossen wird
+    private static final int MAX_PENDING = 256;
+
+    // Platzhalter in der Warteschlange für einen Keep-Alive-Kommentar
+    private static final InspectionProgressEvent HEARTBEAT = new InspectionProgressEvent();
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final ExecutorService sender = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Duration timeout;
+
+    public InspectionEventBroadcaster(@Value("${app.events.sse-timeout:PT30M}")
+    Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * Öffnet einen Event-Stream. Alle gesetzten Filter müssen passen,
+     * {@code null} steht für beliebig.
+     *
+     * Der Stream endet spätestens mit dem Ablauf des Tokens, mit dem er
+     * geöffnet wurde; wird das Token vorher widerrufen, schließt ihn der
+     * nächste Heartbeat. Der Client verbindet sich danach mit einem neuen
+     * Token.
+     *
+     * @param inspectionId nur Events dieser Inspection
+     * @param plantName nur Events von Inspektionen dieser Anlage
+     * @param inspectorId nur Events von Inspektionen dieses Inspektors
+     * @param expiresAt Ablauf des Tokens oder {@code null}
+     * @param authorized prüft, ob der Client den Stream weiter erhalten darf
+     * @return der {@link SseEmitter} für die Response
+     */
+    public SseEmitter subscribe(Long inspectionId, String plantName, Long inspectorId, Instant expiresAt,
+            BooleanSupplier authorized) {
+        Duration lifetime = timeout;
+        if (expiresAt != null) {
+            Duration untilExpiry = Duration.between(Instant.now(), expiresAt);
+            if (untilExpiry.compareTo(lifetime) < 0) {
+                lifetime = untilExpiry.isNegative() || untilExpiry.isZero() ? Duration.ofMillis(1) : untilExpiry;
+            }
+        }
+        SseEmitter emitter = new SseEmitter(lifetime.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, inspectionId, plantName, inspectorId, authorized);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> {
+            subscribers.remove(subscriber);
+            emitter.complete();
+        });
+        emitter.onError(ex -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        log.debug("Opened inspection event stream ({} subscribers)", subscribers.size());
+        return emitter;
+    }
+
+    /**
+     * Reiht ein Event nach dem Commit bei allen passenden Abonnenten ein.
+     * Außerhalb einer Transaktion wird sofort verteilt.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProgress(InspectionProgressEvent event) {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.matches(event)) {
+                subscriber.enqueue(event);
+            }
+        }
+    }
+
+    /**
+     * Hält die Verbindungen über Proxies hinweg offen und erkennt
+     * abgebrochene Clients, deren Verbindung sonst erst beim nächsten Event
+     * auffiele. Streams mit inzwischen widerrufenem Token werden geschlossen.
+     */
+    @Scheduled(fixedDelayString = "${app.events.heartbeat-interval:PT30S}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.authorized.getAsBoolean()) {
+                subscriber.enqueue(HEARTBEAT);
+            } else {
+                // Token widerrufen (oder User gelöscht)
+                subscribers.remove(subscriber);
+                subscriber.emitter.complete();
+            }
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+        sender.shutdown();
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+
+        private final Long inspectionId;
+
+        private final String plantName;
+
+        private final Long inspectorId;
+
+        private final BooleanSupplier authorized;
+
+        private final Queue<InspectionProgressEvent> pending = new ConcurrentLinkedQueue<>();
+
+        private final AtomicInteger pendingCount = new AtomicInteger();
+
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter, Long inspectionId, String plantName, Long inspectorId,
+                BooleanSupplier authorized) {
+            this.emitter = emitter;
+            this.inspectionId = inspectionId;
+            this.plantName = plantName;
+            this.inspectorId = inspectorId;
+            this.authorized = authorized;
+        }
+
+        boolean matches(InspectionProgressEvent event) {
+            return (inspectionId == null || inspectionId.equals(event.getInspectionId()))
+                    && (plantName == null || plantName.equals(event.getPlantName()))
+                    && (inspectorId == null || inspectorId.equals(event.getInspectorId()));
+        }
+
+        void enqueue(InspectionProgressEvent event) {
+            if (pendingCount.incrementAndGet() > MAX_PENDING) {
+                log.warn("Closing inspection event stream of a slow client ({} events pending)", MAX_PENDING);
+                subscribers.remove(this);
+                emitter.complete();
+                return;
+            }
+            pending.add(event);
+            if (sending.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        // Läuft höchstens einmal gleichzeitig je Abonnent, damit die Reihenfolge erhalten bleibt
+        private void drain() {
+            try {
+                InspectionProgressEvent event;
+                while ((event = pending.poll()) != null) {
+                    pendingCount.decrementAndGet();
+                    emitter.send(event == HEARTBEAT ? SseEmitter.event().comment("keep-alive")
+                            : SseEmitter.event().name(event.getType()).data(event));
+                }
+            } catch (IOException | IllegalStateException ex) {
+                // Client ist weg; der Container meldet den Abbruch zusätzlich über onError
+                subscribers.remove(this);
+                pending.clear();
+                return;
+            } finally {
+                sending.set(false);
+            }
+            // Ein Event kann zwischen dem letzten poll() und dem Zurücksetzen eingereiht worden sein
+            if (!pending.isEmpty() && sending.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+    }
+}
@@ -1,25 +1,50 @@
 package de.dhbw.webenginspection.service;
 
+import de.dhbw.webenginspection.dto.CursorPage;
+import de.dhbw.webenginspection.dto.InspectionBulkCreateRequest;
+import de.dhbw.webenginspection.dto.InspectionBulkCreateResponse;
 import de.dhbw.webenginspection.dto.InspectionCreateRequest;
+import de.dhbw.webenginspection.dto.InspectionCursor;
+import de.dhbw.webenginspection.dto.InspectionDetailResponse;
+import de.dhbw.webenginspection.dto.InspectionFilter;
+import de.dhbw.webenginspection.dto.InspectionProgressEvent;
+import de.dhbw.webenginspection.dto.InspectionStats;
+import de.dhbw.webenginspection.dto.InspectionSummary;
+import de.dhbw.webenginspection.dto.OperationLogRequest;
+import de.dhbw.webenginspection.dto.OperationResult;
+import de.dhbw.webenginspection.dto.SyncTombstone;
 import de.dhbw.webenginspection.entity.Checklist;
 import de.dhbw.webenginspection.entity.ChecklistStep;
 import de.dhbw.webenginspection.entity.Inspection;
 import de.dhbw.webenginspection.entity.InspectionStatus;
 import de.dhbw.webenginspection.entity.InspectionStep;
 import de.dhbw.webenginspection.entity.StepStatus;
+import de.dhbw.webenginspection.error.PreconditionFailedException;
 import de.dhbw.webenginspection.repository.ChecklistRepository;
 import de.dhbw.webenginspection.repository.InspectionRepository;
+import de.dhbw.webenginspection.repository.InspectionStepRepository;
+import de.dhbw.webenginspection.repository.StepAttachmentRepository;
 import de.dhbw.webenginspection.entity.User;
 import de.dhbw.webenginspection.repository.UserRepository;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Service zur Verwaltung von {@link Inspection}-Entitäten. Bietet Funktionen
@@ -33,27 +58,86 @@ public class InspectionService {
 
     private static final Logger log = LoggerFactory.getLogger(InspectionService.class);
 
+    /**
+     * Obergrenze für die Seitengröße der paginierten Inspektionsliste.
+     */
+    public static final int MAX_PAGE_SIZE = 200;
+
     private final InspectionRepository inspectionRepository;
 
     private final ChecklistRepository checklistRepository;
 
     private final UserRepository userRepository;
 
+    private final InspectionStepRepository inspectionStepRepository;
+
+    private final SearchIndexService searchIndexService;
+
+    private final TypeaheadIndex typeaheadIndex;
+
+    private final ChangeSequence changeSequence;
+
+    private final SyncService syncService;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final PhotoStorageService photoStorageService;
+
+    private final StepAttachmentRepository stepAttachmentRepository;
+
     public InspectionService(InspectionRepository inspectionRepository, ChecklistRepository checklistRepository,
-            UserRepository userRepository) {
+            UserRepository userRepository, InspectionStepRepository inspectionStepRepository,
+            SearchIndexService searchIndexService, TypeaheadIndex typeaheadIndex, ChangeSequence changeSequence,
+            SyncService syncService, ApplicationEventPublisher eventPublisher,
+            PhotoStorageService photoStorageService, StepAttachmentRepository stepAttachmentRepository) {
         this.inspectionRepository = inspectionRepository;
         this.checklistRepository = checklistRepository;
         this.userRepository = userRepository;
+        this.inspectionStepRepository = inspectionStepRepository;
+        this.searchIndexService = searchIndexService;
+        this.typeaheadIndex = typeaheadIndex;
+        this.changeSequence = changeSequence;
+        this.syncService = syncService;
+        this.eventPublisher = eventPublisher;
+        this.photoStorageService = photoStorageService;
+        this.stepAttachmentRepository = stepAttachmentRepository;
     }
 
     /**
-     * Gibt alle vorhandenen Inspektionen zurück.
+     * Gibt eine Seite der nach {@code plannedDate} und {@code id} sortierten
+     * Inspektionen zurück. Filterung und Sortierung erfolgen vollständig in der
+     * Datenbank; statt eines OFFSETs wird über einen Keyset-Cursor
+     * fortgesetzt, sodass jede Seite gleich günstig ist.
      *
-     * @return eine Liste aller {@link Inspection}-Entitäten (niemals {@code null})
+     * @param filter optionale Filterkriterien (Status, Anlage, Inspektor,
+     * Zeitraum)
+     * @param cursor Fortsetzungs-Token der vorherigen Seite oder {@code null}
+     * für die erste Seite
+     * @param limit gewünschte Seitengröße (wird auf 1 bis
+     * {@value #MAX_PAGE_SIZE} begrenzt)
+     * @return die Seite als {@link InspectionSummary}-Liste inklusive Token für
+     * die nächste Seite
+     * @throws IllegalArgumentException wenn der Cursor ungültig ist
      */
-    public List<Inspection> getAllInspections() {
-        log.info("Fetching all inspections");
-        return inspectionRepository.findAll();
+    @Transactional(readOnly = true)
+    public CursorPage<InspectionSummary> getInspectionPage(InspectionFilter filter, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        InspectionCursor after = cursor != null && !cursor.isBlank() ? InspectionCursor.decode(cursor) : null;
+        log.info("Fetching inspection page (size {}, cursor {})", pageSize, cursor);
+
+        // Ein Element mehr laden, um zu erkennen, ob es eine weitere Seite gibt
+        List<InspectionSummary> rows = inspectionRepository.findSummaryPage(filter.getStatus(), filter.getPlantName(),
+                filter.getInspectorId(), filter.getPlannedFrom(), filter.getPlannedTo(),
+                after != null ? after.getPlannedDate() : null, after != null ? after.getId() : null,
+                PageRequest.ofSize(pageSize + 1));
+
+        if (rows.size() <= pageSize) {
+            return new CursorPage<>(rows, null);
+        }
+
+        List<InspectionSummary> page = new ArrayList<>(rows.subList(0, pageSize));
+        InspectionSummary last = page.get(page.size() - 1);
+        return new CursorPage<>(page, new InspectionCursor(last.getPlannedDate(), last.getId()).encode());
     }
 
     /**
@@ -68,6 +152,34 @@ public class InspectionService {
         return inspectionRepository.findById(id);
     }
 
+    /**
+     * Liefert die aktuelle Version einer Inspection, ohne sie zu laden (z.&nbsp;B.
+     * für ETags).
+     *
+     * @param id die ID der Inspection
+     * @return ein Optional mit der Version, oder leer wenn die Inspection nicht
+     * existiert
+     */
+    @Transactional(readOnly = true)
+    public Optional<Long> getVersion(Long id) {
+        return inspectionRepository.findVersionById(id);
+    }
+
+    /**
+     * Liefert die Detailansicht einer Inspection inklusive aller Schritte,
+     * Vorlagentexte und Foto-Informationen. Alle Daten werden mit einer
+     * einzigen Fetch-Join-Abfrage geladen.
+     *
+     * @param id die ID der gesuchten Inspection
+     * @return ein Optional mit der Detailansicht, oder leer wenn die Inspection
+     * nicht existiert
+     */
+    @Transactional(readOnly = true)
+    public Optional<InspectionDetailResponse> getInspectionDetail(Long id) {
+        log.info("Fetching inspection detail with id {}", id);
+        return inspectionRepository.findDetailById(id).map(InspectionDetailResponse::fromEntity);
+    }
+
     /**
      * Erstellt eine neue {@link Inspection} auf Basis einer bestehenden
      * {@link Checklist}. Dabei werden alle
@@ -84,24 +196,53 @@ public class InspectionService {
      * IDs existiert
      */
     public Inspection createInspectionFromChecklist(InspectionCreateRequest request) {
+        return createInspectionFromChecklist(request, true);
+    }
+
+    /**
+     * Erstellt eine neue {@link Inspection} auf Basis einer bestehenden
+     * {@link Checklist}, wahlweise ohne die Schritte als Entitäten zu
+     * erzeugen.
+     *
+     * Mit {@code materializeSteps = true} werden die Schritte wie bisher als
+     * {@link InspectionStep}-Entitäten angelegt; dank Sequence-IDs und
+     * JDBC-Batching landen sie in wenigen Batch-INSERTs. Mit
+     * {@code materializeSteps = false} werden weder die Vorlagenschritte noch
+     * die neuen Schritte geladen, sondern direkt per INSERT ... SELECT in der
+     * Datenbank kopiert. Schrittliste und Schrittzähler der zurückgegebenen
+     * Inspection sind in diesem Fall nicht aktuell und müssen bei Bedarf neu
+     * geladen werden.
+     *
+     * @param request Daten zur Erstellung der Inspection
+     * @param materializeSteps ob die Schritte als verwaltete Entitäten
+     * angelegt werden sollen
+     * @return die erstellte und gespeicherte {@link Inspection}
+     * @throws IllegalArgumentException wenn keine Checklist oder kein User mit
+     * den angegebenen IDs existiert
+     */
+    public Inspection createInspectionFromChecklist(InspectionCreateRequest request, boolean materializeSteps) {
         log.info("Creating inspection for checklist {} at plant '{}'", request.getChecklistId(),
                 request.getPlantName());
         
-        Checklist checklist = checklistRepository.findById(request.getChecklistId()).orElseThrow(
-                () -> new IllegalArgumentException("Checklist with id " + request.getChecklistId() + " not found"));
+        Checklist checklist = pinChecklist(request.getChecklistId());
 
         // User laden (jetzt Pflichtfeld)
         User assignedInspector = userRepository.findById(request.getAssignedInspectorId()).orElseThrow(
                 () -> new IllegalArgumentException("User with id " + request.getAssignedInspectorId() + " not found"));
 
-        Inspection inspection = new Inspection();
-        inspection.setChecklist(checklist);
-        inspection.setTitle(request.getTitle() != null ? request.getTitle() : checklist.getName());
-        inspection.setPlantName(request.getPlantName() != null ? request.getPlantName() : checklist.getPlantName());
-        inspection.setPlannedDate(request.getPlannedDate());
-        inspection.setStatus(InspectionStatus.PLANNED);
-        inspection.setGeneralComment(request.getGeneralComment());
-        inspection.setAssignedInspector(assignedInspector);
+        Inspection inspection = newInspection(checklist, assignedInspector, request.getTitle(),
+                request.getPlantName(), request.getPlannedDate(), request.getGeneralComment());
+
+        if (!materializeSteps) {
+            Inspection saved = inspectionRepository.save(inspection);
+            int stepCount = insertStepsFromChecklist(List.of(saved.getId()), changeSequence.next());
+            inspectionRepository.recalculateStepCounters(List.of(saved.getId()));
+            searchIndexService.indexInspection(saved);
+            typeaheadIndex.addPlant(saved.getPlantName());
+            log.info("Created inspection with id {} and {} steps for checklist {}", saved.getId(), stepCount,
+                    checklist.getId());
+            return saved;
+        }
 
         // Steps aus der Checklist kopieren
         if (checklist.getSteps() != null) {
@@ -116,22 +257,175 @@ public class InspectionService {
             }
         }
 
+        inspection.initStepCounters();
+
         Inspection saved = inspectionRepository.save(inspection);
+        searchIndexService.indexInspection(saved);
+        typeaheadIndex.addPlant(saved.getPlantName());
         log.info("Created inspection with id {} for checklist {}", saved.getId(), checklist.getId());
 
         return saved;
     }
 
     /**
-     * Liefert alle Inspektionen, die einem bestimmten Benutzer zugeordnet sind.
+     * Plant viele Inspektionen auf Basis derselben {@link Checklist} in einer
+     * Transaktion ein. Checklist und Inspektoren werden jeweils nur einmal
+     * geladen, die Inspektionen per JDBC-Batch gespeichert und die Schritte
+     * aller Inspektionen mit einem einzigen INSERT ... SELECT aus der Vorlage
+     * kopiert.
+     *
+     * @param request Checklist, optionale gemeinsame Felder und die Liste der
+     * einzuplanenden Inspektionen
+     * @return Zusammenfassung mit den IDs der angelegten Inspektionen und der
+     * Anzahl erzeugter Schritte
+     * @throws IllegalArgumentException wenn die Checklist oder einer der User
+     * nicht existiert oder zu viele Einträge übergeben wurden
+     */
+    public InspectionBulkCreateResponse createInspectionsFromChecklist(InspectionBulkCreateRequest request) {
+        List<InspectionBulkCreateRequest.Item> items = request.getItems();
+        log.info("Bulk creating {} inspections for checklist {}", items.size(), request.getChecklistId());
+
+        if (items.size() > InspectionBulkCreateRequest.MAX_ITEMS) {
+            throw new IllegalArgumentException(
+                    "Too many inspections in one request (max " + InspectionBulkCreateRequest.MAX_ITEMS + ")");
+        }
+
+        Checklist checklist = pinChecklist(request.getChecklistId());
+
+        Set<Long> inspectorIds = items.stream().map(InspectionBulkCreateRequest.Item::getAssignedInspectorId)
+                .collect(Collectors.toSet());
+        Map<Long, User> inspectors = userRepository.findAllById(inspectorIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        for (Long inspectorId : inspectorIds) {
+            if (!inspectors.containsKey(inspectorId)) {
+                throw new IllegalArgumentException("User with id " + inspectorId + " not found");
+            }
+        }
+
+        List<Inspection> inspections = new ArrayList<>(items.size());
+        for (InspectionBulkCreateRequest.Item item : items) {
+            inspections.add(newInspection(checklist, inspectors.get(item.getAssignedInspectorId()), request.getTitle(),
+                    item.getPlantName(), item.getPlannedDate(), request.getGeneralComment()));
+        }
+
+        List<Inspection> saved = inspectionRepository.saveAll(inspections);
+        List<Long> ids = saved.stream().map(Inspection::getId).toList();
+        int stepCount = insertStepsFromChecklist(ids, changeSequence.next());
+        inspectionRepository.recalculateStepCounters(ids);
+        if (request.getGeneralComment() != null) {
+            saved.forEach(searchIndexService::indexInspection);
+        }
+        items.stream().map(InspectionBulkCreateRequest.Item::getPlantName).distinct()
+                .forEach(typeaheadIndex::addPlant);
+
+        log.info("Bulk created {} inspections with {} steps for checklist {}", ids.size(), stepCount,
+                checklist.getId());
+        return new InspectionBulkCreateResponse(checklist.getId(), stepCount, ids);
+    }
+
+    /**
+     * Kopiert die Checklisten-Schritte der Inspektionen per INSERT ... SELECT.
+     * Die IDs werden vorher mit einem Sequence-Aufruf je 50 Schritte
+     * reserviert; fortlaufende Blöcke füllt ein einziges Statement, nur bei
+     * einer Lücke (gleichzeitige Allokation durch Hibernate) folgt ein
+     * weiteres.
+     *
+     * @return die Anzahl der angelegten Schritte
+     */
+    private int insertStepsFromChecklist(List<Long> inspectionIds, long changeSeq) {
+        long rows = inspectionStepRepository.countStepsFromChecklist(inspectionIds);
+        if (rows == 0) {
+            return 0;
+        }
+        int blockSize = InspectionStepRepository.ID_BLOCK_SIZE;
+        int blocks = (int) ((rows + blockSize - 1) / blockSize);
+        List<Long> blockEnds = inspectionStepRepository.reserveIdBlocks(blocks).stream().sorted().toList();
+
+        int inserted = 0;
+        int runStart = 0;
+        for (int i = 1; i <= blocks; i++) {
+            if (i == blocks || blockEnds.get(i) != blockEnds.get(i - 1) + blockSize) {
+                long firstId = blockEnds.get(runStart) - blockSize + 1;
+                inserted += inspectionStepRepository.insertStepsFromChecklist(inspectionIds, firstId,
+                        (long) runStart * blockSize, (long) (i - runStart) * blockSize, changeSeq);
+                runStart = i;
+            }
+        }
+        return inserted;
+    }
+
+    /**
+     * Lädt die Checklist-Version, auf der neue Inspektionen basieren sollen,
+     * und markiert sie als unveränderlich. Spätere Änderungen an der
+     * Checklist legen dadurch eine neue Version an, statt die Inspektion
+     * nachträglich zu verändern.
+     */
+    private Checklist pinChecklist(Long checklistId) {
+        Checklist checklist = checklistRepository.findById(checklistId)
+                .orElseThrow(() -> new IllegalArgumentException("Checklist with id " + checklistId + " not found"));
+        if (checklist.isArchived()) {
+            throw new IllegalArgumentException("Checklist with id " + checklistId + " is archived");
+        }
+        if (!checklist.isFrozen()) {
+            checklist.setFrozen(true);
+        }
+        return checklist;
+    }
+
+    /**
+     * Erzeugt eine neue, noch nicht gespeicherte Inspection im Status
+     * {@link InspectionStatus#PLANNED}. Fehlen Titel oder Anlagenname, werden
+     * die Werte der Checklist verwendet.
+     */
+    private Inspection newInspection(Checklist checklist, User assignedInspector, String title, String plantName,
+            LocalDateTime plannedDate, String generalComment) {
+        Inspection inspection = new Inspection();
+        inspection.setChecklist(checklist);
+        inspection.setTitle(title != null ? title : checklist.getName());
+        inspection.setPlantName(plantName != null ? plantName : checklist.getPlantName());
+        inspection.setPlannedDate(plannedDate);
+        inspection.setStatus(InspectionStatus.PLANNED);
+        inspection.setGeneralComment(generalComment);
+        inspection.setAssignedInspector(assignedInspector);
+        return inspection;
+    }
+
+    /**
+     * Liefert alle Inspektionen, die einem bestimmten Benutzer zugeordnet sind,
+     * als schlanke {@link InspectionSummary}-Zeilen (eine einzige Abfrage,
+     * unabhängig von der Anzahl der Schritte).
      *
      * @param userId ID des verantwortlichen Users
+     * @param status optionaler Statusfilter ({@code null} = alle)
      * @return Liste der Inspektionen des Users (ggf. leer, aber niemals {@code null})
      */
     @Transactional(readOnly = true)
-    public List<Inspection> getInspectionsForUser(Long userId) {
-        log.info("Fetching inspections for user with id {}", userId);
-        return inspectionRepository.findByAssignedInspectorId(userId);
+    public List<InspectionSummary> getInspectionsForUser(Long userId, InspectionStatus status) {
+        log.info("Fetching inspections for user with id {} (status {})", userId, status);
+        return inspectionRepository.findSummariesByAssignedInspectorId(userId, status);
+    }
+
+    /**
+     * Liefert die Dashboard-Kennzahlen: Anzahl der Inspektionen je Status,
+     * optional aufgeschlüsselt nach Anlage und nach Inspektor. Gezählt wird
+     * ausschließlich per GROUP BY in der Datenbank, die Antwort ist daher
+     * unabhängig von der Anzahl der Inspektionen klein.
+     *
+     * @param inspectorId schränkt die Zählung auf die Inspektionen dieses
+     * Users ein ({@code null} = alle)
+     * @param byPlant ob zusätzlich nach Anlage aufgeschlüsselt werden soll
+     * @param byInspector ob zusätzlich nach Inspektor aufgeschlüsselt werden
+     * soll
+     * @return die Kennzahlen
+     */
+    @Transactional(readOnly = true)
+    public InspectionStats getStats(Long inspectorId, boolean byPlant, boolean byInspector) {
+        log.info("Fetching inspection stats (inspector {}, byPlant {}, byInspector {})", inspectorId, byPlant,
+                byInspector);
+        return new InspectionStats(InspectionStats.toCounts(inspectionRepository.countByStatus(inspectorId)),
+                byPlant ? InspectionStats.toGroups(inspectionRepository.countByPlantAndStatus(inspectorId)) : null,
+                byInspector ? InspectionStats.toGroups(inspectionRepository.countByInspectorAndStatus(inspectorId))
+                        : null);
     }
 
     /**
@@ -139,16 +433,24 @@ public class InspectionService {
      *
      * @param id die ID der zu aktualisierenden Inspection
      * @param newStatus der neue Statuswert als String
+     * @param expectedVersion die erwartete Version aus {@code If-Match} oder
+     * {@code null} für keine Prüfung
      * @return die aktualisierte {@link Inspection}
      * @throws IllegalArgumentException wenn keine Inspection mit der ID existiert oder
      * der Status ungültig ist
+     * @throws PreconditionFailedException wenn die Inspection inzwischen eine
+     * andere Version hat
      */
-    public Inspection updateStatus(Long id, String newStatus) {
+    public Inspection updateStatus(Long id, String newStatus, Long expectedVersion) {
         log.info("Updating status of inspection with id {} to {}", id, newStatus);
 
         Inspection inspection = getInspectionById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Inspection with id " + id + " not found"));
+        if (expectedVersion != null && inspection.getVersion() != expectedVersion) {
+            throw new PreconditionFailedException("Inspection " + id);
+        }
         
+        InspectionStatus oldStatus = inspection.getStatus();
         try {
             InspectionStatus status = InspectionStatus.valueOf(newStatus.toUpperCase());
             inspection.setStatus(status);
@@ -159,11 +461,63 @@ public class InspectionService {
         }
 
         Inspection saved = inspectionRepository.save(inspection);
+        if (oldStatus != saved.getStatus()) {
+            eventPublisher.publishEvent(InspectionProgressEvent.inspectionStatus(saved));
+        }
         log.info("Updated status of inspection with id {} to {}", saved.getId(), newStatus);
 
         return saved;
     }
 
+    /**
+     * Wendet die Status-Operationen eines Offline-Logs in ihrer Reihenfolge an.
+     * Alle betroffenen Inspektionen werden mit einer Abfrage geladen.
+     *
+     * @param operations Operationen vom Typ {@code INSPECTION_STATUS}
+     * @param inspectorId nur Inspektionen dieses Users ({@code null} = alle)
+     * @return das Ergebnis je Operation in derselben Reihenfolge
+     */
+    public List<OperationResult> applyStatusOperations(List<OperationLogRequest.Operation> operations,
+            Long inspectorId) {
+        log.info("Applying {} offline inspection status operations", operations.size());
+
+        Set<Long> ids = operations.stream().map(OperationLogRequest.Operation::getInspectionId)
+                .filter(Objects::nonNull).collect(Collectors.toSet());
+        Map<Long, Inspection> inspectionsById = inspectionRepository.findAllById(ids).stream()
+                .filter(inspection -> inspectorId == null || (inspection.getAssignedInspector() != null
+                        && inspectorId.equals(inspection.getAssignedInspector().getId())))
+                .collect(Collectors.toMap(Inspection::getId, Function.identity()));
+
+        List<OperationResult> results = new ArrayList<>(operations.size());
+        for (OperationLogRequest.Operation operation : operations) {
+            Inspection inspection = operation.getInspectionId() != null
+                    ? inspectionsById.get(operation.getInspectionId()) : null;
+            if (inspection == null) {
+                results.add(OperationResult.rejected(operation.getKey(),
+                        "Inspection with id " + operation.getInspectionId() + " not found"));
+                continue;
+            }
+            InspectionStatus status;
+            try {
+                status = InspectionStatus.valueOf(String.valueOf(operation.getValue()).trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                results.add(OperationResult.rejected(operation.getKey(), "Invalid status: " + operation.getValue()));
+                continue;
+            }
+            String current = inspection.getStatus() != null ? inspection.getStatus().name() : null;
+            if (operation.conflictsWith(current)) {
+                results.add(OperationResult.conflict(operation.getKey(), current));
+                continue;
+            }
+            if (status != inspection.getStatus()) {
+                inspection.setStatus(status);
+                eventPublisher.publishEvent(InspectionProgressEvent.inspectionStatus(inspection));
+            }
+            results.add(OperationResult.applied(operation.getKey()));
+        }
+        return results;
+    }
+
     /**
      * Löscht die Inspection mit der angegebenen ID.
      *
@@ -173,12 +527,23 @@ public class InspectionService {
     public void deleteInspection(Long id) {
         log.info("Deleting inspection with id {}", id);
 
-        if (!inspectionRepository.existsById(id)) {
+        Inspection existing = inspectionRepository.findById(id).orElseThrow(() -> {
             log.warn("Inspection with id {} not found for deletion", id);
-            throw new IllegalArgumentException("Inspection with id " + id + " not found");
-        }
+            return new IllegalArgumentException("Inspection with id " + id + " not found");
+        });
+
+        // Die Schritte werden samt Anhängen mitgelöscht und geben ihre Fotos frei
+        Map<String, Integer> photoReferences = new HashMap<>();
+        inspectionStepRepository.findPhotoPathsByInspectionId(id)
+                .forEach(path -> PhotoStorageService.countReplacement(photoReferences, path, null));
+        stepAttachmentRepository.findFilenamesByInspectionId(id)
+                .forEach(path -> PhotoStorageService.countReplacement(photoReferences, path, null));
 
-        inspectionRepository.deleteById(id);
+        inspectionRepository.delete(existing);
+        photoStorageService.adjustReferences(photoReferences);
+        searchIndexService.removeInspection(id);
+        syncService.recordDeletion(SyncTombstone.INSPECTION, id,
+                existing.getAssignedInspector() != null ? existing.getAssignedInspector().getId() : null);
         log.info("Deleted inspection with id {}", id);
     }
 }
\ No newline at end of file
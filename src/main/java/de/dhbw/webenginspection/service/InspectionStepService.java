@@ -1,15 +1,24 @@
 package de.dhbw.webenginspection.service;
 
+import de.dhbw.webenginspection.dto.InspectionProgressEvent;
+import de.dhbw.webenginspection.dto.InspectionStepBatchRequest;
+import de.dhbw.webenginspection.dto.OperationLogRequest;
+import de.dhbw.webenginspection.dto.OperationResult;
+import de.dhbw.webenginspection.dto.StoredPhoto;
+import de.dhbw.webenginspection.dto.SyncTombstone;
 import de.dhbw.webenginspection.entity.ChecklistStep;
 import de.dhbw.webenginspection.entity.Inspection;
 import de.dhbw.webenginspection.entity.InspectionStep;
 import de.dhbw.webenginspection.entity.StepStatus;
+import de.dhbw.webenginspection.error.PreconditionFailedException;
 import de.dhbw.webenginspection.repository.ChecklistStepRepository;
 import de.dhbw.webenginspection.repository.InspectionRepository;
 import de.dhbw.webenginspection.repository.InspectionStepRepository;
+import de.dhbw.webenginspection.repository.StepAttachmentRepository;
 
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -17,12 +26,18 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Service zur Verwaltung von {@link InspectionStep}-Entitäten. Bietet
@@ -35,9 +50,6 @@ import java.util.UUID;
 @Transactional
 public class InspectionStepService {
 
-    @Value("${app.upload.dir:uploads/photos}")
-    private String uploadDir;
-
     private static final Logger log = LoggerFactory.getLogger(InspectionStepService.class);
 
     private final InspectionStepRepository inspectionStepRepository;
@@ -46,11 +58,32 @@ public class InspectionStepService {
 
     private final ChecklistStepRepository checklistStepRepository;
 
+    private final SearchIndexService searchIndexService;
+
+    private final ChangeSequence changeSequence;
+
+    private final SyncService syncService;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final PhotoStorageService photoStorageService;
+
+    private final StepAttachmentRepository stepAttachmentRepository;
+
     public InspectionStepService(InspectionStepRepository inspectionStepRepository,
-            InspectionRepository inspectionRepository, ChecklistStepRepository checklistStepRepository) {
+            InspectionRepository inspectionRepository, ChecklistStepRepository checklistStepRepository,
+            SearchIndexService searchIndexService, ChangeSequence changeSequence, SyncService syncService,
+            ApplicationEventPublisher eventPublisher, PhotoStorageService photoStorageService,
+            StepAttachmentRepository stepAttachmentRepository) {
         this.inspectionStepRepository = inspectionStepRepository;
         this.inspectionRepository = inspectionRepository;
         this.checklistStepRepository = checklistStepRepository;
+        this.searchIndexService = searchIndexService;
+        this.changeSequence = changeSequence;
+        this.syncService = syncService;
+        this.eventPublisher = eventPublisher;
+        this.photoStorageService = photoStorageService;
+        this.stepAttachmentRepository = stepAttachmentRepository;
     }
 
     /**
@@ -75,6 +108,18 @@ public class InspectionStepService {
         return inspectionStepRepository.findByInspectionIdAndStatus(inspectionId, status);
     }
 
+    /**
+     * Liefert die aktuelle Version einer Inspection, die auch alle Änderungen
+     * an ihren Schritten abdeckt (ETag der Schrittliste).
+     *
+     * @param inspectionId die ID der Inspection
+     * @return ein Optional mit der Version, oder leer wenn die Inspection nicht
+     * existiert
+     */
+    public Optional<Long> getInspectionVersion(Long inspectionId) {
+        return inspectionRepository.findVersionById(inspectionId);
+    }
+
     /**
      * Ruft einen einzelnen InspectionStep anhand seiner ID ab.
      *
@@ -118,55 +163,71 @@ public class InspectionStepService {
         }
 
         InspectionStep saved = inspectionStepRepository.save(stepData);
+        adjustCounters(inspectionId, 1, null, saved.getStatus());
+        photoStorageService.replaceReference(null, saved.getPhotoPath());
+        searchIndexService.indexInspectionStep(saved);
         log.info("Created inspection step with id {} for inspection id {}", saved.getId(), inspectionId);
 
         return saved;
     }
 
     /**
-     * Speichert eine hochgeladene Fotodatei auf dem lokalen Dateisystem und
-     * gibt den Pfad zurück.
+     * Speichert eine per Multipart hochgeladene Fotodatei und gibt den
+     * Dateinamen zurück. Der Inhalt wird gestreamt, siehe
+     * {@link #savePhoto(Long, InputStream)}.
      *
      * @param stepId die ID des InspectionStep
      * @param file die hochgeladene Datei
-     * @return der gespeicherte Dateipfad
+     * @return der gespeicherte Dateiname
      * @throws IllegalArgumentException bei Validierungsfehlern oder
      * I/O-Problemen
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public String savePhoto(Long stepId, MultipartFile file) {
-        log.info("Saving photo for inspection step with id {}", stepId);
-
-        // Validierung
         if (file.isEmpty()) {
             throw new IllegalArgumentException("Datei ist leer");
         }
-        if (file.getSize() > 5 * 1024 * 1024) { // 5MB max
-            throw new IllegalArgumentException("Datei ist zu groß (Max. 5MB)");
-        }
-
-        String contentType = file.getContentType();
-        if (contentType == null || !contentType.startsWith("image/")) {
-            throw new IllegalArgumentException("Nur Bilddateien sind erlaubt");
+        try (InputStream in = file.getInputStream()) {
+            return savePhoto(stepId, in, null);
+        } catch (IOException e) {
+            log.error("Error reading uploaded photo: {}", e.getMessage());
+            throw new IllegalArgumentException("Fehler beim Speichern der Datei: " + e.getMessage());
         }
+    }
 
-        try {
-            // Erstelle Upload-Verzeichnis falls nicht vorhanden
-            Path uploadPath = Paths.get(uploadDir);
-            Files.createDirectories(uploadPath);
-
-            // Generiere eindeutigen Dateinamen
-            String filename = "step_" + stepId + "_" + UUID.randomUUID() + "_" + file.getOriginalFilename();
-            Path filePath = uploadPath.resolve(filename);
-
-            // Speichere Datei
-            Files.write(filePath, file.getBytes());
-            log.info("Photo saved to {}", filePath);
+    /**
+     * Speichert ein Foto aus einem Datenstrom und gibt den Dateinamen zurück.
+     * Die Datei wird blockweise auf die Platte geschrieben und nie vollständig
+     * im Speicher gehalten; Größe und Bildformat werden dabei geprüft. Gleiche
+     * Inhalte werden nur einmal gespeichert. Läuft ohne Transaktion, damit
+     * während des Uploads keine Datenbankverbindung belegt ist; ob der Step
+     * existiert, prüft erst {@link #updatePhotoPath(Long, String)}.
+     *
+     * @param stepId die ID des InspectionStep
+     * @param in der Inhalt des Fotos
+     * @param sha256 der vom Client angegebene SHA-256-Hash oder {@code null};
+     * ist der Inhalt bereits gespeichert, wird der Stream nicht gelesen,
+     * sonst wird der Hash gegen den Inhalt geprüft
+     * @return der gespeicherte Dateiname
+     * @throws IllegalArgumentException bei Validierungsfehlern oder
+     * I/O-Problemen
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public String savePhoto(Long stepId, InputStream in, String sha256) {
+        log.info("Saving photo for inspection step with id {}", stepId);
 
-            return filename;
-        } catch (IOException e) {
-            log.error("Error saving photo: {}", e.getMessage());
-            throw new IllegalArgumentException("Fehler beim Speichern der Datei: " + e.getMessage());
+        if (sha256 != null) {
+            Optional<StoredPhoto> existing = photoStorageService.findBySha256(sha256);
+            if (existing.isPresent()) {
+                log.info("Photo with sha256 {} already stored, skipping upload", sha256);
+                return existing.get().getFilename();
+            }
         }
+        StoredPhoto stored = photoStorageService.store(in);
+        if (sha256 != null && !stored.getSha256().equalsIgnoreCase(sha256.trim())) {
+            throw new IllegalArgumentException("SHA-256-Hash stimmt nicht mit dem Inhalt überein");
+        }
+        return stored.getFilename();
     }
 
     /**
@@ -182,9 +243,11 @@ public class InspectionStepService {
 
         InspectionStep existing = getStepById(id)
                 .orElseThrow(() -> new IllegalArgumentException("InspectionStep with id " + id + " not found"));
+        photoStorageService.replaceReference(existing.getPhotoPath(), photoPath);
         existing.setPhotoPath(photoPath);
 
         InspectionStep saved = inspectionStepRepository.save(existing);
+        inspectionRepository.incrementVersion(existing.getInspection().getId(), changeSequence.next());
         log.info("Updated photo path of inspection step with id {}", saved.getId());
 
         return saved;
@@ -206,11 +269,18 @@ public class InspectionStepService {
         InspectionStep existing = getStepById(id)
                 .orElseThrow(() -> new IllegalArgumentException("InspectionStep with id " + id + " not found"));
 
+        StepStatus oldStatus = existing.getStatus();
         existing.setStatus(updated.getStatus());
         existing.setComment(updated.getComment());
+        photoStorageService.replaceReference(existing.getPhotoPath(), updated.getPhotoPath());
         existing.setPhotoPath(updated.getPhotoPath());
 
         InspectionStep saved = inspectionStepRepository.save(existing);
+        adjustCounters(existing.getInspection().getId(), 0, oldStatus, saved.getStatus());
+        if (oldStatus != saved.getStatus()) {
+            eventPublisher.publishEvent(InspectionProgressEvent.stepStatus(saved));
+        }
+        searchIndexService.indexInspectionStep(saved);
         log.info("Updated inspection step with id {}", saved.getId());
 
         return saved;
@@ -230,9 +300,14 @@ public class InspectionStepService {
 
         InspectionStep existing = getStepById(id)
                 .orElseThrow(() -> new IllegalArgumentException("InspectionStep with id " + id + " not found"));
+        StepStatus oldStatus = existing.getStatus();
         existing.setStatus(newStatus);
 
         InspectionStep saved = inspectionStepRepository.save(existing);
+        adjustCounters(existing.getInspection().getId(), 0, oldStatus, newStatus);
+        if (oldStatus != newStatus) {
+            eventPublisher.publishEvent(InspectionProgressEvent.stepStatus(saved));
+        }
         log.info("Updated status of inspection step with id {}", saved.getId());
 
         return saved;
@@ -255,11 +330,222 @@ public class InspectionStepService {
         existing.setComment(newComment);
 
         InspectionStep saved = inspectionStepRepository.save(existing);
+        inspectionRepository.incrementVersion(existing.getInspection().getId(), changeSequence.next());
+        searchIndexService.indexInspectionStep(saved);
         log.info("Updated comment of inspection step with id {}", saved.getId());
 
         return saved;
     }
 
+    /**
+     * Wendet viele Änderungen an Schritten einer Inspection in einer
+     * Transaktion an. Die Schritte werden mit einer Abfrage geladen und nur
+     * tatsächlich geänderte Felder gesetzt; Hibernate schreibt sie beim Flush
+     * als gebündelte UPDATEs. Die Zähler der Inspection werden mit einem
+     * einzigen Update nachgezogen.
+     *
+     * @param inspectionId die ID der Inspection
+     * @param changes die Änderungen; mehrere Änderungen am selben Schritt
+     * werden in Reihenfolge angewendet
+     * @param expectedVersion die erwartete Version der Inspection aus
+     * {@code If-Match} oder {@code null} für keine Prüfung
+     * @return alle Schritte der Inspection im neuen Zustand
+     * @throws IllegalArgumentException wenn die Inspection nicht existiert
+     * oder ein Schritt nicht zu ihr gehört
+     * @throws PreconditionFailedException wenn die Inspection inzwischen eine
+     * andere Version hat
+     */
+    public List<InspectionStep> applyStepChanges(Long inspectionId, List<InspectionStepBatchRequest.Change> changes,
+            Long expectedVersion) {
+        log.info("Applying {} step changes to inspection with id {}", changes.size(), inspectionId);
+
+        List<InspectionStep> steps = inspectionStepRepository.findByInspectionId(inspectionId);
+        if (steps.isEmpty() && !inspectionRepository.existsById(inspectionId)) {
+            throw new IllegalArgumentException("Inspection with id " + inspectionId + " not found");
+        }
+        // Prüft und erhöht die Version in einem Statement, bevor etwas geändert wird
+        if (expectedVersion != null
+                && inspectionRepository.incrementVersionIfMatches(inspectionId, expectedVersion,
+                        changeSequence.next()) == 0) {
+            throw new PreconditionFailedException("Inspection " + inspectionId);
+        }
+        Map<Long, InspectionStep> stepsById = steps.stream()
+                .collect(Collectors.toMap(InspectionStep::getId, Function.identity()));
+
+        long passed = 0;
+        long failed = 0;
+        long notApplicable = 0;
+        boolean changed = false;
+        Set<InspectionStep> statusChanged = new LinkedHashSet<>();
+        Set<InspectionStep> commentChanged = new LinkedHashSet<>();
+        Map<String, Integer> photoReferences = new HashMap<>();
+
+        for (InspectionStepBatchRequest.Change change : changes) {
+            InspectionStep step = stepsById.get(change.getStepId());
+            if (step == null) {
+                throw new IllegalArgumentException("InspectionStep with id " + change.getStepId()
+                        + " not found in inspection " + inspectionId);
+            }
+
+            StepStatus oldStatus = step.getStatus();
+            StepStatus newStatus = change.getStatus();
+            if (newStatus != null && newStatus != oldStatus) {
+                passed += delta(StepStatus.PASSED, oldStatus, newStatus);
+                failed += delta(StepStatus.FAILED, oldStatus, newStatus);
+                notApplicable += delta(StepStatus.NOT_APPLICABLE, oldStatus, newStatus);
+                step.setStatus(newStatus);
+                statusChanged.add(step);
+                changed = true;
+            }
+            if (change.getComment() != null && !change.getComment().equals(step.getComment())) {
+                step.setComment(change.getComment());
+                commentChanged.add(step);
+                changed = true;
+            }
+            if (change.getPhotoPath() != null && !Objects.equals(change.getPhotoPath(), step.getPhotoPath())) {
+                PhotoStorageService.countReplacement(photoReferences, step.getPhotoPath(), change.getPhotoPath());
+                step.setPhotoPath(change.getPhotoPath());
+                changed = true;
+            }
+        }
+
+        if (passed != 0 || failed != 0 || notApplicable != 0) {
+            inspectionRepository.adjustStepCounters(inspectionId, 0, passed, failed, notApplicable,
+                    changeSequence.next());
+        } else if (changed && expectedVersion == null) {
+            inspectionRepository.incrementVersion(inspectionId, changeSequence.next());
+        }
+        photoStorageService.adjustReferences(photoReferences);
+        commentChanged.forEach(searchIndexService::indexInspectionStep);
+        statusChanged.forEach(step -> eventPublisher.publishEvent(InspectionProgressEvent.stepStatus(step)));
+        log.info("Applied step changes to inspection with id {}", inspectionId);
+
+        return steps;
+    }
+
+    /**
+     * Wendet die Schritt-Operationen eines Offline-Logs in ihrer Reihenfolge
+     * an. Alle betroffenen Schritte werden mit einer Abfrage geladen; Zähler
+     * und Version jeder betroffenen Inspection werden danach mit einem Update
+     * nachgezogen.
+     *
+     * @param operations Operationen vom Typ {@code STEP_STATUS},
+     * {@code STEP_COMMENT} oder {@code STEP_PHOTO}
+     * @param inspectorId nur Schritte aus Inspektionen dieses Users
+     * ({@code null} = alle)
+     * @return das Ergebnis je Operation in derselben Reihenfolge
+     */
+    public List<OperationResult> applyOperations(List<OperationLogRequest.Operation> operations, Long inspectorId) {
+        log.info("Applying {} offline step operations", operations.size());
+
+        Set<Long> stepIds = operations.stream().map(OperationLogRequest.Operation::getStepId)
+                .filter(Objects::nonNull).collect(Collectors.toSet());
+        Map<Long, InspectionStep> stepsById = inspectionStepRepository.findByIdIn(stepIds).stream()
+                .filter(step -> inspectorId == null || isAssignedTo(step.getInspection(), inspectorId))
+                .collect(Collectors.toMap(InspectionStep::getId, Function.identity()));
+
+        // Inspection-ID -> Differenzen für PASSED, FAILED, NOT_APPLICABLE
+        Map<Long, long[]> counterDeltas = new LinkedHashMap<>();
+        Set<InspectionStep> statusChanged = new LinkedHashSet<>();
+        Set<InspectionStep> commentChanged = new LinkedHashSet<>();
+        Map<String, Integer> photoReferences = new HashMap<>();
+        List<OperationResult> results = new ArrayList<>(operations.size());
+
+        for (OperationLogRequest.Operation operation : operations) {
+            InspectionStep step = operation.getStepId() != null ? stepsById.get(operation.getStepId()) : null;
+            if (step == null) {
+                results.add(OperationResult.rejected(operation.getKey(),
+                        "InspectionStep with id " + operation.getStepId() + " not found"));
+                continue;
+            }
+            long[] deltas = new long[3];
+
+            switch (operation.getType()) {
+                case STEP_STATUS -> {
+                    StepStatus newStatus = parseStepStatus(operation.getValue());
+                    if (newStatus == null) {
+                        results.add(OperationResult.rejected(operation.getKey(),
+                                "Invalid status: " + operation.getValue()));
+                        continue;
+                    }
+                    String current = step.getStatus() != null ? step.getStatus().name() : null;
+                    if (operation.conflictsWith(current)) {
+                        results.add(OperationResult.conflict(operation.getKey(), current));
+                        continue;
+                    }
+                    deltas[0] = delta(StepStatus.PASSED, step.getStatus(), newStatus);
+                    deltas[1] = delta(StepStatus.FAILED, step.getStatus(), newStatus);
+                    deltas[2] = delta(StepStatus.NOT_APPLICABLE, step.getStatus(), newStatus);
+                    if (newStatus != step.getStatus()) {
+                        statusChanged.add(step);
+                    }
+                    step.setStatus(newStatus);
+                }
+                case STEP_COMMENT -> {
+                    if (operation.conflictsWith(step.getComment())) {
+                        results.add(OperationResult.conflict(operation.getKey(), step.getComment()));
+                        continue;
+                    }
+                    step.setComment(emptyToNull(operation.getValue()));
+                    commentChanged.add(step);
+                }
+                case STEP_PHOTO -> {
+                    if (operation.conflictsWith(step.getPhotoPath())) {
+                        results.add(OperationResult.conflict(operation.getKey(), step.getPhotoPath()));
+                        continue;
+                    }
+                    PhotoStorageService.countReplacement(photoReferences, step.getPhotoPath(),
+                            emptyToNull(operation.getValue()));
+                    step.setPhotoPath(emptyToNull(operation.getValue()));
+                }
+                default -> {
+                    results.add(OperationResult.rejected(operation.getKey(),
+                            "Unsupported operation type: " + operation.getType()));
+                    continue;
+                }
+            }
+            long[] total = counterDeltas.computeIfAbsent(step.getInspection().getId(), id -> new long[3]);
+            for (int i = 0; i < total.length; i++) {
+                total[i] += deltas[i];
+            }
+            results.add(OperationResult.applied(operation.getKey()));
+        }
+
+        // Auch bei unveränderten Zählern steigt die Version (Darstellung enthält die Schritte)
+        counterDeltas.forEach((inspectionId, deltas) -> {
+            if (deltas[0] != 0 || deltas[1] != 0 || deltas[2] != 0) {
+                inspectionRepository.adjustStepCounters(inspectionId, 0, deltas[0], deltas[1], deltas[2],
+                        changeSequence.next());
+            } else {
+                inspectionRepository.incrementVersion(inspectionId, changeSequence.next());
+            }
+        });
+        photoStorageService.adjustReferences(photoReferences);
+        commentChanged.forEach(searchIndexService::indexInspectionStep);
+        statusChanged.forEach(step -> eventPublisher.publishEvent(InspectionProgressEvent.stepStatus(step)));
+
+        return results;
+    }
+
+    private static boolean isAssignedTo(Inspection inspection, Long userId) {
+        return inspection.getAssignedInspector() != null && userId.equals(inspection.getAssignedInspector().getId());
+    }
+
+    private static StepStatus parseStepStatus(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return StepStatus.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
     /**
      * Löscht einen bestehenden Inspektionsschritt anhand seiner ID.
      *
@@ -269,12 +555,45 @@ public class InspectionStepService {
     public void deleteStep(Long id) {
         log.info("Deleting inspection step with id {}", id);
 
-        if (!inspectionStepRepository.existsById(id)) {
+        InspectionStep existing = getStepById(id).orElseThrow(() -> {
             log.warn("InspectionStep with id {} not found for deletion", id);
-            throw new IllegalArgumentException("InspectionStep with id " + id + " not found");
+            return new IllegalArgumentException("InspectionStep with id " + id + " not found");
+        });
+
+        // Die Anhänge löscht die Datenbank mit, ihre Fotos werden freigegeben
+        Map<String, Integer> photoReferences = new HashMap<>();
+        PhotoStorageService.countReplacement(photoReferences, existing.getPhotoPath(), null);
+        stepAttachmentRepository.findFilenamesByStepId(id)
+                .forEach(path -> PhotoStorageService.countReplacement(photoReferences, path, null));
+
+        Inspection inspection = existing.getInspection();
+        inspectionStepRepository.delete(existing);
+        adjustCounters(inspection.getId(), -1, existing.getStatus(), null);
+        photoStorageService.adjustReferences(photoReferences);
+        syncService.recordDeletion(SyncTombstone.INSPECTION_STEP, id,
+                inspection.getAssignedInspector() != null ? inspection.getAssignedInspector().getId() : null);
+        searchIndexService.removeInspectionStep(id);
+        log.info("Deleted inspection step with id {}", id);
+    }
+
+    /**
+     * Passt die denormalisierten Schrittzähler der Inspection an eine
+     * Änderung an: {@code removed} wird abgezogen, {@code added} hinzugezählt
+     * ({@code null} = kein Status). Das Update erfolgt atomar in der
+     * Datenbank relativ zum aktuellen Wert und erhöht auch die Version der
+     * Inspection, deren Darstellung die Schritte enthält.
+     */
+    private void adjustCounters(Long inspectionId, long totalDelta, StepStatus removed, StepStatus added) {
+        if (totalDelta == 0 && removed == added) {
+            inspectionRepository.incrementVersion(inspectionId, changeSequence.next());
+            return;
         }
+        inspectionRepository.adjustStepCounters(inspectionId, totalDelta,
+                delta(StepStatus.PASSED, removed, added), delta(StepStatus.FAILED, removed, added),
+                delta(StepStatus.NOT_APPLICABLE, removed, added), changeSequence.next());
+    }
 
-        inspectionStepRepository.deleteById(id);
-        log.info("Deleted inspection step with id {}", id);
+    private static long delta(StepStatus status, StepStatus removed, StepStatus added) {
+        return (added == status ? 1 : 0) - (removed == status ? 1 : 0);
     }
 }
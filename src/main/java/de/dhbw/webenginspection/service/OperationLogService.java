@@ -0,0 +1,134 @@
+package de.dhbw.webenginspection.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import de.dhbw.webenginspection.dto.OperationLogRequest;
+import de.dhbw.webenginspection.dto.OperationResult;
+import de.dhbw.webenginspection.repository.SyncRepository;
+
+/**
+ * Verarbeitet die Operations-Logs von Clients, die offline gearbeitet haben.
+ *
+ * Jede Operation trägt einen vom Client vergebenen Idempotenz-Schlüssel. Der
+ * Ausgang wird pro User gespeichert, sodass ein nach einem Verbindungsabbruch
+ * erneut gesendetes Log nichts doppelt anwendet, sondern den damaligen
+ * Ausgang meldet. Konflikte werden feldweise erkannt: Eine Operation mit
+ * {@code expected} wird nur angewendet, wenn der Wert auf dem Server noch dem
+ * Stand entspricht, auf dem der Client gearbeitet hat.
+ */
+@Service
+@Transactional
+public class OperationLogService {
+
+    private static final Logger log = LoggerFactory.getLogger(OperationLogService.class);
+
+    private final InspectionService inspectionService;
+
+    private final InspectionStepService inspectionStepService;
+
+    private final SyncRepository syncRepository;
+
+    private final Duration retention;
+
+    public OperationLogService(InspectionService inspectionService, InspectionStepService inspectionStepService,
+            SyncRepository syncRepository, @Value("${app.sync.operation-retention:P30D}")
+            Duration retention) {
+        this.inspectionService = inspectionService;
+        this.inspectionStepService = inspectionStepService;
+        this.syncRepository = syncRepository;
+        this.retention = retention;
+    }
+
+    /**
+     * Wendet ein Operations-Log in einer Transaktion an. Status-Operationen auf
+     * Inspektionen werden vor den Schritt-Operationen angewendet, innerhalb
+     * eines Typs gilt die Reihenfolge des Logs.
+     *
+     * @param operations die Operationen des Clients
+     * @param userId die ID des sendenden Users (Namensraum der Schlüssel)
+     * @param inspectorId nur Inspektionen dieses Users ({@code null} = alle)
+     * @return das Ergebnis je Operation in der Reihenfolge des Logs
+     * @throws org.springframework.dao.DuplicateKeyException wenn dieselben
+     * Schlüssel gleichzeitig in einem anderen Request verarbeitet wurden
+     */
+    public List<OperationResult> apply(List<OperationLogRequest.Operation> operations, long userId,
+            Long inspectorId) {
+        log.info("Applying operation log with {} operations for user {}", operations.size(), userId);
+
+        Map<String, OperationResult.Outcome> known = syncRepository.findOperationOutcomes(userId,
+                operations.stream().map(OperationLogRequest.Operation::getKey).toList());
+
+        // Nur das erste Vorkommen eines Schlüssels wird angewendet
+        Map<String, Integer> firstIndex = new HashMap<>();
+        List<Integer> statusIndexes = new ArrayList<>();
+        List<Integer> stepIndexes = new ArrayList<>();
+        for (int i = 0; i < operations.size(); i++) {
+            OperationLogRequest.Operation operation = operations.get(i);
+            if (known.containsKey(operation.getKey()) || firstIndex.putIfAbsent(operation.getKey(), i) != null) {
+                continue;
+            }
+            if (operation.getType() == OperationLogRequest.Type.INSPECTION_STATUS) {
+                statusIndexes.add(i);
+            } else {
+                stepIndexes.add(i);
+            }
+        }
+
+        OperationResult[] results = new OperationResult[operations.size()];
+        fill(results, statusIndexes,
+                inspectionService.applyStatusOperations(select(operations, statusIndexes), inspectorId));
+        fill(results, stepIndexes, inspectionStepService.applyOperations(select(operations, stepIndexes), inspectorId));
+
+        Map<String, OperationResult.Outcome> processed = new LinkedHashMap<>();
+        for (int i = 0; i < results.length; i++) {
+            String key = operations.get(i).getKey();
+            if (results[i] != null) {
+                processed.put(key, results[i].getOutcome());
+            } else if (known.containsKey(key)) {
+                results[i] = OperationResult.duplicate(key, known.get(key));
+            } else {
+                results[i] = OperationResult.duplicate(key, results[firstIndex.get(key)].getOutcome());
+            }
+        }
+        syncRepository.insertOperationOutcomes(userId, processed, LocalDateTime.now());
+
+        log.info("Applied operation log for user {}: {} new, {} duplicates", userId, processed.size(),
+                results.length - processed.size());
+        return List.of(results);
+    }
+
+    private static List<OperationLogRequest.Operation> select(List<OperationLogRequest.Operation> operations,
+            List<Integer> indexes) {
+        return indexes.stream().map(operations::get).toList();
+    }
+
+    private static void fill(OperationResult[] results, List<Integer> indexes, List<OperationResult> applied) {
+        for (int i = 0; i < indexes.size(); i++) {
+            results[indexes.get(i)] = applied.get(i);
+        }
+    }
+
+    /**
+     * Entfernt gespeicherte Schlüssel, die älter als die Aufbewahrungsdauer
+     * sind (Standard: 30 Tage, täglich um 3:45 Uhr). Clients müssen ihre Logs
+     * innerhalb dieser Dauer erneut senden.
+     */
+    @Scheduled(cron = "${app.sync.operation-cleanup-cron:0 45 3 * * *}")
+    public void purgeProcessedOperations() {
+        int deleted = syncRepository.deleteOperationsBefore(LocalDateTime.now().minus(retention));
+        log.info("Purged {} processed operation keys", deleted);
+    }
+}
@@ -0,0 +1,38 @@
+package de.dhbw.webenginspection.service;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Aufräum-Job für den Fotospeicher. Gleicht die Verweiszähler mit
+ * {@code inspection_step.photo_path} und den Anhängen der Schritte ab und
+ * entfernt danach Fotos ohne Verweis, die länger als die Karenzzeit
+ * (Standard: 1 Tag) nicht verwendet wurden (Standard: nachts um 4:15 Uhr).
+ */
+@Component
+public class PhotoCleanupJob {
+
+    private static final Logger log = LoggerFactory.getLogger(PhotoCleanupJob.class);
+
+    private final PhotoStorageService photoStorageService;
+
+    private final Duration gracePeriod;
+
+    public PhotoCleanupJob(PhotoStorageService photoStorageService, @Value("${app.upload.orphan-grace-period:P1D}")
+    Duration gracePeriod) {
+        this.photoStorageService = photoStorageService;
+        this.gracePeriod = gracePeriod;
+    }
+
+    @Scheduled(cron = "${app.upload.cleanup-cron:0 15 4 * * *}")
+    public void scheduledCleanup() {
+        int deleted = photoStorageService.deleteUnreferenced(gracePeriod);
+        log.info("Removed {} unreferenced photos", deleted);
+    }
+}
@@ -0,0 +1,405 @@
+package de.dhbw.webenginspection.service;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Erzeugt verkleinerte Varianten der gespeicherten Fotos (Vorschaubild und
+ * Anzeigegröße), damit Listen, Detailseite und Bericht nicht das
+ * Originalfoto mit mehreren Megabyte laden.
+ *
+ * Die Varianten entstehen im Hintergrund nach dem Upload, blockieren ihn also
+ * nicht. Bis sie fertig sind, liefert {@code GET /api/files/{name}} das
+ * Original aus. Die EXIF-Ausrichtung wird dabei auf die Pixel angewendet;
+ * die Varianten werden als JPEG ohne Metadaten (u.&nbsp;a. ohne GPS-Daten)
+ * geschrieben. Da Fotos unter ihrem Inhalts-Hash liegen, ändern sich ihre
+ * Varianten nie.
+ */
+@Service
+public class PhotoDerivativeService {
+
+    private static final Logger log = LoggerFactory.getLogger(PhotoDerivativeService.class);
+
+    // Nur inhaltsadressierte Fotos in von ImageIO lesbaren Formaten
+    private static final Pattern SUPPORTED = Pattern.compile("([0-9a-f]{64})\\.(jpg|png|gif)");
+
+    private static final float JPEG_QUALITY = 0.82f;
+
+    /**
+     * Die erzeugten Größen, jeweils als maximale Länge der längeren Kante.
+     */
+    public enum Size {
+
+        THUMB("thumb", 480), DISPLAY("display", 1600);
+
+        private final String name;
+
+        private final int maxEdge;
+
+        Size(String name, int maxEdge) {
+            this.name = name;
+            this.maxEdge = maxEdge;
+        }
+
+        /**
+         * @throws IllegalArgumentException bei unbekanntem Namen
+         */
+        public static Size fromName(String name) {
+            for (Size size : values()) {
+                if (size.name.equalsIgnoreCase(name)) {
+                    return size;
+                }
+            }
+            throw new IllegalArgumentException("Invalid size: " + name + ". Allowed values: thumb, display");
+        }
+    }
+
+    private final PhotoLayout photoLayout;
+
+    // Dateien, deren Varianten gerade erzeugt werden oder in der Warteschlange stehen
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    private final ThreadPoolExecutor executor;
+
+    public PhotoDerivativeService(PhotoLayout photoLayout, @Value("${app.upload.derivative-threads:2}")
+    int threads, @Value("${app.upload.derivative-queue-size:1000}")
+    int queueSize) {
+        this.photoLayout = photoLayout;
+        // Begrenzte Warteschlange: bei Überlauf wird die Anfrage verworfen und beim nächsten Abruf erneut gestellt
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), runnable -> {
+                    Thread thread = new Thread(runnable, "photo-derivatives");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                });
+    }
+
+    /**
+     * Liefert die Variante eines Fotos, falls sie schon erzeugt wurde, und
+     * stößt sonst ihre Erzeugung an.
+     *
+     * @param original das Originalfoto im Upload-Verzeichnis
+     * @param size die gewünschte Größe
+     * @return der Pfad der Variante oder leer, wenn das Original ausgeliefert
+     * werden soll
+     */
+    public Optional<Path> find(Path original, Size size) {
+        String filename = original.getFileName().toString();
+        if (!SUPPORTED.matcher(filename).matches()) {
+            return Optional.empty();
+        }
+        Path derived = derivedPath(filename, size);
+        if (Files.isRegularFile(derived)) {
+            return Optional.of(derived);
+        }
+        // Noch nicht von PhotoLayoutMigrationJob verschoben
+        Path flat = photoLayout.flatDerivedPathOf(derivedName(filename, size));
+        if (Files.isRegularFile(flat)) {
+            return Optional.of(flat);
+        }
+        enqueue(original);
+        return Optional.empty();
+    }
+
+    /**
+     * Reiht die Erzeugung aller Varianten eines Fotos ein. Bereits
+     * vorhandene oder eingereihte Varianten werden übersprungen.
+     *
+     * @param original das Originalfoto im Upload-Verzeichnis
+     */
+    public void enqueue(Path original) {
+        String filename = original.getFileName().toString();
+        if (!SUPPORTED.matcher(filename).matches() || isComplete(filename) || !pending.add(filename)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(original);
+                } finally {
+                    pending.remove(filename);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(filename);
+            log.warn("Derivative queue is full, skipping {}", filename);
+        }
+    }
+
+    /**
+     * Entfernt die Varianten eines gelöschten Fotos.
+     */
+    public void delete(String filename) {
+        for (Size size : Size.values()) {
+            try {
+                Files.deleteIfExists(derivedPath(filename, size));
+                Files.deleteIfExists(photoLayout.flatDerivedPathOf(derivedName(filename, size)));
+            } catch (IOException e) {
+                log.warn("Could not delete derivative of {}: {}", filename, e.getMessage());
+            }
+        }
+    }
+
+    private boolean isComplete(String filename) {
+        for (Size size : Size.values()) {
+            if (!Files.isRegularFile(derivedPath(filename, size))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Path derivedPath(String filename, Size size) {
+        return photoLayout.derivedPathOf(derivedName(filename, size));
+    }
+
+    private static String derivedName(String filename, Size size) {
+        return filename.substring(0, filename.lastIndexOf('.')) + "_" + size.name + ".jpg";
+    }
+
+    private void generate(Path original) {
+        String filename = original.getFileName().toString();
+        long start = System.nanoTime();
+        try {
+            int orientation = filename.endsWith(".jpg") ? readExifOrientation(original) : 1;
+
+            // Größte Variante zuerst, kleinere werden aus ihr berechnet statt erneut aus dem Original
+            BufferedImage source = null;
+            Size[] sizes = Size.values();
+            for (int i = sizes.length - 1; i >= 0; i--) {
+                Size size = sizes[i];
+                BufferedImage image = source != null ? source : decode(original, size.maxEdge);
+                if (image == null) {
+                    log.warn("Could not decode photo {}", filename);
+                    return;
+                }
+                if (source == null) {
+                    image = orient(image, orientation);
+                }
+                source = scale(image, size.maxEdge);
+                writeJpeg(source, derivedPath(filename, size));
+            }
+            log.info("Generated derivatives of {} in {} ms", filename,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not generate derivatives of {}: {}", filename, e.getMessage());
+        }
+    }
+
+    /**
+     * Liest das Bild, bei großen Fotos mit Unterabtastung: Jede n-te Zeile und
+     * Spalte wird gelesen, sodass das Ergebnis noch mindestens doppelt so groß
+     * wie die Zielgröße ist. Spart Speicher und Zeit gegenüber dem
+     * vollständigen Dekodieren.
+     */
+    private static BufferedImage decode(Path original, int maxEdge) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(original.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (input == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int longEdge = Math.max(reader.getWidth(0), reader.getHeight(0));
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, longEdge / (2 * maxEdge));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage scale(BufferedImage image, int maxEdge) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double factor = Math.min(1.0, (double) maxEdge / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * factor));
+        int targetHeight = Math.max(1, (int) Math.round(height * factor));
+
+        // JPEG kennt keine Transparenz, daher auf weißem Hintergrund
+        BufferedImage scaled = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, targetWidth, targetHeight);
+            graphics.drawImage(image, 0, 0, targetWidth, targetHeight, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    /**
+     * Dreht bzw. spiegelt das Bild gemäß EXIF-Orientation (1 bis 8), sodass
+     * es ohne Metadaten richtig herum angezeigt wird.
+     */
+    private static BufferedImage orient(BufferedImage image, int orientation) {
+        if (orientation < 2 || orientation > 8) {
+            return image;
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        boolean swap = orientation >= 5;
+        AffineTransform transform = new AffineTransform();
+        switch (orientation) {
+            case 2 -> transform.setTransform(-1, 0, 0, 1, width, 0);
+            case 3 -> transform.setTransform(-1, 0, 0, -1, width, height);
+            case 4 -> transform.setTransform(1, 0, 0, -1, 0, height);
+            case 5 -> transform.setTransform(0, 1, 1, 0, 0, 0);
+            case 6 -> transform.setTransform(0, 1, -1, 0, height, 0);
+            case 7 -> transform.setTransform(0, -1, -1, 0, height, width);
+            case 8 -> transform.setTransform(0, -1, 1, 0, 0, width);
+            default -> {
+                return image;
+            }
+        }
+        BufferedImage oriented = new BufferedImage(swap ? height : width, swap ? width : height,
+                BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = oriented.createGraphics();
+        try {
+            graphics.drawImage(image, transform, null);
+        } finally {
+            graphics.dispose();
+        }
+        return oriented;
+    }
+
+    private static void writeJpeg(BufferedImage image, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), ".derived-", ".tmp");
+        try {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            try (ImageOutputStream output = ImageIO.createImageOutputStream(temp.toFile())) {
+                writer.setOutput(output);
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(JPEG_QUALITY);
+                param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+                // Ohne Metadaten-Objekt schreibt ImageIO nur den JFIF-Header
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Liest den EXIF-Tag Orientation (0x0112) aus dem APP1-Segment eines
+     * JPEG. Liefert 1 (unverändert), wenn keiner vorhanden ist.
+     */
+    static int readExifOrientation(Path jpeg) {
+        try (InputStream raw = Files.newInputStream(jpeg); DataInputStream in = new DataInputStream(raw)) {
+            if (in.readUnsignedShort() != 0xFFD8) {
+                return 1;
+            }
+            while (true) {
+                int marker = in.readUnsignedShort();
+                // Start of Scan: danach folgen nur noch Bilddaten
+                if ((marker & 0xFF00) != 0xFF00 || marker == 0xFFDA) {
+                    return 1;
+                }
+                int length = in.readUnsignedShort() - 2;
+                if (marker != 0xFFE1) {
+                    in.skipNBytes(length);
+                    continue;
+                }
+                byte[] segment = in.readNBytes(length);
+                if (segment.length < 14 || segment[0] != 'E' || segment[1] != 'x' || segment[2] != 'i'
+                        || segment[3] != 'f') {
+                    continue;
+                }
+                return orientationFromTiff(segment, 6);
+            }
+        } catch (EOFException e) {
+            return 1;
+        } catch (IOException e) {
+            log.debug("Could not read EXIF orientation of {}: {}", jpeg, e.getMessage());
+            return 1;
+        }
+    }
+
+    private static int orientationFromTiff(byte[] data, int tiff) {
+        boolean littleEndian = data[tiff] == 'I';
+        int ifd = tiff + readInt(data, tiff + 4, littleEndian);
+        if (ifd + 2 > data.length) {
+            return 1;
+        }
+        int entries = readShort(data, ifd, littleEndian);
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (entry + 12 > data.length) {
+                return 1;
+            }
+            if (readShort(data, entry, littleEndian) == 0x0112) {
+                return readShort(data, entry + 8, littleEndian);
+            }
+        }
+        return 1;
+    }
+
+    private static int readShort(byte[] data, int offset, boolean littleEndian) {
+        int a = data[offset] & 0xFF;
+        int b = data[offset + 1] & 0xFF;
+        return littleEndian ? (b << 8) | a : (a << 8) | b;
+    }
+
+    private static int readInt(byte[] data, int offset, boolean littleEndian) {
+        int high = readShort(data, littleEndian ? offset + 2 : offset, littleEndian);
+        int low = readShort(data, littleEndian ? offset : offset + 2, littleEndian);
+        return (high << 16) | low;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,247 @@
+package de.dhbw.webenginspection.service;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Liefert die Metadaten (Pfad, Content-Type, Größe, ETag) der Dateien, die
+ * {@code GET /api/files/{name}} ausliefert, und hält sie in einem begrenzten
+ * LRU-Cache. So wird pro Request weder {@code Files.probeContentType}
+ * aufgerufen noch das Dateisystem nach Attributen gefragt.
+ *
+ * Gespeicherte Fotos und ihre Varianten ändern sich nach dem Schreiben nicht
+ * mehr (der Dateiname ist der Inhalts-Hash), deshalb veralten die Einträge
+ * nicht. Wird eine Datei vom Aufräum-Job gelöscht, fällt ihr Eintrag beim
+ * nächsten Öffnen bzw. vor dem nächsten sendfile heraus; verschiebt {@link PhotoLayoutMigrationJob} sie,
+ * entfernt er den Eintrag über {@link #evict(String)}.
+ */
+@Service
+public class PhotoFileService {
+
+    private static final Logger log = LoggerFactory.getLogger(PhotoFileService.class);
+
+    private static final Pattern CONTENT_ADDRESSED = Pattern.compile("([0-9a-f]{64})\\.[a-z]+");
+
+    private static final Map<String, String> CONTENT_TYPES = Map.of("jpg", "image/jpeg", "jpeg", "image/jpeg", "png",
+            "image/png", "gif", "image/gif", "webp", "image/webp", "heic", "image/heic");
+
+    private final PhotoDerivativeService photoDerivativeService;
+
+    private final PhotoLayout photoLayout;
+
+    private final Map<String, PhotoFile> cache;
+
+    public PhotoFileService(PhotoDerivativeService photoDerivativeService, PhotoLayout photoLayout,
+            @Value("${app.files.metadata-cache-size:10000}")
+            int cacheSize) {
+        this.photoDerivativeService = photoDerivativeService;
+        this.photoLayout = photoLayout;
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PhotoFile> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    /**
+     * Sucht die auszuliefernde Datei.
+     *
+     * @param filename der Dateiname im Upload-Verzeichnis
+     * @param size die gewünschte Variante oder {@code null} für das Original
+     * @return die Datei; ist die Variante noch nicht erzeugt, das Original mit
+     * {@link PhotoFile#isImmutable()} {@code false}
+     */
+    public Optional<PhotoFile> find(String filename, PhotoDerivativeService.Size size) {
+        Optional<PhotoFile> original = findOriginal(filename);
+        if (size == null || original.isEmpty()) {
+            return original;
+        }
+        String key = filename + "?" + size;
+        PhotoFile cached = cache.get(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        // Fehlende Varianten nicht cachen, sie entstehen im Hintergrund
+        Optional<PhotoFile> derived = photoDerivativeService.find(original.get().getPath(), size)
+                .flatMap(path -> read(path, "image/jpeg", original.get().getEtag() + "-" + size.name().toLowerCase()));
+        derived.ifPresent(file -> cache.put(key, file));
+        return Optional.of(derived.orElseGet(() -> original.get().mutable()));
+    }
+
+    /**
+     * Entfernt die Einträge eines Fotos und seiner Varianten, z.&nbsp;B. weil
+     * eine der Dateien an einen anderen Ort verschoben wurde.
+     *
+     * @param filename der Name des Fotos oder einer seiner Varianten
+     */
+    public void evict(String filename) {
+        // Foto und Varianten teilen sich den Hash am Anfang des Namens
+        String prefix = PhotoLayout.isSharded(filename) ? filename.substring(0, 64) : filename;
+        cache.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    /**
+     * Öffnet die Datei zum Lesen. Ist sie inzwischen gelöscht, wird ihr
+     * Cache-Eintrag entfernt.
+     *
+     * @throws IllegalArgumentException wenn die Datei nicht mehr existiert
+     */
+    public FileChannel open(PhotoFile file) throws IOException {
+        try {
+            return FileChannel.open(file.getPath(), StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            throw notFound(file);
+        }
+    }
+
+    /**
+     * Prüft, ob die Datei noch existiert, bevor ihr Pfad ungeöffnet
+     * weitergegeben wird (sendfile). Ist sie inzwischen gelöscht, wird ihr
+     * Cache-Eintrag entfernt.
+     *
+     * @throws IllegalArgumentException wenn die Datei nicht mehr existiert
+     */
+    public void requireExists(PhotoFile file) {
+        if (!Files.isRegularFile(file.getPath())) {
+            throw notFound(file);
+        }
+    }
+
+    private IllegalArgumentException notFound(PhotoFile file) {
+        cache.values().removeIf(cached -> cached.getPath().equals(file.getPath()));
+        return new IllegalArgumentException("File not found: " + file.getPath().getFileName());
+    }
+
+    private Optional<PhotoFile> findOriginal(String filename) {
+        PhotoFile cached = cache.get(filename);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Path path;
+        try {
+            path = photoLayout.resolve(filename);
+        } catch (IllegalArgumentException e) {
+            // Pfadangaben im Namen
+            return Optional.empty();
+        }
+        var matcher = CONTENT_ADDRESSED.matcher(filename);
+        Optional<PhotoFile> file = read(path, contentType(path), matcher.matches() ? matcher.group(1) : null);
+        file.ifPresent(found -> cache.put(filename, found));
+        return file;
+    }
+
+    /**
+     * @param etag der ETag oder {@code null}, um ihn aus Größe und
+     * Änderungszeit zu bilden (Altbestand ohne Hash im Namen)
+     */
+    private static Optional<PhotoFile> read(Path path, String contentType, String etag) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            if (!attributes.isRegularFile()) {
+                return Optional.empty();
+            }
+            long lastModified = attributes.lastModifiedTime().toMillis();
+            String tag = etag != null ? etag
+                    : Long.toHexString(attributes.size()) + "-" + Long.toHexString(lastModified);
+            return Optional.of(new PhotoFile(path, contentType, attributes.size(), lastModified, tag, true));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            log.warn("Could not read attributes of {}: {}", path, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private static String contentType(Path path) {
+        String name = path.getFileName().toString();
+        String extension = name.substring(name.lastIndexOf('.') + 1).toLowerCase();
+        String contentType = CONTENT_TYPES.get(extension);
+        if (contentType == null) {
+            try {
+                contentType = Files.probeContentType(path);
+            } catch (IOException e) {
+                // fällt durch auf octet-stream
+            }
+        }
+        return contentType != null ? contentType : "application/octet-stream";
+    }
+
+    /**
+     * Metadaten einer auszuliefernden Datei.
+     */
+    public static final class PhotoFile {
+
+        private final Path path;
+
+        private final String contentType;
+
+        private final long length;
+
+        private final long lastModified;
+
+        private final String etag;
+
+        private final boolean immutable;
+
+        PhotoFile(Path path, String contentType, long length, long lastModified, String etag, boolean immutable) {
+            this.path = path;
+            this.contentType = contentType;
+            this.length = length;
+            this.lastModified = lastModified;
+            this.etag = etag;
+            this.immutable = immutable;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public long getLength() {
+            return length;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * Der ETag ohne Anführungszeichen; bei inhaltsadressierten Dateien der
+         * SHA-256-Hash.
+         */
+        public String getEtag() {
+            return etag;
+        }
+
+        /**
+         * {@code true}, wenn sich die Antwort unter dieser URL nie ändert. Nicht
+         * gesetzt, solange statt einer Variante das Original ausgeliefert wird.
+         */
+        public boolean isImmutable() {
+            return immutable;
+        }
+
+        PhotoFile mutable() {
+            return new PhotoFile(path, contentType, length, lastModified, etag, false);
+        }
+    }
+}
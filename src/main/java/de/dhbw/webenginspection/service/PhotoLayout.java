@@ -0,0 +1,129 @@
+package de.dhbw.webenginspection.service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Verzeichnisstruktur des Fotospeichers.
+ *
+ * Inhaltsadressierte Dateien liegen in zwei Ebenen von Unterverzeichnissen
+ * nach den ersten vier Zeichen ihres Hashes, z.&nbsp;B.
+ * {@code ab/cd/abcd…ef.jpg}. Jedes Verzeichnis enthält so höchstens 256
+ * Einträge bzw. einen kleinen Teil aller Fotos, statt Millionen Dateien in
+ * einem einzigen Verzeichnis. Varianten liegen entsprechend unter
+ * {@code derived/ab/cd/}.
+ *
+ * Der Dateiname in {@code photoPath} bzw. {@code photo_blob.filename} bleibt
+ * unverändert, die Struktur ist ein Detail der Ablage. Dateien aus der Zeit
+ * vor der Aufteilung liegen noch direkt im Upload-Verzeichnis, bis
+ * {@link PhotoLayoutMigrationJob} sie verschoben hat; {@link #resolve(String)}
+ * findet beide. Ältere Dateien ohne Hash im Namen bleiben dauerhaft flach.
+ */
+@Component
+public class PhotoLayout {
+
+    private static final Pattern CONTENT_ADDRESSED = Pattern.compile("[0-9a-f]{64}[._].+");
+
+    private static final String DERIVED = "derived";
+
+    private final Path root;
+
+    public PhotoLayout(@Value("${app.upload.dir:uploads/photos}")
+    String uploadDir) {
+        this.root = Paths.get(uploadDir).toAbsolutePath().normalize();
+    }
+
+    /**
+     * Das Upload-Verzeichnis.
+     */
+    public Path root() {
+        return root;
+    }
+
+    /**
+     * Das Verzeichnis der Varianten.
+     */
+    public Path derivedRoot() {
+        return root.resolve(DERIVED);
+    }
+
+    /**
+     * Der Ablageort eines Fotos nach der aktuellen Struktur, z.&nbsp;B. als
+     * Ziel beim Speichern.
+     *
+     * @throws IllegalArgumentException wenn der Name ein Pfad ist
+     */
+    public Path pathOf(String filename) {
+        return shard(root, filename);
+    }
+
+    /**
+     * Der Ablageort einer Variante ({@code <sha256>_<größe>.jpg}).
+     */
+    public Path derivedPathOf(String filename) {
+        return shard(derivedRoot(), filename);
+    }
+
+    /**
+     * Findet ein vorhandenes Foto: erst in der aktuellen Struktur, dann direkt
+     * im Upload-Verzeichnis (noch nicht migriert). Ein zweiter Blick auf den
+     * neuen Ort fängt ein gleichzeitiges Verschieben durch die Migration ab.
+     *
+     * @return der Pfad der Datei oder der Zielpfad, wenn sie nicht existiert
+     */
+    public Path resolve(String filename) {
+        Path sharded = pathOf(filename);
+        if (Files.isRegularFile(sharded)) {
+            return sharded;
+        }
+        Path flat = flatPathOf(filename);
+        if (!flat.equals(sharded) && Files.isRegularFile(flat)) {
+            return flat;
+        }
+        return sharded;
+    }
+
+    /**
+     * Der Ablageort vor Einführung der Verzeichnisstruktur.
+     */
+    public Path flatPathOf(String filename) {
+        return checked(root, filename);
+    }
+
+    /**
+     * Der frühere Ablageort einer Variante.
+     */
+    public Path flatDerivedPathOf(String filename) {
+        return checked(derivedRoot(), filename);
+    }
+
+    /**
+     * @return {@code true}, wenn die Datei nach der aktuellen Struktur in
+     * einem Unterverzeichnis liegt
+     */
+    public static boolean isSharded(String filename) {
+        return CONTENT_ADDRESSED.matcher(filename).matches();
+    }
+
+    private static Path shard(Path base, String filename) {
+        Path path = checked(base, filename);
+        if (!isSharded(filename)) {
+            return path;
+        }
+        return base.resolve(filename.substring(0, 2)).resolve(filename.substring(2, 4)).resolve(filename);
+    }
+
+    // Schützt vor Namen wie "../x" oder "a/b"
+    private static Path checked(Path base, String filename) {
+        Path path = base.resolve(filename).normalize();
+        if (!base.equals(path.getParent())) {
+            throw new IllegalArgumentException("Ungültiger Dateiname: " + filename);
+        }
+        return path;
+    }
+}
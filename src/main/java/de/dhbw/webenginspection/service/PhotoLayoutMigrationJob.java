@@ -0,0 +1,170 @@
+package de.dhbw.webenginspection.service;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Verschiebt Fotos und Varianten, die noch direkt im Upload-Verzeichnis
+ * liegen, in die Verzeichnisstruktur von {@link PhotoLayout}.
+ *
+ * Läuft nach dem Start im Hintergrund, die Anwendung bleibt währenddessen
+ * voll verfügbar: Jede Datei wird einzeln atomar umbenannt (auf demselben
+ * Dateisystem kein Kopieren), und {@link PhotoLayout#resolve(String)} findet
+ * sie vorher wie nachher. Die Dateien werden in Batches von
+ * {@code app.upload.layout-migration.batch-size} Namen eingelesen und parallel
+ * verschoben. Wird die Anwendung unterbrochen, setzt der nächste Start beim
+ * Rest fort; bereits verschobene Dateien liegen nicht mehr im flachen
+ * Verzeichnis.
+ */
+@Component
+public class PhotoLayoutMigrationJob {
+
+    private static final Logger log = LoggerFactory.getLogger(PhotoLayoutMigrationJob.class);
+
+    private final PhotoLayout photoLayout;
+
+    private final PhotoFileService photoFileService;
+
+    private final boolean enabled;
+
+    private final int batchSize;
+
+    private final int threads;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public PhotoLayoutMigrationJob(PhotoLayout photoLayout, PhotoFileService photoFileService,
+            @Value("${app.upload.layout-migration.enabled:true}")
+            boolean enabled, @Value("${app.upload.layout-migration.batch-size:500}")
+            int batchSize, @Value("${app.upload.layout-migration.threads:4}")
+            int threads) {
+        this.photoLayout = photoLayout;
+        this.photoFileService = photoFileService;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.threads = threads;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateInBackground() {
+        if (!enabled) {
+            return;
+        }
+        Thread.ofPlatform().name("photo-layout-migration").daemon().start(this::migrate);
+    }
+
+    /**
+     * Verschiebt alle noch flach abgelegten Dateien.
+     *
+     * @return die Anzahl der verschobenen Dateien oder -1, wenn die Migration
+     * bereits läuft
+     */
+    public int migrate() {
+        if (!running.compareAndSet(false, true)) {
+            return -1;
+        }
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            int moved = migrateDirectory(executor, photoLayout.root(), photoLayout::pathOf);
+            moved += migrateDirectory(executor, photoLayout.derivedRoot(), photoLayout::derivedPathOf);
+            if (moved > 0) {
+                log.info("Moved {} photos into the sharded layout in {} ms", moved,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
+            return moved;
+        } catch (IOException e) {
+            log.error("Photo layout migration failed: {}", e.getMessage());
+            return 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        } finally {
+            executor.shutdownNow();
+            running.set(false);
+        }
+    }
+
+    private int migrateDirectory(ExecutorService executor, Path dir, Function<String, Path> target)
+            throws IOException, InterruptedException {
+        if (!Files.isDirectory(dir)) {
+            return 0;
+        }
+        int moved = 0;
+        List<Path> batch = new ArrayList<>(batchSize);
+        // Der DirectoryStream liest die Einträge nach und nach statt alle auf einmal
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir,
+                entry -> PhotoLayout.isSharded(entry.getFileName().toString()) && Files.isRegularFile(entry))) {
+            for (Path entry : entries) {
+                batch.add(entry);
+                if (batch.size() == batchSize) {
+                    moved += moveBatch(executor, batch, target);
+                    batch.clear();
+                }
+            }
+        }
+        return moved + moveBatch(executor, batch, target);
+    }
+
+    private int moveBatch(ExecutorService executor, List<Path> batch, Function<String, Path> target)
+            throws InterruptedException {
+        List<Callable<Boolean>> tasks = new ArrayList<>(batch.size());
+        for (Path source : batch) {
+            tasks.add(() -> move(source, target.apply(source.getFileName().toString())));
+        }
+        int moved = 0;
+        for (Future<Boolean> result : executor.invokeAll(tasks)) {
+            try {
+                if (result.get()) {
+                    moved++;
+                }
+            } catch (ExecutionException e) {
+                log.warn("Could not move photo: {}", e.getCause().getMessage());
+            }
+        }
+        return moved;
+    }
+
+    private boolean move(Path source, Path target) throws IOException {
+        String filename = source.getFileName().toString();
+        Files.createDirectories(target.getParent());
+        try {
+            try {
+                Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(source, target);
+            }
+        } catch (FileAlreadyExistsException e) {
+            // Gleicher Inhalt wurde inzwischen am neuen Ort gespeichert
+            Files.deleteIfExists(source);
+        } catch (NoSuchFileException e) {
+            // Inzwischen gelöscht (Aufräum-Job)
+            return false;
+        }
+        photoFileService.evict(filename);
+        return true;
+    }
+}
@@ -0,0 +1,336 @@
+package de.dhbw.webenginspection.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import de.dhbw.webenginspection.dto.StoredPhoto;
+import de.dhbw.webenginspection.repository.PhotoBlobRepository;
+
+/**
+ * Inhaltsadressierter Speicher für hochgeladene Fotos.
+ *
+ * Der Upload wird in Blöcken von {@value #BUFFER_SIZE} Byte über NIO-Kanäle
+ * in eine temporäre Datei im Zielverzeichnis geschrieben, ohne die Datei im
+ * Speicher zu halten. Größenlimit und Bildformat (anhand der Magic Bytes,
+ * nicht des vom Client gemeldeten Content-Types) werden dabei auf dem
+ * Datenstrom geprüft, der SHA-256-Hash wird nebenbei berechnet.
+ *
+ * Gespeichert wird unter {@code <sha256>.<endung>} in der Verzeichnisstruktur
+ * von {@link PhotoLayout}: Ist der Inhalt schon
+ * vorhanden, wird die temporäre Datei verworfen und nichts neu geschrieben,
+ * sonst wird sie atomar umbenannt. Wie viele Schritte und Anhänge auf eine
+ * Datei verweisen, zählt {@code photo_blob.ref_count}; die Services melden
+ * jede Änderung eines {@code photoPath} über {@link #adjustReferences(Map)}.
+ * Dateien ohne Verweis entfernt {@link PhotoCleanupJob}. Verkleinerte
+ * Varianten erzeugt {@link PhotoDerivativeService} im Anschluss an den Upload.
+ */
+@Service
+public class PhotoStorageService {
+
+    private static final Logger log = LoggerFactory.getLogger(PhotoStorageService.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // Genug für die Signaturen aller unterstützten Formate
+    private static final int HEADER_SIZE = 12;
+
+    private static final Pattern SHA256 = Pattern.compile("[0-9a-f]{64}");
+
+    private final PhotoBlobRepository photoBlobRepository;
+
+    private final PhotoDerivativeService photoDerivativeService;
+
+    private final PhotoLayout photoLayout;
+
+    private final Path uploadDir;
+
+    private final long maxSize;
+
+    public PhotoStorageService(PhotoBlobRepository photoBlobRepository,
+            PhotoDerivativeService photoDerivativeService, PhotoLayout photoLayout,
+            @Value("${app.upload.max-size:5MB}")
+            DataSize maxSize) {
+        this.photoBlobRepository = photoBlobRepository;
+        this.photoDerivativeService = photoDerivativeService;
+        this.photoLayout = photoLayout;
+        this.uploadDir = photoLayout.root();
+        this.maxSize = maxSize.toBytes();
+    }
+
+    /**
+     * Sucht ein bereits gespeichertes Foto anhand seines Hashes, damit ein
+     * Client es verknüpfen kann, ohne den Inhalt erneut zu senden.
+     *
+     * @param sha256 der SHA-256-Hash (hexadezimal)
+     * @return das Foto, falls Zeile und Datei vorhanden sind
+     */
+    public Optional<StoredPhoto> findBySha256(String sha256) {
+        String hash = sha256.trim().toLowerCase();
+        if (!SHA256.matcher(hash).matches()) {
+            throw new IllegalArgumentException("Ungültiger SHA-256-Hash: " + sha256);
+        }
+        Optional<StoredPhoto> photo = photoBlobRepository.findBySha256(hash)
+                .filter(existing -> Files.isRegularFile(photoLayout.resolve(existing.getFilename())));
+        photo.ifPresent(existing -> photoBlobRepository.touch(hash, LocalDateTime.now()));
+        return photo;
+    }
+
+    /**
+     * Liest das Foto aus dem Datenstrom und legt es im Speicher ab. Der Stream
+     * wird nicht geschlossen.
+     *
+     * @param in der Inhalt des Uploads
+     * @return das gespeicherte Foto; {@link StoredPhoto#isDuplicate()} ist
+     * gesetzt, wenn der Inhalt bereits vorhanden war
+     * @throws IllegalArgumentException wenn die Datei leer, zu groß oder kein
+     * unterstütztes Bild ist oder nicht gespeichert werden kann
+     */
+    public StoredPhoto store(InputStream in) {
+        Path temp = null;
+        try {
+            Files.createDirectories(uploadDir);
+            temp = Files.createTempFile(uploadDir, ".upload-", ".tmp");
+
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            ImageType type = null;
+            long size = 0;
+
+            ReadableByteChannel source = Channels.newChannel(in);
+            try (FileChannel target = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (source.read(buffer) != -1) {
+                    // Format prüfen, sobald der Header vollständig gelesen ist
+                    if (type == null) {
+                        if (buffer.position() < HEADER_SIZE) {
+                            continue;
+                        }
+                        type = detect(buffer);
+                    }
+                    if (size + buffer.position() > maxSize) {
+                        throw new IllegalArgumentException(
+                                "Datei ist zu groß (Max. " + DataSize.ofBytes(maxSize).toMegabytes() + "MB)");
+                    }
+                    size += write(buffer, digest, target);
+                }
+                // Dateien kürzer als der Header
+                if (type == null) {
+                    type = detect(buffer);
+                    size += write(buffer, digest, target);
+                }
+                target.force(false);
+            }
+
+            String sha256 = HexFormat.of().formatHex(digest.digest());
+            LocalDateTime now = LocalDateTime.now();
+            Optional<StoredPhoto> existing = photoBlobRepository.findBySha256(sha256)
+                    .filter(photo -> Files.isRegularFile(photoLayout.resolve(photo.getFilename())));
+            if (existing.isPresent()) {
+                photoBlobRepository.touch(sha256, now);
+                log.info("Photo {} already stored, discarding duplicate upload", existing.get().getFilename());
+                // Falls die Varianten beim ersten Upload nicht erzeugt werden konnten
+                photoDerivativeService.enqueue(photoLayout.resolve(existing.get().getFilename()));
+                return existing.get();
+            }
+
+            String filename = sha256 + "." + type.extension;
+            Path target = photoLayout.pathOf(filename);
+            Files.createDirectories(target.getParent());
+            moveAtomically(temp, target);
+            temp = null;
+
+            StoredPhoto photo = new StoredPhoto(filename, type.contentType, size, sha256, false);
+            // Ein paralleler Upload desselben Inhalts kann die Zeile schon angelegt haben
+            if (!photoBlobRepository.insert(photo, now)) {
+                photoBlobRepository.touch(sha256, now);
+            }
+            log.info("Stored photo {} ({} bytes, {})", filename, size, type.contentType);
+            photoDerivativeService.enqueue(target);
+            return photo;
+        } catch (IOException e) {
+            log.error("Error saving photo: {}", e.getMessage());
+            throw new IllegalArgumentException("Fehler beim Speichern der Datei: " + e.getMessage());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            if (temp != null) {
+                deleteQuietly(temp);
+            }
+        }
+    }
+
+    /**
+     * Meldet die Änderung eines {@code photoPath} von {@code oldPath} auf
+     * {@code newPath} ({@code null} = kein Foto). Muss in der ändernden
+     * Transaktion aufgerufen werden.
+     */
+    public void replaceReference(String oldPath, String newPath) {
+        Map<String, Integer> deltas = new HashMap<>();
+        countReplacement(deltas, oldPath, newPath);
+        adjustReferences(deltas);
+    }
+
+    /**
+     * Passt die Verweiszähler für mehrere Änderungen in einem Batch an. Muss in
+     * der ändernden Transaktion aufgerufen werden.
+     *
+     * @param deltas Dateiname -> Änderung der Anzahl der Verweise, siehe
+     * {@link #countReplacement(Map, String, String)}
+     */
+    public void adjustReferences(Map<String, Integer> deltas) {
+        if (!deltas.isEmpty()) {
+            photoBlobRepository.adjustReferences(deltas, LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Sammelt die Änderung eines {@code photoPath} für
+     * {@link #adjustReferences(Map)}.
+     */
+    public static void countReplacement(Map<String, Integer> deltas, String oldPath, String newPath) {
+        if (Objects.equals(oldPath, newPath)) {
+            return;
+        }
+        if (oldPath != null) {
+            deltas.merge(oldPath, -1, Integer::sum);
+        }
+        if (newPath != null) {
+            deltas.merge(newPath, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Korrigiert die Verweiszähler und entfernt Dateien, auf die kein Schritt
+     * mehr verweist und die seit {@code gracePeriod} nicht verwendet wurden.
+     * Die Karenzzeit schützt gerade hochgeladene, noch nicht verknüpfte
+     * Fotos.
+     *
+     * @return die Anzahl der entfernten Dateien
+     */
+    public int deleteUnreferenced(Duration gracePeriod) {
+        int repaired = photoBlobRepository.repairReferenceCounts();
+        if (repaired > 0) {
+            log.warn("Repaired reference counts of {} photos", repaired);
+        }
+
+        LocalDateTime cutoff = LocalDateTime.now().minus(gracePeriod);
+        int deleted = 0;
+        for (String filename : photoBlobRepository.findUnreferencedBefore(cutoff)) {
+            // Erst die Zeile, damit ein gleichzeitiger Verweis die Datei behält
+            if (photoBlobRepository.deleteIfUnreferenced(filename, cutoff)) {
+                // Alter und neuer Ort, falls die Migration gerade verschiebt
+                deleteQuietly(photoLayout.pathOf(filename));
+                deleteQuietly(photoLayout.flatPathOf(filename));
+                photoDerivativeService.delete(filename);
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    private static int write(ByteBuffer buffer, MessageDigest digest, FileChannel target) throws IOException {
+        buffer.flip();
+        int length = buffer.remaining();
+        digest.update(buffer.duplicate());
+        while (buffer.hasRemaining()) {
+            target.write(buffer);
+        }
+        buffer.clear();
+        return length;
+    }
+
+    private static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Erkennt das Bildformat an den ersten Bytes im Puffer (Position = Anzahl
+     * gelesener Bytes).
+     *
+     * @throws IllegalArgumentException wenn es kein unterstütztes Bild ist
+     */
+    private static ImageType detect(ByteBuffer buffer) {
+        byte[] header = new byte[Math.min(buffer.position(), HEADER_SIZE)];
+        buffer.get(0, header);
+        for (ImageType type : ImageType.values()) {
+            if (type.matches(header)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException(header.length == 0 ? "Datei ist leer" : "Nur Bilddateien sind erlaubt");
+    }
+
+    private enum ImageType {
+
+        JPEG("image/jpeg", "jpg", 0, new byte[] { (byte) 0xFF, (byte) 0xD8, (byte) 0xFF }),
+        PNG("image/png", "png", 0, new byte[] { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' }),
+        GIF("image/gif", "gif", 0, "GIF8".getBytes(StandardCharsets.US_ASCII)),
+        WEBP("image/webp", "webp", 8, "WEBP".getBytes(StandardCharsets.US_ASCII)),
+        HEIC("image/heic", "heic", 4, "ftypheic".getBytes(StandardCharsets.US_ASCII));
+
+        private final String contentType;
+
+        private final String extension;
+
+        private final int offset;
+
+        private final byte[] signature;
+
+        ImageType(String contentType, String extension, int offset, byte[] signature) {
+            this.contentType = contentType;
+            this.extension = extension;
+            this.offset = offset;
+            this.signature = signature;
+        }
+
+        boolean matches(byte[] header) {
+            if (header.length < offset + signature.length) {
+                return false;
+            }
+            for (int i = 0; i < signature.length; i++) {
+                if (header[offset + i] != signature[i]) {
+                    return false;
+                }
+            }
+            // WebP liegt in einem RIFF-Container
+            return this != WEBP || (header[0] == 'R' && header[1] == 'I' && header[2] == 'F' && header[3] == 'F');
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package de.dhbw.webenginspection.service;
+
+import de.dhbw.webenginspection.dto.CursorPage;
+import de.dhbw.webenginspection.dto.SearchCursor;
+import de.dhbw.webenginspection.dto.SearchHit;
+import de.dhbw.webenginspection.entity.Checklist;
+import de.dhbw.webenginspection.entity.ChecklistStep;
+import de.dhbw.webenginspection.entity.Inspection;
+import de.dhbw.webenginspection.entity.InspectionStep;
+import de.dhbw.webenginspection.repository.ChecklistRepository;
+import de.dhbw.webenginspection.repository.ChecklistStepRepository;
+import de.dhbw.webenginspection.repository.InspectionRepository;
+import de.dhbw.webenginspection.repository.SearchIndexRepository;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Pflegt den Volltextindex über die Freitexte der Anwendung und beantwortet
+ * Suchanfragen. Indiziert werden {@link Inspection#getGeneralComment()},
+ * {@link InspectionStep#getComment()}, {@link Checklist#getRecommendations()}
+ * sowie Beschreibung und Anforderung der {@link ChecklistStep}s.
+ *
+ * Der Index wird von den Services bei jeder Änderung in derselben Transaktion
+ * nachgeführt; beim Start wird er einmalig aufgebaut, falls er leer ist
+ * (z.&nbsp;B. für Bestandsdaten).
+ */
+@Service
+@Transactional
+public class SearchIndexService {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchIndexService.class);
+
+    /**
+     * Obergrenze für die Seitengröße der Suchergebnisse.
+     */
+    public static final int MAX_PAGE_SIZE = 100;
+
+    // Dokumentarten (ein Dokument = ein indiziertes Textfeld)
+    static final String DOC_INSPECTION = "INSPECTION";
+
+    static final String DOC_INSPECTION_STEP = "INSPECTION_STEP";
+
+    static final String DOC_CHECKLIST = "CHECKLIST";
+
+    static final String DOC_CHECKLIST_STEP = "CHECKLIST_STEP";
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final int MIN_TERM_LENGTH = 2;
+
+    private static final int MAX_TERM_LENGTH = 100;
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    // Häufige deutsche Füllwörter, die als Suchbegriff nichts aussagen
+    private static final Set<String> STOP_WORDS = Set.of("der", "die", "das", "den", "dem", "des", "ein", "eine",
+            "einer", "eines", "und", "oder", "ist", "sind", "nicht", "mit", "von", "zu", "zur", "zum", "im", "in",
+            "an", "am", "auf", "für", "bei", "aus", "es", "wird", "werden");
+
+    private final SearchIndexRepository searchIndexRepository;
+
+    private final InspectionRepository inspectionRepository;
+
+    private final ChecklistRepository checklistRepository;
+
+    private final ChecklistStepRepository checklistStepRepository;
+
+    public SearchIndexService(SearchIndexRepository searchIndexRepository, InspectionRepository inspectionRepository,
+            ChecklistRepository checklistRepository, ChecklistStepRepository checklistStepRepository) {
+        this.searchIndexRepository = searchIndexRepository;
+        this.inspectionRepository = inspectionRepository;
+        this.checklistRepository = checklistRepository;
+        this.checklistStepRepository = checklistStepRepository;
+    }
+
+    // --- Pflege ---
+
+    /**
+     * Indiziert den allgemeinen Kommentar einer Inspection.
+     */
+    public void indexInspection(Inspection inspection) {
+        searchIndexRepository.replaceDocument(DOC_INSPECTION, inspection.getId(), SearchHit.Type.INSPECTION.name(),
+                inspection.getId(), tokenize(inspection.getGeneralComment()));
+    }
+
+    /**
+     * Indiziert den Kommentar eines einzelnen Inspektionsschritts.
+     */
+    public void indexInspectionStep(InspectionStep step) {
+        Long inspectionId = step.getInspection().getId();
+        searchIndexRepository.replaceDocument(DOC_INSPECTION_STEP, step.getId(), SearchHit.Type.INSPECTION.name(),
+                inspectionId, tokenize(step.getComment()));
+    }
+
+    public void removeInspectionStep(Long stepId) {
+        searchIndexRepository.deleteDocument(DOC_INSPECTION_STEP, stepId);
+    }
+
+    /**
+     * Entfernt eine Inspection inklusive aller Schritt-Kommentare aus dem
+     * Index.
+     */
+    public void removeInspection(Long inspectionId) {
+        searchIndexRepository.deleteOwner(SearchHit.Type.INSPECTION.name(), inspectionId);
+    }
+
+    /**
+     * Indiziert eine Checklist mit allen Schritten neu. Die Schritte werden
+     * per Abfrage geladen, damit auch gerade erst hinzugefügte Schritte (mit
+     * vergebener ID) berücksichtigt werden.
+     */
+    public void indexChecklist(Checklist checklist) {
+        searchIndexRepository.deleteOwner(SearchHit.Type.CHECKLIST.name(), checklist.getId());
+        indexChecklistRecommendations(checklist);
+        for (ChecklistStep step : checklistStepRepository.findByChecklistIdOrderByOrderIndex(checklist.getId())) {
+            indexChecklistStep(step);
+        }
+    }
+
+    /**
+     * Indiziert nur die Empfehlungen einer Checklist, ohne ihre Schritte.
+     */
+    public void indexChecklistRecommendations(Checklist checklist) {
+        searchIndexRepository.replaceDocument(DOC_CHECKLIST, checklist.getId(), SearchHit.Type.CHECKLIST.name(),
+                checklist.getId(), tokenize(checklist.getRecommendations()));
+    }
+
+    /**
+     * Indiziert Beschreibung und Anforderung eines einzelnen
+     * Checklisten-Schritts.
+     */
+    public void indexChecklistStep(ChecklistStep step) {
+        Long checklistId = step.getChecklist().getId();
+        searchIndexRepository.replaceDocument(DOC_CHECKLIST_STEP, step.getId(), SearchHit.Type.CHECKLIST.name(),
+                checklistId, tokenize(step.getDescription(), step.getRequirement()));
+    }
+
+    public void removeChecklistStep(Long stepId) {
+        searchIndexRepository.deleteDocument(DOC_CHECKLIST_STEP, stepId);
+    }
+
+    public void removeChecklist(Long checklistId) {
+        searchIndexRepository.deleteOwner(SearchHit.Type.CHECKLIST.name(), checklistId);
+    }
+
+    // --- Suche ---
+
+    /**
+     * Sucht Inspektionen und/oder Checklisten, deren Texte alle Begriffe der
+     * Anfrage enthalten (auch als Wortanfang, z.&nbsp;B. "Korrosion" in
+     * "Korrosionsschaden"), sortiert nach Relevanz (Anzahl der Vorkommen).
+     *
+     * @param query Suchtext, wird wie die indizierten Texte zerlegt
+     * @param type optionale Einschränkung auf eine Trefferart ({@code null} =
+     * alle)
+     * @param cursor Fortsetzungs-Token der vorherigen Seite oder {@code null}
+     * @param limit gewünschte Seitengröße (wird auf 1 bis
+     * {@value #MAX_PAGE_SIZE} begrenzt)
+     * @return eine Seite mit Treffern
+     * @throws IllegalArgumentException wenn die Anfrage keine Suchbegriffe
+     * enthält oder der Cursor ungültig ist
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<SearchHit> search(String query, SearchHit.Type type, String cursor, int limit) {
+        Set<String> terms = tokenize(query).keySet();
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("Search query must contain at least one term");
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        SearchCursor after = cursor != null && !cursor.isBlank() ? SearchCursor.decode(cursor) : null;
+        log.info("Searching for {} (type {}, cursor {}, size {})", terms, type, cursor, pageSize);
+
+        // Ein Element mehr laden, um zu erkennen, ob es eine weitere Seite gibt
+        List<SearchIndexRepository.Match> matches = searchIndexRepository.search(terms,
+                type != null ? type.name() : null, after != null ? after.getScore() : null,
+                after != null ? after.getType().name() : null, after != null ? after.getId() : null, pageSize + 1);
+        boolean hasNext = matches.size() > pageSize;
+        if (hasNext) {
+            matches = matches.subList(0, pageSize);
+        }
+
+        Map<Long, Inspection> inspections = inspectionRepository
+                .findAllById(idsOf(matches, SearchHit.Type.INSPECTION)).stream()
+                .collect(Collectors.toMap(Inspection::getId, Function.identity()));
+        Map<Long, Checklist> checklists = checklistRepository.findAllById(idsOf(matches, SearchHit.Type.CHECKLIST))
+                .stream().collect(Collectors.toMap(Checklist::getId, Function.identity()));
+
+        List<SearchHit> hits = new ArrayList<>(matches.size());
+        for (SearchIndexRepository.Match match : matches) {
+            if (SearchHit.Type.INSPECTION.name().equals(match.ownerType())) {
+                Inspection inspection = inspections.get(match.ownerId());
+                if (inspection != null) {
+                    hits.add(new SearchHit(SearchHit.Type.INSPECTION, inspection.getId(), inspection.getTitle(),
+                            inspection.getPlantName(), match.score()));
+                }
+            } else {
+                Checklist checklist = checklists.get(match.ownerId());
+                if (checklist != null) {
+                    hits.add(new SearchHit(SearchHit.Type.CHECKLIST, checklist.getId(), checklist.getName(),
+                            checklist.getPlantName(), match.score()));
+                }
+            }
+        }
+
+        if (!hasNext) {
+            return new CursorPage<>(hits, null);
+        }
+        // Vom letzten Treffer im Index aus fortsetzen, auch wenn sein Objekt fehlt
+        SearchIndexRepository.Match last = matches.get(matches.size() - 1);
+        return new CursorPage<>(hits,
+                new SearchCursor(last.score(), SearchHit.Type.valueOf(last.ownerType()), last.ownerId()).encode());
+    }
+
+    private static List<Long> idsOf(List<SearchIndexRepository.Match> matches, SearchHit.Type type) {
+        return matches.stream().filter(m -> type.name().equals(m.ownerType()))
+                .map(SearchIndexRepository.Match::ownerId).toList();
+    }
+
+    /**
+     * Zerlegt Texte in normalisierte Suchbegriffe (Kleinschreibung, Trennung an
+     * allem außer Buchstaben und Ziffern, ohne Füllwörter) und zählt deren
+     * Vorkommen.
+     */
+    static Map<String, Integer> tokenize(String... texts) {
+        Map<String, Integer> terms = new LinkedHashMap<>();
+        for (String text : texts) {
+            if (text == null || text.isBlank()) {
+                continue;
+            }
+            for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.GERMAN))) {
+                if (token.length() < MIN_TERM_LENGTH || STOP_WORDS.contains(token)) {
+                    continue;
+                }
+                String term = token.length() > MAX_TERM_LENGTH ? token.substring(0, MAX_TERM_LENGTH) : token;
+                terms.merge(term, 1, Integer::sum);
+            }
+        }
+        return terms;
+    }
+
+    // --- Neuaufbau ---
+
+    /**
+     * Baut den Index beim Start auf, falls er leer ist (z.&nbsp;B. nach dem
+     * Einspielen der Migration in eine bestehende Datenbank).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        if (searchIndexRepository.isEmpty()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Baut den gesamten Index aus den Tabellen neu auf. Die Texte werden per
+     * JDBC gestreamt und die Begriffe in Batches geschrieben.
+     */
+    public void rebuild() {
+        log.info("Rebuilding search index");
+        searchIndexRepository.deleteAll();
+
+        List<SqlParameterSource> batch = new ArrayList<>(REBUILD_BATCH_SIZE);
+        rebuildDocuments("""
+                select id as doc_id, id as owner_id, general_comment as text
+                from inspection where general_comment is not null
+                """, DOC_INSPECTION, SearchHit.Type.INSPECTION, batch);
+        rebuildDocuments("""
+                select id as doc_id, inspection_id as owner_id, comment as text
+                from inspection_step where comment is not null and inspection_id is not null
+                """, DOC_INSPECTION_STEP, SearchHit.Type.INSPECTION, batch);
+        rebuildDocuments("""
+                select id as doc_id, id as owner_id, recommendations as text
+                from checklist where recommendations is not null and latest = true and archived = false
+                """, DOC_CHECKLIST, SearchHit.Type.CHECKLIST, batch);
+        rebuildDocuments("""
+                select s.id as doc_id, s.checklist_id as owner_id,
+                       concat(coalesce(s.description, ''), ' ', coalesce(s.requirement, '')) as text
+                from checklist_step s join checklist c on c.id = s.checklist_id
+                where c.latest = true and c.archived = false
+                """, DOC_CHECKLIST_STEP, SearchHit.Type.CHECKLIST, batch);
+        searchIndexRepository.insertTerms(batch);
+
+        log.info("Rebuilt search index");
+    }
+
+    private void rebuildDocuments(String sql, String docType, SearchHit.Type ownerType,
+            List<SqlParameterSource> batch) {
+        searchIndexRepository.forEachText(sql, (docId, ownerId, text) -> {
+            tokenize(text).forEach((term, frequency) -> batch.add(
+                    SearchIndexRepository.termParams(term, docType, docId, ownerType.name(), ownerId, frequency)));
+            if (batch.size() >= REBUILD_BATCH_SIZE) {
+                searchIndexRepository.insertTerms(batch);
+                batch.clear();
+            }
+        });
+    }
+}
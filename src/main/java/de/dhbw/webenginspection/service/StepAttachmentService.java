@@ -0,0 +1,205 @@
+package de.dhbw.webenginspection.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+
+import de.dhbw.webenginspection.dto.StoredPhoto;
+import de.dhbw.webenginspection.entity.InspectionStep;
+import de.dhbw.webenginspection.entity.StepAttachment;
+import de.dhbw.webenginspection.repository.InspectionRepository;
+import de.dhbw.webenginspection.repository.InspectionStepRepository;
+import de.dhbw.webenginspection.repository.StepAttachmentRepository;
+
+/**
+ * Service für die Foto-Anhänge eines {@link InspectionStep}.
+ *
+ * Mehrere Fotos werden in einem Request hochgeladen: Zuerst speichert
+ * {@link #storeFiles(List)} alle Dateien parallel und ohne Transaktion im
+ * Fotospeicher, danach legt {@link #addAttachments(Long, List)} die Anhänge
+ * in einer Transaktion an. Die INSERTs werden dabei per JDBC-Batching
+ * gebündelt.
+ */
+@Service
+@Transactional
+public class StepAttachmentService {
+
+    private static final Logger log = LoggerFactory.getLogger(StepAttachmentService.class);
+
+    private final StepAttachmentRepository stepAttachmentRepository;
+
+    private final InspectionStepRepository inspectionStepRepository;
+
+    private final InspectionRepository inspectionRepository;
+
+    private final PhotoStorageService photoStorageService;
+
+    private final ChangeSequence changeSequence;
+
+    private final int maxFiles;
+
+    public StepAttachmentService(StepAttachmentRepository stepAttachmentRepository,
+            InspectionStepRepository inspectionStepRepository, InspectionRepository inspectionRepository,
+            PhotoStorageService photoStorageService, ChangeSequence changeSequence,
+            @Value("${app.upload.max-files:10}")
+            int maxFiles) {
+        this.stepAttachmentRepository = stepAttachmentRepository;
+        this.inspectionStepRepository = inspectionStepRepository;
+        this.inspectionRepository = inspectionRepository;
+        this.photoStorageService = photoStorageService;
+        this.changeSequence = changeSequence;
+        this.maxFiles = maxFiles;
+    }
+
+    /**
+     * Gibt die Anhänge eines Schritts in der Reihenfolge des Hochladens
+     * zurück.
+     *
+     * @param stepId die ID des InspectionStep
+     * @throws IllegalArgumentException wenn der Step nicht existiert
+     */
+    @Transactional(readOnly = true)
+    public List<StepAttachment> getAttachments(Long stepId) {
+        if (!inspectionStepRepository.existsById(stepId)) {
+            throw new IllegalArgumentException("InspectionStep with id " + stepId + " not found");
+        }
+        return stepAttachmentRepository.findByInspectionStepIdOrderById(stepId);
+    }
+
+    /**
+     * Gibt die Anhänge aller Schritte einer Inspektion zurück, z.&nbsp;B. für
+     * die Detailansicht.
+     *
+     * @param inspectionId die ID der Inspektion
+     */
+    @Transactional(readOnly = true)
+    public List<StepAttachment> getAttachmentsForInspection(Long inspectionId) {
+        return stepAttachmentRepository.findByInspectionStepInspectionIdOrderById(inspectionId);
+    }
+
+    /**
+     * Speichert mehrere hochgeladene Fotos parallel im Fotospeicher (je Datei
+     * ein virtueller Thread). Jede Datei wird wie beim Einzel-Upload
+     * gestreamt und geprüft. Läuft ohne Transaktion, damit während des
+     * Schreibens keine Datenbankverbindung belegt ist.
+     *
+     * Schlägt eine Datei fehl, wird keine verknüpft; bereits gespeicherte
+     * Dateien ohne Verweis entfernt später {@link PhotoCleanupJob}.
+     *
+     * @param files die hochgeladenen Dateien
+     * @return die gespeicherten Fotos in der Reihenfolge der Dateien
+     * @throws IllegalArgumentException wenn keine oder zu viele Dateien
+     * gesendet wurden oder eine Datei ungültig ist
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<StoredPhoto> storeFiles(List<MultipartFile> files) {
+        if (files == null || files.isEmpty()) {
+            throw new IllegalArgumentException("Keine Dateien hochgeladen");
+        }
+        if (files.size() > maxFiles) {
+            throw new IllegalArgumentException("Zu viele Dateien (Max. " + maxFiles + " pro Upload)");
+        }
+
+        List<Future<StoredPhoto>> futures = new ArrayList<>(files.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (MultipartFile file : files) {
+                futures.add(executor.submit(() -> store(file)));
+            }
+            List<StoredPhoto> stored = new ArrayList<>(files.size());
+            for (Future<StoredPhoto> future : futures) {
+                stored.add(future.get());
+            }
+            return stored;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Upload interrupted", e);
+        }
+    }
+
+    private StoredPhoto store(MultipartFile file) {
+        if (file.isEmpty()) {
+            throw new IllegalArgumentException("Datei " + file.getOriginalFilename() + " ist leer");
+        }
+        try (InputStream in = file.getInputStream()) {
+            return photoStorageService.store(in);
+        } catch (IOException e) {
+            log.error("Error reading uploaded photo: {}", e.getMessage());
+            throw new IllegalArgumentException("Fehler beim Speichern der Datei: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Hängt bereits gespeicherte Fotos an einen Schritt an und zählt die
+     * Verweise im Fotospeicher hoch.
+     *
+     * @param stepId die ID des InspectionStep
+     * @param photos die Fotos aus {@link #storeFiles(List)}
+     * @return die angelegten Anhänge
+     * @throws IllegalArgumentException wenn der Step nicht existiert
+     */
+    public List<StepAttachment> addAttachments(Long stepId, List<StoredPhoto> photos) {
+        log.info("Adding {} attachments to inspection step with id {}", photos.size(), stepId);
+
+        InspectionStep step = inspectionStepRepository.findById(stepId)
+                .orElseThrow(() -> new IllegalArgumentException("InspectionStep with id " + stepId + " not found"));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<StepAttachment> attachments = new ArrayList<>(photos.size());
+        Map<String, Integer> photoReferences = new HashMap<>();
+        for (StoredPhoto photo : photos) {
+            attachments.add(
+                    new StepAttachment(step, photo.getFilename(), photo.getContentType(), photo.getSize(), now));
+            PhotoStorageService.countReplacement(photoReferences, null, photo.getFilename());
+        }
+
+        List<StepAttachment> saved = stepAttachmentRepository.saveAll(attachments);
+        photoStorageService.adjustReferences(photoReferences);
+        inspectionRepository.incrementVersion(step.getInspection().getId(), changeSequence.next());
+        log.info("Added {} attachments to inspection step with id {}", saved.size(), stepId);
+
+        return saved;
+    }
+
+    /**
+     * Entfernt einen Anhang und gibt sein Foto frei.
+     *
+     * @param stepId die ID des InspectionStep
+     * @param attachmentId die ID des Anhangs
+     * @throws IllegalArgumentException wenn der Anhang an diesem Step nicht
+     * existiert
+     */
+    public void deleteAttachment(Long stepId, Long attachmentId) {
+        log.info("Deleting attachment {} of inspection step with id {}", attachmentId, stepId);
+
+        StepAttachment existing = stepAttachmentRepository.findByIdAndInspectionStepId(attachmentId, stepId)
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Attachment with id " + attachmentId + " not found for step " + stepId));
+
+        stepAttachmentRepository.delete(existing);
+        photoStorageService.replaceReference(existing.getFilename(), null);
+        inspectionRepository.incrementVersion(existing.getInspectionStep().getInspection().getId(),
+                changeSequence.next());
+        log.info("Deleted attachment {} of inspection step with id {}", attachmentId, stepId);
+    }
+}
@@ -0,0 +1,107 @@
+package de.dhbw.webenginspection.service;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import de.dhbw.webenginspection.dto.SyncResponse;
+import de.dhbw.webenginspection.dto.SyncTombstone;
+import de.dhbw.webenginspection.repository.ChecklistRepository;
+import de.dhbw.webenginspection.repository.InspectionRepository;
+import de.dhbw.webenginspection.repository.InspectionStepRepository;
+import de.dhbw.webenginspection.repository.SyncRepository;
+
+/**
+ * Delta-Synchronisation für Clients, die ihre Daten lokal vorhalten. Statt die
+ * Inspektionen und Schritte bei jedem Start vollständig neu zu laden, fragen
+ * sie mit dem Token des letzten Abrufs nur die seitdem angelegten, geänderten
+ * und gelöschten Zeilen ab. Grundlage sind die Änderungsnummern aus
+ * {@link ChangeSequence} und die Tombstones gelöschter Zeilen.
+ */
+@Service
+@Transactional
+public class SyncService {
+
+    private static final Logger log = LoggerFactory.getLogger(SyncService.class);
+
+    private final InspectionRepository inspectionRepository;
+
+    private final InspectionStepRepository inspectionStepRepository;
+
+    private final ChecklistRepository checklistRepository;
+
+    private final SyncRepository syncRepository;
+
+    private final ChangeSequence changeSequence;
+
+    public SyncService(InspectionRepository inspectionRepository, InspectionStepRepository inspectionStepRepository,
+            ChecklistRepository checklistRepository, SyncRepository syncRepository, ChangeSequence changeSequence) {
+        this.inspectionRepository = inspectionRepository;
+        this.inspectionStepRepository = inspectionStepRepository;
+        this.checklistRepository = checklistRepository;
+        this.syncRepository = syncRepository;
+        this.changeSequence = changeSequence;
+    }
+
+    /**
+     * Liefert alle Änderungen seit dem übergebenen Token.
+     *
+     * @param token das Token des letzten Abrufs; {@code null} oder leer für
+     * eine vollständige Synchronisation
+     * @param inspectorId nur Inspektionen dieses Users und die zugehörigen
+     * Schritte und Checklisten ({@code null} = alle)
+     * @return die Änderungen und das Token für den nächsten Abruf
+     * @throws IllegalArgumentException wenn das Token ungültig ist
+     */
+    @Transactional(readOnly = true)
+    public SyncResponse getChanges(String token, Long inspectorId) {
+        long since = parseToken(token);
+        // Nur bis zur stabilen Nummer, später committete Zeilen kommen beim nächsten Abruf
+        long until = Math.max(since, changeSequence.stableValue());
+        log.info("Synchronizing changes ({}, {}] for inspector {}", since, until, inspectorId);
+
+        if (until == since) {
+            return new SyncResponse(token(since), List.of(), List.of(), List.of(), List.of());
+        }
+        return new SyncResponse(token(until), inspectionRepository.findChangedSince(since, until, inspectorId),
+                inspectionStepRepository.findChangedSince(since, until, inspectorId),
+                checklistRepository.findChangedSince(since, until, inspectorId),
+                syncRepository.findTombstones(since, until, inspectorId));
+    }
+
+    /**
+     * Hält eine gelöschte Zeile fest, damit Clients sie bei der nächsten
+     * Synchronisation entfernen. Muss in der löschenden Transaktion aufgerufen
+     * werden.
+     *
+     * @param type der Typ, siehe {@link SyncTombstone}
+     * @param id die ID der gelöschten Zeile
+     * @param inspectorId der Inspektor der betroffenen Inspection oder
+     * {@code null}, wenn die Löschung alle Clients betrifft
+     */
+    public void recordDeletion(String type, Long id, Long inspectorId) {
+        syncRepository.insertTombstone(type, id, inspectorId, changeSequence.next());
+    }
+
+    private static long parseToken(String token) {
+        if (token == null || token.isBlank()) {
+            return 0;
+        }
+        try {
+            long since = Long.parseLong(token.trim());
+            if (since >= 0) {
+                return since;
+            }
+        } catch (NumberFormatException ex) {
+            // fällt durch auf die Fehlermeldung
+        }
+        throw new IllegalArgumentException("Invalid sync token: " + token);
+    }
+
+    private static String token(long changeSeq) {
+        return Long.toString(changeSeq);
+    }
+}
@@ -0,0 +1,249 @@
+package de.dhbw.webenginspection.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimNames;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+
+import de.dhbw.webenginspection.dto.LoginResponse;
+import de.dhbw.webenginspection.dto.UserResponse;
+import de.dhbw.webenginspection.entity.User;
+import de.dhbw.webenginspection.repository.UserRepository;
+
+/**
+ * Stellt signierte Access- und Refresh-Tokens (JWT, HMAC-SHA256) aus und prüft
+ * sie.
+ *
+ * Ein Access-Token trägt Username, User-ID, Rolle und die Token-Version des
+ * Users. Die Prüfung pro Request kommt damit ohne Passwort-Hashing aus; für
+ * den Widerruf wird nur die Token-Version mit einem In-Memory-Stand
+ * verglichen. Löschen eines Users, Rollenwechsel und Logout erhöhen die
+ * Version und machen damit alle bisher ausgestellten Tokens sofort ungültig.
+ * Der Stand gilt pro Instanz, die Anwendung läuft als einzelner Server.
+ */
+@Service
+public class TokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenService.class);
+
+    private static final String ISSUER = "webeng-inspection";
+
+    private static final String CLAIM_USER_ID = "uid";
+
+    private static final String CLAIM_ROLE = "role";
+
+    private static final String CLAIM_VERSION = "ver";
+
+    private static final String CLAIM_TYPE = "typ";
+
+    private static final String TYPE_ACCESS = "access";
+
+    private static final String TYPE_REFRESH = "refresh";
+
+    // Version für gelöschte User, wird nie ausgestellt
+    private static final int NO_VERSION = -1;
+
+    private final UserRepository userRepository;
+
+    private final Duration accessTokenTtl;
+
+    private final Duration refreshTokenTtl;
+
+    private final JwtEncoder encoder;
+
+    private final JwtDecoder accessTokenDecoder;
+
+    private final JwtDecoder refreshTokenDecoder;
+
+    // Aktuelle Token-Version je User-ID, wird bei Bedarf aus der DB geladen
+    private final ConcurrentMap<Long, Integer> tokenVersions = new ConcurrentHashMap<>();
+
+    public TokenService(UserRepository userRepository, @Value("${app.auth.jwt-secret}")
+    String secret, @Value("${app.auth.access-token-ttl:PT15M}")
+    Duration accessTokenTtl, @Value("${app.auth.refresh-token-ttl:P7D}")
+    Duration refreshTokenTtl) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalStateException(
+                    "app.auth.jwt-secret is not set; provide JWT_SECRET or run with the dev profile");
+        }
+        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+        if (keyBytes.length < 32) {
+            throw new IllegalStateException("app.auth.jwt-secret must be at least 32 bytes long");
+        }
+        SecretKey key = new SecretKeySpec(keyBytes, "HmacSHA256");
+
+        this.userRepository = userRepository;
+        this.accessTokenTtl = accessTokenTtl;
+        this.refreshTokenTtl = refreshTokenTtl;
+        this.encoder = new NimbusJwtEncoder(new ImmutableSecret<>(key));
+        this.accessTokenDecoder = decoder(key, TYPE_ACCESS);
+        this.refreshTokenDecoder = decoder(key, TYPE_REFRESH);
+    }
+
+    private JwtDecoder decoder(SecretKey key, String type) {
+        NimbusJwtDecoder decoder = NimbusJwtDecoder.withSecretKey(key).macAlgorithm(MacAlgorithm.HS256).build();
+        decoder.setJwtValidator(new DelegatingOAuth2TokenValidator<>(JwtValidators.createDefault(),
+                claimEquals(JwtClaimNames.ISS, ISSUER), claimEquals(CLAIM_TYPE, type), this::validateVersion));
+        return decoder;
+    }
+
+    private static OAuth2TokenValidator<Jwt> claimEquals(String claim, String expected) {
+        return jwt -> expected.equals(jwt.getClaimAsString(claim)) ? OAuth2TokenValidatorResult.success()
+                : OAuth2TokenValidatorResult.failure(new OAuth2Error("invalid_token", "Unexpected " + claim, null));
+    }
+
+    private OAuth2TokenValidatorResult validateVersion(Jwt jwt) {
+        Object userId = jwt.getClaim(CLAIM_USER_ID);
+        Object version = jwt.getClaim(CLAIM_VERSION);
+        if (userId instanceof Number id && version instanceof Number ver
+                && currentVersion(id.longValue()) == ver.intValue()) {
+            return OAuth2TokenValidatorResult.success();
+        }
+        return OAuth2TokenValidatorResult.failure(new OAuth2Error("invalid_token", "Token has been revoked", null));
+    }
+
+    private int currentVersion(long userId) {
+        return tokenVersions.computeIfAbsent(userId,
+                id -> userRepository.findTokenVersionById(id).orElse(NO_VERSION));
+    }
+
+    /**
+     * Prüft ein bereits angenommenes Access-Token erneut, z.&nbsp;B. für eine
+     * lang laufende Verbindung.
+     *
+     * @return {@code false}, wenn das Token inzwischen abgelaufen oder
+     * widerrufen ist
+     */
+    public boolean isStillValid(Jwt jwt) {
+        Instant expiresAt = jwt.getExpiresAt();
+        return (expiresAt == null || Instant.now().isBefore(expiresAt)) && !validateVersion(jwt).hasErrors();
+    }
+
+    /**
+     * Decoder für Access-Tokens im {@code Authorization: Bearer}-Header.
+     */
+    public JwtDecoder accessTokenDecoder() {
+        return accessTokenDecoder;
+    }
+
+    /**
+     * Bildet den Rollen-Claim auf {@code ROLE_<Rolle>} ab, passend zu den
+     * {@code hasRole(...)}-Prüfungen der Controller. Der Principal-Name ist der
+     * Username ({@code sub}).
+     */
+    public JwtAuthenticationConverter authenticationConverter() {
+        JwtGrantedAuthoritiesConverter authorities = new JwtGrantedAuthoritiesConverter();
+        authorities.setAuthoritiesClaimName(CLAIM_ROLE);
+        authorities.setAuthorityPrefix("ROLE_");
+
+        JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
+        converter.setJwtGrantedAuthoritiesConverter(authorities);
+        return converter;
+    }
+
+    /**
+     * Stellt ein neues Paar aus Access- und Refresh-Token für den User aus.
+     *
+     * @param user der angemeldete {@link User}
+     * @return die Tokens samt User-Daten
+     */
+    public LoginResponse issueTokens(User user) {
+        Instant now = Instant.now();
+        String accessToken = encode(user, TYPE_ACCESS, now, accessTokenTtl);
+        String refreshToken = encode(user, TYPE_REFRESH, now, refreshTokenTtl);
+        return new LoginResponse(accessToken, refreshToken, accessTokenTtl.toSeconds(),
+                UserResponse.fromEntity(user));
+    }
+
+    private String encode(User user, String type, Instant now, Duration ttl) {
+        JwtClaimsSet claims = JwtClaimsSet.builder().issuer(ISSUER).id(UUID.randomUUID().toString())
+                .subject(user.getUsername()).issuedAt(now).expiresAt(now.plus(ttl))
+                .claim(CLAIM_USER_ID, user.getId()).claim(CLAIM_ROLE, user.getRole().name())
+                .claim(CLAIM_VERSION, user.getTokenVersion()).claim(CLAIM_TYPE, type).build();
+        JwsHeader header = JwsHeader.with(MacAlgorithm.HS256).build();
+        return encoder.encode(JwtEncoderParameters.from(header, claims)).getTokenValue();
+    }
+
+    /**
+     * Prüft ein Refresh-Token und liefert die User-ID daraus.
+     *
+     * @param refreshToken das Refresh-Token
+     * @return die ID des Users, für den das Token ausgestellt wurde
+     * @throws org.springframework.security.oauth2.jwt.JwtException wenn das
+     * Token ungültig, abgelaufen oder widerrufen ist
+     */
+    public long verifyRefreshToken(String refreshToken) {
+        Jwt jwt = refreshTokenDecoder.decode(refreshToken);
+        return ((Number) jwt.getClaim(CLAIM_USER_ID)).longValue();
+    }
+
+    /**
+     * Widerruft alle bisher ausgestellten Tokens des Users, indem seine
+     * Token-Version erhöht wird. Muss innerhalb einer Transaktion mit einer
+     * verwalteten Entität aufgerufen werden; der In-Memory-Stand folgt nach dem
+     * Commit.
+     *
+     * @param user der betroffene {@link User}
+     */
+    public void revokeTokens(User user) {
+        int version = user.getTokenVersion() + 1;
+        user.setTokenVersion(version);
+        Long id = user.getId();
+        afterCommit(() -> tokenVersions.put(id, version));
+        log.info("Revoked tokens of user {} (token version {})", id, version);
+    }
+
+    /**
+     * Vergisst den Stand eines gelöschten Users, sodass seine Tokens beim
+     * nächsten Request abgewiesen werden.
+     *
+     * @param userId die ID des gelöschten Users
+     */
+    public void forgetUser(Long userId) {
+        afterCommit(() -> tokenVersions.put(userId, NO_VERSION));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package de.dhbw.webenginspection.service;
+
+import de.dhbw.webenginspection.dto.TypeaheadSuggestion;
+import de.dhbw.webenginspection.entity.Checklist;
+import de.dhbw.webenginspection.entity.User;
+import de.dhbw.webenginspection.repository.ChecklistRepository;
+import de.dhbw.webenginspection.repository.InspectionRepository;
+import de.dhbw.webenginspection.repository.UserRepository;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.text.Normalizer;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-Memory-Index für die Typeahead-Vorschläge in Formularen (Checklisten,
+ * Anlagennamen, Benutzer). Vorschläge werden zuerst über Wortanfänge gesucht
+ * (sortierter Wort-Index, Präfixbereich statt Scan) und, falls das nicht
+ * genügend Treffer liefert, über gemeinsame Trigramme ergänzt, sodass auch
+ * Teilwörter und kleine Tippfehler gefunden werden.
+ *
+ * Der Index wird beim Start aus der Datenbank geladen und anschließend von
+ * {@link ChecklistService}, {@link InspectionService} und {@link UserService}
+ * nach dem Commit der jeweiligen Transaktion aktualisiert. Anlagennamen werden
+ * nur hinzugefügt: ein Name, der nirgends mehr verwendet wird, bleibt bis zum
+ * nächsten Start als Vorschlag erhalten.
+ */
+@Component
+public class TypeaheadIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(TypeaheadIndex.class);
+
+    /**
+     * Obergrenze für die Anzahl der Vorschläge pro Anfrage.
+     */
+    public static final int MAX_LIMIT = 50;
+
+    // Mindestanteil gemeinsamer Trigramme für einen unscharfen Treffer
+    private static final double MIN_TRIGRAM_SIMILARITY = 0.5;
+
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private final Map<TypeaheadSuggestion.Type, Segment> segments = new EnumMap<>(TypeaheadSuggestion.Type.class);
+
+    private final ChecklistRepository checklistRepository;
+
+    private final InspectionRepository inspectionRepository;
+
+    private final UserRepository userRepository;
+
+    public TypeaheadIndex(ChecklistRepository checklistRepository, InspectionRepository inspectionRepository,
+            UserRepository userRepository) {
+        this.checklistRepository = checklistRepository;
+        this.inspectionRepository = inspectionRepository;
+        this.userRepository = userRepository;
+        for (TypeaheadSuggestion.Type type : TypeaheadSuggestion.Type.values()) {
+            segments.put(type, new Segment());
+        }
+    }
+
+    /**
+     * Lädt alle Checklisten, Anlagennamen und Benutzer aus der Datenbank.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        for (Checklist checklist : checklistRepository.findByLatestTrueAndArchivedFalseOrderById()) {
+            putChecklistNow(checklist.getId(), checklist.getName(), checklist.getPlantName());
+        }
+        for (String plantName : inspectionRepository.findDistinctPlantNames()) {
+            addPlantNow(plantName);
+        }
+        for (User user : userRepository.findAll()) {
+            putUserNow(user.getId(), user.getDisplayName(), user.getUsername());
+        }
+        log.info("Loaded typeahead index ({} checklists, {} plants, {} users)",
+                segments.get(TypeaheadSuggestion.Type.CHECKLIST).size(),
+                segments.get(TypeaheadSuggestion.Type.PLANT).size(), segments.get(TypeaheadSuggestion.Type.USER).size());
+    }
+
+    // --- Pflege (wirksam nach dem Commit der laufenden Transaktion) ---
+
+    public void putChecklist(Checklist checklist) {
+        Long id = checklist.getId();
+        String name = checklist.getName();
+        String plantName = checklist.getPlantName();
+        afterCommit(() -> putChecklistNow(id, name, plantName));
+    }
+
+    public void removeChecklist(Long id) {
+        afterCommit(() -> segments.get(TypeaheadSuggestion.Type.CHECKLIST).remove(String.valueOf(id)));
+    }
+
+    public void addPlant(String plantName) {
+        afterCommit(() -> addPlantNow(plantName));
+    }
+
+    public void putUser(User user) {
+        Long id = user.getId();
+        String displayName = user.getDisplayName();
+        String username = user.getUsername();
+        afterCommit(() -> putUserNow(id, displayName, username));
+    }
+
+    public void removeUser(Long id) {
+        afterCommit(() -> segments.get(TypeaheadSuggestion.Type.USER).remove(String.valueOf(id)));
+    }
+
+    private void putChecklistNow(Long id, String name, String plantName) {
+        if (name != null) {
+            segments.get(TypeaheadSuggestion.Type.CHECKLIST).put(String.valueOf(id),
+                    new TypeaheadSuggestion(TypeaheadSuggestion.Type.CHECKLIST, id, name, plantName));
+        }
+        addPlantNow(plantName);
+    }
+
+    private void addPlantNow(String plantName) {
+        if (plantName != null && !plantName.isBlank()) {
+            segments.get(TypeaheadSuggestion.Type.PLANT).put(normalize(plantName),
+                    new TypeaheadSuggestion(TypeaheadSuggestion.Type.PLANT, null, plantName, null));
+        }
+    }
+
+    private void putUserNow(Long id, String displayName, String username) {
+        segments.get(TypeaheadSuggestion.Type.USER).put(String.valueOf(id),
+                new TypeaheadSuggestion(TypeaheadSuggestion.Type.USER, id, displayName, username));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // --- Abfrage ---
+
+    /**
+     * Liefert die besten Vorschläge einer Art für die Eingabe.
+     *
+     * @param type die Art der Vorschläge
+     * @param query die bisherige Eingabe
+     * @param limit maximale Anzahl an Vorschlägen (1 bis {@value #MAX_LIMIT})
+     * @return die Vorschläge, beste zuerst (leer bei leerer Eingabe)
+     */
+    public List<TypeaheadSuggestion> suggest(TypeaheadSuggestion.Type type, String query, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        return segments.get(type).query(normalized, Math.max(1, Math.min(limit, MAX_LIMIT)));
+    }
+
+    /**
+     * Kleinschreibung, ohne Akzente/Umlaut-Punkte, Wörter durch ein einzelnes
+     * Leerzeichen getrennt.
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String stripped = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return WORD_SEPARATOR.matcher(stripped.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    static Set<String> trigrams(String normalized) {
+        String padded = " " + normalized + " ";
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    /**
+     * Ein indizierter Eintrag mit vorberechneter Normalform.
+     */
+    private record Entry(TypeaheadSuggestion suggestion, String normalized, String[] words, Set<String> trigrams) {
+    }
+
+    /**
+     * Ein Kandidat mit Rang (kleiner = besser): 0 = Eingabe ist Anfang des
+     * Labels, 1 = alle Eingabewörter sind Wortanfänge, 2 = Trigramm-Treffer.
+     */
+    private record Candidate(Entry entry, int tier, double similarity) {
+    }
+
+    private static final Comparator<Candidate> RANKING = Comparator.comparingInt(Candidate::tier)
+            .thenComparing(Comparator.comparingDouble(Candidate::similarity).reversed())
+            .thenComparingInt(c -> c.entry().normalized().length())
+            .thenComparing(c -> c.entry().normalized());
+
+    /**
+     * Index einer Vorschlagsart. Lesezugriffe laufen parallel, Änderungen
+     * exklusiv.
+     */
+    private static final class Segment {
+
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        private final Map<String, Entry> entries = new HashMap<>();
+
+        // Wort -> Schlüssel der Einträge, die das Wort enthalten (sortiert für Präfixbereiche)
+        private final NavigableMap<String, Set<String>> words = new TreeMap<>();
+
+        private final Map<String, Set<String>> trigrams = new HashMap<>();
+
+        int size() {
+            lock.readLock().lock();
+            try {
+                return entries.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        void put(String key, TypeaheadSuggestion suggestion) {
+            String normalized = normalize(suggestion.getLabel());
+            Entry entry = new Entry(suggestion, normalized, normalized.split(" "), trigrams(normalized));
+            lock.writeLock().lock();
+            try {
+                removeLocked(key);
+                entries.put(key, entry);
+                for (String word : entry.words()) {
+                    words.computeIfAbsent(word, w -> new HashSet<>()).add(key);
+                }
+                for (String trigram : entry.trigrams()) {
+                    trigrams.computeIfAbsent(trigram, t -> new HashSet<>()).add(key);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(String key) {
+            lock.writeLock().lock();
+            try {
+                removeLocked(key);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void removeLocked(String key) {
+            Entry old = entries.remove(key);
+            if (old == null) {
+                return;
+            }
+            for (String word : old.words()) {
+                removeFrom(words, word, key);
+            }
+            for (String trigram : old.trigrams()) {
+                removeFrom(trigrams, trigram, key);
+            }
+        }
+
+        private static void removeFrom(Map<String, Set<String>> index, String token, String key) {
+            Set<String> keys = index.get(token);
+            if (keys != null) {
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    index.remove(token);
+                }
+            }
+        }
+
+        List<TypeaheadSuggestion> query(String normalized, int limit) {
+            String[] queryWords = normalized.split(" ");
+            lock.readLock().lock();
+            try {
+                Map<String, Candidate> candidates = new HashMap<>();
+
+                // 1. Wortanfänge: Kandidaten über das erste Eingabewort, dann
+                // prüfen, ob jedes Eingabewort Anfang eines Wortes ist
+                String first = queryWords[0];
+                for (Set<String> keys : words.subMap(first, true, first + Character.MAX_VALUE, false).values()) {
+                    for (String key : keys) {
+                        Entry entry = entries.get(key);
+                        if (!candidates.containsKey(key) && matchesAllPrefixes(entry, queryWords)) {
+                            candidates.put(key, new Candidate(entry, entry.normalized().startsWith(normalized) ? 0 : 1,
+                                    1.0));
+                        }
+                    }
+                }
+
+                // 2. Trigramme für Teilwörter und Tippfehler
+                if (candidates.size() < limit && normalized.length() >= 3) {
+                    Set<String> queryTrigrams = trigrams(normalized);
+                    Map<String, Integer> shared = new HashMap<>();
+                    for (String trigram : queryTrigrams) {
+                        for (String key : trigrams.getOrDefault(trigram, Set.of())) {
+                            shared.merge(key, 1, Integer::sum);
+                        }
+                    }
+                    shared.forEach((key, count) -> {
+                        double similarity = (double) count / queryTrigrams.size();
+                        if (similarity >= MIN_TRIGRAM_SIMILARITY && !candidates.containsKey(key)) {
+                            candidates.put(key, new Candidate(entries.get(key), 2, similarity));
+                        }
+                    });
+                }
+
+                return candidates.values().stream().sorted(RANKING).limit(limit)
+                        .map(c -> c.entry().suggestion()).toList();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private static boolean matchesAllPrefixes(Entry entry, String[] queryWords) {
+            boolean[] used = new boolean[entry.words().length];
+            for (String queryWord : queryWords) {
+                boolean found = false;
+                for (int i = 0; i < used.length; i++) {
+                    if (!used[i] && entry.words()[i].startsWith(queryWord)) {
+                        used[i] = true;
+                        found = true;
+                        break;
+                    }
+                }
+                if (!found) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
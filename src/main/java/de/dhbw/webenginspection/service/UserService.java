@@ -26,9 +26,16 @@ public class UserService {
 
     private final PasswordEncoder passwordEncoder;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    private final TypeaheadIndex typeaheadIndex;
+
+    private final TokenService tokenService;
+
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder,
+            TypeaheadIndex typeaheadIndex, TokenService tokenService) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.typeaheadIndex = typeaheadIndex;
+        this.tokenService = tokenService;
     }
 
     /**
@@ -54,6 +61,7 @@ public class UserService {
         String passwordHash = passwordEncoder.encode(rawPassword);
         User user = new User(username, displayName, passwordHash, role);
         User saved = userRepository.save(user);
+        typeaheadIndex.putUser(saved);
         log.info("Created new user with id {}", saved.getId());
 
         return saved;
@@ -121,6 +129,40 @@ public class UserService {
         return user;
     }
 
+    /**
+     * Ändert die Rolle eines Benutzers. Bereits ausgestellte Tokens tragen noch
+     * die alte Rolle und werden daher widerrufen.
+     *
+     * @param id die ID des Benutzers
+     * @param role die neue {@link UserRole}
+     * @return der aktualisierte {@link User}
+     * @throws IllegalArgumentException wenn kein Benutzer mit der ID existiert
+     */
+    public User changeRole(Long id, UserRole role) {
+        log.info("Changing role of user {} to {}", id, role);
+
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("User with id " + id + " not found"));
+        if (user.getRole() != role) {
+            user.setRole(role);
+            tokenService.revokeTokens(user);
+        }
+        return user;
+    }
+
+    /**
+     * Widerruft alle Tokens eines Benutzers (z.&nbsp;B. beim Logout).
+     *
+     * @param username der Benutzername
+     * @throws IllegalArgumentException wenn kein Benutzer mit dem Namen
+     * existiert
+     */
+    public void revokeTokens(String username) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new IllegalArgumentException("User " + username + " not found"));
+        tokenService.revokeTokens(user);
+    }
+
     /**
      * Löscht einen Benutzer anhand seiner ID.
      *
@@ -136,6 +178,8 @@ public class UserService {
         }
 
         userRepository.deleteById(id);
+        typeaheadIndex.removeUser(id);
+        tokenService.forgetUser(id);
         log.info("Deleted user with id {}", id);
     }
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+-- Mehrere Fotos je Prüfschritt. filename verweist wie inspection_step.photo_path
+-- auf eine Datei im Fotospeicher und zählt in photo_blob.ref_count mit.
+-- Beim Löschen eines Schritts entfernt die Datenbank seine Anhänge.
+
+create sequence step_attachment_seq start with 1 increment by 50;
+
+create table step_attachment (
+    id bigint not null primary key,
+    inspection_step_id bigint not null,
+    filename varchar(80) not null,
+    content_type varchar(32) not null,
+    size bigint not null,
+    created_at timestamp not null,
+    constraint fk_step_attachment_inspection_step foreign key (inspection_step_id)
+        references inspection_step (id) on delete cascade
+);
+
+create index idx_step_attachment_inspection_step on step_attachment (inspection_step_id);
+
+-- Nachzählen der Verweise
+create index idx_step_attachment_filename on step_attachment (filename);
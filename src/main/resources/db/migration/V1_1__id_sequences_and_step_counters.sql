@@ -0,0 +1,26 @@
+-- Umstieg von IDENTITY auf gepoolte Sequences (JDBC-Batching) und Zähler der
+-- Schrittergebnisse je Inspection. Läuft auf neuen wie auf per Baseline
+-- übernommenen Datenbanken.
+
+-- Ältere Datenbanken stammen aus der Zeit vor checklist.plant_name
+alter table checklist add column if not exists plant_name varchar(255);
+
+-- Die Sequences beginnen hinter der höchsten vorhandenen ID. Der gepoolte
+-- Optimizer vergibt (wert - 50, wert], daher eine volle Allokation Abstand.
+-- Die IDENTITY-Spalten bleiben bestehen, Hibernate setzt die IDs explizit.
+create sequence checklist_seq start with (select coalesce(max(id), 0) + 51 from checklist) increment by 50;
+create sequence checklist_step_seq start with (select coalesce(max(id), 0) + 51 from checklist_step) increment by 50;
+create sequence inspection_seq start with (select coalesce(max(id), 0) + 51 from inspection) increment by 50;
+create sequence inspection_step_seq start with (select coalesce(max(id), 0) + 51 from inspection_step) increment by 50;
+
+alter table inspection add column step_count bigint default 0 not null;
+alter table inspection add column passed_count bigint default 0 not null;
+alter table inspection add column failed_count bigint default 0 not null;
+alter table inspection add column not_applicable_count bigint default 0 not null;
+
+update inspection i set
+    step_count = (select count(*) from inspection_step s where s.inspection_id = i.id),
+    passed_count = (select count(*) from inspection_step s where s.inspection_id = i.id and s.status = 'PASSED'),
+    failed_count = (select count(*) from inspection_step s where s.inspection_id = i.id and s.status = 'FAILED'),
+    not_applicable_count = (select count(*) from inspection_step s
+        where s.inspection_id = i.id and s.status = 'NOT_APPLICABLE');
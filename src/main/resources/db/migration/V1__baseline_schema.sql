@@ -0,0 +1,56 @@
+-- Ausgangsschema, wie es Hibernate (ddl-auto=update) mit den ursprünglichen
+-- Entities erzeugt hat: IDENTITY-Spalten für alle IDs, Enums als H2-ENUM.
+-- Bestehende Datenbanken werden per baseline-on-migrate auf Version 1 gesetzt
+-- und führen dieses Skript nicht aus; alles Weitere (Sequences, Zähler) folgt
+-- ab V1.1 für neue und bestehende Datenbanken gleichermaßen.
+
+create table users (
+    id bigint generated by default as identity primary key,
+    display_name varchar(255) not null,
+    password_hash varchar(255) not null,
+    role enum ('ADMIN', 'INSPECTOR') not null,
+    username varchar(255) not null,
+    constraint uk_users_username unique (username)
+);
+
+create table checklist (
+    id bigint generated by default as identity primary key,
+    name varchar(255),
+    plant_name varchar(255),
+    recommendations varchar(2000)
+);
+
+create table checklist_step (
+    id bigint generated by default as identity primary key,
+    description varchar(1000) not null,
+    order_index integer,
+    requirement varchar(1000),
+    checklist_id bigint,
+    constraint fk_checklist_step_checklist foreign key (checklist_id) references checklist (id)
+);
+
+create table inspection (
+    id bigint generated by default as identity primary key,
+    finished_at timestamp(6),
+    general_comment varchar(2000),
+    planned_date timestamp(6),
+    plant_name varchar(255),
+    started_at timestamp(6),
+    status enum ('COMPLETED', 'IN_PROGRESS', 'PLANNED') not null,
+    title varchar(255),
+    assigned_inspector_id bigint,
+    checklist_id bigint,
+    constraint fk_inspection_assigned_inspector foreign key (assigned_inspector_id) references users (id),
+    constraint fk_inspection_checklist foreign key (checklist_id) references checklist (id)
+);
+
+create table inspection_step (
+    id bigint generated by default as identity primary key,
+    comment varchar(2000),
+    photo_path varchar(255),
+    status enum ('FAILED', 'NOT_APPLICABLE', 'PASSED'),
+    checklist_step_id bigint,
+    inspection_id bigint,
+    constraint fk_inspection_step_checklist_step foreign key (checklist_step_id) references checklist_step (id),
+    constraint fk_inspection_step_inspection foreign key (inspection_id) references inspection (id)
+);
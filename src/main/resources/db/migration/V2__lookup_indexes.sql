@@ -0,0 +1,20 @@
+-- Zusammengesetzte Indizes passend zu den häufigsten Zugriffspfaden.
+
+-- InspectionRepository.findByAssignedInspectorId / findSummariesByAssignedInspectorId
+-- (Filter auf den Inspektor, sortiert nach plannedDate, id)
+create index idx_inspection_inspector_planned on inspection (assigned_inspector_id, planned_date, id);
+
+-- InspectionRepository.findByPlannedDateBetween und Keyset-Sortierung der Liste
+create index idx_inspection_planned on inspection (planned_date, id);
+
+-- Statusfilter der Liste und Dashboard-Kennzahlen (findByStatus, countByStatus)
+create index idx_inspection_status_planned on inspection (status, planned_date, id);
+
+-- InspectionRepository.countByChecklistId
+create index idx_inspection_checklist on inspection (checklist_id);
+
+-- InspectionStepRepository.findByInspectionIdAndStatus (und findByInspectionId über das Präfix)
+create index idx_inspection_step_inspection_status on inspection_step (inspection_id, status);
+
+-- ChecklistStepRepository.findByChecklistIdOrderByOrderIndex
+create index idx_checklist_step_checklist_order on checklist_step (checklist_id, order_index);
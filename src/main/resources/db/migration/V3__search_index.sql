@@ -0,0 +1,19 @@
+-- Invertierter Index für die Volltextsuche (gepflegt von SearchIndexService).
+-- Ein Dokument (doc_type, doc_id) ist ein einzelnes Textfeld bzw. eine
+-- Checklist; owner_type/owner_id ist das Objekt, das als Treffer geliefert wird.
+
+create table search_term (
+    term varchar(100) not null,
+    doc_type varchar(20) not null,
+    doc_id bigint not null,
+    owner_type varchar(20) not null,
+    owner_id bigint not null,
+    frequency integer not null,
+    primary key (term, doc_type, doc_id)
+);
+
+-- Neuindizieren/Entfernen eines Dokuments
+create index idx_search_term_doc on search_term (doc_type, doc_id);
+
+-- Entfernen aller Dokumente eines Treffers (z. B. beim Löschen einer Inspection)
+create index idx_search_term_owner on search_term (owner_type, owner_id);
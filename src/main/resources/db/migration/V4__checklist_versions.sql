@@ -0,0 +1,15 @@
+-- Versionierte Checklisten: Eine von Inspektionen verwendete Version (frozen)
+-- wird nicht mehr verändert; Änderungen legen eine neue Version derselben
+-- Serie an. Gelöschte, aber noch referenzierte Checklisten werden archiviert.
+
+alter table checklist add column series_id bigint;
+alter table checklist add column version_number integer default 1 not null;
+alter table checklist add column frozen boolean default false not null;
+alter table checklist add column latest boolean default true not null;
+alter table checklist add column archived boolean default false not null;
+
+update checklist set series_id = id;
+update checklist set frozen = true where id in (select checklist_id from inspection);
+
+create index idx_checklist_series on checklist (series_id, version_number);
+create index idx_checklist_latest on checklist (latest, archived);
@@ -0,0 +1,3 @@
+-- Version der ausgegebenen Tokens je Benutzer; eine Erhöhung widerruft alle
+-- bisherigen Access- und Refresh-Tokens des Benutzers.
+alter table users add column token_version integer default 0 not null;
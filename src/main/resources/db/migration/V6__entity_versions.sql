@@ -0,0 +1,8 @@
+-- Versionsspalten für optimistisches Locking und ETags. Die Version einer
+-- Checklist bzw. Inspection steigt auch bei Änderungen an ihren Schritten.
+
+alter table checklist add column version bigint default 0 not null;
+alter table checklist add column last_modified timestamp;
+alter table checklist_step add column version bigint default 0 not null;
+alter table inspection add column version bigint default 0 not null;
+alter table inspection_step add column version bigint default 0 not null;
@@ -0,0 +1,27 @@
+-- Änderungsnummern für die Delta-Synchronisation (GET /api/sync). Jede
+-- angelegte oder geänderte Zeile erhält eine neue Nummer aus change_seq
+-- (Blöcke von 50, siehe ChangeSequence). Bestandsdaten erhalten 1 und sind
+-- damit nur in der ersten, vollständigen Synchronisation enthalten.
+
+create sequence change_seq start with 2 increment by 50;
+
+alter table checklist add column change_seq bigint default 1 not null;
+alter table inspection add column change_seq bigint default 1 not null;
+alter table inspection_step add column change_seq bigint default 1 not null;
+
+create index idx_checklist_change_seq on checklist (change_seq);
+create index idx_inspection_change_seq on inspection (change_seq);
+create index idx_inspection_step_change_seq on inspection_step (change_seq);
+
+-- Gelöschte Zeilen, damit Clients sie bei der nächsten Synchronisation
+-- entfernen. inspector_id ist der Inspektor der betroffenen Inspection
+-- (null bei Checklisten).
+create table sync_tombstone (
+    id bigint generated by default as identity primary key,
+    entity_type varchar(32) not null,
+    entity_id bigint not null,
+    inspector_id bigint,
+    change_seq bigint not null
+);
+
+create index idx_sync_tombstone_change_seq on sync_tombstone (change_seq);
@@ -0,0 +1,14 @@
+-- Bereits verarbeitete Operationen aus Offline-Logs (POST /api/sync/operations),
+-- damit ein wiederholter Upload nichts doppelt anwendet. Die Schlüssel vergibt
+-- der Client, sie sind daher nur je User eindeutig.
+
+create table client_operation (
+    user_id bigint not null,
+    idempotency_key varchar(100) not null,
+    outcome varchar(16) not null,
+    processed_at timestamp not null,
+    primary key (user_id, idempotency_key)
+);
+
+-- Aufräumen alter Schlüssel
+create index idx_client_operation_processed_at on client_operation (processed_at);
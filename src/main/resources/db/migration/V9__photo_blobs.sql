@@ -0,0 +1,21 @@
+-- Inhaltsadressierter Fotospeicher: jede Datei liegt genau einmal unter ihrem
+-- SHA-256-Hash im Upload-Verzeichnis. inspection_step.photo_path verweist auf
+-- den Dateinamen; ref_count zählt diese Verweise. Dateien ohne Verweis werden
+-- nach einer Karenzzeit vom Aufräum-Job entfernt.
+
+create table photo_blob (
+    sha256 char(64) not null primary key,
+    filename varchar(80) not null,
+    content_type varchar(32) not null,
+    size bigint not null,
+    ref_count int default 0 not null,
+    created_at timestamp not null,
+    updated_at timestamp not null,
+    constraint uk_photo_blob_filename unique (filename)
+);
+
+-- Aufräumen nicht mehr referenzierter Dateien
+create index idx_photo_blob_ref_count on photo_blob (ref_count, updated_at);
+
+-- Nachzählen der Verweise
+create index idx_inspection_step_photo_path on inspection_step (photo_path);
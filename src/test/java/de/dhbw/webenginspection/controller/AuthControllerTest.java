@@ -1,5 +1,6 @@
 package de.dhbw.webenginspection.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import de.dhbw.webenginspection.dto.LoginRequest;
 import de.dhbw.webenginspection.entity.UserRole;
@@ -47,4 +48,35 @@ class AuthControllerTest {
     void testGetMeNoParam() throws Exception {
         mockMvc.perform(get("/api/auth/me")).andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testLoginIssuesBearerTokens() throws Exception {
+        userService.createUser("token.user", "Token User", "secret", UserRole.ADMIN);
+        LoginRequest req = new LoginRequest();
+        req.setUsername("token.user");
+        req.setPassword("secret");
+
+        String body = mockMvc
+                .perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(req)))
+                .andExpect(status().isOk()).andExpect(jsonPath("$.tokenType").value("Bearer"))
+                .andExpect(jsonPath("$.user.username").value("token.user")).andReturn().getResponse()
+                .getContentAsString();
+        JsonNode tokens = objectMapper.readTree(body);
+        String accessToken = tokens.get("accessToken").asText();
+        Long userId = tokens.get("user").get("id").asLong();
+
+        mockMvc.perform(get("/api/users/" + userId).header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/users/" + userId)).andExpect(status().isUnauthorized());
+        // Refresh-Token wird nicht als Access-Token akzeptiert
+        mockMvc.perform(get("/api/users/" + userId).header("Authorization",
+                "Bearer " + tokens.get("refreshToken").asText())).andExpect(status().isUnauthorized());
+
+        mockMvc.perform(post("/api/auth/refresh").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"refreshToken\": \"" + tokens.get("refreshToken").asText() + "\"}"))
+                .andExpect(status().isOk()).andExpect(jsonPath("$.accessToken").isString());
+        mockMvc.perform(post("/api/auth/refresh").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"refreshToken\": \"" + accessToken + "\"}")).andExpect(status().isUnauthorized());
+    }
+}
@@ -0,0 +1,32 @@
+package de.dhbw.webenginspection.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+class CacheControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testGetStatsListsChecklistRegions() throws Exception {
+        mockMvc.perform(get("/api/cache/stats")).andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.region == 'checklist')].hitCount").exists())
+                .andExpect(jsonPath("$[?(@.region == 'checklist-step')].missCount").exists())
+                .andExpect(jsonPath("$[?(@.region == 'default-query-results-region')]").exists());
+    }
+}
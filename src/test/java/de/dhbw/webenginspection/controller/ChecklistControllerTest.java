@@ -1,7 +1,15 @@
 package de.dhbw.webenginspection.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import de.dhbw.webenginspection.dto.InspectionCreateRequest;
 import de.dhbw.webenginspection.entity.Checklist;
+import de.dhbw.webenginspection.entity.ChecklistStep;
+import de.dhbw.webenginspection.entity.Inspection;
+import de.dhbw.webenginspection.entity.UserRole;
+import de.dhbw.webenginspection.service.ChecklistService;
+import de.dhbw.webenginspection.service.InspectionService;
+import de.dhbw.webenginspection.service.UserService;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -12,6 +20,8 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -27,6 +37,18 @@ class ChecklistControllerTest {
         @Autowired
         private ObjectMapper objectMapper;
 
+        @Autowired
+        private ChecklistService checklistService;
+
+        @Autowired
+        private InspectionService inspectionService;
+
+        @Autowired
+        private UserService userService;
+
+        @Autowired
+        private EntityManager entityManager;
+
         @Test
         @WithMockUser(roles = "ADMIN")
         void testCreateChecklist() throws Exception {
@@ -43,4 +65,114 @@ class ChecklistControllerTest {
         void testGetAll() throws Exception {
                 mockMvc.perform(get("/api/checklists")).andExpect(status().isOk());
         }
-}
\ No newline at end of file
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        void testUpdateUnusedChecklistInPlace() throws Exception {
+                Checklist checklist = createChecklistWithSteps("P-Diff");
+                Long first = checklist.getSteps().get(0).getId();
+                Long second = checklist.getSteps().get(1).getId();
+                entityManager.flush();
+                entityManager.clear();
+
+                String body = """
+                                {"name": "C-P-Diff", "plantName": "P-Diff", "steps": [
+                                  {"id": %d, "description": "S1 geändert", "orderIndex": 1},
+                                  {"id": %d, "description": "S2", "orderIndex": 2},
+                                  {"description": "S3", "orderIndex": 3}
+                                ]}
+                                """.formatted(first, second);
+
+                mockMvc.perform(put("/api/checklists/" + checklist.getId()).contentType(MediaType.APPLICATION_JSON)
+                                .content(body)).andExpect(status().isOk())
+                                .andExpect(jsonPath("$.id").value(checklist.getId()))
+                                .andExpect(jsonPath("$.versionNumber").value(1))
+                                .andExpect(jsonPath("$.steps.length()").value(3))
+                                .andExpect(jsonPath("$.steps[?(@.id == %d)].description", first)
+                                                .value("S1 geändert"));
+        }
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        void testUpdateUsedChecklistCreatesNewVersion() throws Exception {
+                Inspection inspection = createInspection("P-Version");
+                Checklist checklist = inspection.getChecklist();
+                Long first = checklist.getSteps().get(0).getId();
+                entityManager.flush();
+                entityManager.clear();
+
+                String body = """
+                                {"name": "C-P-Version", "plantName": "P-Version", "steps": [
+                                  {"id": %d, "description": "S1 geändert", "orderIndex": 1}
+                                ]}
+                                """.formatted(first);
+
+                mockMvc.perform(put("/api/checklists/" + checklist.getId()).contentType(MediaType.APPLICATION_JSON)
+                                .content(body)).andExpect(status().isOk())
+                                .andExpect(jsonPath("$.id").value(not(checklist.getId().intValue())))
+                                .andExpect(jsonPath("$.seriesId").value(checklist.getId()))
+                                .andExpect(jsonPath("$.versionNumber").value(2))
+                                .andExpect(jsonPath("$.steps.length()").value(1));
+                entityManager.flush();
+                entityManager.clear();
+
+                // Die Inspection zeigt weiterhin die Version, auf der sie angelegt wurde
+                mockMvc.perform(get("/api/inspections/" + inspection.getId() + "/detail"))
+                                .andExpect(status().isOk()).andExpect(jsonPath("$.steps.length()").value(2))
+                                .andExpect(jsonPath("$.steps[0].checklistStep.description").value("S1"));
+
+                // Die alte Version kann nicht mehr geändert werden
+                mockMvc.perform(put("/api/checklists/" + checklist.getId()).contentType(MediaType.APPLICATION_JSON)
+                                .content(body)).andExpect(status().isBadRequest());
+        }
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        void testUsedChecklistIsServedWithPermanentETag() throws Exception {
+                Checklist checklist = createInspection("P-ETag").getChecklist();
+                entityManager.flush();
+                String etag = "\"checklist-" + checklist.getId() + "-" + checklist.getVersion() + "\"";
+
+                mockMvc.perform(get("/api/checklists/" + checklist.getId())).andExpect(status().isOk())
+                                .andExpect(header().string("ETag", etag))
+                                .andExpect(header().string("Cache-Control", containsString("immutable")));
+                mockMvc.perform(get("/api/checklists/" + checklist.getId()).header("If-None-Match", etag))
+                                .andExpect(status().isNotModified());
+        }
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        void testDeleteUsedChecklistArchivesIt() throws Exception {
+                Inspection inspection = createInspection("P-Archive");
+                Long checklistId = inspection.getChecklist().getId();
+                entityManager.flush();
+                entityManager.clear();
+
+                mockMvc.perform(delete("/api/checklists/" + checklistId)).andExpect(status().isNoContent());
+                entityManager.flush();
+                entityManager.clear();
+
+                mockMvc.perform(get("/api/checklists")).andExpect(status().isOk())
+                                .andExpect(jsonPath("$[?(@.id == %d)]", checklistId).isEmpty());
+                mockMvc.perform(get("/api/inspections/" + inspection.getId() + "/detail"))
+                                .andExpect(status().isOk()).andExpect(jsonPath("$.checklistId").value(checklistId));
+        }
+
+        private Checklist createChecklistWithSteps(String plantName) {
+                Checklist checklist = new Checklist("C-" + plantName, plantName, null);
+                checklist.addStep(new ChecklistStep("S1", null, 1));
+                checklist.addStep(new ChecklistStep("S2", null, 2));
+                return checklistService.createChecklist(checklist);
+        }
+
+        private Inspection createInspection(String plantName) {
+                Checklist checklist = createChecklistWithSteps(plantName);
+
+                InspectionCreateRequest request = new InspectionCreateRequest();
+                request.setChecklistId(checklist.getId());
+                request.setPlantName(plantName);
+                request.setAssignedInspectorId(userService
+                                .createUser("diff.user", "Diff User", "p", UserRole.INSPECTOR).getId());
+                return inspectionService.createInspectionFromChecklist(request);
+        }
+}
@@ -1,14 +1,26 @@
 package de.dhbw.webenginspection.controller;
 
+import de.dhbw.webenginspection.dto.InspectionCreateRequest;
+import de.dhbw.webenginspection.entity.Checklist;
+import de.dhbw.webenginspection.entity.ChecklistStep;
+import de.dhbw.webenginspection.entity.Inspection;
+import de.dhbw.webenginspection.entity.User;
+import de.dhbw.webenginspection.entity.UserRole;
+import de.dhbw.webenginspection.service.ChecklistService;
+import de.dhbw.webenginspection.service.InspectionService;
+import de.dhbw.webenginspection.service.UserService;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -21,9 +33,62 @@ class ChecklistStepControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private ChecklistService checklistService;
+
+    @Autowired
+    private InspectionService inspectionService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private EntityManager entityManager;
+
     @Test
     @WithMockUser(roles = "INSPECTOR")
     void testGetSteps() throws Exception {
         mockMvc.perform(get("/api/checklists/999/steps")).andExpect(status().isOk());
     }
-}
\ No newline at end of file
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testCachedStepListFollowsCreateAndDelete() throws Exception {
+        Checklist checklist = new Checklist("C-StepCache", "P-StepCache", null);
+        checklist.addStep(new ChecklistStep("S1", null, 1));
+        checklist = checklistService.createChecklist(checklist);
+        Long checklistId = checklist.getId();
+        Long firstStepId = checklist.getSteps().get(0).getId();
+        clearSession();
+
+        // Legt die Schrittliste im Second-Level-Cache ab
+        mockMvc.perform(get("/api/checklists/" + checklistId)).andExpect(jsonPath("$.steps.length()").value(1));
+        clearSession();
+
+        mockMvc.perform(post("/api/checklists/" + checklistId + "/steps").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"description\": \"S2\", \"orderIndex\": 2}")).andExpect(status().isCreated());
+        clearSession();
+        mockMvc.perform(get("/api/checklists/" + checklistId)).andExpect(jsonPath("$.steps.length()").value(2));
+        clearSession();
+
+        mockMvc.perform(delete("/api/checklist-steps/" + firstStepId)).andExpect(status().isNoContent());
+        clearSession();
+        mockMvc.perform(get("/api/checklists/" + checklistId)).andExpect(jsonPath("$.steps.length()").value(1))
+                .andExpect(jsonPath("$.steps[0].description").value("S2"));
+        clearSession();
+
+        User inspector = userService.createUser("step.cache.user", "Step Cache User", "p", UserRole.INSPECTOR);
+        InspectionCreateRequest request = new InspectionCreateRequest();
+        request.setChecklistId(checklistId);
+        request.setAssignedInspectorId(inspector.getId());
+        Inspection inspection = inspectionService.createInspectionFromChecklist(request, true);
+        assertEquals(1, inspection.getSteps().size());
+        assertEquals("S2", inspection.getSteps().get(0).getChecklistStep().getDescription());
+    }
+
+    // Jeder Request liest danach wie in Produktion aus dem Second-Level-Cache
+    private void clearSession() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
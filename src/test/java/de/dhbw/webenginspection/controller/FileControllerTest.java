@@ -0,0 +1,157 @@
+package de.dhbw.webenginspection.controller;
+
+import de.dhbw.webenginspection.dto.StoredPhoto;
+import de.dhbw.webenginspection.service.PhotoLayout;
+import de.dhbw.webenginspection.service.PhotoLayoutMigrationJob;
+import de.dhbw.webenginspection.service.PhotoStorageService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+class FileControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PhotoStorageService photoStorageService;
+
+    @Autowired
+    private PhotoLayout photoLayout;
+
+    @Autowired
+    private PhotoLayoutMigrationJob photoLayoutMigrationJob;
+
+    @Test
+    void testGetFileSupportsCachingAndRanges() throws Exception {
+        byte[] png = new byte[2048];
+        System.arraycopy(new byte[] { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' }, 0, png, 0, 8);
+        png[2047] = 42;
+        StoredPhoto photo = photoStorageService.store(new ByteArrayInputStream(png));
+        String etag = "\"" + photo.getSha256() + "\"";
+
+        mockMvc.perform(get("/api/files/" + photo.getFilename())).andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("immutable")))
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/png")).andExpect(content().bytes(png));
+
+        mockMvc.perform(get("/api/files/" + photo.getFilename()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(get("/api/files/" + photo.getFilename()).header(HttpHeaders.RANGE, "bytes=1024-"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 1024-2047/2048"))
+                .andExpect(content().bytes(Arrays.copyOfRange(png, 1024, 2048)));
+
+        mockMvc.perform(get("/api/files/" + photo.getFilename()).header(HttpHeaders.RANGE, "bytes=4096-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable());
+
+        mockMvc.perform(get("/api/files/unknown.png")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/files/" + photo.getFilename()).param("size", "huge"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testThumbFallsBackToOriginalUntilDerivativeExists() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BufferedImage image = new BufferedImage(960, 640, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(0, 0, (int) System.nanoTime());
+        ImageIO.write(image, "jpg", out);
+        byte[] jpeg = out.toByteArray();
+        String sha256 = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(jpeg));
+        String filename = sha256 + ".jpg";
+
+        // Direkt ablegen statt store(), damit die Variante noch nicht eingereiht ist
+        Path original = photoLayout.pathOf(filename);
+        Files.createDirectories(original.getParent());
+        Files.write(original, jpeg);
+
+        mockMvc.perform(get("/api/files/" + filename).param("size", "thumb")).andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("no-cache")))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + sha256 + "\""))
+                .andExpect(content().bytes(jpeg));
+
+        // Die Variante entsteht im Hintergrund
+        long deadline = System.currentTimeMillis() + 10_000;
+        MvcResult result;
+        do {
+            Thread.sleep(20);
+            result = mockMvc.perform(get("/api/files/" + filename).param("size", "thumb")).andReturn();
+        } while (!result.getResponse().getHeader(HttpHeaders.CACHE_CONTROL).contains("immutable")
+                && System.currentTimeMillis() < deadline);
+
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        assertThat(result.getResponse().getHeader(HttpHeaders.CACHE_CONTROL)).contains("immutable");
+        assertThat(result.getResponse().getHeader(HttpHeaders.ETAG)).isEqualTo("\"" + sha256 + "-thumb\"");
+        assertThat(result.getResponse().getContentType()).isEqualTo("image/jpeg");
+        BufferedImage thumb = ImageIO.read(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()));
+        assertThat(thumb.getWidth()).isEqualTo(480);
+        assertThat(thumb.getHeight()).isEqualTo(320);
+    }
+
+    @Test
+    void testSendfileIsNotUsedForDeletedFile() throws Exception {
+        byte[] png = new byte[512];
+        System.arraycopy(new byte[] { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' }, 0, png, 0, 8);
+        png[511] = (byte) System.nanoTime();
+        StoredPhoto photo = photoStorageService.store(new ByteArrayInputStream(png));
+
+        // Die Metadaten landen im Cache, Tomcat bekommt den Pfad für sendfile
+        mockMvc.perform(get("/api/files/" + photo.getFilename()).requestAttr("org.apache.tomcat.sendfile.support",
+                true)).andExpect(status().isOk())
+                .andExpect(request().attribute("org.apache.tomcat.sendfile.filename",
+                        photoLayout.pathOf(photo.getFilename()).toString()));
+
+        Files.delete(photoLayout.pathOf(photo.getFilename()));
+        mockMvc.perform(get("/api/files/" + photo.getFilename()).requestAttr("org.apache.tomcat.sendfile.support",
+                true)).andExpect(status().isNotFound())
+                .andExpect(request().attribute("org.apache.tomcat.sendfile.filename", nullValue()));
+    }
+
+    @Test
+    void testFlatFilesResolveBeforeAndAfterMigration() throws Exception {
+        byte[] png = new byte[256];
+        System.arraycopy(new byte[] { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' }, 0, png, 0, 8);
+        png[255] = (byte) System.nanoTime();
+        String filename = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(png)) + ".png";
+
+        // Datei wie vor Einführung der Unterverzeichnisse direkt im Upload-Verzeichnis
+        Path flat = photoLayout.flatPathOf(filename);
+        Files.createDirectories(flat.getParent());
+        Files.write(flat, png);
+        mockMvc.perform(get("/api/files/" + filename)).andExpect(status().isOk()).andExpect(content().bytes(png));
+
+        assertThat(photoLayoutMigrationJob.migrate()).isGreaterThanOrEqualTo(1);
+        assertThat(flat).doesNotExist();
+        assertThat(photoLayout.pathOf(filename)).exists()
+                .isEqualTo(photoLayout.root().resolve(filename.substring(0, 2)).resolve(filename.substring(2, 4))
+                        .resolve(filename));
+        mockMvc.perform(get("/api/files/" + filename)).andExpect(status().isOk()).andExpect(content().bytes(png));
+    }
+}
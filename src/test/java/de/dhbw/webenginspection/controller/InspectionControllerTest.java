@@ -1,14 +1,34 @@
 package de.dhbw.webenginspection.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.dhbw.webenginspection.dto.InspectionCreateRequest;
+import de.dhbw.webenginspection.dto.InspectionProgressEvent;
+import de.dhbw.webenginspection.entity.Checklist;
+import de.dhbw.webenginspection.entity.ChecklistStep;
+import de.dhbw.webenginspection.entity.Inspection;
+import de.dhbw.webenginspection.entity.User;
+import de.dhbw.webenginspection.entity.UserRole;
+import de.dhbw.webenginspection.service.ChecklistService;
+import de.dhbw.webenginspection.service.InspectionCounterRepairJob;
+import de.dhbw.webenginspection.service.InspectionEventBroadcaster;
+import de.dhbw.webenginspection.service.InspectionService;
+import de.dhbw.webenginspection.service.UserService;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -21,9 +41,288 @@ class InspectionControllerTest {
         @Autowired
         private MockMvc mockMvc;
 
+        @Autowired
+        private ObjectMapper objectMapper;
+
+        @Autowired
+        private ChecklistService checklistService;
+
+        @Autowired
+        private InspectionService inspectionService;
+
+        @Autowired
+        private UserService userService;
+
+        @Autowired
+        private EntityManager entityManager;
+
+        @Autowired
+        private InspectionCounterRepairJob counterRepairJob;
+
+        @Autowired
+        private InspectionEventBroadcaster eventBroadcaster;
+
         @Test
         @WithMockUser(roles = "ADMIN")
         void testGetAll() throws Exception {
                 mockMvc.perform(get("/api/inspections")).andExpect(status().isOk());
         }
-}
\ No newline at end of file
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        void testGetAllFiltered() throws Exception {
+                mockMvc.perform(get("/api/inspections").param("status", "PLANNED").param("limit", "10"))
+                                .andExpect(status().isOk()).andExpect(jsonPath("$.items").isArray());
+        }
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        void testGetAllInvalidCursor() throws Exception {
+                mockMvc.perform(get("/api/inspections").param("cursor", "not-a-cursor"))
+                                .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        void testGetAllReturnsSummaries() throws Exception {
+                createInspection("P-Summary", 2, true);
+
+                mockMvc.perform(get("/api/inspections").param("plantName", "P-Summary")).andExpect(status().isOk())
+                                .andExpect(jsonPath("$.items[0].title").value("I-P-Summary"))
+                                .andExpect(jsonPath("$.items[0].inspectorDisplayName").value("Summary User"))
+                                .andExpect(jsonPath("$.items[0].stepCount").value(2))
+                                .andExpect(jsonPath("$.items[0].steps").doesNotExist());
+        }
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        void testCreateWithoutMaterializedSteps() throws Exception {
+                Inspection inspection = createInspection("P-Bulk", 3, false);
+                // Schritte wurden per SQL angelegt, nicht im Persistenzkontext
+                entityManager.flush();
+                entityManager.clear();
+
+                mockMvc.perform(get("/api/inspections/" + inspection.getId() + "/detail"))
+                                .andExpect(status().isOk()).andExpect(jsonPath("$.steps.length()").value(3))
+                                .andExpect(jsonPath("$.steps[0].status").value("NOT_APPLICABLE"));
+        }
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        void testCreateBulk() throws Exception {
+                Checklist checklist = new Checklist("C-Campaign", "P-Campaign", null);
+                checklist.addStep(new ChecklistStep("S1", null, 1));
+                checklist.addStep(new ChecklistStep("S2", null, 2));
+                checklist = checklistService.createChecklist(checklist);
+                User inspector = userService.createUser("bulk.user", "Bulk User", "p", UserRole.INSPECTOR);
+
+                String body = """
+                                {"checklistId": %d, "items": [
+                                  {"plantName": "P-Bulk-1", "assignedInspectorId": %d, "plannedDate": "2025-03-01T08:00:00"},
+                                  {"plantName": "P-Bulk-2", "assignedInspectorId": %d, "plannedDate": "2025-03-02T08:00:00"}
+                                ]}
+                                """.formatted(checklist.getId(), inspector.getId(), inspector.getId());
+
+                mockMvc.perform(post("/api/inspections/bulk").contentType(MediaType.APPLICATION_JSON).content(body))
+                                .andExpect(status().isCreated()).andExpect(jsonPath("$.inspectionCount").value(2))
+                                .andExpect(jsonPath("$.stepCount").value(4))
+                                .andExpect(jsonPath("$.inspectionIds.length()").value(2));
+        }
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        void testCreateBulkUnknownInspector() throws Exception {
+                Checklist checklist = checklistService.createChecklist(new Checklist("C-Unknown", "P-Unknown", null));
+
+                String body = """
+                                {"checklistId": %d, "items": [
+                                  {"plantName": "P-Unknown", "assignedInspectorId": 999999, "plannedDate": "2025-03-01T08:00:00"}
+                                ]}
+                                """.formatted(checklist.getId());
+
+                mockMvc.perform(post("/api/inspections/bulk").contentType(MediaType.APPLICATION_JSON).content(body))
+                                .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        void testGetStats() throws Exception {
+                createInspection("P-Stats", 1, true);
+
+                mockMvc.perform(get("/api/inspections/stats").param("groupBy", "plant,inspector"))
+                                .andExpect(status().isOk()).andExpect(jsonPath("$.counts.PLANNED").isNumber())
+                                .andExpect(jsonPath("$.counts.COMPLETED").isNumber())
+                                .andExpect(jsonPath("$.byPlant[?(@.label == 'P-Stats')].total").value(1))
+                                .andExpect(jsonPath("$.byInspector[?(@.label == 'Summary User')].counts.PLANNED")
+                                                .value(1));
+        }
+
+        @Test
+        @WithMockUser(username = "summary.user", roles = "INSPECTOR")
+        void testGetStatsOnlyOwnInspections() throws Exception {
+                createInspection("P-Own", 1, true);
+
+                mockMvc.perform(get("/api/inspections/stats").param("inspectorId", "999999"))
+                                .andExpect(status().isOk()).andExpect(jsonPath("$.total").value(1))
+                                .andExpect(jsonPath("$.counts.PLANNED").value(1))
+                                .andExpect(jsonPath("$.byPlant").doesNotExist());
+        }
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        void testGetStatsInvalidGroupBy() throws Exception {
+                mockMvc.perform(get("/api/inspections/stats").param("groupBy", "weather"))
+                                .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        void testStepChangesUpdateCounters() throws Exception {
+                Inspection inspection = createInspection("P-Counter", 2, true);
+                Long first = inspection.getSteps().get(0).getId();
+                Long second = inspection.getSteps().get(1).getId();
+                entityManager.flush();
+                entityManager.clear();
+
+                mockMvc.perform(patch("/api/inspection-steps/" + first + "/status").contentType(MediaType.TEXT_PLAIN)
+                                .content("PASSED")).andExpect(status().isOk());
+                mockMvc.perform(delete("/api/inspection-steps/" + second)).andExpect(status().isNoContent());
+                entityManager.flush();
+                entityManager.clear();
+
+                mockMvc.perform(get("/api/inspections").param("plantName", "P-Counter")).andExpect(status().isOk())
+                                .andExpect(jsonPath("$.items[0].stepCount").value(1))
+                                .andExpect(jsonPath("$.items[0].passedCount").value(1))
+                                .andExpect(jsonPath("$.items[0].notApplicableCount").value(0));
+        }
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        void testApplyStepChangesInBatch() throws Exception {
+                Inspection inspection = createInspection("P-Batch", 3, true);
+                Long first = inspection.getSteps().get(0).getId();
+                Long second = inspection.getSteps().get(1).getId();
+                entityManager.flush();
+                entityManager.clear();
+
+                String body = """
+                                {"changes": [
+                                  {"stepId": %d, "status": "PASSED", "comment": "ok"},
+                                  {"stepId": %d, "status": "FAILED", "photoPath": "p.jpg"}
+                                ]}
+                                """.formatted(first, second);
+
+                mockMvc.perform(patch("/api/inspections/" + inspection.getId() + "/steps")
+                                .contentType(MediaType.APPLICATION_JSON).content(body)).andExpect(status().isOk())
+                                .andExpect(jsonPath("$.length()").value(3))
+                                .andExpect(jsonPath("$[?(@.id == %d)].comment".formatted(first)).value("ok"))
+                                .andExpect(jsonPath("$[?(@.id == %d)].photoPath".formatted(second)).value("p.jpg"));
+                entityManager.flush();
+                entityManager.clear();
+
+                mockMvc.perform(get("/api/inspections").param("plantName", "P-Batch")).andExpect(status().isOk())
+                                .andExpect(jsonPath("$.items[0].passedCount").value(1))
+                                .andExpect(jsonPath("$.items[0].failedCount").value(1))
+                                .andExpect(jsonPath("$.items[0].notApplicableCount").value(1));
+        }
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        void testApplyStepChangesForeignStep() throws Exception {
+                Inspection inspection = createInspection("P-Batch-Foreign", 1, true);
+
+                mockMvc.perform(patch("/api/inspections/" + inspection.getId() + "/steps")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"changes\": [{\"stepId\": 999999, \"status\": \"PASSED\"}]}"))
+                                .andExpect(status().isNotFound());
+        }
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        void testConditionalRequests() throws Exception {
+                Inspection inspection = createInspection("P-ETag", 1, true);
+                entityManager.flush();
+                String etag = "\"inspection-" + inspection.getId() + "-" + inspection.getVersion() + "\"";
+
+                mockMvc.perform(get("/api/inspections/" + inspection.getId())).andExpect(status().isOk())
+                                .andExpect(header().string("ETag", etag));
+                mockMvc.perform(get("/api/inspections/" + inspection.getId() + "/steps").header("If-None-Match", etag))
+                                .andExpect(status().isNotModified());
+                mockMvc.perform(patch("/api/inspections/" + inspection.getId() + "/status")
+                                .contentType(MediaType.TEXT_PLAIN).content("IN_PROGRESS")
+                                .header("If-Match", "\"inspection-" + inspection.getId() + "-999\""))
+                                .andExpect(status().isPreconditionFailed());
+        }
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        void testEventStreamFiltersByInspection() throws Exception {
+                MvcResult result = mockMvc.perform(get("/api/inspections/events").param("inspectionId", "42"))
+                                .andExpect(request().asyncStarted()).andReturn();
+
+                // Direkt verteilen, da die Test-Transaktion nie committet
+                eventBroadcaster.onProgress(new InspectionProgressEvent(InspectionProgressEvent.STEP_STATUS, 41L,
+                                "P-Events", null, 7L, "FAILED", LocalDateTime.now()));
+                eventBroadcaster.onProgress(new InspectionProgressEvent(InspectionProgressEvent.STEP_STATUS, 42L,
+                                "P-Events", null, 8L, "PASSED", LocalDateTime.now()));
+
+                String body = "";
+                for (int i = 0; i < 50 && !body.contains("\"stepId\":8"); i++) {
+                        Thread.sleep(100);
+                        body = result.getResponse().getContentAsString();
+                }
+                assertTrue(body.startsWith("event:stepStatus"), body);
+                assertTrue(body.contains("\"status\":\"PASSED\""), body);
+                assertFalse(body.contains("\"stepId\":7"), body);
+        }
+
+        @Test
+        void testEventStreamAcceptsAccessTokenAsQueryParameter() throws Exception {
+                userService.createUser("events.user", "Events User", "secret", UserRole.ADMIN);
+                String body = mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"username\": \"events.user\", \"password\": \"secret\"}"))
+                                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+                String accessToken = objectMapper.readTree(body).get("accessToken").asText();
+
+                // EventSource kann keinen Authorization-Header setzen
+                mockMvc.perform(get("/api/inspections/events").param("access_token", accessToken))
+                                .andExpect(request().asyncStarted());
+                // Nur für den Event-Stream, sonst landet das Token in Logs und Verläufen
+                mockMvc.perform(get("/api/inspections").param("access_token", accessToken))
+                                .andExpect(status().isUnauthorized());
+        }
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        void testRepairCounters() throws Exception {
+                Inspection inspection = createInspection("P-Repair", 2, true);
+                entityManager.flush();
+                entityManager.createNativeQuery("update inspection set step_count = 7, failed_count = 3 where id = ?")
+                                .setParameter(1, inspection.getId()).executeUpdate();
+
+                assertTrue(counterRepairJob.repairCounters() >= 1);
+                entityManager.clear();
+
+                mockMvc.perform(get("/api/inspections").param("plantName", "P-Repair")).andExpect(status().isOk())
+                                .andExpect(jsonPath("$.items[0].stepCount").value(2))
+                                .andExpect(jsonPath("$.items[0].failedCount").value(0))
+                                .andExpect(jsonPath("$.items[0].notApplicableCount").value(2));
+        }
+
+        private Inspection createInspection(String plantName, int stepCount, boolean materializeSteps) {
+                Checklist checklist = new Checklist("C-" + plantName, plantName, null);
+                for (int i = 1; i <= stepCount; i++) {
+                        checklist.addStep(new ChecklistStep("S" + i, null, i));
+                }
+                checklist = checklistService.createChecklist(checklist);
+                User inspector = userService.createUser("summary.user", "Summary User", "p", UserRole.INSPECTOR);
+
+                InspectionCreateRequest request = new InspectionCreateRequest();
+                request.setChecklistId(checklist.getId());
+                request.setTitle("I-" + plantName);
+                request.setPlantName(plantName);
+                request.setPlannedDate(LocalDateTime.of(2025, 1, 15, 10, 0));
+                request.setAssignedInspectorId(inspector.getId());
+                return inspectionService.createInspectionFromChecklist(request, materializeSteps);
+        }
+}
@@ -0,0 +1,95 @@
+package de.dhbw.webenginspection.controller;
+
+import de.dhbw.webenginspection.dto.InspectionCreateRequest;
+import de.dhbw.webenginspection.entity.Checklist;
+import de.dhbw.webenginspection.entity.ChecklistStep;
+import de.dhbw.webenginspection.entity.Inspection;
+import de.dhbw.webenginspection.entity.User;
+import de.dhbw.webenginspection.entity.UserRole;
+import de.dhbw.webenginspection.service.ChecklistService;
+import de.dhbw.webenginspection.service.InspectionService;
+import de.dhbw.webenginspection.service.UserService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Stellt sicher, dass die Detailansicht einer Inspection unabhängig von der
+ * Anzahl der Schritte mit einer konstanten Anzahl an SQL-Statements auskommt.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+class InspectionDetailQueryCountTest {
+
+        private static final long EXPECTED_STATEMENTS = 1;
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private ChecklistService checklistService;
+
+        @Autowired
+        private InspectionService inspectionService;
+
+        @Autowired
+        private UserService userService;
+
+        @Autowired
+        private EntityManager entityManager;
+
+        @Autowired
+        private EntityManagerFactory entityManagerFactory;
+
+        @ParameterizedTest
+        @ValueSource(ints = { 1, 100, 5000 })
+        @WithMockUser(roles = "ADMIN")
+        void testDetailUsesConstantNumberOfStatements(int stepCount) throws Exception {
+                Checklist checklist = new Checklist("C-" + stepCount, "P-Detail", null);
+                for (int i = 0; i < stepCount; i++) {
+                        checklist.addStep(new ChecklistStep("Step " + i, "Req " + i, i));
+                }
+                checklist = checklistService.createChecklist(checklist);
+                User inspector = userService.createUser("detail.user", "Detail User", "p", UserRole.INSPECTOR);
+
+                InspectionCreateRequest request = new InspectionCreateRequest();
+                request.setChecklistId(checklist.getId());
+                request.setTitle("I-" + stepCount);
+                request.setPlantName("P-Detail");
+                request.setPlannedDate(LocalDateTime.of(2025, 1, 15, 10, 0));
+                request.setAssignedInspectorId(inspector.getId());
+                Inspection inspection = inspectionService.createInspectionFromChecklist(request);
+
+                // Persistenzkontext leeren, damit nichts aus dem Cache kommt
+                entityManager.flush();
+                entityManager.clear();
+
+                Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+                statistics.clear();
+
+                mockMvc.perform(get("/api/inspections/" + inspection.getId() + "/detail")).andExpect(status().isOk())
+                                .andExpect(jsonPath("$.steps.length()").value(stepCount))
+                                .andExpect(jsonPath("$.steps[0].checklistStep.description").value("Step 0"))
+                                .andExpect(jsonPath("$.assignedInspector.displayName").value("Detail User"));
+
+                assertThat(statistics.getPrepareStatementCount()).isEqualTo(EXPECTED_STATEMENTS);
+        }
+}
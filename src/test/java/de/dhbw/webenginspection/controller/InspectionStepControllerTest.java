@@ -1,14 +1,31 @@
 package de.dhbw.webenginspection.controller;
 
+import de.dhbw.webenginspection.dto.InspectionCreateRequest;
+import de.dhbw.webenginspection.entity.Checklist;
+import de.dhbw.webenginspection.entity.ChecklistStep;
+import de.dhbw.webenginspection.entity.Inspection;
+import de.dhbw.webenginspection.entity.User;
+import de.dhbw.webenginspection.entity.UserRole;
+import de.dhbw.webenginspection.service.ChecklistService;
+import de.dhbw.webenginspection.service.InspectionService;
+import de.dhbw.webenginspection.service.UserService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+
+import static org.hamcrest.Matchers.hasSize;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -21,9 +38,93 @@ class InspectionStepControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private ChecklistService checklistService;
+
+    @Autowired
+    private InspectionService inspectionService;
+
+    @Autowired
+    private UserService userService;
+
     @Test
     @WithMockUser(roles = "INSPECTOR")
     void testGetSteps() throws Exception {
         mockMvc.perform(get("/api/inspections/999/steps")).andExpect(status().isOk());
     }
-}
\ No newline at end of file
+
+    @Test
+    @WithMockUser(roles = "INSPECTOR")
+    void testPutPhotoChecksContentAndDeduplicates() throws Exception {
+        Checklist checklist = new Checklist("C-Photo", "P-Photo", null);
+        checklist.addStep(new ChecklistStep("S1", null, 1));
+        checklist.addStep(new ChecklistStep("S2", null, 2));
+        checklist = checklistService.createChecklist(checklist);
+        User inspector = userService.createUser("photo.user", "Photo User", "p", UserRole.INSPECTOR);
+
+        InspectionCreateRequest request = new InspectionCreateRequest();
+        request.setChecklistId(checklist.getId());
+        request.setPlantName("P-Photo");
+        request.setPlannedDate(LocalDateTime.of(2025, 1, 15, 10, 0));
+        request.setAssignedInspectorId(inspector.getId());
+        Inspection inspection = inspectionService.createInspectionFromChecklist(request, true);
+        Long stepId = inspection.getSteps().get(0).getId();
+        Long otherStepId = inspection.getSteps().get(1).getId();
+
+        byte[] png = new byte[1024];
+        System.arraycopy(new byte[] { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' }, 0, png, 0, 8);
+        String sha256 = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(png));
+        mockMvc.perform(put("/api/inspection-steps/" + stepId + "/photo").contentType(MediaType.IMAGE_PNG)
+                .content(png)).andExpect(status().isOk())
+                .andExpect(jsonPath("$.photoPath").value(sha256 + ".png"));
+
+        // Bekannter Inhalt wird nur per Hash verknüpft, der Body wird nicht gelesen
+        mockMvc.perform(put("/api/inspection-steps/" + otherStepId + "/photo").contentType(MediaType.IMAGE_PNG)
+                .header("X-Content-SHA256", sha256).content(new byte[0])).andExpect(status().isOk())
+                .andExpect(jsonPath("$.photoPath").value(sha256 + ".png"));
+
+        // Der Content-Type des Clients allein reicht nicht
+        mockMvc.perform(put("/api/inspection-steps/" + stepId + "/photo").contentType(MediaType.IMAGE_JPEG)
+                .content("kein Bild".getBytes(StandardCharsets.UTF_8))).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(roles = "INSPECTOR")
+    void testUploadMultipleAttachmentsInOneRequest() throws Exception {
+        Checklist checklist = new Checklist("C-Attach", "P-Attach", null);
+        checklist.addStep(new ChecklistStep("S1", null, 1));
+        checklist = checklistService.createChecklist(checklist);
+        User inspector = userService.createUser("attach.user", "Attach User", "p", UserRole.INSPECTOR);
+
+        InspectionCreateRequest request = new InspectionCreateRequest();
+        request.setChecklistId(checklist.getId());
+        request.setPlantName("P-Attach");
+        request.setPlannedDate(LocalDateTime.of(2025, 1, 15, 10, 0));
+        request.setAssignedInspectorId(inspector.getId());
+        Inspection inspection = inspectionService.createInspectionFromChecklist(request, true);
+        Long stepId = inspection.getSteps().get(0).getId();
+
+        byte[] first = new byte[512];
+        byte[] second = new byte[768];
+        for (byte[] png : new byte[][] { first, second }) {
+            System.arraycopy(new byte[] { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' }, 0, png, 0, 8);
+        }
+        mockMvc.perform(multipart("/api/inspection-steps/" + stepId + "/attachments")
+                .file(new MockMultipartFile("files", "a.png", "image/png", first))
+                .file(new MockMultipartFile("files", "b.png", "image/png", second))).andExpect(status().isCreated())
+                .andExpect(jsonPath("$", hasSize(2))).andExpect(jsonPath("$[0].inspectionStepId").value(stepId))
+                .andExpect(jsonPath("$[1].size").value(768));
+
+        mockMvc.perform(get("/api/inspections/" + inspection.getId() + "/attachments"))
+                .andExpect(status().isOk()).andExpect(jsonPath("$", hasSize(2)));
+
+        // Ist eine Datei ungültig, wird keine angehängt
+        mockMvc.perform(multipart("/api/inspection-steps/" + stepId + "/attachments")
+                .file(new MockMultipartFile("files", "c.png", "image/png", first))
+                .file(new MockMultipartFile("files", "d.txt", "text/plain",
+                        "kein Bild".getBytes(StandardCharsets.UTF_8))))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/inspection-steps/" + stepId + "/attachments")).andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+}
@@ -0,0 +1,113 @@
+package de.dhbw.webenginspection.controller;
+
+import de.dhbw.webenginspection.dto.InspectionCreateRequest;
+import de.dhbw.webenginspection.entity.Checklist;
+import de.dhbw.webenginspection.entity.ChecklistStep;
+import de.dhbw.webenginspection.entity.Inspection;
+import de.dhbw.webenginspection.entity.User;
+import de.dhbw.webenginspection.entity.UserRole;
+import de.dhbw.webenginspection.service.ChecklistService;
+import de.dhbw.webenginspection.service.InspectionService;
+import de.dhbw.webenginspection.service.InspectionStepService;
+import de.dhbw.webenginspection.service.UserService;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+class SearchControllerTest {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private ChecklistService checklistService;
+
+        @Autowired
+        private InspectionService inspectionService;
+
+        @Autowired
+        private InspectionStepService inspectionStepService;
+
+        @Autowired
+        private UserService userService;
+
+        @Test
+        @WithMockUser(roles = "INSPECTOR")
+        void testSearchFindsStepCommentsAndChecklists() throws Exception {
+                Checklist checklist = new Checklist("Rohrleitungen", "P-Search", null);
+                checklist.addStep(new ChecklistStep("Flansche auf Korrosion prüfen", null, 1));
+                checklist = checklistService.createChecklist(checklist);
+                User inspector = userService.createUser("search.user", "Search User", "p", UserRole.INSPECTOR);
+
+                InspectionCreateRequest request = new InspectionCreateRequest();
+                request.setChecklistId(checklist.getId());
+                request.setPlantName("P-Search");
+                request.setAssignedInspectorId(inspector.getId());
+                Inspection inspection = inspectionService.createInspectionFromChecklist(request);
+                inspectionStepService.updateComment(inspection.getSteps().get(0).getId(),
+                                "Leichte Korrosion am Flansch, Korrosion an der Schraube");
+
+                mockMvc.perform(get("/api/search").param("q", "korrosion")).andExpect(status().isOk())
+                                .andExpect(jsonPath("$.items.length()").value(2))
+                                .andExpect(jsonPath("$.items[0].type").value("INSPECTION"))
+                                .andExpect(jsonPath("$.items[0].id").value(inspection.getId()))
+                                .andExpect(jsonPath("$.items[0].score").value(2))
+                                .andExpect(jsonPath("$.items[1].type").value("CHECKLIST"));
+
+                mockMvc.perform(get("/api/search").param("q", "Korrosion Schraube").param("type", "INSPECTION"))
+                                .andExpect(status().isOk()).andExpect(jsonPath("$.items.length()").value(1))
+                                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+                inspectionStepService.updateComment(inspection.getSteps().get(0).getId(), "Alles in Ordnung");
+
+                mockMvc.perform(get("/api/search").param("q", "korrosion").param("type", "INSPECTION"))
+                                .andExpect(status().isOk()).andExpect(jsonPath("$.items.length()").value(0));
+        }
+
+        @Test
+        @WithMockUser(roles = "INSPECTOR")
+        void testSearchMatchesPrefixesAndPagesWithCursor() throws Exception {
+                Checklist first = new Checklist("Dichtungen", "P-Prefix", null);
+                first.addStep(new ChecklistStep("Leckageprüfung an Dichtungen", null, 1));
+                first.addStep(new ChecklistStep("Leckagen dokumentieren", null, 2));
+                first = checklistService.createChecklist(first);
+                Checklist second = new Checklist("Ventile", "P-Prefix", null);
+                second.addStep(new ChecklistStep("Ventil auf Leckage prüfen", null, 1));
+                second = checklistService.createChecklist(second);
+
+                MvcResult page = mockMvc.perform(get("/api/search").param("q", "Leckage").param("limit", "1"))
+                                .andExpect(status().isOk()).andExpect(jsonPath("$.items.length()").value(1))
+                                .andExpect(jsonPath("$.items[0].id").value(first.getId()))
+                                .andExpect(jsonPath("$.items[0].score").value(2))
+                                .andExpect(jsonPath("$.nextCursor").exists()).andReturn();
+                String cursor = JsonPath.read(page.getResponse().getContentAsString(), "$.nextCursor");
+
+                mockMvc.perform(get("/api/search").param("q", "Leckage").param("limit", "1").param("cursor", cursor))
+                                .andExpect(status().isOk()).andExpect(jsonPath("$.items.length()").value(1))
+                                .andExpect(jsonPath("$.items[0].id").value(second.getId()))
+                                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+                mockMvc.perform(get("/api/search").param("q", "Leckage").param("cursor", "kaputt"))
+                                .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        @WithMockUser(roles = "INSPECTOR")
+        void testSearchWithoutTerms() throws Exception {
+                mockMvc.perform(get("/api/search").param("q", " - ")).andExpect(status().isBadRequest());
+        }
+}
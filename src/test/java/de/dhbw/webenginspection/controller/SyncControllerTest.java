@@ -0,0 +1,197 @@
+package de.dhbw.webenginspection.controller;
+
+import de.dhbw.webenginspection.dto.InspectionCreateRequest;
+import de.dhbw.webenginspection.dto.OperationLogRequest;
+import de.dhbw.webenginspection.entity.Checklist;
+import de.dhbw.webenginspection.entity.ChecklistStep;
+import de.dhbw.webenginspection.entity.Inspection;
+import de.dhbw.webenginspection.entity.StepStatus;
+import de.dhbw.webenginspection.entity.User;
+import de.dhbw.webenginspection.entity.UserRole;
+import de.dhbw.webenginspection.service.ChecklistService;
+import de.dhbw.webenginspection.service.InspectionService;
+import de.dhbw.webenginspection.service.InspectionStepService;
+import de.dhbw.webenginspection.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+class SyncControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ChecklistService checklistService;
+
+    @Autowired
+    private InspectionService inspectionService;
+
+    @Autowired
+    private InspectionStepService inspectionStepService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    @WithMockUser(username = "sync.user", roles = "INSPECTOR")
+    void testSyncReturnsOnlyChangesSinceToken() throws Exception {
+        Checklist checklist = new Checklist("C-Sync", "P-Sync", null);
+        checklist.addStep(new ChecklistStep("S1", null, 1));
+        checklist.addStep(new ChecklistStep("S2", null, 2));
+        checklist = checklistService.createChecklist(checklist);
+        User inspector = userService.createUser("sync.user", "Sync User", "p", UserRole.INSPECTOR);
+
+        InspectionCreateRequest request = new InspectionCreateRequest();
+        request.setChecklistId(checklist.getId());
+        request.setPlantName("P-Sync");
+        request.setPlannedDate(LocalDateTime.of(2025, 1, 15, 10, 0));
+        request.setAssignedInspectorId(inspector.getId());
+        Inspection inspection = inspectionService.createInspectionFromChecklist(request, true);
+        Long first = inspection.getSteps().get(0).getId();
+        Long second = inspection.getSteps().get(1).getId();
+        entityManager.flush();
+        entityManager.clear();
+
+        MvcResult full = mockMvc.perform(get("/api/sync")).andExpect(status().isOk())
+                .andExpect(jsonPath("$.inspections.length()").value(1))
+                .andExpect(jsonPath("$.inspections[0].id").value(inspection.getId()))
+                .andExpect(jsonPath("$.steps.length()").value(2))
+                .andExpect(jsonPath("$.checklists[0].id").value(checklist.getId())).andReturn();
+        String token = JsonPath.read(full.getResponse().getContentAsString(), "$.token");
+
+        inspectionStepService.updateStatus(first, StepStatus.PASSED);
+        inspectionStepService.deleteStep(second);
+        entityManager.flush();
+
+        mockMvc.perform(get("/api/sync").param("since", token)).andExpect(status().isOk())
+                .andExpect(jsonPath("$.inspections.length()").value(1))
+                .andExpect(jsonPath("$.inspections[0].passedCount").value(1))
+                .andExpect(jsonPath("$.steps.length()").value(1))
+                .andExpect(jsonPath("$.steps[0].status").value("PASSED"))
+                .andExpect(jsonPath("$.deleted[0].type").value("inspectionStep"))
+                .andExpect(jsonPath("$.deleted[0].id").value(second))
+                .andExpect(jsonPath("$.checklists.length()").value(1))
+                .andExpect(jsonPath("$.checklists[0].id").value(checklist.getId()));
+    }
+
+    @Test
+    @WithMockUser(username = "sync.late", roles = "INSPECTOR")
+    void testSyncIncludesUnchangedChecklistOfNewlyAssignedInspection() throws Exception {
+        Checklist checklist = new Checklist("C-Late", "P-Late", null);
+        checklist.addStep(new ChecklistStep("S1", null, 1));
+        checklist = checklistService.createChecklist(checklist);
+        User other = userService.createUser("sync.other", "Other User", "p", UserRole.INSPECTOR);
+        User inspector = userService.createUser("sync.late", "Late User", "p", UserRole.INSPECTOR);
+
+        // Die erste Inspektion friert die Checklist ein, danach ändert sie sich nicht mehr
+        InspectionCreateRequest request = new InspectionCreateRequest();
+        request.setChecklistId(checklist.getId());
+        request.setPlantName("P-Late");
+        request.setPlannedDate(LocalDateTime.of(2025, 1, 15, 10, 0));
+        request.setAssignedInspectorId(other.getId());
+        inspectionService.createInspectionFromChecklist(request, true);
+        entityManager.flush();
+        entityManager.clear();
+
+        MvcResult full = mockMvc.perform(get("/api/sync")).andExpect(status().isOk())
+                .andExpect(jsonPath("$.inspections").isEmpty()).andExpect(jsonPath("$.checklists").isEmpty())
+                .andReturn();
+        String token = JsonPath.read(full.getResponse().getContentAsString(), "$.token");
+
+        request.setAssignedInspectorId(inspector.getId());
+        Inspection assigned = inspectionService.createInspectionFromChecklist(request, true);
+        entityManager.flush();
+
+        mockMvc.perform(get("/api/sync").param("since", token)).andExpect(status().isOk())
+                .andExpect(jsonPath("$.inspections.length()").value(1))
+                .andExpect(jsonPath("$.inspections[0].id").value(assigned.getId()))
+                .andExpect(jsonPath("$.checklists.length()").value(1))
+                .andExpect(jsonPath("$.checklists[0].id").value(checklist.getId()));
+    }
+
+    @Test
+    @WithMockUser(username = "offline.user", roles = "INSPECTOR")
+    void testApplyOperationLogIsIdempotentAndDetectsConflicts() throws Exception {
+        Checklist checklist = new Checklist("C-Offline", "P-Offline", null);
+        checklist.addStep(new ChecklistStep("S1", null, 1));
+        checklist = checklistService.createChecklist(checklist);
+        User inspector = userService.createUser("offline.user", "Offline User", "p", UserRole.INSPECTOR);
+
+        InspectionCreateRequest request = new InspectionCreateRequest();
+        request.setChecklistId(checklist.getId());
+        request.setPlantName("P-Offline");
+        request.setPlannedDate(LocalDateTime.of(2025, 1, 15, 10, 0));
+        request.setAssignedInspectorId(inspector.getId());
+        Inspection inspection = inspectionService.createInspectionFromChecklist(request, true);
+        Long stepId = inspection.getSteps().get(0).getId();
+        entityManager.flush();
+        entityManager.clear();
+
+        OperationLogRequest log = new OperationLogRequest();
+        log.setOperations(List.of(
+                new OperationLogRequest.Operation("op-1", OperationLogRequest.Type.STEP_STATUS, stepId, null,
+                        "PASSED", ""),
+                new OperationLogRequest.Operation("op-2", OperationLogRequest.Type.STEP_COMMENT, stepId, null,
+                        "Riss am Gehäuse", "Alter Kommentar"),
+                new OperationLogRequest.Operation("op-3", OperationLogRequest.Type.STEP_STATUS, -1L, null, "FAILED",
+                        null),
+                new OperationLogRequest.Operation("op-1", OperationLogRequest.Type.STEP_STATUS, stepId, null,
+                        "PASSED", "")));
+        String body = objectMapper.writeValueAsString(log);
+
+        mockMvc.perform(post("/api/sync/operations").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk()).andExpect(jsonPath("$[0].outcome").value("APPLIED"))
+                .andExpect(jsonPath("$[1].outcome").value("CONFLICT"))
+                .andExpect(jsonPath("$[2].outcome").value("REJECTED"))
+                .andExpect(jsonPath("$[3].outcome").value("APPLIED"))
+                .andExpect(jsonPath("$[3].duplicate").value(true));
+        entityManager.flush();
+        entityManager.clear();
+
+        // Erneutes Senden nach Verbindungsabbruch wendet nichts doppelt an
+        mockMvc.perform(post("/api/sync/operations").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk()).andExpect(jsonPath("$[0].duplicate").value(true))
+                .andExpect(jsonPath("$[1].outcome").value("CONFLICT"))
+                .andExpect(jsonPath("$[1].duplicate").value(true));
+        entityManager.flush();
+        entityManager.clear();
+
+        Inspection updated = inspectionService.getInspectionById(inspection.getId()).orElseThrow();
+        assertEquals(1, updated.getPassedCount());
+        assertEquals(StepStatus.PASSED, updated.getSteps().get(0).getStatus());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testSyncInvalidToken() throws Exception {
+        mockMvc.perform(get("/api/sync").param("since", "yesterday")).andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,40 @@
+package de.dhbw.webenginspection.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+class TypeaheadControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    // Die Demo-Benutzer werden beim Start angelegt und in den Index geladen
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testSuggestUserByPrefixIgnoringUmlauts() throws Exception {
+        mockMvc.perform(get("/api/typeahead").param("type", "USER").param("q", "mull"))
+                .andExpect(status().isOk()).andExpect(jsonPath("$[0].label").value("Markus Müller"))
+                .andExpect(jsonPath("$[0].detail").value("admin"));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testSuggestUserWithTypo() throws Exception {
+        mockMvc.perform(get("/api/typeahead").param("type", "USER").param("q", "shmidt"))
+                .andExpect(status().isOk()).andExpect(jsonPath("$[0].label").value("Laura Schmidt"));
+    }
+}
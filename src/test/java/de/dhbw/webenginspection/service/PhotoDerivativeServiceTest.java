@@ -0,0 +1,127 @@
+package de.dhbw.webenginspection.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PhotoDerivativeServiceTest {
+
+    @TempDir
+    Path uploadDir;
+
+    private PhotoLayout photoLayout;
+
+    private PhotoDerivativeService photoDerivativeService;
+
+    @BeforeEach
+    void setUp() {
+        photoLayout = new PhotoLayout(uploadDir.toString());
+        photoDerivativeService = new PhotoDerivativeService(photoLayout, 1, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        photoDerivativeService.shutdown();
+    }
+
+    @Test
+    void testReadExifOrientationLittleEndian() throws Exception {
+        Path jpeg = write("le.jpg", jpegWithOrientation(8, 4, 6, ByteOrder.LITTLE_ENDIAN));
+        assertThat(PhotoDerivativeService.readExifOrientation(jpeg)).isEqualTo(6);
+    }
+
+    @Test
+    void testReadExifOrientationBigEndian() throws Exception {
+        Path jpeg = write("be.jpg", jpegWithOrientation(8, 4, 8, ByteOrder.BIG_ENDIAN));
+        assertThat(PhotoDerivativeService.readExifOrientation(jpeg)).isEqualTo(8);
+    }
+
+    @Test
+    void testReadExifOrientationWithoutExif() throws Exception {
+        Path jpeg = write("plain.jpg", plainJpeg(8, 4));
+        assertThat(PhotoDerivativeService.readExifOrientation(jpeg)).isEqualTo(1);
+    }
+
+    @Test
+    void testRotatedPhotoHasSwappedDimensions() throws Exception {
+        String filename = "ab".repeat(32) + ".jpg";
+        Path original = photoLayout.pathOf(filename);
+        Files.createDirectories(original.getParent());
+        Files.write(original, jpegWithOrientation(64, 32, 6, ByteOrder.BIG_ENDIAN));
+
+        // Der erste Abruf stößt die Erzeugung an
+        assertThat(photoDerivativeService.find(original, PhotoDerivativeService.Size.THUMB)).isEmpty();
+        Path thumb = awaitDerivative(original, PhotoDerivativeService.Size.THUMB);
+
+        BufferedImage image = ImageIO.read(thumb.toFile());
+        assertThat(image.getWidth()).isEqualTo(32);
+        assertThat(image.getHeight()).isEqualTo(64);
+        // Ohne Metadaten, die Drehung steckt in den Pixeln
+        assertThat(PhotoDerivativeService.readExifOrientation(thumb)).isEqualTo(1);
+    }
+
+    private Path awaitDerivative(Path original, PhotoDerivativeService.Size size) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            Optional<Path> derived = photoDerivativeService.find(original, size);
+            if (derived.isPresent()) {
+                return derived.get();
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("Derivative was not generated in time");
+    }
+
+    private Path write(String name, byte[] content) throws IOException {
+        return Files.write(uploadDir.resolve(name), content);
+    }
+
+    static byte[] plainJpeg(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "jpg", out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Ein JPEG mit APP1-Segment, dessen TIFF-Header in der angegebenen
+     * Byte-Reihenfolge genau den Tag Orientation enthält.
+     */
+    static byte[] jpegWithOrientation(int width, int height, int orientation, ByteOrder order) throws IOException {
+        byte[] jpeg = plainJpeg(width, height);
+
+        ByteBuffer tiff = ByteBuffer.allocate(26).order(order);
+        byte marker = (byte) (order == ByteOrder.LITTLE_ENDIAN ? 'I' : 'M');
+        tiff.put(marker).put(marker).putShort((short) 42).putInt(8);
+        // IFD0 mit einem Eintrag: Tag 0x0112, Typ SHORT, Anzahl 1, Wert
+        tiff.putShort((short) 1).putShort((short) 0x0112).putShort((short) 3).putInt(1);
+        tiff.putShort((short) orientation).putShort((short) 0).putInt(0);
+
+        ByteArrayOutputStream exif = new ByteArrayOutputStream();
+        exif.write("Exif\0\0".getBytes(StandardCharsets.US_ASCII));
+        exif.write(tiff.array());
+        int length = exif.size() + 2;
+
+        // Hinter SOI und dem JFIF-Segment (APP0) von ImageIO einfügen
+        int insertAt = 4 + (((jpeg[4] & 0xFF) << 8) | (jpeg[5] & 0xFF));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(jpeg, 0, insertAt);
+        out.write(new byte[] { (byte) 0xFF, (byte) 0xE1, (byte) (length >> 8), (byte) length });
+        exif.writeTo(out);
+        out.write(jpeg, insertAt, jpeg.length - insertAt);
+        return out.toByteArray();
+    }
+}